@@ -0,0 +1,55 @@
+/*
+ * @(#) BenchmarkMain.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto.benchmark;
+
+import java.util.Arrays;
+
+import org.openjdk.jmh.Main;
+
+/**
+ * Main class for the benchmarks jar.  This accepts the same command line options as the
+ * standard JMH main class, but adds the GC profiler (unless the GC profiler has already been
+ * specified), so that the allocation rate and the number of bytes allocated per operation are
+ * reported alongside the time for each benchmark.
+ *
+ * @author Peter Wall
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        for (int i = 0, n = args.length - 1; i < n; i++)
+            if (args[i].equals("-prof") && args[i + 1].startsWith("gc")) {
+                Main.main(args);
+                return;
+            }
+        String[] extendedArgs = Arrays.copyOf(args, args.length + 2);
+        System.arraycopy(args, 0, extendedArgs, 2, args.length);
+        extendedArgs[0] = "-prof";
+        extendedArgs[1] = "gc";
+        Main.main(extendedArgs);
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * @(#) CollectionObject.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto.benchmark;
+
+import java.util.List;
+import java.util.Map;
+
+import net.pwall.json.auto.DummyObject3;
+import net.pwall.json.auto.DummyObject5;
+
+/**
+ * Object consisting mainly of collections, used to measure the cost of serializing and
+ * deserializing collection-heavy structures.
+ *
+ * @author Peter Wall
+ */
+public class CollectionObject {
+
+    private List<DummyObject3> items;
+    private Map<String, DummyObject5> index;
+    private List<String> tags;
+
+    public List<DummyObject3> getItems() {
+        return items;
+    }
+
+    public void setItems(List<DummyObject3> items) {
+        this.items = items;
+    }
+
+    public Map<String, DummyObject5> getIndex() {
+        return index;
+    }
+
+    public void setIndex(Map<String, DummyObject5> index) {
+        this.index = index;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * @(#) ComparisonBenchmark.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import net.pwall.json.JSON;
+import net.pwall.json.JSONObject;
+import net.pwall.json.auto.JSONDeserializer;
+import net.pwall.json.auto.JSONSerializer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark comparing auto-serialization and deserialization with the equivalent explicit
+ * (hand-coded) operations in {@link HandCoded}, for each of the shapes created by
+ * {@link Shapes}.  Each {@code auto} benchmark has a matching {@code manual} benchmark:
+ * <dl>
+ *   <dt>{@code serialize}</dt>
+ *   <dd>object to {@link JSONObject}</dd>
+ *   <dt>{@code toJSON}</dt>
+ *   <dd>object to JSON string (the explicit form creates a {@link JSONObject} first)</dd>
+ *   <dt>{@code deserialize}</dt>
+ *   <dd>{@link JSONObject} to object</dd>
+ *   <dt>{@code parse}</dt>
+ *   <dd>JSON string to object (the explicit form parses to a {@link JSONObject} first)</dd>
+ * </dl>
+ * {@link ComparisonReport} runs this benchmark and summarises the results as the ratio of the
+ * time taken by each auto operation to that taken by the explicit equivalent.
+ *
+ * @author Peter Wall
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComparisonBenchmark {
+
+    @Param({ "small", "wide", "deep", "collection" })
+    private String shape;
+
+    private Class<?> shapeClass;
+    private Object object;
+    private JSONObject json;
+    private String string;
+
+    @Setup
+    public void setup() {
+        object = Shapes.create(shape);
+        shapeClass = object.getClass();
+        json = HandCoded.serialize(object);
+        string = json.toJSON();
+        if (!string.equals(JSONSerializer.toJSON(object)))
+            throw new IllegalStateException("Explicit serialization differs for shape " + shape);
+    }
+
+    @Benchmark
+    public Object autoSerialize() {
+        return JSONSerializer.serialize(object);
+    }
+
+    @Benchmark
+    public Object manualSerialize() {
+        return HandCoded.serialize(object);
+    }
+
+    @Benchmark
+    public Object autoToJSON() {
+        return JSONSerializer.toJSON(object);
+    }
+
+    @Benchmark
+    public Object manualToJSON() {
+        return HandCoded.serialize(object).toJSON();
+    }
+
+    @Benchmark
+    public Object autoDeserialize() {
+        return JSONDeserializer.deserialize(shapeClass, json);
+    }
+
+    @Benchmark
+    public Object manualDeserialize() {
+        return HandCoded.deserialize(shapeClass, json);
+    }
+
+    @Benchmark
+    public Object autoParse() {
+        return JSONDeserializer.parse(shapeClass, string);
+    }
+
+    @Benchmark
+    public Object manualParse() {
+        return HandCoded.deserialize(shapeClass, (JSONObject)JSON.parse(string));
+    }
+
+}
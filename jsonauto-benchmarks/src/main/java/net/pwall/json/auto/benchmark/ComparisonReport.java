@@ -0,0 +1,103 @@
+/*
+ * @(#) ComparisonReport.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto.benchmark;
+
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run {@link ComparisonBenchmark} and output a summary comparing each auto-serialization or
+ * deserialization operation with its explicit equivalent.  For each shape and operation the
+ * summary shows the average time of the two forms and the ratio of the auto time to the
+ * explicit time (so a ratio of 1.00 means that the auto form is as fast as the hand-coded
+ * form).  Any additional arguments are passed to JMH, for example:
+ * <pre>
+ * java -cp target/benchmarks.jar net.pwall.json.auto.benchmark.ComparisonReport -f 2
+ * </pre>
+ *
+ * @author Peter Wall
+ */
+public class ComparisonReport {
+
+    private static final String autoPrefix = "auto";
+    private static final String manualPrefix = "manual";
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder().parent(new CommandLineOptions(args)).
+                include(ComparisonBenchmark.class.getName()).build();
+        report(new Runner(options).run(), System.out);
+    }
+
+    /**
+     * Output the summary of a set of {@link ComparisonBenchmark} results.
+     *
+     * @param   results the results
+     * @param   out     the output stream
+     */
+    public static void report(Collection<RunResult> results, PrintStream out) {
+        Map<String, Map<String, double[]>> scores = new LinkedHashMap<>();
+        String unit = "";
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            String method = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+            int index;
+            if (method.startsWith(autoPrefix)) {
+                method = method.substring(autoPrefix.length());
+                index = 0;
+            }
+            else if (method.startsWith(manualPrefix)) {
+                method = method.substring(manualPrefix.length());
+                index = 1;
+            }
+            else
+                continue;
+            String shape = result.getParams().getParam("shape");
+            scores.computeIfAbsent(shape, k -> new LinkedHashMap<>()).
+                    computeIfAbsent(method, k -> new double[] { Double.NaN, Double.NaN })[index] =
+                    result.getPrimaryResult().getScore();
+            unit = result.getPrimaryResult().getScoreUnit();
+        }
+        out.println();
+        out.printf("%-12s %-12s %14s %14s %8s%n", "Shape", "Operation", "auto " + unit,
+                "manual " + unit, "ratio");
+        for (Map.Entry<String, Map<String, double[]>> shapeEntry : scores.entrySet()) {
+            for (Map.Entry<String, double[]> entry : shapeEntry.getValue().entrySet()) {
+                double[] pair = entry.getValue();
+                out.printf("%-12s %-12s %14.1f %14.1f %8.2f%n", shapeEntry.getKey(),
+                        entry.getKey(), pair[0], pair[1], pair[0] / pair[1]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * @(#) DateParseBenchmark.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto.benchmark;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import net.pwall.json.JSONString;
+import net.pwall.json.auto.JSONDeserializer;
+import net.pwall.util.ISO8601Date;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark comparing the deserialization of ISO 8601 strings to date and time classes with
+ * the general parsers previously used ({@code parse()} methods of the {@code java.time}
+ * classes and {@link ISO8601Date#decode(CharSequence)}).
+ *
+ * @author Peter Wall
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateParseBenchmark {
+
+    private final String instantString = "2019-03-14T09:26:53.589Z";
+    private final String offsetDateTimeString = "2019-03-14T19:26:53.589+10:00";
+    private final String localDateString = "2019-03-14";
+    private final JSONString instantJSON = new JSONString(instantString);
+    private final JSONString offsetDateTimeJSON = new JSONString(offsetDateTimeString);
+    private final JSONString localDateJSON = new JSONString(localDateString);
+
+    @Benchmark
+    public Object instantParse() {
+        return Instant.parse(instantString);
+    }
+
+    @Benchmark
+    public Object instantDeserialize() {
+        return JSONDeserializer.deserialize(Instant.class, instantJSON);
+    }
+
+    @Benchmark
+    public Object offsetDateTimeParse() {
+        return OffsetDateTime.parse(offsetDateTimeString);
+    }
+
+    @Benchmark
+    public Object offsetDateTimeDeserialize() {
+        return JSONDeserializer.deserialize(OffsetDateTime.class, offsetDateTimeJSON);
+    }
+
+    @Benchmark
+    public Object localDateParse() {
+        return LocalDate.parse(localDateString);
+    }
+
+    @Benchmark
+    public Object localDateDeserialize() {
+        return JSONDeserializer.deserialize(LocalDate.class, localDateJSON);
+    }
+
+    @Benchmark
+    public Object dateDecode() {
+        return ISO8601Date.decode(offsetDateTimeString).getTime();
+    }
+
+    @Benchmark
+    public Object dateDeserialize() {
+        return JSONDeserializer.deserialize(Date.class, offsetDateTimeJSON);
+    }
+
+    @Benchmark
+    public Object calendarDecode() {
+        return ISO8601Date.decode(offsetDateTimeString);
+    }
+
+    @Benchmark
+    public Object calendarDeserialize() {
+        return JSONDeserializer.deserialize(Calendar.class, offsetDateTimeJSON);
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * @(#) EngineBenchmark.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.pwall.json.auto.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import net.pwall.json.JSONValue;
+import net.pwall.json.auto.AccessEngine;
+import net.pwall.json.auto.JSONDeserializer;
+import net.pwall.json.auto.JSONSerializer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark comparing the {@link AccessEngine}s: {@link AccessEngine#REFLECTION REFLECTION}
+ * (method handles created for each field) and {@link AccessEngine#GENERATED GENERATED}
+ * (an accessor class generated at run time for each class).  Each engine is selected by a
+ * configured {@link JSONSerializer} and {@link JSONDeserializer} instance, so both engines are
+ * measured in the same JVM; the {@code wide} shape (a {@link WideObject}, with a number of
+ * fields of primitive type) shows the effect of the unboxed field access.
+ *
+ * @author Peter Wall
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+
+    @Param({ "REFLECTION", "GENERATED" })
+    private String engine;
+
+    @Param({ "small", "wide", "deep" })
+    private String shape;
+
+    private JSONSerializer serializer;
+    private JSONDeserializer deserializer;
+    private Class<?> shapeClass;
+    private Object object;
+    private JSONValue json;
+    private String string;
+    private StringBuilder sb;
+
+    @Setup
+    public void setup() {
+        AccessEngine accessEngine = AccessEngine.valueOf(engine);
+        serializer = JSONSerializer.builder().engine(accessEngine).build();
+        deserializer = JSONDeserializer.builder().engine(accessEngine).build();
+        object = Shapes.create(shape);
+        shapeClass = object.getClass();
+        json = serializer.toJSONValue(object);
+        string = serializer.toJSONString(object);
+        sb = new StringBuilder(string.length() * 2);
+    }
+
+    @Benchmark
+    public Object serialize() {
+        return serializer.toJSONValue(object);
+    }
+
+    @Benchmark
+    public Object serializeToAppendable() throws Exception {
+        sb.setLength(0);
+        serializer.writeJSON(object, sb);
+        return sb;
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return deserializer.fromJSONValue(shapeClass, json);
+    }
+
+    @Benchmark
+    public Object parse() {
+        return deserializer.fromJSONString(shapeClass, string);
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * @(#) FieldAccessBenchmark.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto.benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import net.pwall.json.JSONObject;
+import net.pwall.json.auto.DummyObject;
+import net.pwall.json.auto.DummyObject3;
+import net.pwall.json.auto.JSONDeserializer;
+import net.pwall.json.auto.JSONSerializer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark comparing reflective field access ({@link Field#get(Object)} and
+ * {@link Field#set(Object, Object)}) with access through {@link MethodHandle}s held in the same
+ * way as in the serialization and deserialization plans (i.e. not as constants), using the
+ * fields of {@link DummyObject3}.  The end-to-end serialization and deserialization of the same
+ * class are also measured.
+ *
+ * @author Peter Wall
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldAccessBenchmark {
+
+    private static final MethodType getterType =
+            MethodType.methodType(Object.class, Object.class);
+    private static final MethodType setterType =
+            MethodType.methodType(void.class, Object.class, Object.class);
+
+    private DummyObject3 object;
+    private Object[] values;
+    private Field[] fields;
+    private MethodHandle[] getters;
+    private MethodHandle[] setters;
+    private JSONObject json;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        object = new DummyObject3();
+        object.setString1("value1");
+        object.setInteger1(27);
+        DummyObject dummy = new DummyObject();
+        dummy.setString1("nested");
+        object.setDummy1(dummy);
+        object.setArray1(new int[] { 1, 2, 3 });
+        fields = DummyObject3.class.getDeclaredFields();
+        int n = fields.length;
+        values = new Object[n];
+        getters = new MethodHandle[n];
+        setters = new MethodHandle[n];
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (int i = 0; i < n; i++) {
+            Field field = fields[i];
+            field.setAccessible(true);
+            values[i] = field.get(object);
+            getters[i] = lookup.unreflectGetter(field).asType(getterType);
+            setters[i] = lookup.unreflectSetter(field).asType(setterType);
+        }
+        json = (JSONObject)JSONSerializer.serialize(object);
+    }
+
+    @Benchmark
+    public void reflectionGet(Blackhole blackhole) throws IllegalAccessException {
+        for (Field field : fields)
+            blackhole.consume(field.get(object));
+    }
+
+    @Benchmark
+    public void methodHandleGet(Blackhole blackhole) throws Throwable {
+        for (MethodHandle getter : getters)
+            blackhole.consume((Object)getter.invokeExact((Object)object));
+    }
+
+    @Benchmark
+    public void reflectionSet() throws IllegalAccessException {
+        for (int i = 0, n = fields.length; i < n; i++)
+            fields[i].set(object, values[i]);
+    }
+
+    @Benchmark
+    public void methodHandleSet() throws Throwable {
+        for (int i = 0, n = setters.length; i < n; i++)
+            setters[i].invokeExact((Object)object, values[i]);
+    }
+
+    @Benchmark
+    public Object serialize() {
+        return JSONSerializer.serialize(object);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return JSONDeserializer.deserialize(DummyObject3.class, json);
+    }
+
+}
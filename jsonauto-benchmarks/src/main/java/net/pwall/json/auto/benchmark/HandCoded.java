@@ -0,0 +1,226 @@
+/*
+ * @(#) HandCoded.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.pwall.json.JSONArray;
+import net.pwall.json.JSONBoolean;
+import net.pwall.json.JSONException;
+import net.pwall.json.JSONObject;
+import net.pwall.json.JSONString;
+import net.pwall.json.JSONValue;
+import net.pwall.json.auto.DummyObject;
+import net.pwall.json.auto.DummyObject3;
+import net.pwall.json.auto.DummyObject5;
+
+/**
+ * Explicit (hand-coded) serialization and deserialization of the benchmark shapes, using the
+ * {@code jsonutil} classes directly.  This is the baseline against which the auto-serialization
+ * functions are compared; the JSON produced is the same as that produced by
+ * {@link net.pwall.json.auto.JSONSerializer}.
+ *
+ * @author Peter Wall
+ */
+class HandCoded {
+
+    /**
+     * Serialize an object of one of the benchmark shapes.
+     *
+     * @param   object  the object
+     * @return          the JSON
+     * @throws  IllegalArgumentException if the object is not one of the benchmark shapes
+     */
+    static JSONObject serialize(Object object) {
+        if (object instanceof DummyObject3)
+            return serializeSmall((DummyObject3)object);
+        if (object instanceof WideObject)
+            return serializeWide((WideObject)object);
+        if (object instanceof DeepObject)
+            return serializeDeep((DeepObject)object);
+        if (object instanceof CollectionObject)
+            return serializeCollection((CollectionObject)object);
+        throw new IllegalArgumentException("Unknown shape: " + object.getClass());
+    }
+
+    /**
+     * Deserialize an object of one of the benchmark shapes.
+     *
+     * @param   shapeClass  the class of the object
+     * @param   json        the JSON
+     * @return              the object
+     * @throws  IllegalArgumentException if the class is not one of the benchmark shapes
+     */
+    static Object deserialize(Class<?> shapeClass, JSONObject json) {
+        if (shapeClass == DummyObject3.class)
+            return deserializeSmall(json);
+        if (shapeClass == WideObject.class)
+            return deserializeWide(json);
+        if (shapeClass == DeepObject.class)
+            return deserializeDeep(json);
+        if (shapeClass == CollectionObject.class)
+            return deserializeCollection(json);
+        throw new IllegalArgumentException("Unknown shape: " + shapeClass);
+    }
+
+    static JSONObject serializeSmall(DummyObject3 object) {
+        JSONObject dummy = JSONObject.create().putValue("string1", object.getDummy1().getString1());
+        JSONArray array = JSONArray.create();
+        for (int item : object.getArray1())
+            array.addValue(item);
+        return JSONObject.create().putValue("string1", object.getString1()).
+                putValue("integer1", object.getInteger1().intValue()).putJSON("dummy1", dummy).
+                putJSON("array1", array);
+    }
+
+    static DummyObject3 deserializeSmall(JSONObject json) {
+        DummyObject3 result = new DummyObject3();
+        result.setString1(json.getString("string1"));
+        result.setInteger1(((Number)json.get("integer1")).intValue());
+        DummyObject dummy = new DummyObject();
+        dummy.setString1(((JSONObject)json.get("dummy1")).getString("string1"));
+        result.setDummy1(dummy);
+        JSONArray array = (JSONArray)json.get("array1");
+        int n = array.size();
+        int[] ints = new int[n];
+        for (int i = 0; i < n; i++)
+            ints[i] = array.getInt(i);
+        result.setArray1(ints);
+        return result;
+    }
+
+    static JSONObject serializeWide(WideObject object) {
+        return JSONObject.create().putValue("string1", object.getString1()).
+                putValue("string2", object.getString2()).
+                putValue("string3", object.getString3()).
+                putValue("string4", object.getString4()).
+                putValue("int1", object.getInt1()).
+                putValue("int2", object.getInt2()).
+                putValue("int3", object.getInt3()).
+                putValue("int4", object.getInt4()).
+                putValue("long1", object.getLong1()).
+                putValue("long2", object.getLong2()).
+                putValue("double1", object.getDouble1()).
+                putValue("double2", object.getDouble2()).
+                putValue("boolean1", object.isBoolean1()).
+                putValue("boolean2", object.isBoolean2()).
+                putValue("integer1", object.getInteger1().intValue()).
+                putValue("longObject1", object.getLongObject1().longValue());
+    }
+
+    static WideObject deserializeWide(JSONObject json) {
+        WideObject result = new WideObject();
+        result.setString1(json.getString("string1"));
+        result.setString2(json.getString("string2"));
+        result.setString3(json.getString("string3"));
+        result.setString4(json.getString("string4"));
+        result.setInt1(((Number)json.get("int1")).intValue());
+        result.setInt2(((Number)json.get("int2")).intValue());
+        result.setInt3(((Number)json.get("int3")).intValue());
+        result.setInt4(((Number)json.get("int4")).intValue());
+        result.setLong1(((Number)json.get("long1")).longValue());
+        result.setLong2(((Number)json.get("long2")).longValue());
+        result.setDouble1(((Number)json.get("double1")).doubleValue());
+        result.setDouble2(((Number)json.get("double2")).doubleValue());
+        result.setBoolean1(((JSONBoolean)json.get("boolean1")).booleanValue());
+        result.setBoolean2(((JSONBoolean)json.get("boolean2")).booleanValue());
+        result.setInteger1(((Number)json.get("integer1")).intValue());
+        result.setLongObject1(((Number)json.get("longObject1")).longValue());
+        return result;
+    }
+
+    static JSONObject serializeDeep(DeepObject object) {
+        JSONObject result = JSONObject.create().putValue("name", object.getName()).
+                putValue("level", object.getLevel());
+        DeepObject child = object.getChild();
+        if (child != null)
+            result.putJSON("child", serializeDeep(child));
+        return result;
+    }
+
+    static DeepObject deserializeDeep(JSONObject json) {
+        DeepObject result = new DeepObject();
+        result.setName(json.getString("name"));
+        result.setLevel(((Number)json.get("level")).intValue());
+        JSONValue child = json.get("child");
+        if (child != null)
+            result.setChild(deserializeDeep((JSONObject)child));
+        return result;
+    }
+
+    static JSONObject serializeDummyObject5(DummyObject5 object) {
+        int int1 = object.getInt1();
+        return JSONObject.create().putValue("dec", Integer.toString(int1)).
+                putValue("hex", Integer.toHexString(int1).toUpperCase());
+    }
+
+    static DummyObject5 deserializeDummyObject5(JSONObject json) {
+        int decValue = Integer.parseInt(json.getString("dec"));
+        if (decValue != Integer.parseInt(json.getString("hex"), 16))
+            throw new JSONException("Inconsistent values");
+        DummyObject5 result = new DummyObject5();
+        result.setInt1(decValue);
+        return result;
+    }
+
+    static JSONObject serializeCollection(CollectionObject object) {
+        JSONArray items = JSONArray.create();
+        for (DummyObject3 item : object.getItems())
+            items.addJSON(serializeSmall(item));
+        JSONObject index = JSONObject.create();
+        for (Map.Entry<String, DummyObject5> entry : object.getIndex().entrySet())
+            index.putJSON(entry.getKey(), serializeDummyObject5(entry.getValue()));
+        JSONArray tags = JSONArray.create();
+        for (String tag : object.getTags())
+            tags.addValue(tag);
+        return JSONObject.create().putJSON("items", items).putJSON("index", index).
+                putJSON("tags", tags);
+    }
+
+    static CollectionObject deserializeCollection(JSONObject json) {
+        JSONArray itemsArray = (JSONArray)json.get("items");
+        List<DummyObject3> items = new ArrayList<>(itemsArray.size());
+        for (JSONValue item : itemsArray)
+            items.add(deserializeSmall((JSONObject)item));
+        JSONObject indexObject = (JSONObject)json.get("index");
+        Map<String, DummyObject5> index = new LinkedHashMap<>();
+        for (Map.Entry<String, JSONValue> entry : indexObject.entrySet())
+            index.put(entry.getKey(), deserializeDummyObject5((JSONObject)entry.getValue()));
+        JSONArray tagsArray = (JSONArray)json.get("tags");
+        List<String> tags = new ArrayList<>(tagsArray.size());
+        for (JSONValue tag : tagsArray)
+            tags.add(((JSONString)tag).get());
+        CollectionObject result = new CollectionObject();
+        result.setItems(items);
+        result.setIndex(index);
+        result.setTags(tags);
+        return result;
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * @(#) SerializationBenchmark.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import net.pwall.json.JSONValue;
+import net.pwall.json.auto.DummyObject3;
+import net.pwall.json.auto.DummyObject5;
+import net.pwall.json.auto.JSONDeserializer;
+import net.pwall.json.auto.JSONSerializer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the main serialization and deserialization paths for objects of a number of
+ * different shapes:
+ * <dl>
+ *   <dt>{@code small}</dt>
+ *   <dd>a {@link DummyObject3} (a few properties, one nested object and a short array)</dd>
+ *   <dt>{@code wide}</dt>
+ *   <dd>a {@link WideObject} (16 properties of mixed types)</dd>
+ *   <dt>{@code deep}</dt>
+ *   <dd>a chain of {@link DeepObject}s nested 20 levels deep</dd>
+ *   <dt>{@code collection}</dt>
+ *   <dd>a {@link CollectionObject} with a list of 100 {@link DummyObject3}s, a map of 100
+ *   {@link DummyObject5}s (which use custom {@code toJSON()} and {@code fromJSON()} methods)
+ *   and a list of strings</dd>
+ * </dl>
+ * The benchmarks are best run with the GC profiler, so that the allocation per operation is
+ * reported along with the time; {@link BenchmarkMain} (the main class of the benchmarks jar)
+ * adds the profiler automatically.
+ *
+ * @author Peter Wall
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({ "small", "wide", "deep", "collection" })
+    private String shape;
+
+    private Class<?> shapeClass;
+    private Object object;
+    private JSONValue json;
+    private String string;
+
+    @Setup
+    public void setup() {
+        object = Shapes.create(shape);
+        shapeClass = object.getClass();
+        json = JSONSerializer.serialize(object);
+        string = JSONSerializer.toJSON(object);
+    }
+
+    @Benchmark
+    public Object serialize() {
+        return JSONSerializer.serialize(object);
+    }
+
+    @Benchmark
+    public Object serializeToString() {
+        return JSONSerializer.toJSON(object);
+    }
+
+    @Benchmark
+    public Object serializeToUTF8() {
+        return JSONSerializer.toUTF8(object);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return JSONDeserializer.deserialize(shapeClass, json);
+    }
+
+    @Benchmark
+    public Object parse() {
+        return JSONDeserializer.parse(shapeClass, string);
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * @(#) Shapes.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.pwall.json.auto.DummyObject;
+import net.pwall.json.auto.DummyObject3;
+import net.pwall.json.auto.DummyObject5;
+
+/**
+ * Factory for the objects of different shapes used in the benchmarks.
+ *
+ * @author Peter Wall
+ */
+class Shapes {
+
+    static final int deepLevels = 20;
+    static final int collectionSize = 100;
+
+    /**
+     * Create an object of the named shape.
+     *
+     * @param   shape   the shape ({@code small}, {@code wide}, {@code deep} or
+     *                  {@code collection})
+     * @return          the object
+     * @throws  IllegalArgumentException if the shape name is not recognised
+     */
+    static Object create(String shape) {
+        switch (shape) {
+        case "small":
+            return createSmall(0);
+        case "wide":
+            return createWide();
+        case "deep":
+            return createDeep(deepLevels);
+        case "collection":
+            return createCollection(collectionSize);
+        }
+        throw new IllegalArgumentException("Unknown shape: " + shape);
+    }
+
+    static DummyObject3 createSmall(int i) {
+        DummyObject3 result = new DummyObject3();
+        result.setString1("value" + i);
+        result.setInteger1(i);
+        DummyObject dummy = new DummyObject();
+        dummy.setString1("nested" + i);
+        result.setDummy1(dummy);
+        result.setArray1(new int[] { i, i + 1, i + 2 });
+        return result;
+    }
+
+    static WideObject createWide() {
+        WideObject result = new WideObject();
+        result.setString1("alpha");
+        result.setString2("bravo");
+        result.setString3("charlie");
+        result.setString4("delta");
+        result.setInt1(1);
+        result.setInt2(-22);
+        result.setInt3(333);
+        result.setInt4(-4444);
+        result.setLong1(123456789012L);
+        result.setLong2(-1L);
+        result.setDouble1(3.14159);
+        result.setDouble2(-0.5);
+        result.setBoolean1(true);
+        result.setBoolean2(false);
+        result.setInteger1(99);
+        result.setLongObject1(1234567L);
+        return result;
+    }
+
+    static DeepObject createDeep(int depth) {
+        DeepObject result = null;
+        for (int i = depth; i > 0; i--) {
+            DeepObject parent = new DeepObject();
+            parent.setName("level" + i);
+            parent.setLevel(i);
+            parent.setChild(result);
+            result = parent;
+        }
+        return result;
+    }
+
+    static CollectionObject createCollection(int size) {
+        List<DummyObject3> items = new ArrayList<>(size);
+        Map<String, DummyObject5> index = new HashMap<>();
+        List<String> tags = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(createSmall(i));
+            DummyObject5 entry = new DummyObject5();
+            entry.setInt1(i * 1000);
+            index.put("key" + i, entry);
+            tags.add("tag" + i);
+        }
+        CollectionObject result = new CollectionObject();
+        result.setItems(items);
+        result.setIndex(index);
+        result.setTags(tags);
+        return result;
+    }
+
+}
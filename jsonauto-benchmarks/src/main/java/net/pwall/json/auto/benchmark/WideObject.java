@@ -0,0 +1,181 @@
+/*
+ * @(#) WideObject.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto.benchmark;
+
+/**
+ * Object with a large number of fields of mixed types, used to measure the per-property cost of
+ * serialization and deserialization.
+ *
+ * @author Peter Wall
+ */
+public class WideObject {
+
+    private String string1;
+    private String string2;
+    private String string3;
+    private String string4;
+    private int int1;
+    private int int2;
+    private int int3;
+    private int int4;
+    private long long1;
+    private long long2;
+    private double double1;
+    private double double2;
+    private boolean boolean1;
+    private boolean boolean2;
+    private Integer integer1;
+    private Long longObject1;
+
+    public String getString1() {
+        return string1;
+    }
+
+    public void setString1(String string1) {
+        this.string1 = string1;
+    }
+
+    public String getString2() {
+        return string2;
+    }
+
+    public void setString2(String string2) {
+        this.string2 = string2;
+    }
+
+    public String getString3() {
+        return string3;
+    }
+
+    public void setString3(String string3) {
+        this.string3 = string3;
+    }
+
+    public String getString4() {
+        return string4;
+    }
+
+    public void setString4(String string4) {
+        this.string4 = string4;
+    }
+
+    public int getInt1() {
+        return int1;
+    }
+
+    public void setInt1(int int1) {
+        this.int1 = int1;
+    }
+
+    public int getInt2() {
+        return int2;
+    }
+
+    public void setInt2(int int2) {
+        this.int2 = int2;
+    }
+
+    public int getInt3() {
+        return int3;
+    }
+
+    public void setInt3(int int3) {
+        this.int3 = int3;
+    }
+
+    public int getInt4() {
+        return int4;
+    }
+
+    public void setInt4(int int4) {
+        this.int4 = int4;
+    }
+
+    public long getLong1() {
+        return long1;
+    }
+
+    public void setLong1(long long1) {
+        this.long1 = long1;
+    }
+
+    public long getLong2() {
+        return long2;
+    }
+
+    public void setLong2(long long2) {
+        this.long2 = long2;
+    }
+
+    public double getDouble1() {
+        return double1;
+    }
+
+    public void setDouble1(double double1) {
+        this.double1 = double1;
+    }
+
+    public double getDouble2() {
+        return double2;
+    }
+
+    public void setDouble2(double double2) {
+        this.double2 = double2;
+    }
+
+    public boolean isBoolean1() {
+        return boolean1;
+    }
+
+    public void setBoolean1(boolean boolean1) {
+        this.boolean1 = boolean1;
+    }
+
+    public boolean isBoolean2() {
+        return boolean2;
+    }
+
+    public void setBoolean2(boolean boolean2) {
+        this.boolean2 = boolean2;
+    }
+
+    public Integer getInteger1() {
+        return integer1;
+    }
+
+    public void setInteger1(Integer integer1) {
+        this.integer1 = integer1;
+    }
+
+    public Long getLongObject1() {
+        return longObject1;
+    }
+
+    public void setLongObject1(Long longObject1) {
+        this.longObject1 = longObject1;
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * @(#) WorkloadBenchmark.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import net.pwall.json.auto.JSONDeserializer;
+import net.pwall.json.auto.JSONSerializer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of serialization and deserialization of large synthetic workloads created by
+ * {@link WorkloadGenerator}, using the default generator settings.  The {@code size} parameter
+ * is the target size of the JSON, as accepted by {@link WorkloadGenerator#parseSize(String)};
+ * the default runs use 1 KB and 1 MB, and larger sizes may be specified on the command line
+ * (for example {@code -p size=1GB}), in which case the JVM will need a correspondingly large
+ * heap.
+ *
+ * @author Peter Wall
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkloadBenchmark {
+
+    @Param({ "1KB", "1MB" })
+    private String size;
+
+    private Workload workload;
+    private String json;
+    private byte[] utf8;
+
+    @Setup
+    public void setup() {
+        long targetSize = WorkloadGenerator.parseSize(size);
+        WorkloadGenerator generator = WorkloadGenerator.builder().build();
+        workload = generator.generate(targetSize);
+        json = generator.generateJSON(targetSize);
+        utf8 = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object serializeToString() {
+        return JSONSerializer.toJSON(workload);
+    }
+
+    @Benchmark
+    public Object serializeToUTF8() {
+        return JSONSerializer.toUTF8(workload);
+    }
+
+    @Benchmark
+    public Object parseString() {
+        return JSONDeserializer.parse(Workload.class, json);
+    }
+
+    @Benchmark
+    public Object parseReader() {
+        return JSONDeserializer.parse(Workload.class, new StringReader(json));
+    }
+
+    @Benchmark
+    public Object parseInputStream() throws IOException {
+        return JSONDeserializer.parse(Workload.class, new ByteArrayInputStream(utf8));
+    }
+
+}
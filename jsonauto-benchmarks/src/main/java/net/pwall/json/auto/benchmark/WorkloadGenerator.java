@@ -0,0 +1,468 @@
+/*
+ * @(#) WorkloadGenerator.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import net.pwall.json.auto.JSONSerializer;
+
+/**
+ * Generator for synthetic workloads of a configurable size and shape, for use in benchmarks.
+ * The workload is a {@link Workload} consisting of a list of records, each of which is the root
+ * of a tree of {@link WorkloadNode}s; records are added until the JSON form of the workload
+ * reaches the target size.  The generation is driven by a {@link Random} created from a fixed
+ * seed for each call, so the same generator settings always produce the same workload, and the
+ * JSON written by {@link #writeJSON(Appendable, long)} is identical to the serialized form of
+ * the object graph created by {@link #generate(long)}.
+ *
+ * <p>The shape of the workload is controlled by:</p>
+ * <ul>
+ *   <li>{@code depth}: the number of levels in each record</li>
+ *   <li>{@code fanOut}: the number of children of each node other than those at the lowest
+ *   level</li>
+ *   <li>{@code valuesPerNode}: the number of values (numbers or strings) in each node</li>
+ *   <li>{@code numericRatio}: the proportion of those values that are numbers</li>
+ *   <li>{@code stringLength}: the range of string lengths; the distribution is skewed towards
+ *   the shorter lengths</li>
+ *   <li>the presence of {@link Optional}, {@code java.time}, {@link Map} and {@link BitSet}
+ *   fields</li>
+ * </ul>
+ * A small proportion of the characters in the generated strings require escaping in JSON or
+ * are outside the ASCII range, so the sizes are measured in characters (which approximate the
+ * size in UTF-8 bytes).
+ *
+ * @author Peter Wall
+ */
+public class WorkloadGenerator {
+
+    private static final String prefix = "{\"records\":[";
+    private static final String suffix = "]}";
+    private static final String plainChars =
+            "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789     ";
+    private static final String specialChars = "\"\\/\n\t\u00e9\u00fc\u20ac\u4e2d";
+    private static final int specialCharRate = 32;
+    private static final long baseEpochDay = LocalDate.of(2010, 1, 1).toEpochDay();
+    private static final long baseEpochMilli = Instant.parse("2010-01-01T00:00:00Z").toEpochMilli();
+    private static final long tenYearsMillis = 3653L * 24 * 60 * 60 * 1000;
+
+    private final long seed;
+    private final int depth;
+    private final int fanOut;
+    private final int valuesPerNode;
+    private final double numericRatio;
+    private final int minStringLength;
+    private final int maxStringLength;
+    private final boolean optionalFields;
+    private final boolean timeFields;
+    private final boolean mapFields;
+    private final boolean bitSetFields;
+
+    private WorkloadGenerator(Builder builder) {
+        seed = builder.seed;
+        depth = builder.depth;
+        fanOut = builder.fanOut;
+        valuesPerNode = builder.valuesPerNode;
+        numericRatio = builder.numericRatio;
+        minStringLength = builder.minStringLength;
+        maxStringLength = builder.maxStringLength;
+        optionalFields = builder.optionalFields;
+        timeFields = builder.timeFields;
+        mapFields = builder.mapFields;
+        bitSetFields = builder.bitSetFields;
+    }
+
+    /**
+     * Write a workload to a file, using the default settings.  The arguments are the target
+     * size (as accepted by {@link #parseSize(String)}), the file name and optionally the seed.
+     *
+     * @param   args    the command line arguments
+     * @throws  IOException if thrown while writing the file
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: WorkloadGenerator size file [seed]");
+            System.exit(1);
+        }
+        Builder builder = builder();
+        if (args.length > 2)
+            builder.seed(Long.parseLong(args[2]));
+        try (Writer writer = Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            long size = builder.build().writeJSON(writer, parseSize(args[0]));
+            System.out.println("Characters written: " + size);
+        }
+    }
+
+    /**
+     * Create a {@link Builder} for a {@code WorkloadGenerator}.
+     *
+     * @return  the {@link Builder}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Generate a workload whose JSON form is at least the target size (or a single record, if
+     * that is larger).
+     *
+     * @param   targetSize  the target size in characters
+     * @return              the workload
+     */
+    public Workload generate(long targetSize) {
+        Random random = new Random(seed);
+        long[] nextId = new long[1];
+        List<WorkloadNode> records = new ArrayList<>();
+        long size = prefix.length() + suffix.length();
+        do {
+            WorkloadNode record = createNode(random, nextId, 1);
+            if (!records.isEmpty())
+                size++;
+            size += JSONSerializer.toJSON(record).length();
+            records.add(record);
+        } while (size < targetSize);
+        Workload result = new Workload();
+        result.setRecords(records);
+        return result;
+    }
+
+    /**
+     * Generate the JSON form of a workload of the target size as a string.  The string is the
+     * same as the result of serializing the workload created by {@link #generate(long)} with the
+     * same target size.
+     *
+     * @param   targetSize  the target size in characters
+     * @return              the JSON string
+     * @throws  IllegalArgumentException if the target size is too large for a string
+     */
+    public String generateJSON(long targetSize) {
+        if (targetSize > Integer.MAX_VALUE - 0x10000)
+            throw new IllegalArgumentException("Target size too large for string: " + targetSize);
+        StringBuilder sb = new StringBuilder((int)targetSize + 0x1000);
+        try {
+            writeJSON(sb, targetSize);
+        }
+        catch (IOException e) {
+            // can't happen - StringBuilder doesn't throw IOException
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Write the JSON form of a workload of the target size, without creating the complete
+     * object graph in memory (so that workloads larger than the available memory may be
+     * written to a file).
+     *
+     * @param   a           the {@link Appendable}
+     * @param   targetSize  the target size in characters
+     * @return              the number of characters written
+     * @throws  IOException if thrown by the {@link Appendable}
+     */
+    public long writeJSON(Appendable a, long targetSize) throws IOException {
+        Random random = new Random(seed);
+        long[] nextId = new long[1];
+        a.append(prefix);
+        long size = prefix.length() + suffix.length();
+        boolean first = true;
+        do {
+            if (first)
+                first = false;
+            else {
+                a.append(',');
+                size++;
+            }
+            String json = JSONSerializer.toJSON(createNode(random, nextId, 1));
+            a.append(json);
+            size += json.length();
+        } while (size < targetSize);
+        a.append(suffix);
+        return size;
+    }
+
+    private WorkloadNode createNode(Random random, long[] nextId, int level) {
+        WorkloadNode node = new WorkloadNode();
+        long id = nextId[0]++;
+        node.setId(id);
+        node.setName("node" + id);
+        long[] numbers = new long[valuesPerNode];
+        int numberCount = 0;
+        List<String> strings = new ArrayList<>();
+        for (int i = 0; i < valuesPerNode; i++) {
+            if (random.nextDouble() < numericRatio)
+                numbers[numberCount++] = random.nextLong() >> random.nextInt(64);
+            else
+                strings.add(createString(random));
+        }
+        node.setNumbers(numberCount == valuesPerNode ? numbers : copy(numbers, numberCount));
+        node.setStrings(strings);
+        if (optionalFields)
+            node.setDescription(random.nextInt(5) == 0 ? Optional.empty() :
+                    Optional.of(createString(random)));
+        if (timeFields) {
+            node.setDate(LocalDate.ofEpochDay(baseEpochDay + random.nextInt(3653)));
+            node.setTimestamp(Instant.ofEpochMilli(baseEpochMilli +
+                    (long)(random.nextDouble() * tenYearsMillis)));
+        }
+        if (mapFields) {
+            Map<String, Integer> attributes = new LinkedHashMap<>();
+            for (int i = 0, n = random.nextInt(4) + 1; i < n; i++)
+                attributes.put("attr" + i, random.nextInt(100000));
+            node.setAttributes(attributes);
+        }
+        if (bitSetFields)
+            node.setFlags(BitSet.valueOf(new long[] { random.nextLong() }));
+        if (level < depth) {
+            List<WorkloadNode> children = new ArrayList<>(fanOut);
+            for (int i = 0; i < fanOut; i++)
+                children.add(createNode(random, nextId, level + 1));
+            node.setChildren(children);
+        }
+        return node;
+    }
+
+    private String createString(Random random) {
+        double r = random.nextDouble();
+        int length = minStringLength + (int)((maxStringLength - minStringLength + 1) * r * r);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = random.nextInt(specialCharRate) == 0 ?
+                    specialChars.charAt(random.nextInt(specialChars.length())) :
+                    plainChars.charAt(random.nextInt(plainChars.length()));
+        }
+        return new String(chars);
+    }
+
+    private static long[] copy(long[] array, int length) {
+        long[] result = new long[length];
+        System.arraycopy(array, 0, result, 0, length);
+        return result;
+    }
+
+    /**
+     * Convert a size string, consisting of a number optionally followed by {@code KB},
+     * {@code MB} or {@code GB} (binary multiples), to a number of characters.
+     *
+     * @param   size    the size string
+     * @return          the size
+     * @throws  NumberFormatException if the string is not a valid size
+     */
+    public static long parseSize(String size) {
+        String s = size.trim().toUpperCase();
+        long multiplier = 1;
+        if (s.endsWith("KB"))
+            multiplier = 1L << 10;
+        else if (s.endsWith("MB"))
+            multiplier = 1L << 20;
+        else if (s.endsWith("GB"))
+            multiplier = 1L << 30;
+        if (multiplier != 1)
+            s = s.substring(0, s.length() - 2).trim();
+        return Long.parseLong(s) * multiplier;
+    }
+
+    /**
+     * Builder class for {@link WorkloadGenerator}.
+     */
+    public static class Builder {
+
+        private long seed;
+        private int depth;
+        private int fanOut;
+        private int valuesPerNode;
+        private double numericRatio;
+        private int minStringLength;
+        private int maxStringLength;
+        private boolean optionalFields;
+        private boolean timeFields;
+        private boolean mapFields;
+        private boolean bitSetFields;
+
+        private Builder() {
+            seed = 20190314L;
+            depth = 2;
+            fanOut = 2;
+            valuesPerNode = 8;
+            numericRatio = 0.5;
+            minStringLength = 4;
+            maxStringLength = 40;
+            optionalFields = true;
+            timeFields = true;
+            mapFields = true;
+            bitSetFields = true;
+        }
+
+        /**
+         * Specify the seed for the random number generator.
+         *
+         * @param   seed    the seed
+         * @return  this {@code Builder}
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Specify the number of levels of nodes in each record (default 2).
+         *
+         * @param   depth   the depth
+         * @return  this {@code Builder}
+         * @throws  IllegalArgumentException if the depth is less than 1
+         */
+        public Builder depth(int depth) {
+            if (depth < 1)
+                throw new IllegalArgumentException("Invalid depth: " + depth);
+            this.depth = depth;
+            return this;
+        }
+
+        /**
+         * Specify the number of children of each node above the lowest level (default 2).
+         *
+         * @param   fanOut  the fan-out
+         * @return  this {@code Builder}
+         * @throws  IllegalArgumentException if the fan-out is negative
+         */
+        public Builder fanOut(int fanOut) {
+            if (fanOut < 0)
+                throw new IllegalArgumentException("Invalid fan-out: " + fanOut);
+            this.fanOut = fanOut;
+            return this;
+        }
+
+        /**
+         * Specify the number of values (numbers or strings) in each node (default 8).
+         *
+         * @param   valuesPerNode   the number of values
+         * @return  this {@code Builder}
+         * @throws  IllegalArgumentException if the number is negative
+         */
+        public Builder valuesPerNode(int valuesPerNode) {
+            if (valuesPerNode < 0)
+                throw new IllegalArgumentException("Invalid values per node: " + valuesPerNode);
+            this.valuesPerNode = valuesPerNode;
+            return this;
+        }
+
+        /**
+         * Specify the proportion of the values in each node that are numbers rather than
+         * strings (default 0.5).
+         *
+         * @param   numericRatio    the proportion, from 0.0 to 1.0
+         * @return  this {@code Builder}
+         * @throws  IllegalArgumentException if the proportion is not in the range 0.0 to 1.0
+         */
+        public Builder numericRatio(double numericRatio) {
+            if (!(numericRatio >= 0.0 && numericRatio <= 1.0))
+                throw new IllegalArgumentException("Invalid numeric ratio: " + numericRatio);
+            this.numericRatio = numericRatio;
+            return this;
+        }
+
+        /**
+         * Specify the range of lengths of the generated strings (default 4 to 40).
+         *
+         * @param   min     the minimum length
+         * @param   max     the maximum length
+         * @return  this {@code Builder}
+         * @throws  IllegalArgumentException if the range is not valid
+         */
+        public Builder stringLength(int min, int max) {
+            if (min < 0 || max < min)
+                throw new IllegalArgumentException("Invalid string length: " + min + ".." + max);
+            minStringLength = min;
+            maxStringLength = max;
+            return this;
+        }
+
+        /**
+         * Specify whether the nodes include an {@link Optional} field (default {@code true}).
+         *
+         * @param   optionalFields  {@code true} to include the field
+         * @return  this {@code Builder}
+         */
+        public Builder optionalFields(boolean optionalFields) {
+            this.optionalFields = optionalFields;
+            return this;
+        }
+
+        /**
+         * Specify whether the nodes include {@code java.time} fields (default {@code true}).
+         *
+         * @param   timeFields  {@code true} to include the fields
+         * @return  this {@code Builder}
+         */
+        public Builder timeFields(boolean timeFields) {
+            this.timeFields = timeFields;
+            return this;
+        }
+
+        /**
+         * Specify whether the nodes include a {@link Map} field (default {@code true}).
+         *
+         * @param   mapFields   {@code true} to include the field
+         * @return  this {@code Builder}
+         */
+        public Builder mapFields(boolean mapFields) {
+            this.mapFields = mapFields;
+            return this;
+        }
+
+        /**
+         * Specify whether the nodes include a {@link BitSet} field (default {@code true}).
+         *
+         * @param   bitSetFields    {@code true} to include the field
+         * @return  this {@code Builder}
+         */
+        public Builder bitSetFields(boolean bitSetFields) {
+            this.bitSetFields = bitSetFields;
+            return this;
+        }
+
+        /**
+         * Build the {@link WorkloadGenerator}.
+         *
+         * @return  the {@link WorkloadGenerator}
+         */
+        public WorkloadGenerator build() {
+            return new WorkloadGenerator(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,619 @@
+/*
+ * @(#) CompanionWriter.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * Writer for the serialization companion of a single class.  The generated code follows the
+ * same rules as the reflection-based serialization and deserialization in
+ * {@code JSONSerializer} and {@code JSONDeserializer}:
+ * <ul>
+ *   <li>the fields of the class and its superclasses (superclass first) are serialized, except
+ *   for {@code static} or {@code transient} fields and fields annotated with
+ *   {@code @JSONIgnore};</li>
+ *   <li>the name of a property is taken from the {@code @JSONName} annotation if present,
+ *   otherwise from the field name;</li>
+ *   <li>{@code null} values (and empty {@code Optional}s) are omitted unless the field is
+ *   annotated with {@code @JSONAlways};</li>
+ *   <li>on deserialization, names given by {@code @JSONName} take precedence over field names,
+ *   and the fields of a class take precedence over those of its superclasses.</li>
+ * </ul>
+ *
+ * <p>The companion is in the same package as the class, and like the reflection-based
+ * functions it accesses the fields directly (never through getter or setter methods), so the
+ * fields must not be {@code private} (or, for fields of a superclass in another package, they
+ * must be {@code public}); any other field is reported as an error, and no companion is
+ * generated.  A {@code final} field can not be set by the companion, so it causes an exception
+ * if it is present in the JSON on deserialization, and a warning is reported.</p>
+ *
+ * @author Peter Wall
+ */
+class CompanionWriter {
+
+    static final String companionSuffix = "_JSONCompanion";
+
+    private static final String nameAnnotation = "net.pwall.json.annotation.JSONName";
+    private static final String ignoreAnnotation = "net.pwall.json.annotation.JSONIgnore";
+    private static final String alwaysAnnotation = "net.pwall.json.annotation.JSONAlways";
+
+    private static final String jsonException = "net.pwall.json.JSONException";
+    private static final String jsonObject = "net.pwall.json.JSONObject";
+    private static final String jsonValue = "net.pwall.json.JSONValue";
+    private static final String jsonSerializer = "net.pwall.json.auto.JSONSerializer";
+    private static final String jsonDeserializer = "net.pwall.json.auto.JSONDeserializer";
+
+    private final ProcessingEnvironment processingEnv;
+    private final Elements elements;
+    private final Types types;
+    private final TypeElement target;
+    private final String packageName;
+    private final String targetName;
+    private final String companionName;
+    private boolean errors;
+
+    /**
+     * Construct a {@code CompanionWriter} for the specified class.
+     *
+     * @param   processingEnv   the {@link ProcessingEnvironment}
+     * @param   target          the class
+     */
+    CompanionWriter(ProcessingEnvironment processingEnv, TypeElement target) {
+        this.processingEnv = processingEnv;
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        this.target = target;
+        packageName = elements.getPackageOf(target).getQualifiedName().toString();
+        targetName = target.getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(target).toString();
+        companionName = binaryName.substring(packageName.isEmpty() ? 0 :
+                packageName.length() + 1).replace('$', '_') + companionSuffix;
+    }
+
+    /**
+     * Generate the companion class.
+     *
+     * @return  the qualified name of the companion class, or {@code null} if the companion
+     *          could not be generated because of errors
+     * @throws  IOException if thrown by the {@link javax.annotation.processing.Filer Filer}
+     */
+    String write() throws IOException {
+
+        // the class (and any enclosing classes) must be accessible from the package
+
+        for (Element e = target; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                error(target, "A class annotated with @JSONSerializable must not be private");
+                return null;
+            }
+        }
+
+        // create the list of fields to be serialized, and the index of names for
+        // deserialization
+
+        List<VariableElement> fields = new ArrayList<>();
+        addFields(fields, target);
+        for (VariableElement field : fields)
+            if (!accessible(field))
+                error(field, "Field " + field.getSimpleName() +
+                        " is not accessible to the JSON companion; it must not be private");
+        if (errors)
+            return null;
+        Map<String, VariableElement> names = new LinkedHashMap<>();
+        for (TypeElement cls = target; cls != null; cls = superclass(cls))
+            addNames(names, cls);
+
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty())
+            sb.append("package ").append(packageName).append(";\n\n");
+        sb.append("/**\n");
+        sb.append(" * JSON serialization companion for {@link ").append(targetName).append("}.\n");
+        sb.append(" * Generated by jsonauto-processor - do not edit.\n");
+        sb.append(" */\n");
+        sb.append("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })\n");
+        sb.append("public final class ").append(companionName).
+                append(" implements net.pwall.json.auto.JSONCompanion<").append(targetName).
+                append("> {\n\n");
+        List<String> constants = new ArrayList<>();
+        String toJSON = generateToJSON(fields);
+        String fromJSON = generateFromJSON(names, constants);
+        if (errors)
+            return null;
+        for (String constant : constants)
+            sb.append(constant);
+        if (!constants.isEmpty())
+            sb.append('\n');
+        sb.append("    @Override\n");
+        sb.append("    public java.lang.Class<").append(targetName).
+                append("> getTargetClass() {\n");
+        sb.append("        return ").append(targetName).append(".class;\n");
+        sb.append("    }\n\n");
+        sb.append(toJSON).append('\n').append(fromJSON).append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? companionName :
+                packageName + '.' + companionName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, target).
+                openWriter()) {
+            writer.write(sb.toString());
+        }
+        return qualifiedName;
+
+    }
+
+    /**
+     * Generate the {@code toJSON()} method.
+     *
+     * @param   fields  the fields to be serialized
+     * @return  the source of the method
+     */
+    private String generateToJSON(List<VariableElement> fields) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("    @Override\n");
+        sb.append("    public ").append(jsonObject).append(" toJSON(").append(targetName).
+                append(" object) {\n");
+        sb.append("        if (object == null)\n");
+        sb.append("            return null;\n");
+        sb.append("        ").append(jsonObject).append(" json = new ").append(jsonObject).
+                append("();\n");
+        for (VariableElement field : fields) {
+            sb.append("        ").append(jsonSerializer).append(".serializeProperty(json, ").
+                    append(quote(jsonName(field))).append(", ").
+                    append(qualifier(field, "object")).append('.').
+                    append(field.getSimpleName()).append(", ").
+                    append(annotated(field, alwaysAnnotation)).append(");\n");
+        }
+        sb.append("        return json;\n");
+        sb.append("    }\n");
+        return sb.toString();
+    }
+
+    /**
+     * Generate the {@code fromJSON()} method.
+     *
+     * @param   names       the index of names to fields
+     * @param   constants   a list to which any constant declarations required are added
+     * @return  the source of the method
+     */
+    private String generateFromJSON(Map<String, VariableElement> names, List<String> constants) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("    @Override\n");
+        sb.append("    public ").append(targetName).append(" fromJSON(").append(jsonObject).
+                append(" json) {\n");
+        sb.append("        if (json == null)\n");
+        sb.append("            return null;\n");
+        if (!constructible()) {
+            sb.append("        throw new ").append(jsonException).
+                    append("(\"Can't deserialize object as \" + ").append(targetName).
+                    append(".class);\n");
+            sb.append("    }\n");
+            return sb.toString();
+        }
+        sb.append("        try {\n");
+        sb.append("            ").append(targetName).append(" result = new ").append(targetName).
+                append("();\n");
+        sb.append("            for (java.util.Map.Entry<java.lang.String, ").append(jsonValue).
+                append("> entry : json.entrySet()) {\n");
+        sb.append("                ").append(jsonValue).append(" value = entry.getValue();\n");
+        sb.append("                switch (entry.getKey()) {\n");
+        for (Map.Entry<String, VariableElement> entry : names.entrySet()) {
+            VariableElement field = entry.getValue();
+            sb.append("                case ").append(quote(entry.getKey())).append(":\n");
+            String statement = deserializable(field) ? writeStatement(field,
+                    valueExpression(field, constants)) : null;
+            if (statement == null) {
+                if (deserializable(field))
+                    warning(field, "Field " + field.getSimpleName() +
+                            " can not be set by the JSON companion");
+                sb.append("                    throw new ").append(jsonException).
+                        append("(\"Can't access field \" + ").
+                        append(quote(fieldDescription(field))).append(");\n");
+            }
+            else {
+                sb.append("                    ").append(statement).append('\n');
+                sb.append("                    break;\n");
+            }
+        }
+        sb.append("                default:\n");
+        sb.append("                    throw new ").append(jsonException).
+                append("(\"Can't find field for \" + entry.getKey());\n");
+        sb.append("                }\n");
+        sb.append("            }\n");
+        sb.append("            return result;\n");
+        sb.append("        }\n");
+        sb.append("        catch (").append(jsonException).append(" e) {\n");
+        sb.append("            throw e;\n");
+        sb.append("        }\n");
+        sb.append("        catch (java.lang.Exception e) {\n");
+        sb.append("            throw new ").append(jsonException).
+                append("(\"Can't deserialize object as \" + ").append(targetName).
+                append(".class, e);\n");
+        sb.append("        }\n");
+        sb.append("    }\n");
+        return sb.toString();
+    }
+
+    /**
+     * Add the serializable fields of a class to a list, superclass first.
+     *
+     * @param   list    the list of fields
+     * @param   cls     the class
+     */
+    private void addFields(List<VariableElement> list, TypeElement cls) {
+        TypeElement superclass = superclass(cls);
+        if (superclass != null)
+            addFields(list, superclass);
+        for (VariableElement field : ElementFilter.fieldsIn(cls.getEnclosedElements()))
+            if (deserializable(field))
+                list.add(field);
+    }
+
+    /**
+     * Add the fields of a class to the index of names.  As in the reflection-based
+     * deserialization, names given by {@code @JSONName} take precedence over field names, and
+     * each name is only added if it is not already present.  Fields that may not be
+     * deserialized (e.g. {@code static} fields) are included, so that the same error is
+     * reported.
+     *
+     * @param   names   the index of names
+     * @param   cls     the class
+     */
+    private void addNames(Map<String, VariableElement> names, TypeElement cls) {
+        List<VariableElement> fields = ElementFilter.fieldsIn(cls.getEnclosedElements());
+        for (VariableElement field : fields) {
+            String name = annotationValue(field, nameAnnotation);
+            if (name != null)
+                names.putIfAbsent(name, field);
+        }
+        for (VariableElement field : fields)
+            names.putIfAbsent(field.getSimpleName().toString(), field);
+    }
+
+    /**
+     * Get the superclass of a class.
+     *
+     * @param   cls     the class
+     * @return  the superclass, or {@code null} if the class has no superclass other than
+     *          {@link Object}
+     */
+    private TypeElement superclass(TypeElement cls) {
+        TypeMirror superclass = cls.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED)
+            return null;
+        TypeElement element = (TypeElement)types.asElement(superclass);
+        return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+    }
+
+    /**
+     * Test whether a field is to be serialized or deserialized (it is not {@code static} or
+     * {@code transient}, and it is not annotated with {@code @JSONIgnore}).
+     *
+     * @param   field   the field
+     * @return  {@code true} if the field is to be serialized or deserialized
+     */
+    private boolean deserializable(VariableElement field) {
+        Set<Modifier> modifiers = field.getModifiers();
+        return !modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.TRANSIENT) &&
+                !annotated(field, ignoreAnnotation);
+    }
+
+    /**
+     * Test whether the class can be instantiated by the companion (it is not abstract, it is
+     * not an inner class, and it has a no-argument constructor that is not {@code private}).
+     *
+     * @return  {@code true} if the class can be instantiated
+     */
+    private boolean constructible() {
+        if (target.getModifiers().contains(Modifier.ABSTRACT))
+            return false;
+        if (target.getNestingKind() == NestingKind.MEMBER &&
+                !target.getModifiers().contains(Modifier.STATIC))
+            return false;
+        for (ExecutableElement constructor :
+                ElementFilter.constructorsIn(target.getEnclosedElements()))
+            if (constructor.getParameters().isEmpty() &&
+                    !constructor.getModifiers().contains(Modifier.PRIVATE))
+                return true;
+        return false;
+    }
+
+    /**
+     * Get the JSON property name for a field.
+     *
+     * @param   field   the field
+     * @return  the name from the {@code @JSONName} annotation, or the field name
+     */
+    private String jsonName(VariableElement field) {
+        String name = annotationValue(field, nameAnnotation);
+        return name != null ? name : field.getSimpleName().toString();
+    }
+
+    /**
+     * Get a statement to set the value of a field in the variable {@code result}.
+     *
+     * @param   field   the field
+     * @param   value   the expression for the value
+     * @return  the statement, or {@code null} if the field can not be set (it is
+     *          {@code final})
+     */
+    private String writeStatement(VariableElement field, String value) {
+        if (field.getModifiers().contains(Modifier.FINAL))
+            return null;
+        return qualifier(field, "result") + '.' + field.getSimpleName() + " = " + value + ';';
+    }
+
+    /**
+     * Get an expression to deserialize the variable {@code value} to the type of a field.
+     *
+     * @param   field       the field
+     * @param   constants   a list to which any constant declarations required are added
+     * @return  the expression
+     */
+    private String valueExpression(VariableElement field, List<String> constants) {
+        TypeMirror type = field.asType();
+        String typeArgs = "null";
+        if (type.getKind() == TypeKind.DECLARED) {
+            List<? extends TypeMirror> args = ((DeclaredType)type).getTypeArguments();
+            if (!args.isEmpty()) {
+                typeArgs = "typeArgs" + constants.size();
+                StringBuilder sb = new StringBuilder("    private static final ");
+                sb.append("java.lang.reflect.Type[] ").append(typeArgs).append(" = { ");
+                for (int i = 0, n = args.size(); i < n; i++) {
+                    if (i > 0)
+                        sb.append(", ");
+                    sb.append(typeExpression(args.get(i)));
+                }
+                constants.add(sb.append(" };\n").toString());
+            }
+        }
+        return jsonDeserializer + ".deserialize(" + erasedName(type) + ".class, " + typeArgs +
+                ", value)";
+    }
+
+    /**
+     * Get an expression for a {@link java.lang.reflect.Type} corresponding to a type argument.
+     * Wildcards and type variables are replaced by their bounds.
+     *
+     * @param   type    the type argument
+     * @return  the expression
+     */
+    private String typeExpression(TypeMirror type) {
+        switch (type.getKind()) {
+        case DECLARED:
+            List<? extends TypeMirror> args = ((DeclaredType)type).getTypeArguments();
+            if (args.isEmpty())
+                return erasedName(type) + ".class";
+            StringBuilder sb = new StringBuilder(jsonDeserializer);
+            sb.append(".parameterizedType(").append(erasedName(type)).append(".class");
+            for (TypeMirror arg : args)
+                sb.append(", ").append(typeExpression(arg));
+            return sb.append(')').toString();
+        case WILDCARD:
+            WildcardType wildcard = (WildcardType)type;
+            TypeMirror bound = wildcard.getExtendsBound() != null ? wildcard.getExtendsBound() :
+                    wildcard.getSuperBound();
+            return bound != null ? typeExpression(bound) : "java.lang.Object.class";
+        default:
+            return erasedName(type) + ".class";
+        }
+    }
+
+    /**
+     * Get the source name of the erasure of a type.
+     *
+     * @param   type    the type
+     * @return  the name
+     */
+    private String erasedName(TypeMirror type) {
+        switch (type.getKind()) {
+        case DECLARED:
+            return ((TypeElement)((DeclaredType)type).asElement()).getQualifiedName().toString();
+        case ARRAY:
+            return erasedName(((ArrayType)type).getComponentType()) + "[]";
+        case TYPEVAR:
+            return erasedName(((TypeVariable)type).getUpperBound());
+        case INTERSECTION:
+            return erasedName(types.erasure(type));
+        default:
+            return type.getKind().name().toLowerCase(); // primitive types
+        }
+    }
+
+    /**
+     * Get the name of the erasure of a type, in the form used by {@code Class.getTypeName()}.
+     *
+     * @param   type    the type
+     * @return  the name
+     */
+    private String reflectionName(TypeMirror type) {
+        switch (type.getKind()) {
+        case DECLARED:
+            return elements.getBinaryName((TypeElement)((DeclaredType)type).asElement()).
+                    toString();
+        case ARRAY:
+            return reflectionName(((ArrayType)type).getComponentType()) + "[]";
+        case TYPEVAR:
+            return reflectionName(((TypeVariable)type).getUpperBound());
+        case INTERSECTION:
+            return reflectionName(types.erasure(type));
+        default:
+            return type.getKind().name().toLowerCase(); // primitive types
+        }
+    }
+
+    /**
+     * Get the description of a field, in the form used by {@code Field.toString()}, for use in
+     * error messages.
+     *
+     * @param   field   the field
+     * @return  the description
+     */
+    private String fieldDescription(VariableElement field) {
+        StringBuilder sb = new StringBuilder();
+        Set<Modifier> modifiers = field.getModifiers();
+        for (Modifier modifier : new Modifier[] { Modifier.PUBLIC, Modifier.PROTECTED,
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL, Modifier.TRANSIENT,
+                Modifier.VOLATILE })
+            if (modifiers.contains(modifier))
+                sb.append(modifier).append(' ');
+        sb.append(reflectionName(field.asType())).append(' ');
+        sb.append(elements.getBinaryName((TypeElement)field.getEnclosingElement())).append('.');
+        return sb.append(field.getSimpleName()).toString();
+    }
+
+    /**
+     * Test whether a member of a class can be accessed directly from the companion (it is
+     * {@code public}, or it is not {@code private} and it is in the same package).
+     *
+     * @param   member  the member
+     * @return  {@code true} if the member is accessible
+     */
+    private boolean accessible(Element member) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC))
+            return true;
+        return !modifiers.contains(Modifier.PRIVATE) && elements.getPackageOf(member).
+                getQualifiedName().contentEquals(packageName);
+    }
+
+    /**
+     * Get the qualifier to be used to access a field in an object of the target class.  If
+     * the field is hidden by a field of the same name in a subclass, the object is cast to
+     * the class that declares the field.
+     *
+     * @param   field       the field
+     * @param   variable    the variable name
+     * @return  the qualifier
+     */
+    private String qualifier(VariableElement field, String variable) {
+        Element declaringClass = field.getEnclosingElement();
+        for (TypeElement cls = target; cls != null && !cls.equals(declaringClass);
+                cls = superclass(cls)) {
+            for (VariableElement other : ElementFilter.fieldsIn(cls.getEnclosedElements())) {
+                if (other.getSimpleName().equals(field.getSimpleName()))
+                    return "((" + ((TypeElement)declaringClass).getQualifiedName() + ')' +
+                            variable + ')';
+            }
+        }
+        return variable;
+    }
+
+    /**
+     * Test whether an element is annotated with a nominated annotation.
+     *
+     * @param   element         the element
+     * @param   annotationName  the qualified name of the annotation
+     * @return  {@code true} if the element has the annotation
+     */
+    private static boolean annotated(Element element, String annotationName) {
+        return findAnnotation(element, annotationName) != null;
+    }
+
+    /**
+     * Get the {@code value} of a nominated annotation on an element.
+     *
+     * @param   element         the element
+     * @param   annotationName  the qualified name of the annotation
+     * @return  the value (as a string), or {@code null} if the element does not have the
+     *          annotation
+     */
+    private String annotationValue(Element element, String annotationName) {
+        AnnotationMirror annotation = findAnnotation(element, annotationName);
+        if (annotation == null)
+            return null;
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                elements.getElementValuesWithDefaults(annotation).entrySet())
+            if (entry.getKey().getSimpleName().contentEquals("value"))
+                return String.valueOf(entry.getValue().getValue());
+        return null;
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (((TypeElement)annotation.getAnnotationType().asElement()).getQualifiedName().
+                    contentEquals(annotationName))
+                return annotation;
+        }
+        return null;
+    }
+
+    /**
+     * Create a Java string literal.
+     *
+     * @param   str     the string
+     * @return  the string literal
+     */
+    static String quote(String str) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0, n = str.length(); i < n; i++) {
+            char ch = str.charAt(i);
+            if (ch == '"' || ch == '\\')
+                sb.append('\\').append(ch);
+            else if (ch < 0x20) // octal, because a Unicode escape of a line terminator is
+                sb.append(String.format("\\%03o", (int)ch)); // not allowed in a literal
+            else if (ch >= 0x7F)
+                sb.append(String.format("\\u%04X", (int)ch));
+            else
+                sb.append(ch);
+        }
+        return sb.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+        errors = true;
+    }
+
+    private void warning(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+
+}
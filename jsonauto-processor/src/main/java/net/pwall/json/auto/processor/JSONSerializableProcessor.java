@@ -0,0 +1,119 @@
+/*
+ * @(#) JSONSerializableProcessor.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor to generate serialization companions for classes annotated with
+ * {@code @JSONSerializable}.  For each such class, a class named (for example)
+ * {@code Example_JSONCompanion} is generated in the same package, implementing
+ * {@code JSONCompanion<Example>}; {@code JSONSerializer} and {@code JSONDeserializer} will use
+ * the companion in preference to reflection.  When processing is complete, the companions are
+ * registered as services in {@code META-INF/services/net.pwall.json.auto.JSONCompanion}, so
+ * that they may be located using {@link java.util.ServiceLoader} (without any lookup of classes
+ * by name).
+ *
+ * <p>The annotations are referred to by name, so that the processor itself has no dependency
+ * on the {@code jsonauto} library.</p>
+ *
+ * @author Peter Wall
+ * @see CompanionWriter
+ */
+@SupportedAnnotationTypes(JSONSerializableProcessor.serializableAnnotation)
+public class JSONSerializableProcessor extends AbstractProcessor {
+
+    static final String serializableAnnotation = "net.pwall.json.annotation.JSONSerializable";
+    static final String servicesFile = "META-INF/services/net.pwall.json.auto.JSONCompanion";
+
+    private final List<String> companions = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+
+                // is it a class?
+
+                if (element.getKind() != ElementKind.CLASS) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            "@JSONSerializable may only be applied to a class", element);
+                    continue;
+                }
+
+                try {
+                    String companion =
+                            new CompanionWriter(processingEnv, (TypeElement)element).write();
+                    if (companion != null)
+                        companions.add(companion);
+                }
+                catch (IOException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            "Error writing JSON companion: " + e.getMessage(), element);
+                }
+
+            }
+        }
+        if (roundEnv.processingOver() && !companions.isEmpty())
+            writeServicesFile();
+        return true;
+    }
+
+    /**
+     * Write the services file listing the companions generated.
+     */
+    private void writeServicesFile() {
+        try (Writer writer = processingEnv.getFiler().createResource(
+                StandardLocation.CLASS_OUTPUT, "", servicesFile).openWriter()) {
+            for (String companion : companions)
+                writer.write(companion + '\n');
+        }
+        catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Error writing JSON companion services file: " + e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,303 @@
+/*
+ * @(#) JSONSerializableProcessorTest.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.ServiceLoader;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import net.pwall.json.JSON;
+import net.pwall.json.JSONException;
+import net.pwall.json.JSONObject;
+import net.pwall.json.auto.JSONCompanion;
+import net.pwall.json.auto.JSONDeserializer;
+import net.pwall.json.auto.JSONSerializer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the {@link JSONSerializableProcessor}.  The test classes are compiled with the processor
+ * and loaded in a separate class loader, and the results of serialization and deserialization
+ * using the generated companions are compared with those from the reflection-based functions.
+ *
+ * @author Peter Wall
+ */
+public class JSONSerializableProcessorTest {
+
+    private static final String base = "package test;\n" +
+            "public class Base {\n" +
+            "    public String name;\n" +
+            "    int hidden;\n" +
+            "    public int getHidden() { return hidden; }\n" +
+            "    public void setHidden(int hidden) { this.hidden = hidden; }\n" +
+            "}\n";
+
+    private static final String sample = "package test;\n" +
+            "import java.util.*;\n" +
+            "import net.pwall.json.annotation.*;\n" +
+            "@JSONSerializable\n" +
+            "public class Sample extends Base {\n" +
+            "    String string1;\n" +
+            "    int int1;\n" +
+            "    boolean flag;\n" +
+            "    @JSONName(\"renamed\") List<String> list1;\n" +
+            "    Map<String, List<Integer>> map1;\n" +
+            "    @JSONAlways String always1;\n" +
+            "    Optional<String> optional1 = Optional.empty();\n" +
+            "    @JSONIgnore String ignored1;\n" +
+            "    transient String transient1;\n" +
+            "    static String static1;\n" +
+            "    final String final1 = \"F\";\n" +
+            "    Nested nested1;\n" +
+            "    public int getInt1() { return int1; }\n" +
+            "    public void setInt1(int int1) { this.int1 = int1; }\n" +
+            "    @JSONSerializable\n" +
+            "    public static class Nested {\n" +
+            "        public double value;\n" +
+            "    }\n" +
+            "}\n";
+
+    @Test
+    public void testSerialize() throws Exception {
+        ClassLoader loader = compile(null, base, sample);
+        Class<?> sampleClass = loader.loadClass("test.Sample");
+        assertNotNull(companion(sampleClass));
+        Object object = createSample(sampleClass);
+        String expected = "{\"name\":\"base\",\"hidden\":8,\"string1\":\"abc\",\"int1\":27," +
+                "\"flag\":true,\"renamed\":[\"x\",\"y\"],\"map1\":{\"a\":[1,2]}," +
+                "\"always1\":null,\"final1\":\"F\",\"nested1\":{\"value\":1.5}}";
+        assertEquals(expected, JSONSerializer.serialize(object).toJSON());
+        assertEquals(expected, JSONSerializer.toJSON(object));
+        assertEquals(JSONSerializer.serializeObject(object), JSONSerializer.serialize(object));
+    }
+
+    @Test
+    public void testServicesFile() throws Exception {
+        ClassLoader loader = compile(null, base, sample);
+        List<String> names = new ArrayList<>();
+        for (JSONCompanion<?> companion : ServiceLoader.load(JSONCompanion.class, loader))
+            names.add(companion.getClass().getName());
+        assertEquals(Arrays.asList("test.Sample_JSONCompanion", "test.Sample_Nested_JSONCompanion"),
+                names);
+    }
+
+    @Test
+    public void testDeserialize() throws Exception {
+        ClassLoader loader = compile(null, base, sample);
+        Class<?> sampleClass = loader.loadClass("test.Sample");
+        String json = "{\"name\":\"base\",\"hidden\":8,\"string1\":\"abc\",\"int1\":27," +
+                "\"flag\":true,\"renamed\":[\"x\",\"y\"],\"map1\":{\"a\":[1,2]}," +
+                "\"optional1\":\"opt\",\"nested1\":{\"value\":1.5}}";
+        Object object = JSONDeserializer.parse(sampleClass, json);
+        assertEquals(JSONSerializer.serializeObject(JSONDeserializer.deserializeObject(sampleClass,
+                (JSONObject)JSON.parse(json))), JSONSerializer.serializeObject(object));
+        assertEquals("{\"name\":\"base\",\"hidden\":8,\"string1\":\"abc\",\"int1\":27," +
+                "\"flag\":true,\"renamed\":[\"x\",\"y\"],\"map1\":{\"a\":[1,2]}," +
+                "\"always1\":null,\"optional1\":\"opt\",\"final1\":\"F\"," +
+                "\"nested1\":{\"value\":1.5}}", JSONSerializer.toJSON(object));
+        Object map1 = field(sampleClass, "map1").get(object);
+        assertEquals(Arrays.asList(1, 2), ((java.util.Map<?, ?>)map1).get("a"));
+    }
+
+    @Test
+    public void testDeserializeErrors() throws Exception {
+        ClassLoader loader = compile(null, base, sample);
+        Class<?> sampleClass = loader.loadClass("test.Sample");
+        checkError(sampleClass, "{\"unknown\":1}", "Can't find field for unknown");
+        checkError(sampleClass, "{\"transient1\":\"t\"}",
+                "Can't access field transient java.lang.String test.Sample.transient1");
+        checkError(sampleClass, "{\"final1\":\"t\"}",
+                "Can't access field final java.lang.String test.Sample.final1");
+    }
+
+    @Test
+    public void testInaccessibleField() throws Exception {
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = new ArrayList<>();
+        try {
+            compile(diagnostics, "package test;\n" +
+                    "@net.pwall.json.annotation.JSONSerializable\n" +
+                    "public class Bad {\n" +
+                    "    private String secret;\n" +
+                    "}\n");
+            fail("Should fail to compile");
+        }
+        catch (IllegalStateException e) {
+            assertTrue(diagnostics.stream().anyMatch(d -> d.getKind() == Diagnostic.Kind.ERROR &&
+                    d.getMessage(Locale.ENGLISH).startsWith("Field secret is not accessible")));
+        }
+    }
+
+    @Test
+    public void testPrivateFieldWithAccessors() throws Exception {
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = new ArrayList<>();
+        try {
+            compile(diagnostics, "package test;\n" +
+                    "@net.pwall.json.annotation.JSONSerializable\n" +
+                    "public class Bad2 {\n" +
+                    "    private String secret;\n" +
+                    "    public String getSecret() { return secret; }\n" +
+                    "    public void setSecret(String secret) { this.secret = secret; }\n" +
+                    "}\n");
+            fail("Should fail to compile");
+        }
+        catch (IllegalStateException e) {
+            assertTrue(diagnostics.stream().anyMatch(d -> d.getKind() == Diagnostic.Kind.ERROR &&
+                    d.getMessage(Locale.ENGLISH).startsWith("Field secret is not accessible")));
+        }
+    }
+
+    @Test
+    public void testQuote() {
+        assertEquals("\"abc\"", CompanionWriter.quote("abc"));
+        assertEquals("\"a\\\"b\\\\c\\012\\u00E9\"", CompanionWriter.quote("a\"b\\c\n\u00E9"));
+    }
+
+    private static Object createSample(Class<?> sampleClass) throws Exception {
+        Object object = sampleClass.getConstructor().newInstance();
+        field(sampleClass.getSuperclass(), "name").set(object, "base");
+        sampleClass.getMethod("setHidden", int.class).invoke(object, 8);
+        field(sampleClass, "string1").set(object, "abc");
+        sampleClass.getMethod("setInt1", int.class).invoke(object, 27);
+        field(sampleClass, "flag").set(object, true);
+        field(sampleClass, "list1").set(object, Arrays.asList("x", "y"));
+        field(sampleClass, "map1").set(object, Collections.singletonMap("a",
+                Arrays.asList(1, 2)));
+        field(sampleClass, "ignored1").set(object, "ignored");
+        field(sampleClass, "transient1").set(object, "transient");
+        Class<?> nestedClass = sampleClass.getClassLoader().loadClass("test.Sample$Nested");
+        assertNotNull(companion(nestedClass));
+        Object nested = nestedClass.getConstructor().newInstance();
+        field(nestedClass, "value").set(nested, 1.5);
+        field(sampleClass, "nested1").set(object, nested);
+        return object;
+    }
+
+    private static Field field(Class<?> cls, String name) throws NoSuchFieldException {
+        Field field = cls.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+
+    private static JSONCompanion<?> companion(Class<?> targetClass) {
+        for (JSONCompanion<?> companion :
+                ServiceLoader.load(JSONCompanion.class, targetClass.getClassLoader()))
+            if (companion.getTargetClass() == targetClass)
+                return companion;
+        return null;
+    }
+
+    private static void checkError(Class<?> resultClass, String json, String message) {
+        try {
+            JSONDeserializer.parse(resultClass, json);
+            fail("Should throw exception");
+        }
+        catch (JSONException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    /**
+     * Compile the given sources with the annotation processor, and return a class loader for
+     * the resulting classes.
+     *
+     * @param   diagnostics     a list to receive any diagnostics, or {@code null}
+     * @param   sources         the sources
+     * @return  the class loader
+     * @throws  IOException if thrown by the compiler
+     * @throws  IllegalStateException if the compilation fails
+     */
+    private static ClassLoader compile(List<Diagnostic<? extends JavaFileObject>> diagnostics,
+            String... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<>();
+        File output = Files.createTempDirectory("jsonauto-processor").toFile();
+        List<JavaFileObject> files = new ArrayList<>();
+        for (String source : sources)
+            files.add(new SourceFile(source));
+        try (StandardJavaFileManager fileManager =
+                compiler.getStandardFileManager(collector, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, collector,
+                    Arrays.asList("-classpath", System.getProperty("java.class.path"), "-d",
+                    output.getPath(), "-s", output.getPath()), null, files);
+            task.setProcessors(Collections.singletonList(new JSONSerializableProcessor()));
+            boolean success = task.call();
+            if (diagnostics != null)
+                diagnostics.addAll(collector.getDiagnostics());
+            if (!success)
+                throw new IllegalStateException("Compilation failed: " +
+                        collector.getDiagnostics());
+        }
+        return new URLClassLoader(new URL[] { output.toURI().toURL() },
+                JSONSerializableProcessorTest.class.getClassLoader());
+    }
+
+    /**
+     * An in-memory Java source file.  The class name is taken from the source.
+     */
+    private static class SourceFile extends SimpleJavaFileObject {
+
+        private final String source;
+
+        SourceFile(String source) {
+            super(URI.create("string:///" + className(source).replace('.', '/') +
+                    Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+
+        private static String className(String source) {
+            String packageName = source.substring(8, source.indexOf(';'));
+            int i = source.indexOf("public class ") + 13;
+            return packageName + '.' + source.substring(i, source.indexOf(' ', i));
+        }
+
+    }
+
+}
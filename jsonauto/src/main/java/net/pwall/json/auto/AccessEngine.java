@@ -0,0 +1,78 @@
+/*
+ * @(#) AccessEngine.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+/**
+ * The mechanism used to access the fields of objects during serialization and deserialization.
+ *
+ * @author Peter Wall
+ */
+public enum AccessEngine {
+
+    /**
+     * Access fields through {@link java.lang.invoke.MethodHandle}s (or reflection) created
+     * once for each field.
+     */
+    REFLECTION,
+
+    /**
+     * Access fields through a class generated at run time for each target class, falling back
+     * to {@link #REFLECTION} for any class for which the code can not be generated (for
+     * example, a class with inaccessible superclass fields, or where the JVM does not provide
+     * a means of defining the class).
+     */
+    GENERATED;
+
+    /**
+     * The name of the system property used to select the default engine.
+     */
+    public static final String PROPERTY_NAME = "net.pwall.json.auto.engine";
+
+    private static final AccessEngine defaultEngine = initDefault();
+
+    /**
+     * Get the default engine.  This is {@link #REFLECTION} unless the system property
+     * {@value #PROPERTY_NAME} is set to the name of another engine (in either case).
+     *
+     * @return  the default engine
+     */
+    public static AccessEngine getDefault() {
+        return defaultEngine;
+    }
+
+    private static AccessEngine initDefault() {
+        try {
+            String property = System.getProperty(PROPERTY_NAME);
+            if (property != null)
+                return valueOf(property.trim().toUpperCase());
+        }
+        catch (Exception e) {
+            // ignore - use default
+        }
+        return REFLECTION;
+    }
+
+}
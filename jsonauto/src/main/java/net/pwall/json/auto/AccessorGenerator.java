@@ -0,0 +1,508 @@
+/*
+ * @(#) AccessorGenerator.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+/**
+ * Generator for the {@link GeneratedAccessor} classes used by the
+ * {@link AccessEngine#GENERATED} engine.  For each target class, a small class is generated
+ * containing {@code getfield} and {@code putfield} instructions for each serializable field,
+ * selected by a {@code tableswitch} on the field index, and a {@code new} instruction for the
+ * no-argument constructor.  The get and set methods are generated in a boxed form covering all
+ * fields, and in an unboxed form for each {@link FieldAccessor.PrimitiveKind} covering the
+ * fields of that kind, so that primitive fields may be accessed without boxing.
+ *
+ * <p>The generated class is defined as a hidden class nested with the target class (Java 15
+ * and above), or as an anonymous class hosted by the target class (earlier versions), so that
+ * it has access to the private fields of the target class.  Where neither mechanism is
+ * available, or where the target class has fields that the generated code would not be able to
+ * access (such as private fields of a superclass), no accessor is generated and the caller
+ * falls back to {@link AccessEngine#REFLECTION}.</p>
+ *
+ * @author Peter Wall
+ */
+class AccessorGenerator {
+
+    private static final String accessorName =
+            GeneratedAccessor.class.getName().replace('.', '/');
+    private static final String objectName = "java/lang/Object";
+    private static final String exceptionName = "java/lang/IllegalArgumentException";
+
+    private static final FieldAccessor.PrimitiveKind[] primitiveKinds = {
+            FieldAccessor.PrimitiveKind.INT, FieldAccessor.PrimitiveKind.LONG,
+            FieldAccessor.PrimitiveKind.FLOAT, FieldAccessor.PrimitiveKind.DOUBLE,
+            FieldAccessor.PrimitiveKind.BOOLEAN };
+
+    private static final ClassValue<GeneratedAccessor> accessors =
+            new ClassValue<GeneratedAccessor>() {
+        @Override
+        protected GeneratedAccessor computeValue(Class<?> type) {
+            return generate(type);
+        }
+    };
+
+    private static final ClassDefiner definer = findDefiner();
+
+    /**
+     * Get the {@link GeneratedAccessor} for a class, generating it if necessary.
+     *
+     * @param   targetClass     the class
+     * @return  the {@link GeneratedAccessor}, or {@code null} if one can not be generated for
+     *          the class
+     */
+    static GeneratedAccessor forClass(Class<?> targetClass) {
+        return accessors.get(targetClass);
+    }
+
+    /**
+     * Generate and instantiate the accessor class for a target class.
+     *
+     * @param   targetClass     the class
+     * @return  the {@link GeneratedAccessor}, or {@code null} if one can not be generated
+     */
+    private static GeneratedAccessor generate(Class<?> targetClass) {
+        if (definer == null || targetClass.isInterface() || targetClass.isArray() ||
+                targetClass.isPrimitive() || !visibleFrom(targetClass))
+            return null;
+        List<Field> fields = SerializationPlan.serializableFields(targetClass);
+        for (Field field : fields)
+            if (!fieldAccessible(field, targetClass))
+                return null;
+        try {
+            byte[] bytes = createClassFile(targetClass, fields);
+            Class<?> accessorClass = definer.define(targetClass, bytes);
+            return (GeneratedAccessor)accessorClass.getDeclaredConstructor().newInstance();
+        }
+        catch (Throwable t) {
+            return null; // fall back to reflection
+        }
+    }
+
+    /**
+     * Create the class file for the accessor class.
+     *
+     * @param   targetClass     the target class
+     * @param   fields          the serializable fields of the target class
+     * @return  the class file
+     */
+    static byte[] createClassFile(Class<?> targetClass, List<Field> fields) {
+        String targetName = internalName(targetClass);
+        ClassFileWriter writer = new ClassFileWriter(targetName + "$$JSONAccessor", objectName,
+                accessorName);
+
+        // constructor
+
+        ClassFileWriter.Code code = writer.addMethod("<init>", "()V", 1, 1);
+        code.op1(ClassFileWriter.ALOAD, 0);
+        code.op2(ClassFileWriter.INVOKESPECIAL, writer.methodRef(objectName, "<init>", "()V"));
+        code.op(ClassFileWriter.RETURN);
+
+        // Object newInstance()
+
+        code = writer.addMethod("newInstance", "()Ljava/lang/Object;", 2, 1);
+        if (hasPublicConstructor(targetClass)) {
+            code.op2(ClassFileWriter.NEW, writer.classRef(targetName));
+            code.op(ClassFileWriter.DUP);
+            code.op2(ClassFileWriter.INVOKESPECIAL,
+                    writer.methodRef(targetName, "<init>", "()V"));
+        }
+        else
+            code.op(ClassFileWriter.ACONST_NULL);
+        code.op(ClassFileWriter.ARETURN);
+
+        // Object get(Object object, int index) and the unboxed forms (int getInt(...) etc.)
+
+        addGetMethod(writer, targetName, fields, "get", null);
+        for (FieldAccessor.PrimitiveKind kind : primitiveKinds)
+            addGetMethod(writer, targetName, fields, "get" + kindSuffix(kind), kind);
+
+        // boolean set(Object object, int index, Object value) and the unboxed forms
+
+        addSetMethod(writer, targetClass, fields, "set", null);
+        for (FieldAccessor.PrimitiveKind kind : primitiveKinds)
+            addSetMethod(writer, targetClass, fields, "set" + kindSuffix(kind), kind);
+
+        return writer.toByteArray();
+    }
+
+    /**
+     * Add a method to get the value of a field, selected by a {@code tableswitch} on the field
+     * index.  If a {@link FieldAccessor.PrimitiveKind} is specified, the method returns the
+     * unboxed value, and only fields of that kind are included; otherwise the method returns
+     * the value of any field (boxed, if the field is of a primitive type).  Any other index
+     * causes an {@link IllegalArgumentException} to be thrown.
+     *
+     * @param   writer      the {@link ClassFileWriter}
+     * @param   targetName  the internal name of the target class
+     * @param   fields      the serializable fields of the target class
+     * @param   name        the method name
+     * @param   kind        the {@link FieldAccessor.PrimitiveKind}, or {@code null} for the
+     *                      boxed form
+     */
+    private static void addGetMethod(ClassFileWriter writer, String targetName,
+            List<Field> fields, String name, FieldAccessor.PrimitiveKind kind) {
+        String returnDescriptor = kind == null ? "Ljava/lang/Object;" :
+                descriptor(kind.getType());
+        ClassFileWriter.Code code = writer.addMethod(name,
+                "(Ljava/lang/Object;I)" + returnDescriptor, 3, 3);
+        int n = fields.size();
+        int[] targets = new int[n];
+        boolean[] included = new boolean[n];
+        int switchOffset = 0;
+        if (n > 0) {
+            code.op1(ClassFileWriter.ILOAD, 2);
+            switchOffset = code.tableSwitch(0, targets);
+        }
+        for (int i = 0; i < n; i++) {
+            Field field = fields.get(i);
+            Class<?> type = field.getType();
+            if (kind != null && FieldAccessor.PrimitiveKind.of(type) != kind)
+                continue;
+            included[i] = true;
+            targets[i] = code.offset();
+            code.op1(ClassFileWriter.ALOAD, 1);
+            code.op2(ClassFileWriter.CHECKCAST, writer.classRef(targetName));
+            code.op2(ClassFileWriter.GETFIELD, fieldRef(writer, field));
+            if (kind == null && type.isPrimitive()) {
+                String boxName = internalName(boxClass(type));
+                code.op2(ClassFileWriter.INVOKESTATIC, writer.methodRef(boxName, "valueOf",
+                        '(' + descriptor(type) + ")L" + boxName + ';'));
+            }
+            code.op(returnOpcode(kind));
+        }
+        int defaultTarget = code.offset();
+        code.op2(ClassFileWriter.NEW, writer.classRef(exceptionName));
+        code.op(ClassFileWriter.DUP);
+        code.op2(ClassFileWriter.INVOKESPECIAL, writer.methodRef(exceptionName, "<init>", "()V"));
+        code.op(ClassFileWriter.ATHROW);
+        patchSwitch(code, switchOffset, defaultTarget, targets, included);
+    }
+
+    /**
+     * Add a method to set the value of a field, selected by a {@code tableswitch} on the field
+     * index.  If a {@link FieldAccessor.PrimitiveKind} is specified, the method takes the
+     * unboxed value (narrowed as necessary for {@code short} and {@code byte} fields), and only
+     * fields of that kind are included; otherwise the method takes the value for any field
+     * (boxed, if the field is of a primitive type).  The method returns {@code true} if the
+     * value was set, or {@code false} for any field not included ({@code final} fields, and
+     * fields of types that would not be accessible to the generated code).
+     *
+     * @param   writer      the {@link ClassFileWriter}
+     * @param   targetClass the target class
+     * @param   fields      the serializable fields of the target class
+     * @param   name        the method name
+     * @param   kind        the {@link FieldAccessor.PrimitiveKind}, or {@code null} for the
+     *                      boxed form
+     */
+    private static void addSetMethod(ClassFileWriter writer, Class<?> targetClass,
+            List<Field> fields, String name, FieldAccessor.PrimitiveKind kind) {
+        String valueDescriptor = kind == null ? "Ljava/lang/Object;" : descriptor(kind.getType());
+        boolean wide = kind == FieldAccessor.PrimitiveKind.LONG ||
+                kind == FieldAccessor.PrimitiveKind.DOUBLE;
+        ClassFileWriter.Code code = writer.addMethod(name,
+                "(Ljava/lang/Object;I" + valueDescriptor + ")Z", 3, wide ? 5 : 4);
+        String targetName = internalName(targetClass);
+        int n = fields.size();
+        int[] targets = new int[n];
+        boolean[] included = new boolean[n];
+        int switchOffset = 0;
+        if (n > 0) {
+            code.op1(ClassFileWriter.ILOAD, 2);
+            switchOffset = code.tableSwitch(0, targets);
+        }
+        for (int i = 0; i < n; i++) {
+            Field field = fields.get(i);
+            Class<?> type = field.getType();
+            if (Modifier.isFinal(field.getModifiers()) || !typeAccessible(type, targetClass))
+                continue; // leave to reflection
+            if (kind != null && FieldAccessor.PrimitiveKind.of(type) != kind)
+                continue;
+            included[i] = true;
+            targets[i] = code.offset();
+            code.op1(ClassFileWriter.ALOAD, 1);
+            code.op2(ClassFileWriter.CHECKCAST, writer.classRef(targetName));
+            if (kind == null) {
+                code.op1(ClassFileWriter.ALOAD, 3);
+                if (type.isPrimitive()) {
+                    String boxName = internalName(boxClass(type));
+                    code.op2(ClassFileWriter.CHECKCAST, writer.classRef(boxName));
+                    code.op2(ClassFileWriter.INVOKEVIRTUAL, writer.methodRef(boxName,
+                            type.getName() + "Value", "()" + descriptor(type)));
+                }
+                else if (!type.equals(Object.class))
+                    code.op2(ClassFileWriter.CHECKCAST, writer.classRef(type.isArray() ?
+                            descriptor(type) : internalName(type)));
+            }
+            else {
+                code.op1(loadOpcode(kind), 3);
+                if (type.equals(short.class))
+                    code.op(ClassFileWriter.I2S);
+                else if (type.equals(byte.class))
+                    code.op(ClassFileWriter.I2B);
+            }
+            code.op2(ClassFileWriter.PUTFIELD, fieldRef(writer, field));
+            code.op(ClassFileWriter.ICONST_1);
+            code.op(ClassFileWriter.IRETURN);
+        }
+        int defaultTarget = code.offset();
+        code.op(ClassFileWriter.ICONST_0);
+        code.op(ClassFileWriter.IRETURN);
+        patchSwitch(code, switchOffset, defaultTarget, targets, included);
+    }
+
+    private static void patchSwitch(ClassFileWriter.Code code, int switchOffset,
+            int defaultTarget, int[] targets, boolean[] included) {
+        int n = targets.length;
+        if (n > 0) {
+            for (int i = 0; i < n; i++)
+                if (!included[i])
+                    targets[i] = defaultTarget;
+            code.patchSwitch(switchOffset, defaultTarget, targets);
+        }
+    }
+
+    private static String kindSuffix(FieldAccessor.PrimitiveKind kind) {
+        String typeName = kind.getType().getName();
+        return Character.toUpperCase(typeName.charAt(0)) + typeName.substring(1);
+    }
+
+    private static int loadOpcode(FieldAccessor.PrimitiveKind kind) {
+        if (kind == FieldAccessor.PrimitiveKind.LONG)
+            return ClassFileWriter.LLOAD;
+        if (kind == FieldAccessor.PrimitiveKind.FLOAT)
+            return ClassFileWriter.FLOAD;
+        if (kind == FieldAccessor.PrimitiveKind.DOUBLE)
+            return ClassFileWriter.DLOAD;
+        return ClassFileWriter.ILOAD;
+    }
+
+    private static int returnOpcode(FieldAccessor.PrimitiveKind kind) {
+        if (kind == null)
+            return ClassFileWriter.ARETURN;
+        if (kind == FieldAccessor.PrimitiveKind.LONG)
+            return ClassFileWriter.LRETURN;
+        if (kind == FieldAccessor.PrimitiveKind.FLOAT)
+            return ClassFileWriter.FRETURN;
+        if (kind == FieldAccessor.PrimitiveKind.DOUBLE)
+            return ClassFileWriter.DRETURN;
+        return ClassFileWriter.IRETURN;
+    }
+
+    private static int fieldRef(ClassFileWriter writer, Field field) {
+        return writer.fieldRef(internalName(field.getDeclaringClass()), field.getName(),
+                descriptor(field.getType()));
+    }
+
+    /**
+     * Test whether the {@link GeneratedAccessor} interface is visible from the class loader
+     * of the target class (the generated class is defined in that class loader).
+     *
+     * @param   targetClass     the target class
+     * @return  {@code true} if the interface is visible
+     */
+    private static boolean visibleFrom(Class<?> targetClass) {
+        ClassLoader classLoader = targetClass.getClassLoader();
+        if (classLoader == null)
+            return false; // don't attempt to generate accessors for JDK classes
+        try {
+            return Class.forName(GeneratedAccessor.class.getName(), false, classLoader) ==
+                    GeneratedAccessor.class;
+        }
+        catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Test whether a field will be accessible to the generated code.  The generated class is
+     * a nestmate of (or hosted by) the target class, so all fields declared in the target
+     * class are accessible; fields declared in superclasses are accessible only if they are
+     * public in a public class, or not private and in the same package.
+     *
+     * @param   field           the field
+     * @param   targetClass     the target class
+     * @return  {@code true} if the field will be accessible
+     */
+    private static boolean fieldAccessible(Field field, Class<?> targetClass) {
+        Class<?> declaringClass = field.getDeclaringClass();
+        if (declaringClass.equals(targetClass))
+            return true;
+        int modifiers = field.getModifiers();
+        if (Modifier.isPublic(modifiers) && typeAccessible(declaringClass, targetClass))
+            return true;
+        return !Modifier.isPrivate(modifiers) && samePackage(declaringClass, targetClass);
+    }
+
+    /**
+     * Test whether a type will be accessible to the generated code (for a {@code checkcast}
+     * instruction).  A type is accessible if it is primitive, if it is in the same package as
+     * the target class, or if it and all its enclosing classes are public.
+     *
+     * @param   type            the type
+     * @param   targetClass     the target class
+     * @return  {@code true} if the type will be accessible
+     */
+    private static boolean typeAccessible(Class<?> type, Class<?> targetClass) {
+        while (type.isArray())
+            type = type.getComponentType();
+        if (type.isPrimitive() || samePackage(type, targetClass))
+            return true;
+        for (Class<?> cls = type; cls != null; cls = cls.getEnclosingClass())
+            if (!Modifier.isPublic(cls.getModifiers()))
+                return false;
+        return true;
+    }
+
+    private static boolean samePackage(Class<?> class1, Class<?> class2) {
+        return class1.getClassLoader() == class2.getClassLoader() &&
+                packageName(class1).equals(packageName(class2));
+    }
+
+    private static String packageName(Class<?> cls) {
+        String name = cls.getName();
+        int i = name.lastIndexOf('.');
+        return i < 0 ? "" : name.substring(0, i);
+    }
+
+    private static boolean hasPublicConstructor(Class<?> targetClass) {
+        if (Modifier.isAbstract(targetClass.getModifiers()))
+            return false;
+        try {
+            Constructor<?> constructor = targetClass.getConstructor();
+            return Modifier.isPublic(constructor.getModifiers());
+        }
+        catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static String internalName(Class<?> cls) {
+        return cls.getName().replace('.', '/');
+    }
+
+    private static String descriptor(Class<?> type) {
+        if (type.isPrimitive()) {
+            if (type.equals(int.class))
+                return "I";
+            if (type.equals(long.class))
+                return "J";
+            if (type.equals(boolean.class))
+                return "Z";
+            if (type.equals(double.class))
+                return "D";
+            if (type.equals(float.class))
+                return "F";
+            if (type.equals(short.class))
+                return "S";
+            if (type.equals(byte.class))
+                return "B";
+            if (type.equals(char.class))
+                return "C";
+            return "V";
+        }
+        if (type.isArray())
+            return internalName(type); // the name of an array class is its descriptor
+        return 'L' + internalName(type) + ';';
+    }
+
+    private static Class<?> boxClass(Class<?> type) {
+        if (type.equals(int.class))
+            return Integer.class;
+        if (type.equals(long.class))
+            return Long.class;
+        if (type.equals(boolean.class))
+            return Boolean.class;
+        if (type.equals(double.class))
+            return Double.class;
+        if (type.equals(float.class))
+            return Float.class;
+        if (type.equals(short.class))
+            return Short.class;
+        if (type.equals(byte.class))
+            return Byte.class;
+        return Character.class;
+    }
+
+    /**
+     * Find the mechanism for defining the generated classes: hidden classes (Java 15 and
+     * above) or {@code sun.misc.Unsafe.defineAnonymousClass} (Java 8 to 16).
+     *
+     * @return  the {@link ClassDefiner}, or {@code null} if neither mechanism is available
+     */
+    private static ClassDefiner findDefiner() {
+        try {
+            Method privateLookupIn = MethodHandles.class.getMethod("privateLookupIn",
+                    Class.class, MethodHandles.Lookup.class);
+            Class<?> optionClass =
+                    Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+            Object options = Array.newInstance(optionClass, 1);
+            Array.set(options, 0, optionClass.getField("NESTMATE").get(null));
+            Method defineHiddenClass = MethodHandles.Lookup.class.getMethod("defineHiddenClass",
+                    byte[].class, boolean.class, options.getClass());
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            return (host, bytes) -> {
+                Object hostLookup = privateLookupIn.invoke(null, host, lookup);
+                Object hiddenLookup = defineHiddenClass.invoke(hostLookup, bytes, true, options);
+                return ((MethodHandles.Lookup)hiddenLookup).lookupClass();
+            };
+        }
+        catch (Exception ignore) {
+            // hidden classes not available
+        }
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Object unsafe = theUnsafe.get(null);
+            Method defineAnonymousClass = unsafeClass.getMethod("defineAnonymousClass",
+                    Class.class, byte[].class, Object[].class);
+            return (host, bytes) -> (Class<?>)defineAnonymousClass.invoke(unsafe, host, bytes,
+                    null);
+        }
+        catch (Exception ignore) {
+            // anonymous classes not available
+        }
+        return null;
+    }
+
+    /**
+     * A mechanism for defining a class with access to the private members of a host class.
+     */
+    @FunctionalInterface
+    private interface ClassDefiner {
+
+        Class<?> define(Class<?> host, byte[] bytes) throws Exception;
+
+    }
+
+}
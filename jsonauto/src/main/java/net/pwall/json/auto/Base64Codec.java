@@ -0,0 +1,186 @@
+/*
+ * @(#) Base64Codec.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+
+import net.pwall.json.JSONException;
+
+/**
+ * Base64 encoding and decoding of byte arrays, as used for the {@link ByteArrayStyle#BASE64
+ * BASE64} and {@link ByteArrayStyle#BASE64URL BASE64URL} representations of {@code byte[]}.
+ * The streaming form of encoding writes the output in chunks, so that a large array is not
+ * materialised a second time as a {@link String}.
+ *
+ * @author Peter Wall
+ */
+class Base64Codec {
+
+    private static final char[] standardChars =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+    private static final char[] urlChars =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+    private static final byte[] decodeTable = new byte[128];
+    private static final int chunkSize = 1024; // must be a multiple of 4
+
+    static {
+        for (int i = 0; i < decodeTable.length; i++)
+            decodeTable[i] = -1;
+        for (int i = 0; i < 64; i++) {
+            decodeTable[standardChars[i]] = (byte)i;
+            decodeTable[urlChars[i]] = (byte)i;
+        }
+    }
+
+    private Base64Codec() {
+    }
+
+    /**
+     * Get the length of the Base64 encoding of a given number of bytes.
+     *
+     * @param   n       the number of bytes
+     * @param   url     {@code true} for the unpadded URL-safe form
+     * @return  the number of characters
+     */
+    static int encodedLength(int n, boolean url) {
+        return url ? (n * 4 + 2) / 3 : (n + 2) / 3 * 4;
+    }
+
+    /**
+     * Encode a byte array as a Base64 {@link String}.
+     *
+     * @param   bytes   the byte array
+     * @param   url     {@code true} for the URL-safe alphabet (without padding)
+     * @return  the encoded string
+     */
+    static String encode(byte[] bytes, boolean url) {
+        StringBuilder sb = new StringBuilder(encodedLength(bytes.length, url));
+        try {
+            encode(sb, bytes, url);
+        }
+        catch (IOException e) {
+            // can't happen - StringBuilder does not throw IOException
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Encode a byte array in Base64, appending the result to an {@link Appendable}.  The
+     * characters are converted in chunks of limited size.
+     *
+     * @param   a       the {@link Appendable}
+     * @param   bytes   the byte array
+     * @param   url     {@code true} for the URL-safe alphabet (without padding)
+     * @throws  IOException if thrown by the {@link Appendable}
+     */
+    static void encode(Appendable a, byte[] bytes, boolean url) throws IOException {
+        char[] chars = url ? urlChars : standardChars;
+        int n = bytes.length;
+        char[] buf = new char[Math.min(chunkSize, encodedLength(n, false))];
+        int j = 0;
+        int i = 0;
+        for (int m = n - n % 3; i < m; i += 3) {
+            if (j == buf.length) {
+                a.append(CharBuffer.wrap(buf, 0, j));
+                j = 0;
+            }
+            int x = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8 | bytes[i + 2] & 0xFF;
+            buf[j++] = chars[x >> 18];
+            buf[j++] = chars[(x >> 12) & 0x3F];
+            buf[j++] = chars[(x >> 6) & 0x3F];
+            buf[j++] = chars[x & 0x3F];
+        }
+        if (i < n) {
+            if (j == buf.length) {
+                a.append(CharBuffer.wrap(buf, 0, j));
+                j = 0;
+            }
+            int x = (bytes[i] & 0xFF) << 16;
+            if (i + 1 < n)
+                x |= (bytes[i + 1] & 0xFF) << 8;
+            buf[j++] = chars[x >> 18];
+            buf[j++] = chars[(x >> 12) & 0x3F];
+            if (i + 1 < n)
+                buf[j++] = chars[(x >> 6) & 0x3F];
+            else if (!url)
+                buf[j++] = '=';
+            if (!url)
+                buf[j++] = '=';
+        }
+        if (j > 0)
+            a.append(CharBuffer.wrap(buf, 0, j));
+    }
+
+    /**
+     * Decode a Base64 string.  Either the standard or the URL-safe alphabet is accepted, with
+     * or without padding.
+     *
+     * @param   cs      the string
+     * @return  the decoded byte array
+     * @throws  JSONException   if the string is not valid Base64
+     */
+    static byte[] decode(CharSequence cs) {
+        int len = cs.length();
+        int padding = 0;
+        while (padding < 2 && len > 0 && cs.charAt(len - 1) == '=') {
+            len--;
+            padding++;
+        }
+        if (padding > 0 && (len & 3) + padding != 4)
+            throw new JSONException("Invalid Base64 padding");
+        if ((len & 3) == 1)
+            throw new JSONException("Invalid Base64 length");
+        byte[] result = new byte[len / 4 * 3 + ((len & 3) == 0 ? 0 : (len & 3) - 1)];
+        int j = 0;
+        int i = 0;
+        for (int m = len & ~3; i < m; i += 4) {
+            int x = decodeChar(cs, i) << 18 | decodeChar(cs, i + 1) << 12 |
+                    decodeChar(cs, i + 2) << 6 | decodeChar(cs, i + 3);
+            result[j++] = (byte)(x >> 16);
+            result[j++] = (byte)(x >> 8);
+            result[j++] = (byte)x;
+        }
+        if (i < len) {
+            int x = decodeChar(cs, i) << 18 | decodeChar(cs, i + 1) << 12;
+            if (i + 2 < len)
+                x |= decodeChar(cs, i + 2) << 6;
+            result[j++] = (byte)(x >> 16);
+            if (i + 2 < len)
+                result[j] = (byte)(x >> 8);
+        }
+        return result;
+    }
+
+    private static int decodeChar(CharSequence cs, int index) {
+        char ch = cs.charAt(index);
+        int value = ch < 128 ? decodeTable[ch] : -1;
+        if (value < 0)
+            throw new JSONException("Invalid Base64 character at offset " + index);
+        return value;
+    }
+
+}
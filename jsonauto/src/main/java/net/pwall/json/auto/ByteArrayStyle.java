@@ -0,0 +1,52 @@
+/*
+ * @(#) ByteArrayStyle.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+/**
+ * The representation of a {@code byte[]} in JSON.
+ *
+ * @author Peter Wall
+ */
+public enum ByteArrayStyle {
+
+    /**
+     * An array of numbers, one for each byte.  This is the default.
+     */
+    ARRAY,
+
+    /**
+     * A string containing the Base64 encoding of the bytes, using the standard alphabet and
+     * with padding (RFC 4648 section 4).
+     */
+    BASE64,
+
+    /**
+     * A string containing the Base64 encoding of the bytes, using the URL and filename safe
+     * alphabet and without padding (RFC 4648 section 5).
+     */
+    BASE64URL
+
+}
@@ -0,0 +1,436 @@
+/*
+ * @(#) ClassFileWriter.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal writer for Java class files, sufficient for the simple classes created by
+ * {@link AccessorGenerator}.  The class files are written in version 49 (Java 5) format, which
+ * does not require {@code StackMapTable} attributes, so the code for each method may be
+ * supplied as a plain sequence of instructions.  Only the constant pool entry types needed for
+ * class, field and method references are supported, and classes may not declare fields.
+ *
+ * @author Peter Wall
+ */
+class ClassFileWriter {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    static final int ICONST_0 = 0x03;
+    static final int ICONST_1 = 0x04;
+    static final int ACONST_NULL = 0x01;
+    static final int ILOAD = 0x15;
+    static final int LLOAD = 0x16;
+    static final int FLOAD = 0x17;
+    static final int DLOAD = 0x18;
+    static final int ALOAD = 0x19;
+    static final int DUP = 0x59;
+    static final int I2B = 0x91;
+    static final int I2S = 0x93;
+    static final int TABLESWITCH = 0xAA;
+    static final int IRETURN = 0xAC;
+    static final int LRETURN = 0xAD;
+    static final int FRETURN = 0xAE;
+    static final int DRETURN = 0xAF;
+    static final int ARETURN = 0xB0;
+    static final int RETURN = 0xB1;
+    static final int GETFIELD = 0xB4;
+    static final int PUTFIELD = 0xB5;
+    static final int INVOKEVIRTUAL = 0xB6;
+    static final int INVOKESPECIAL = 0xB7;
+    static final int INVOKESTATIC = 0xB8;
+    static final int NEW = 0xBB;
+    static final int ATHROW = 0xBF;
+    static final int CHECKCAST = 0xC0;
+
+    private static final int CONSTANT_Utf8 = 1;
+    private static final int CONSTANT_Class = 7;
+    private static final int CONSTANT_Fieldref = 9;
+    private static final int CONSTANT_Methodref = 10;
+    private static final int CONSTANT_NameAndType = 12;
+
+    private final ByteArrayOutputStream constantPool;
+    private final DataOutputStream constantPoolData;
+    private final Map<String, Integer> constants;
+    private int constantCount;
+    private final int thisClass;
+    private final int superClass;
+    private final int[] interfaces;
+    private final List<Code> methods;
+
+    /**
+     * Construct a {@code ClassFileWriter}.
+     *
+     * @param   className       the internal name of the class (e.g. {@code "com/example/Name"})
+     * @param   superName       the internal name of the superclass
+     * @param   interfaceNames  the internal names of the interfaces implemented by the class
+     */
+    ClassFileWriter(String className, String superName, String... interfaceNames) {
+        constantPool = new ByteArrayOutputStream();
+        constantPoolData = new DataOutputStream(constantPool);
+        constants = new HashMap<>();
+        constantCount = 1;
+        thisClass = classRef(className);
+        superClass = classRef(superName);
+        interfaces = new int[interfaceNames.length];
+        for (int i = 0; i < interfaceNames.length; i++)
+            interfaces[i] = classRef(interfaceNames[i]);
+        methods = new ArrayList<>();
+    }
+
+    /**
+     * Get the constant pool index of a {@code CONSTANT_Utf8} entry, creating it if necessary.
+     *
+     * @param   value   the string
+     * @return  the index
+     */
+    int utf8(String value) {
+        String key = "U" + value;
+        Integer index = constants.get(key);
+        if (index != null)
+            return index;
+        try {
+            constantPoolData.writeByte(CONSTANT_Utf8);
+            byte[] bytes = modifiedUTF8(value);
+            constantPoolData.writeShort(bytes.length);
+            constantPoolData.write(bytes);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException(e); // can't happen - ByteArrayOutputStream
+        }
+        return addConstant(key);
+    }
+
+    /**
+     * Get the constant pool index of a {@code CONSTANT_Class} entry, creating it if
+     * necessary.
+     *
+     * @param   internalName    the internal name of the class (or the descriptor of an array
+     *                          class)
+     * @return  the index
+     */
+    int classRef(String internalName) {
+        String key = "C" + internalName;
+        Integer index = constants.get(key);
+        if (index != null)
+            return index;
+        int nameIndex = utf8(internalName);
+        writeEntry(CONSTANT_Class, nameIndex);
+        return addConstant(key);
+    }
+
+    /**
+     * Get the constant pool index of a {@code CONSTANT_Fieldref} entry, creating it if
+     * necessary.
+     *
+     * @param   owner       the internal name of the class declaring the field
+     * @param   name        the field name
+     * @param   descriptor  the field descriptor
+     * @return  the index
+     */
+    int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_Fieldref, owner, name, descriptor);
+    }
+
+    /**
+     * Get the constant pool index of a {@code CONSTANT_Methodref} entry, creating it if
+     * necessary.
+     *
+     * @param   owner       the internal name of the class declaring the method
+     * @param   name        the method name
+     * @param   descriptor  the method descriptor
+     * @return  the index
+     */
+    int methodRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_Methodref, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        String key = tag + owner + '.' + name + ':' + descriptor;
+        Integer index = constants.get(key);
+        if (index != null)
+            return index;
+        int classIndex = classRef(owner);
+        int nameAndTypeIndex = nameAndType(name, descriptor);
+        writeEntry(tag, classIndex, nameAndTypeIndex);
+        return addConstant(key);
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        String key = "N" + name + ':' + descriptor;
+        Integer index = constants.get(key);
+        if (index != null)
+            return index;
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        writeEntry(CONSTANT_NameAndType, nameIndex, descriptorIndex);
+        return addConstant(key);
+    }
+
+    private void writeEntry(int tag, int... values) {
+        try {
+            constantPoolData.writeByte(tag);
+            for (int value : values)
+                constantPoolData.writeShort(value);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException(e); // can't happen - ByteArrayOutputStream
+        }
+    }
+
+    private int addConstant(String key) {
+        int index = constantCount++;
+        constants.put(key, index);
+        return index;
+    }
+
+    /**
+     * Add a method to the class.
+     *
+     * @param   name        the method name
+     * @param   descriptor  the method descriptor
+     * @param   maxStack    the maximum depth of the operand stack
+     * @param   maxLocals   the number of local variables (including the parameters)
+     * @return  a {@link Code} object to which the instructions of the method are to be added
+     */
+    Code addMethod(String name, String descriptor, int maxStack, int maxLocals) {
+        Code code = new Code(utf8(name), utf8(descriptor), maxStack, maxLocals);
+        methods.add(code);
+        return code;
+    }
+
+    /**
+     * Create the class file.
+     *
+     * @return  the class file as a byte array
+     */
+    byte[] toByteArray() {
+        int codeIndex = utf8("Code");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0); // minor version
+            out.writeShort(49); // major version
+            out.writeShort(constantCount);
+            constantPool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.length);
+            for (int index : interfaces)
+                out.writeShort(index);
+            out.writeShort(0); // fields
+            out.writeShort(methods.size());
+            for (Code method : methods) {
+                out.writeShort(ACC_PUBLIC);
+                out.writeShort(method.nameIndex);
+                out.writeShort(method.descriptorIndex);
+                out.writeShort(1); // attributes
+                out.writeShort(codeIndex);
+                byte[] bytes = method.code.toByteArray();
+                out.writeInt(12 + bytes.length);
+                out.writeShort(method.maxStack);
+                out.writeShort(method.maxLocals);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                out.writeShort(0); // exception table
+                out.writeShort(0); // attributes
+            }
+            out.writeShort(0); // attributes
+        }
+        catch (IOException e) {
+            throw new IllegalStateException(e); // can't happen - ByteArrayOutputStream
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Encode a string in the "modified UTF-8" form used in class files.
+     *
+     * @param   value   the string
+     * @return  the encoded bytes
+     */
+    private static byte[] modifiedUTF8(String value) {
+        boolean simple = true;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char ch = value.charAt(i);
+            if (ch == 0 || ch >= 0x80) {
+                simple = false;
+                break;
+            }
+        }
+        if (simple)
+            return value.getBytes(StandardCharsets.US_ASCII);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char ch = value.charAt(i);
+            if (ch != 0 && ch < 0x80)
+                baos.write(ch);
+            else if (ch < 0x800) {
+                baos.write(0xC0 | (ch >> 6));
+                baos.write(0x80 | (ch & 0x3F));
+            }
+            else {
+                baos.write(0xE0 | (ch >> 12));
+                baos.write(0x80 | ((ch >> 6) & 0x3F));
+                baos.write(0x80 | (ch & 0x3F));
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * The code of a method.
+     */
+    static class Code {
+
+        private final int nameIndex;
+        private final int descriptorIndex;
+        private final int maxStack;
+        private final int maxLocals;
+        private final ByteArrayOutputStream code;
+
+        private Code(int nameIndex, int descriptorIndex, int maxStack, int maxLocals) {
+            this.nameIndex = nameIndex;
+            this.descriptorIndex = descriptorIndex;
+            this.maxStack = maxStack;
+            this.maxLocals = maxLocals;
+            code = new ByteArrayOutputStream();
+        }
+
+        /**
+         * Get the current offset in the code (for use as a branch target).
+         *
+         * @return  the offset
+         */
+        int offset() {
+            return code.size();
+        }
+
+        /**
+         * Add an instruction with no operands.
+         *
+         * @param   opcode  the opcode
+         */
+        void op(int opcode) {
+            code.write(opcode);
+        }
+
+        /**
+         * Add an instruction with a single-byte operand (e.g. a local variable index).
+         *
+         * @param   opcode  the opcode
+         * @param   operand the operand
+         */
+        void op1(int opcode, int operand) {
+            code.write(opcode);
+            code.write(operand);
+        }
+
+        /**
+         * Add an instruction with a two-byte operand (e.g. a constant pool index).
+         *
+         * @param   opcode  the opcode
+         * @param   operand the operand
+         */
+        void op2(int opcode, int operand) {
+            code.write(opcode);
+            code.write(operand >> 8);
+            code.write(operand);
+        }
+
+        /**
+         * Add a {@code tableswitch} instruction for the values {@code 0} to
+         * {@code targets.length - 1}.  The branch targets are offsets previously obtained from
+         * {@link #offset()}, or they may be patched later using {@link #patchSwitch}.
+         *
+         * @param   defaultTarget   the default branch target
+         * @param   targets         the branch targets
+         * @return  the offset of the instruction (for use with {@link #patchSwitch})
+         */
+        int tableSwitch(int defaultTarget, int[] targets) {
+            int start = code.size();
+            code.write(TABLESWITCH);
+            while (code.size() % 4 != 0)
+                code.write(0);
+            writeInt(defaultTarget - start);
+            writeInt(0);
+            writeInt(targets.length - 1);
+            for (int target : targets)
+                writeInt(target - start);
+            return start;
+        }
+
+        /**
+         * Patch the branch targets of a {@code tableswitch} instruction.
+         *
+         * @param   start           the offset of the instruction
+         * @param   defaultTarget   the default branch target
+         * @param   targets         the branch targets
+         */
+        void patchSwitch(int start, int defaultTarget, int[] targets) {
+            byte[] bytes = code.toByteArray();
+            int position = start + 1;
+            while (position % 4 != 0)
+                position++;
+            putInt(bytes, position, defaultTarget - start);
+            position += 12;
+            for (int target : targets) {
+                putInt(bytes, position, target - start);
+                position += 4;
+            }
+            code.reset();
+            code.write(bytes, 0, bytes.length);
+        }
+
+        private void writeInt(int value) {
+            code.write(value >> 24);
+            code.write(value >> 16);
+            code.write(value >> 8);
+            code.write(value);
+        }
+
+        private static void putInt(byte[] bytes, int position, int value) {
+            bytes[position] = (byte)(value >> 24);
+            bytes[position + 1] = (byte)(value >> 16);
+            bytes[position + 2] = (byte)(value >> 8);
+            bytes[position + 3] = (byte)value;
+        }
+
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * @(#) CompanionFinder.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import net.pwall.json.annotation.JSONSerializable;
+
+/**
+ * Locates the {@link JSONCompanion} (if any) for a class.  Companions are registered as
+ * services (in {@code META-INF/services/net.pwall.json.auto.JSONCompanion}, a file created by
+ * the annotation processor along with the companions), and they are located using a
+ * {@link ServiceLoader} for the class loader of the target class, so that no lookup of classes
+ * by name is required (this allows the companions to be used in a GraalVM native image without
+ * additional reflection configuration).  Only classes annotated with {@link JSONSerializable}
+ * are checked, and the result (including the absence of a companion) is cached, so that the
+ * lookup is performed only once for each class.
+ *
+ * @author Peter Wall
+ */
+class CompanionFinder {
+
+    private static final ClassValue<JSONCompanion<?>> companions =
+            new ClassValue<JSONCompanion<?>>() {
+        @Override
+        protected JSONCompanion<?> computeValue(Class<?> type) {
+            return findCompanion(type);
+        }
+    };
+
+    /**
+     * Get the {@link JSONCompanion} for the specified class.
+     *
+     * @param   targetClass     the class
+     * @return  the {@link JSONCompanion}, or {@code null} if the class does not have one
+     */
+    static JSONCompanion<?> forClass(Class<?> targetClass) {
+        return companions.get(targetClass);
+    }
+
+    /**
+     * Find the {@link JSONCompanion} for a class among those registered as services.
+     *
+     * @param   targetClass     the class
+     * @return  the {@link JSONCompanion}, or {@code null} if the class is not annotated with
+     *          {@link JSONSerializable}, or if no companion is registered for the class
+     */
+    private static JSONCompanion<?> findCompanion(Class<?> targetClass) {
+        if (!targetClass.isAnnotationPresent(JSONSerializable.class))
+            return null;
+        try {
+            for (JSONCompanion<?> companion :
+                    ServiceLoader.load(JSONCompanion.class, targetClass.getClassLoader()))
+                if (companion.getTargetClass() == targetClass)
+                    return companion;
+        }
+        catch (ServiceConfigurationError e) {
+            // fall back to reflection
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,303 @@
+/*
+ * @(#) DateFormatter.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import net.pwall.util.Strings;
+
+/**
+ * Formatter for the ISO 8601 representation of {@link java.util.Date Date} and
+ * {@link Calendar} values.  The output for a {@link java.util.Date Date} is identical to that
+ * obtained from the fields of a {@link Calendar} created by {@link Calendar#getInstance()},
+ * but for the common cases (a locale that uses the Gregorian calendar, a time zone from the
+ * time-zone database and dates between the years 1900 and 9999) the local date and time are
+ * computed directly from the epoch milliseconds, using an offset that is cached for the period
+ * between the zone-offset transitions either side of the last value formatted.
+ *
+ * @author Peter Wall
+ */
+final class DateFormatter {
+
+    private static final long millisPerDay = 24 * 60 * 60 * 1000;
+    // TimeZone ignores transitions before 1900, so earlier dates always use Calendar
+    private static final long minFastMillis = -25567 * millisPerDay; // 1900-01-01
+    private static final long maxFastMillis = 2932897 * millisPerDay; // 10000-01-01
+
+    private static volatile ZoneWindow lastWindow;
+    private static volatile LocaleCheck lastLocale;
+
+    private DateFormatter() {
+    }
+
+    /**
+     * Append the ISO 8601 representation of a {@link java.util.Date Date} (expressed as
+     * milliseconds since the epoch) to an {@link Appendable}, using the default time zone and
+     * locale.  The result is the same as that from {@link #appendCalendar(Appendable,
+     * Calendar)} with a {@link Calendar} obtained from {@link Calendar#getInstance()}.
+     *
+     * @param   a       the {@link Appendable}
+     * @param   millis  the date as milliseconds since the epoch
+     * @throws  IOException if thrown by the {@link Appendable}
+     */
+    static void appendDate(Appendable a, long millis) throws IOException {
+        if (!isGregorianLocale(Locale.getDefault(Locale.Category.FORMAT)) ||
+                !appendFast(a, millis, TimeZone.getDefault())) {
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(millis);
+            appendCalendar(a, calendar);
+        }
+    }
+
+    /**
+     * Append the ISO 8601 representation of a {@link Calendar} to an {@link Appendable},
+     * using the fields of the {@link Calendar} (these may have been set explicitly, so a
+     * {@link Calendar} is never formatted from its epoch milliseconds).
+     *
+     * @param   a           the {@link Appendable}
+     * @param   calendar    the {@link Calendar}
+     * @throws  IOException if thrown by the {@link Appendable}
+     */
+    static void appendCalendar(Appendable a, Calendar calendar) throws IOException {
+        Strings.appendPositiveInt(a, calendar.get(Calendar.YEAR));
+        a.append('-');
+        Strings.append2Digits(a, calendar.get(Calendar.MONTH) + 1);
+        a.append('-');
+        Strings.append2Digits(a, calendar.get(Calendar.DAY_OF_MONTH));
+        a.append('T');
+        Strings.append2Digits(a, calendar.get(Calendar.HOUR_OF_DAY));
+        a.append(':');
+        Strings.append2Digits(a, calendar.get(Calendar.MINUTE));
+        a.append(':');
+        Strings.append2Digits(a, calendar.get(Calendar.SECOND));
+        a.append('.');
+        Strings.append3Digits(a, calendar.get(Calendar.MILLISECOND));
+        int offset = calendar.get(Calendar.ZONE_OFFSET);
+        if (calendar.getTimeZone().inDaylightTime(calendar.getTime()))
+            offset += calendar.get(Calendar.DST_OFFSET);
+        appendOffset(a, offset);
+    }
+
+    /**
+     * Append the ISO 8601 representation of a date in a given time zone, if the fast path is
+     * applicable.  Nothing is output if the method returns {@code false}.  The caller is
+     * responsible for checking that the locale uses the Gregorian calendar.
+     *
+     * @param   a       the {@link Appendable}
+     * @param   millis  the date as milliseconds since the epoch
+     * @param   zone    the {@link TimeZone}
+     * @return  {@code true} if the date has been output
+     * @throws  IOException if thrown by the {@link Appendable}
+     */
+    static boolean appendFast(Appendable a, long millis, TimeZone zone) throws IOException {
+        if (millis < minFastMillis || millis >= maxFastMillis)
+            return false;
+        ZoneWindow window = lastWindow;
+        if (window == null || millis < window.start || millis >= window.end ||
+                !sameZone(window.zone, zone)) {
+            window = ZoneWindow.create(window, millis, zone);
+            lastWindow = window;
+        }
+        if (window.rules == null)
+            return false;
+        long local = millis + window.offset;
+        long epochDay = Math.floorDiv(local, millisPerDay);
+        int millisOfDay = (int)Math.floorMod(local, millisPerDay);
+
+        // convert epoch day to year, month and day (as in java.time.LocalDate.ofEpochDay)
+
+        long zeroDay = epochDay + 719528 - 60; // days since 0000-03-01
+        long yearEst = (400 * zeroDay + 591) / 146097;
+        long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        if (doyEst < 0) {
+            yearEst--;
+            doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        }
+        int marchDoy0 = (int)doyEst;
+        int marchMonth0 = (marchDoy0 * 5 + 2) / 153;
+        int month = (marchMonth0 + 2) % 12 + 1;
+        int day = marchDoy0 - (marchMonth0 * 306 + 5) / 10 + 1;
+        int year = (int)(yearEst + marchMonth0 / 10);
+
+        Strings.appendPositiveInt(a, year);
+        a.append('-');
+        Strings.append2Digits(a, month);
+        a.append('-');
+        Strings.append2Digits(a, day);
+        a.append('T');
+        int seconds = millisOfDay / 1000;
+        Strings.append2Digits(a, seconds / 3600);
+        a.append(':');
+        Strings.append2Digits(a, seconds / 60 % 60);
+        a.append(':');
+        Strings.append2Digits(a, seconds % 60);
+        a.append('.');
+        Strings.append3Digits(a, millisOfDay % 1000);
+        appendOffset(a, window.offset);
+        return true;
+    }
+
+    /**
+     * Append a time zone offset, or {@code Z} for UTC.
+     *
+     * @param   a       the {@link Appendable}
+     * @param   offset  the offset in milliseconds
+     * @throws  IOException if thrown by the {@link Appendable}
+     */
+    private static void appendOffset(Appendable a, int offset) throws IOException {
+        offset /= 60 * 1000;
+        if (offset == 0)
+            a.append('Z');
+        else {
+            if (offset < 0) {
+                a.append('-');
+                offset = -offset;
+            }
+            else
+                a.append('+');
+            Strings.append2Digits(a, offset / 60);
+            a.append(':');
+            Strings.append2Digits(a, offset % 60);
+        }
+    }
+
+    private static boolean sameZone(TimeZone zone1, TimeZone zone2) {
+        return zone1 == zone2 || zone1.getID().equals(zone2.getID()) && zone1.hasSameRules(zone2);
+    }
+
+    /**
+     * Test whether {@link Calendar#getInstance()} will create a {@link GregorianCalendar} for
+     * the given locale.  The result for the last locale tested is cached.
+     *
+     * @param   locale  the {@link Locale}
+     * @return  {@code true} if the locale uses the Gregorian calendar
+     */
+    private static boolean isGregorianLocale(Locale locale) {
+        LocaleCheck check = lastLocale;
+        if (check == null || check.locale != locale) {
+            check = new LocaleCheck(locale, !locale.hasExtensions() &&
+                    Calendar.getInstance(locale).getClass() == GregorianCalendar.class);
+            lastLocale = check;
+        }
+        return check.gregorian;
+    }
+
+    /**
+     * The result of a locale check.
+     */
+    private static final class LocaleCheck {
+
+        private final Locale locale;
+        private final boolean gregorian;
+
+        private LocaleCheck(Locale locale, boolean gregorian) {
+            this.locale = locale;
+            this.gregorian = gregorian;
+        }
+
+    }
+
+    /**
+     * A period during which the offset of a time zone from UTC is constant, bounded by the
+     * zone-offset transitions either side of it.  A {@code null} {@link ZoneRules} indicates a
+     * time zone for which the fast path can not be used (one that does not correspond to a
+     * zone in the time-zone database).
+     */
+    private static final class ZoneWindow {
+
+        private final TimeZone zone;
+        private final ZoneRules rules;
+        private final long start;
+        private final long end;
+        private final int offset;
+
+        private ZoneWindow(TimeZone zone, ZoneRules rules, long start, long end, int offset) {
+            this.zone = zone;
+            this.rules = rules;
+            this.start = start;
+            this.end = end;
+            this.offset = offset;
+        }
+
+        /**
+         * Create a {@code ZoneWindow} containing the specified instant.
+         *
+         * @param   previous    the previous {@code ZoneWindow} (its rules will be re-used if
+         *                      it is for the same time zone)
+         * @param   millis      the instant as milliseconds since the epoch
+         * @param   zone        the {@link TimeZone}
+         * @return  the new {@code ZoneWindow}
+         */
+        private static ZoneWindow create(ZoneWindow previous, long millis, TimeZone zone) {
+            ZoneRules rules;
+            if (previous != null && sameZone(previous.zone, zone)) {
+                zone = previous.zone;
+                rules = previous.rules;
+            }
+            else {
+                zone = (TimeZone)zone.clone(); // guard against later modification
+                rules = findRules(zone);
+            }
+            if (rules == null)
+                return new ZoneWindow(zone, null, Long.MIN_VALUE, Long.MAX_VALUE, 0);
+            ZoneOffsetTransition prev = rules.previousTransition(Instant.ofEpochMilli(millis + 1));
+            ZoneOffsetTransition next = rules.nextTransition(Instant.ofEpochMilli(millis));
+            return new ZoneWindow(zone, rules,
+                    prev == null ? Long.MIN_VALUE : prev.getInstant().toEpochMilli(),
+                    next == null ? Long.MAX_VALUE : next.getInstant().toEpochMilli(),
+                    zone.getOffset(millis));
+        }
+
+        /**
+         * Find the {@link ZoneRules} for a {@link TimeZone}, provided that the time zone
+         * has the same rules as the time-zone database entry of the same name.
+         *
+         * @param   zone    the {@link TimeZone}
+         * @return  the {@link ZoneRules}, or {@code null} if not found
+         */
+        private static ZoneRules findRules(TimeZone zone) {
+            try {
+                ZoneId zoneId = ZoneId.of(zone.getID());
+                if (TimeZone.getTimeZone(zoneId).hasSameRules(zone))
+                    return zoneId.getRules();
+            }
+            catch (DateTimeException ignore) {
+            }
+            return null;
+        }
+
+    }
+
+}
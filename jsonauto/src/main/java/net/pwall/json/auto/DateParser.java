@@ -0,0 +1,458 @@
+/*
+ * @(#) DateParser.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.pwall.util.ISO8601Date;
+
+/**
+ * Parsers for the common shapes of ISO 8601 date and time strings, used in preference to the
+ * {@code parse()} methods of the {@code java.time} classes and to {@link ISO8601Date#decode(
+ * CharSequence)}, which are general but comparatively slow.  Each method returns {@code null}
+ * if the string is not of the expected form (or is out of range), and the caller must then use
+ * the general parser, which will either accept the string or produce the appropriate error.
+ *
+ * <p>The forms accepted are:</p>
+ * <ul>
+ *   <li>date: {@code yyyy-MM-dd}</li>
+ *   <li>time: {@code HH:mm}, {@code HH:mm:ss} or {@code HH:mm:ss.S} with 1 to 9 fraction
+ *   digits</li>
+ *   <li>offset: {@code Z} or {@code +HH:mm} / {@code -HH:mm}</li>
+ * </ul>
+ * <p>A {@link Date} or {@link Calendar} requires seconds, no fraction or exactly 3 fraction
+ * digits, and an offset.</p>
+ *
+ * @author Peter Wall
+ */
+final class DateParser {
+
+    private static final long nanosPerSecond = 1_000_000_000L;
+    private static final int secondsPerDay = 24 * 60 * 60;
+    private static final int minCalendarYear = 1600; // avoid the Julian-Gregorian cutover
+    private static final int minCalendarOffset = -13 * 60 * 60; // range of ZONE_OFFSET
+    private static final int maxCalendarOffset = 14 * 60 * 60;
+    private static final int[] fractionScale = { 0, 100_000_000, 10_000_000, 1_000_000,
+            100_000, 10_000, 1_000, 100, 10, 1 };
+
+    private static final ConcurrentMap<Integer, TimeZone> calendarZones =
+            new ConcurrentHashMap<>();
+
+    private DateParser() {
+    }
+
+    /**
+     * Parse a string to a {@link LocalDate} (form: {@code yyyy-MM-dd}).
+     *
+     * @param   s       the string
+     * @return  the {@link LocalDate}, or {@code null} if the string is not of the expected form
+     */
+    static LocalDate parseLocalDate(CharSequence s) {
+        int date;
+        if (s.length() != 10 || (date = date(s)) < 0)
+            return null;
+        return LocalDate.of(date / 10000, date / 100 % 100, date % 100);
+    }
+
+    /**
+     * Parse a string to a {@link LocalDateTime} (form: date {@code T} time).
+     *
+     * @param   s       the string
+     * @return  the {@link LocalDateTime}, or {@code null} if the string is not of the expected form
+     */
+    static LocalDateTime parseLocalDateTime(CharSequence s) {
+        if (s.length() < 16 || s.charAt(10) != 'T' || timeEnd(s, 11) != s.length())
+            return null;
+        return dateTime(s, s.length());
+    }
+
+    /**
+     * Parse a string to an {@link OffsetDateTime} (form: date {@code T} time offset).
+     *
+     * @param   s       the string
+     * @return  the {@link OffsetDateTime}, or {@code null} if the string is not of the
+     *          expected form
+     */
+    static OffsetDateTime parseOffsetDateTime(CharSequence s) {
+        LocalDateTime dateTime;
+        ZoneOffset offset;
+        int end;
+        if (s.length() < 17 || s.charAt(10) != 'T' || (end = timeEnd(s, 11)) < 0 ||
+                (offset = offset(s, end)) == null || (dateTime = dateTime(s, end)) == null)
+            return null;
+        return OffsetDateTime.of(dateTime, offset);
+    }
+
+    /**
+     * Parse a string to a {@link ZonedDateTime} (form: date {@code T} time offset, without a
+     * zone ID).
+     *
+     * @param   s       the string
+     * @return  the {@link ZonedDateTime}, or {@code null} if the string is not of the expected form
+     */
+    static ZonedDateTime parseZonedDateTime(CharSequence s) {
+        OffsetDateTime dateTime = parseOffsetDateTime(s);
+        return dateTime == null ? null : dateTime.toZonedDateTime();
+    }
+
+    /**
+     * Parse a string to an {@link OffsetTime} (form: time offset).
+     *
+     * @param   s       the string
+     * @return  the {@link OffsetTime}, or {@code null} if the string is not of the expected form
+     */
+    static OffsetTime parseOffsetTime(CharSequence s) {
+        ZoneOffset offset;
+        int end;
+        long time;
+        if ((end = timeEnd(s, 0)) < 0 || (offset = offset(s, end)) == null ||
+                (time = time(s, 0, end)) < 0)
+            return null;
+        return OffsetTime.of(LocalTime.ofNanoOfDay(time), offset);
+    }
+
+    /**
+     * Parse a string to an {@link Instant} (form: date {@code T} time {@code Z}, where the time
+     * must include seconds).
+     *
+     * @param   s       the string
+     * @return  the {@link Instant}, or {@code null} if the string is not of the expected form
+     */
+    static Instant parseInstant(CharSequence s) {
+        int n = s.length();
+        int date;
+        long time;
+        if (n < 20 || s.charAt(10) != 'T' || s.charAt(16) != ':' || timeEnd(s, 11) != n - 1 ||
+                s.charAt(n - 1) != 'Z' || (date = date(s)) < 0 || (time = time(s, 11, n - 1)) < 0)
+            return null;
+        long seconds = epochDay(date) * secondsPerDay + time / nanosPerSecond;
+        return Instant.ofEpochSecond(seconds, time % nanosPerSecond);
+    }
+
+    /**
+     * Parse a string to a {@link Year} (form: {@code yyyy}).
+     *
+     * @param   s       the string
+     * @return  the {@link Year}, or {@code null} if the string is not of the expected form
+     */
+    static Year parseYear(CharSequence s) {
+        int year;
+        if (s.length() != 4 || (year = digits(s, 0, 4)) < 0)
+            return null;
+        return Year.of(year);
+    }
+
+    /**
+     * Parse a string to a {@link YearMonth} (form: {@code yyyy-MM}).
+     *
+     * @param   s       the string
+     * @return  the {@link YearMonth}, or {@code null} if the string is not of the expected form
+     */
+    static YearMonth parseYearMonth(CharSequence s) {
+        int year;
+        int month;
+        if (s.length() != 7 || s.charAt(4) != '-' || (year = digits(s, 0, 4)) < 0 ||
+                (month = digits(s, 5, 2)) < 1 || month > 12)
+            return null;
+        return YearMonth.of(year, month);
+    }
+
+    /**
+     * Parse a string to a {@link Date} (form: date {@code T} time offset).
+     *
+     * @param   s       the string
+     * @return  the {@link Date}, or {@code null} if the string is not of the expected form
+     */
+    static Date parseDate(CharSequence s) {
+        long millis = calendarMillis(s);
+        return millis == Long.MIN_VALUE ? null : new Date(millis);
+    }
+
+    /**
+     * Parse a string to a {@link Calendar}.  The {@link Calendar} is created by
+     * {@link ISO8601Date#getCalendar()}, and its fields and time zone are set in the same way
+     * as by {@link ISO8601Date#decode(CharSequence)}, so that the result is equal to the
+     * result of that method (in particular, the {@code ZONE_OFFSET} field is set explicitly).
+     *
+     * @param   s       the string
+     * @return  the {@link Calendar}, or {@code null} if the string is not of the expected form
+     */
+    static Calendar parseCalendar(CharSequence s) {
+        if (calendarMillis(s) == Long.MIN_VALUE)
+            return null;
+        Calendar calendar = ISO8601Date.getCalendar();
+        if (calendar.getClass() != GregorianCalendar.class)
+            return null;
+        calendar.clear();
+        calendar.set(digits(s, 0, 4), digits(s, 5, 2) - 1, digits(s, 8, 2), digits(s, 11, 2),
+                digits(s, 14, 2), digits(s, 17, 2));
+        int n = s.length();
+        if (s.charAt(19) == '.')
+            calendar.set(Calendar.MILLISECOND, digits(s, 20, 3));
+        if (s.charAt(n - 1) == 'Z') {
+            calendar.setTimeZone(calendarZone('Z', 0, 0));
+            calendar.set(Calendar.ZONE_OFFSET, 0);
+        }
+        else {
+            char sign = s.charAt(n - 6);
+            int hours = digits(s, n - 5, 2);
+            int minutes = digits(s, n - 2, 2);
+            calendar.setTimeZone(calendarZone(sign, hours, minutes));
+            int offset = (hours * 60 + minutes) * 60 * 1000;
+            calendar.set(Calendar.ZONE_OFFSET, sign == '-' ? -offset : offset);
+        }
+        return calendar;
+    }
+
+    /**
+     * Get the time zone for a {@link Calendar}, using the same time zone ID as
+     * {@link ISO8601Date#decode(CharSequence)} (including its handling of IDs that are not
+     * recognised, which result in GMT).  The {@link TimeZone} objects are cached, and a copy
+     * is returned.
+     *
+     * @param   sign        the sign of the offset ({@code +} or {@code -}), or {@code Z}
+     * @param   hours       the hours of the offset
+     * @param   minutes     the minutes of the offset
+     * @return  the {@link TimeZone}
+     */
+    private static TimeZone calendarZone(char sign, int hours, int minutes) {
+        Integer key = sign == 'Z' ? -1 : (sign == '-' ? 10000 : 0) + hours * 100 + minutes;
+        TimeZone zone = calendarZones.computeIfAbsent(key, k -> TimeZone.getTimeZone(
+                sign == 'Z' ? "GMT" : "GMT" + sign + hours + ':' + minutes));
+        return (TimeZone)zone.clone();
+    }
+
+    /**
+     * Parse a string in the form used for a {@link Date} or {@link Calendar}.  Only the forms
+     * with the fields in fixed positions are accepted (as relied on by
+     * {@link #parseCalendar(CharSequence)}).
+     *
+     * @param   s       the string
+     * @return  the time in milliseconds since the epoch, or {@link Long#MIN_VALUE} if the
+     *          string is not of the expected form
+     */
+    private static long calendarMillis(CharSequence s) {
+        int n = s.length();
+        int end;
+        int date;
+        long time;
+        ZoneOffset offset;
+        if (n < 20 || s.charAt(10) != 'T' || (end = timeEnd(s, 11)) != 19 && end != 23 ||
+                (offset = offset(s, end)) == null || (date = date(s)) < 0 ||
+                date / 10000 < minCalendarYear || (time = time(s, 11, end)) < 0 ||
+                offset.getTotalSeconds() < minCalendarOffset ||
+                offset.getTotalSeconds() > maxCalendarOffset)
+            return Long.MIN_VALUE;
+        long seconds = epochDay(date) * secondsPerDay + time / nanosPerSecond -
+                offset.getTotalSeconds();
+        return seconds * 1000 + time % nanosPerSecond / 1_000_000;
+    }
+
+    /**
+     * Parse a date in the form {@code yyyy-MM-dd} at the start of a string.
+     *
+     * @param   s       the string
+     * @return  the date as {@code yyyyMMdd}, or -1 if not valid
+     */
+    private static int date(CharSequence s) {
+        if (s.length() < 10 || s.charAt(4) != '-' || s.charAt(7) != '-')
+            return -1;
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 28 &&
+                day > lengthOfMonth(year, month))
+            return -1;
+        return year * 10000 + month * 100 + day;
+    }
+
+    /**
+     * Parse a date and time in the form {@code yyyy-MM-ddTHH:mm[:ss[.S]]}, the format of the
+     * time having already been checked by {@link #timeEnd(CharSequence, int)}.
+     *
+     * @param   s       the string
+     * @param   end     the end index of the time
+     * @return  the {@link LocalDateTime}, or {@code null} if not valid
+     */
+    private static LocalDateTime dateTime(CharSequence s, int end) {
+        int date = date(s);
+        long time = time(s, 11, end);
+        if (date < 0 || time < 0)
+            return null;
+        return LocalDateTime.of(LocalDate.of(date / 10000, date / 100 % 100, date % 100),
+                LocalTime.ofNanoOfDay(time));
+    }
+
+    /**
+     * Find the end of a time in the form {@code HH:mm[:ss[.S]]} (checking the format only).
+     *
+     * @param   s       the string
+     * @param   i       the start index
+     * @return  the end index, or -1 if not valid
+     */
+    private static int timeEnd(CharSequence s, int i) {
+        int n = s.length();
+        if (i + 5 > n || s.charAt(i + 2) != ':')
+            return -1;
+        int j = i + 5;
+        if (j < n && s.charAt(j) == ':') {
+            if (j + 3 > n)
+                return -1;
+            j += 3;
+            if (j < n && s.charAt(j) == '.') {
+                int start = ++j;
+                while (j < n && isDigit(s.charAt(j)))
+                    j++;
+                if (j == start || j - start > 9)
+                    return -1;
+            }
+        }
+        return j;
+    }
+
+    /**
+     * Parse a time in the form {@code HH:mm[:ss[.S]]}, the format of which has already been
+     * checked by {@link #timeEnd(CharSequence, int)}.
+     *
+     * @param   s       the string
+     * @param   i       the start index
+     * @param   end     the end index
+     * @return  the nano of day, or -1 if not valid
+     */
+    private static long time(CharSequence s, int i, int end) {
+        int hour = digits(s, i, 2);
+        int minute = digits(s, i + 3, 2);
+        int second = 0;
+        int nanos = 0;
+        if (end > i + 5) {
+            second = digits(s, i + 6, 2);
+            if (end > i + 8) {
+                int length = end - i - 9;
+                nanos = digits(s, i + 9, length);
+                if (nanos < 0)
+                    return -1;
+                nanos *= fractionScale[length];
+            }
+        }
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59)
+            return -1;
+        return ((hour * 60 + minute) * 60 + second) * nanosPerSecond + nanos;
+    }
+
+    /**
+     * Parse an offset in the form {@code Z} or {@code +HH:mm} / {@code -HH:mm}, which must
+     * occupy the remainder of the string.
+     *
+     * @param   s       the string
+     * @param   i       the start index
+     * @return  the {@link ZoneOffset}, or {@code null} if not valid
+     */
+    private static ZoneOffset offset(CharSequence s, int i) {
+        int n = s.length();
+        if (i == n - 1 && s.charAt(i) == 'Z')
+            return ZoneOffset.UTC;
+        if (i != n - 6 || s.charAt(i + 3) != ':')
+            return null;
+        char sign = s.charAt(i);
+        int hours = digits(s, i + 1, 2);
+        int minutes = digits(s, i + 4, 2);
+        if (sign != '+' && sign != '-' || hours < 0 || hours > 17 || minutes < 0 ||
+                minutes > 59)
+            return null;
+        return sign == '+' ? ZoneOffset.ofHoursMinutes(hours, minutes) :
+                ZoneOffset.ofHoursMinutes(-hours, -minutes);
+    }
+
+    /**
+     * Parse a fixed number of decimal digits.
+     *
+     * @param   s       the string
+     * @param   i       the start index
+     * @param   n       the number of digits
+     * @return  the value, or -1 if any character is not a digit
+     */
+    private static int digits(CharSequence s, int i, int n) {
+        int result = 0;
+        for (int end = i + n; i < end; i++) {
+            char ch = s.charAt(i);
+            if (!isDigit(ch))
+                return -1;
+            result = result * 10 + ch - '0';
+        }
+        return result;
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch >= '0' && ch <= '9';
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+        case 2:
+            return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /**
+     * Convert a date to an epoch day (as in {@link LocalDate#toEpochDay()}).
+     *
+     * @param   date    the date as {@code yyyyMMdd}
+     * @return  the epoch day
+     */
+    private static long epochDay(int date) {
+        long year = date / 10000;
+        int month = date / 100 % 100;
+        int day = date % 100;
+        long total = 365 * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400 +
+                (367 * month - 362) / 12 + day - 1;
+        if (month > 2)
+            total -= (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0) ? 1 : 2;
+        return total - 719528;
+    }
+
+}
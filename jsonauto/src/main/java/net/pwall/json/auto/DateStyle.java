@@ -0,0 +1,50 @@
+/*
+ * @(#) DateStyle.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * The representation used for {@link Date} and {@link Calendar} values.
+ *
+ * @author Peter Wall
+ */
+public enum DateStyle {
+
+    /**
+     * An ISO 8601 date-time string, with milliseconds and time zone offset (e.g.
+     * {@code "2019-04-25T18:52:47.123+10:00"}).  This is the default.
+     */
+    ISO_8601,
+
+    /**
+     * The number of milliseconds since the epoch (1970-01-01T00:00:00Z).  On deserialization,
+     * the ISO 8601 string form is also accepted.
+     */
+    EPOCH_MILLIS
+
+}
@@ -0,0 +1,335 @@
+/*
+ * @(#) DeserializationPlan.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.pwall.json.annotation.JSONIgnore;
+import net.pwall.json.annotation.JSONName;
+
+/**
+ * The deserialization plan for a class.  This holds the no-argument constructor for the
+ * class, and an index mapping JSON property names to the fields (including those of the
+ * superclasses) to which they are to be bound, with the type information for each field
+ * resolved in advance.  Plans are created on first use and cached for the life of the class.
+ *
+ * @author Peter Wall
+ */
+class DeserializationPlan {
+
+    private static final ClassValue<DeserializationPlan> plans =
+            new ClassValue<DeserializationPlan>() {
+        @Override
+        protected DeserializationPlan computeValue(Class<?> type) {
+            return new DeserializationPlan(type, AccessEngine.getDefault(),
+                    NamingStrategy.AS_DECLARED);
+        }
+    };
+
+    private final Class<?> resultClass;
+    private final Constructor<?> constructor;
+    private final GeneratedAccessor generatedAccessor;
+    private final List<Field> accessorFields;
+    private final NamingStrategy naming;
+    private final Map<String, Property> properties;
+
+    /**
+     * Construct a {@code DeserializationPlan} for the specified class.
+     *
+     * @param   resultClass     the class
+     * @param   engine          the {@link AccessEngine} to be used to access the fields
+     * @param   naming          the {@link NamingStrategy} for fields without a {@link JSONName}
+     */
+    DeserializationPlan(Class<?> resultClass, AccessEngine engine, NamingStrategy naming) {
+        this.resultClass = resultClass;
+        Constructor<?> noArgConstructor = null;
+        try {
+            noArgConstructor = resultClass.getConstructor();
+            noArgConstructor.setAccessible(true);
+        }
+        catch (NoSuchMethodException e) {
+            // reported by newInstance()
+        }
+        constructor = noArgConstructor;
+        generatedAccessor = engine == AccessEngine.GENERATED ?
+                AccessorGenerator.forClass(resultClass) : null;
+        accessorFields = generatedAccessor != null ?
+                SerializationPlan.serializableFields(resultClass) : null;
+        this.naming = naming;
+        properties = new HashMap<>();
+        for (Class<?> cls = resultClass; cls != null; cls = cls.getSuperclass())
+            addProperties(cls);
+    }
+
+    /**
+     * Get the {@code DeserializationPlan} for the specified class with the default settings,
+     * creating it if necessary.
+     *
+     * @param   resultClass     the class
+     * @return  the {@code DeserializationPlan}
+     */
+    static DeserializationPlan forClass(Class<?> resultClass) {
+        return plans.get(resultClass);
+    }
+
+    /**
+     * Create a new instance of the class using the no-argument constructor.
+     *
+     * @return  the new instance
+     * @throws  ReflectiveOperationException if the class has no public no-argument
+     *          constructor, or if the invocation of the constructor fails
+     */
+    Object newInstance() throws ReflectiveOperationException {
+        if (constructor == null)
+            throw new NoSuchMethodException(resultClass.getName() + ".<init>()");
+        if (generatedAccessor != null) {
+            Object result = generatedAccessor.newInstance();
+            if (result != null)
+                return result;
+        }
+        return constructor.newInstance();
+    }
+
+    /**
+     * Get the property for a JSON property name.
+     *
+     * @param   name    the JSON property name
+     * @return  the property, or {@code null} if no field matches the name
+     */
+    Property getProperty(String name) {
+        return properties.get(name);
+    }
+
+    /**
+     * Add the fields of a class to the index.  Fields with a {@link JSONName} annotation take
+     * precedence over fields matched by name, and the fields of a class take precedence over
+     * those of its superclasses, so each name is only added if it is not already present.
+     *
+     * @param   cls     the class
+     */
+    private void addProperties(Class<?> cls) {
+        Field[] fields = cls.getDeclaredFields();
+        for (Field field : fields) {
+            JSONName nameAnnotation = field.getAnnotation(JSONName.class);
+            if (nameAnnotation != null)
+                properties.computeIfAbsent(nameAnnotation.value(), k -> createProperty(field));
+        }
+        for (Field field : fields)
+            properties.computeIfAbsent(naming.apply(field.getName()), k -> createProperty(field));
+    }
+
+    /**
+     * Create a {@link Property} for a field, using the {@link GeneratedAccessor} (if any) for
+     * the class.
+     *
+     * @param   field   the {@link Field}
+     * @return  the {@link Property}
+     */
+    private Property createProperty(Field field) {
+        if (generatedAccessor == null)
+            return new Property(field, null, -1);
+        int index = accessorFields.indexOf(field);
+        return new Property(field, index >= 0 ? generatedAccessor : null, index);
+    }
+
+    /**
+     * A single property (field) in the deserialization plan.
+     */
+    static class Property {
+
+        private final Field field;
+        private final FieldAccessor accessor;
+        private final GeneratedAccessor generatedAccessor;
+        private final int index;
+        private final boolean accessible;
+        private final Class<?> type;
+        private final Type[] typeArgs;
+
+        /**
+         * Construct a {@code Property} from a {@link Field}.
+         *
+         * @param   field               the {@link Field}
+         * @param   generatedAccessor   the {@link GeneratedAccessor} for the class, or
+         *                              {@code null}
+         * @param   index               the index of the field in the {@link GeneratedAccessor}
+         */
+        Property(Field field, GeneratedAccessor generatedAccessor, int index) {
+            this.field = field;
+            this.generatedAccessor = generatedAccessor;
+            this.index = index;
+            accessible = !SerializationPlan.fieldStaticOrTransient(field) &&
+                    !field.isAnnotationPresent(JSONIgnore.class);
+            type = field.getType();
+            Type genericType = field.getGenericType();
+            typeArgs = genericType instanceof ParameterizedType ?
+                    ((ParameterizedType)genericType).getActualTypeArguments() : null;
+            if (accessible) {
+                try {
+                    field.setAccessible(true);
+                }
+                catch (Exception e) {
+                    // ignore - the error will be reported when the field is accessed
+                }
+                accessor = new FieldAccessor(field);
+            }
+            else
+                accessor = null;
+        }
+
+        /**
+         * Get the {@link Field}.
+         *
+         * @return  the {@link Field}
+         */
+        Field getField() {
+            return field;
+        }
+
+        /**
+         * Set the value of the field in an object.  This must only be called if
+         * {@link #isAccessible()} returns {@code true}.
+         *
+         * @param   object  the object
+         * @param   value   the value (boxed, if the field is of a primitive type)
+         * @throws  IllegalAccessException if the field is not accessible
+         */
+        void setValue(Object object, Object value) throws IllegalAccessException {
+            if (generatedAccessor == null || !generatedAccessor.set(object, index, value))
+                accessor.set(object, value);
+        }
+
+        /**
+         * Get the {@link FieldAccessor.PrimitiveKind} of the field.  If this is not
+         * {@link FieldAccessor.PrimitiveKind#NONE NONE}, the value may be set without boxing
+         * using the corresponding typed method ({@link #setInt(Object, int)} etc.), through the
+         * {@link GeneratedAccessor} if there is one (and it can set the field), or the
+         * {@link FieldAccessor} otherwise.
+         *
+         * @return  the {@link FieldAccessor.PrimitiveKind} ({@link FieldAccessor.PrimitiveKind#NONE
+         *          NONE} if the field is not accessible)
+         */
+        FieldAccessor.PrimitiveKind getPrimitiveKind() {
+            return accessor != null ? accessor.getPrimitiveKind() :
+                    FieldAccessor.PrimitiveKind.NONE;
+        }
+
+        /**
+         * Set the value of an {@code int}, {@code short} or {@code byte} field.
+         *
+         * @param   object  the object
+         * @param   value   the value
+         * @throws  IllegalAccessException if the field is not accessible
+         */
+        void setInt(Object object, int value) throws IllegalAccessException {
+            if (generatedAccessor == null || !generatedAccessor.setInt(object, index, value))
+                accessor.setInt(object, value);
+        }
+
+        /**
+         * Set the value of a {@code long} field.
+         *
+         * @param   object  the object
+         * @param   value   the value
+         * @throws  IllegalAccessException if the field is not accessible
+         */
+        void setLong(Object object, long value) throws IllegalAccessException {
+            if (generatedAccessor == null || !generatedAccessor.setLong(object, index, value))
+                accessor.setLong(object, value);
+        }
+
+        /**
+         * Set the value of a {@code float} field.
+         *
+         * @param   object  the object
+         * @param   value   the value
+         * @throws  IllegalAccessException if the field is not accessible
+         */
+        void setFloat(Object object, float value) throws IllegalAccessException {
+            if (generatedAccessor == null || !generatedAccessor.setFloat(object, index, value))
+                accessor.setFloat(object, value);
+        }
+
+        /**
+         * Set the value of a {@code double} field.
+         *
+         * @param   object  the object
+         * @param   value   the value
+         * @throws  IllegalAccessException if the field is not accessible
+         */
+        void setDouble(Object object, double value) throws IllegalAccessException {
+            if (generatedAccessor == null || !generatedAccessor.setDouble(object, index, value))
+                accessor.setDouble(object, value);
+        }
+
+        /**
+         * Set the value of a {@code boolean} field.
+         *
+         * @param   object  the object
+         * @param   value   the value
+         * @throws  IllegalAccessException if the field is not accessible
+         */
+        void setBoolean(Object object, boolean value) throws IllegalAccessException {
+            if (generatedAccessor == null || !generatedAccessor.setBoolean(object, index, value))
+                accessor.setBoolean(object, value);
+        }
+
+        /**
+         * Test whether the field may be set by deserialization (it is not {@code static} or
+         * {@code transient}, and it is not annotated with {@link JSONIgnore}).
+         *
+         * @return  {@code true} if the field may be set
+         */
+        boolean isAccessible() {
+            return accessible;
+        }
+
+        /**
+         * Get the class of the field.
+         *
+         * @return  the class
+         */
+        Class<?> getType() {
+            return type;
+        }
+
+        /**
+         * Get the actual type arguments of the field, if it is of a parameterized type.
+         *
+         * @return  the type arguments, or {@code null}
+         */
+        Type[] getTypeArgs() {
+            return typeArgs;
+        }
+
+    }
+
+}
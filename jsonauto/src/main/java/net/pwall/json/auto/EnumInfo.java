@@ -0,0 +1,290 @@
+/*
+ * @(#) EnumInfo.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import net.pwall.json.JSONException;
+import net.pwall.json.JSONString;
+import net.pwall.json.annotation.JSONName;
+
+/**
+ * Cached information about an {@code enum} class: the JSON form of each constant, pre-built as
+ * a {@link JSONString}, as a string and as UTF-8 bytes, and sorted tables for looking up
+ * constants by name without creating a {@link String} for the name.
+ *
+ * <p>The JSON form of a constant is the value of its {@link JSONName} annotation if it has one,
+ * or otherwise the result of its {@code toString()} method (which is called for each
+ * serialization if the {@code enum} overrides it, because the result may vary).  A constant may
+ * be found by its {@code name()} or by its {@link JSONName}; the {@code name()} takes precedence
+ * if a string matches both.</p>
+ *
+ * @author Peter Wall
+ */
+class EnumInfo {
+
+    private static final ClassValue<EnumInfo> infos = new ClassValue<EnumInfo>() {
+        @Override
+        protected EnumInfo computeValue(Class<?> type) {
+            return new EnumInfo(type);
+        }
+    };
+
+    private final Enum<?>[] constants;
+    private final JSONString[] jsonStrings;
+    private final String[] jsonForms;
+    private final byte[][] jsonBytes;
+    private final String[] keys;
+    private final Enum<?>[] keyConstants;
+    private final String[] foldedKeys;
+    private final Enum<?>[] foldedConstants;
+
+    /**
+     * Construct an {@code EnumInfo} for the specified class.
+     *
+     * @param   enumClass   the {@code enum} class
+     */
+    private EnumInfo(Class<?> enumClass) {
+        Enum<?>[] enumConstants = (Enum<?>[])enumClass.getEnumConstants();
+        // (null for the class of a constant with a class body, which has no constants itself)
+        constants = enumConstants != null ? enumConstants : new Enum<?>[0];
+        int n = constants.length;
+        jsonStrings = new JSONString[n];
+        jsonForms = new String[n];
+        jsonBytes = new byte[n][];
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Enum<?> constant = constants[i];
+            String alias = null;
+            try {
+                Field field = enumClass.getField(constant.name());
+                JSONName nameAnnotation = field.getAnnotation(JSONName.class);
+                if (nameAnnotation != null)
+                    alias = nameAnnotation.value();
+            }
+            catch (NoSuchFieldException e) {
+                // can't happen - every constant has a public field
+            }
+            if (alias != null || !overridesToString(constant)) {
+                String jsonName = alias != null ? alias : constant.toString();
+                StringBuilder sb = new StringBuilder();
+                try {
+                    JSONSerializer.appendString(sb, jsonName);
+                }
+                catch (IOException ioe) {
+                    // can't happen - StringBuilder does not throw IOException
+                }
+                jsonStrings[i] = new JSONString(jsonName);
+                jsonForms[i] = sb.toString();
+                jsonBytes[i] = jsonForms[i].getBytes(StandardCharsets.UTF_8);
+            }
+            if (alias != null && !alias.equals(constant.name()))
+                entries.add(new Entry(alias, constant, 1));
+            entries.add(new Entry(constant.name(), constant, 0));
+        }
+
+        // exact table - name() takes precedence over alias, earlier ordinal over later
+
+        Comparator<Entry> precedence = Comparator.comparingInt((Entry e) -> e.priority).
+                thenComparingInt(e -> e.constant.ordinal());
+        entries.sort(Comparator.comparing((Entry e) -> e.key).thenComparing(precedence));
+        List<Entry> exact = new ArrayList<>();
+        for (Entry entry : entries)
+            if (exact.isEmpty() || !exact.get(exact.size() - 1).key.equals(entry.key))
+                exact.add(entry);
+        keys = new String[exact.size()];
+        keyConstants = new Enum<?>[exact.size()];
+        for (int i = 0; i < exact.size(); i++) {
+            keys[i] = exact.get(i).key;
+            keyConstants[i] = exact.get(i).constant;
+        }
+
+        // case-insensitive table
+
+        entries.sort(Comparator.comparing((Entry e) -> e.key, String.CASE_INSENSITIVE_ORDER).
+                thenComparing(precedence));
+        List<Entry> folded = new ArrayList<>();
+        for (Entry entry : entries)
+            if (folded.isEmpty() ||
+                    !folded.get(folded.size() - 1).key.equalsIgnoreCase(entry.key))
+                folded.add(entry);
+        foldedKeys = new String[folded.size()];
+        foldedConstants = new Enum<?>[folded.size()];
+        for (int i = 0; i < folded.size(); i++) {
+            foldedKeys[i] = folded.get(i).key;
+            foldedConstants[i] = folded.get(i).constant;
+        }
+    }
+
+    /**
+     * Get the {@code EnumInfo} for the specified {@code enum} class, creating it if necessary.
+     *
+     * @param   enumClass   the {@code enum} class
+     * @return  the {@code EnumInfo}
+     */
+    static EnumInfo forClass(Class<?> enumClass) {
+        return infos.get(enumClass);
+    }
+
+    /**
+     * Get the {@code EnumInfo} for the class of an {@code enum} constant (allowing for
+     * constants with class bodies).
+     *
+     * @param   constant    the {@code enum} constant
+     * @return  the {@code EnumInfo}
+     */
+    static EnumInfo forConstant(Enum<?> constant) {
+        return infos.get(constant.getDeclaringClass());
+    }
+
+    /**
+     * Get the JSON form of a constant as a {@link JSONString}.
+     *
+     * @param   constant    the {@code enum} constant
+     * @return  the {@link JSONString}
+     */
+    JSONString getJSONString(Enum<?> constant) {
+        JSONString result = jsonStrings[constant.ordinal()];
+        return result != null ? result : new JSONString(constant.toString());
+    }
+
+    /**
+     * Append the JSON form of a constant to an {@link Appendable}, using the pre-encoded
+     * bytes in the case of a {@link UTF8Output}.
+     *
+     * @param   a           the {@link Appendable}
+     * @param   constant    the {@code enum} constant
+     * @throws  IOException if thrown by the {@link Appendable}
+     */
+    void appendJSON(Appendable a, Enum<?> constant) throws IOException {
+        int ordinal = constant.ordinal();
+        String jsonForm = jsonForms[ordinal];
+        if (jsonForm == null)
+            JSONSerializer.appendString(a, constant.toString());
+        else if (a instanceof UTF8Output)
+            ((UTF8Output)a).appendBytes(jsonBytes[ordinal]);
+        else
+            a.append(jsonForm);
+    }
+
+    /**
+     * Find a constant by name.
+     *
+     * @param   name        the name
+     * @param   ignoreCase  {@code true} if the name is to be matched without regard to case
+     *                      (an exact match takes precedence)
+     * @return  the constant
+     * @throws  IllegalArgumentException if no constant matches the name
+     */
+    Enum<?> find(CharSequence name, boolean ignoreCase) {
+        int index = search(keys, name, false);
+        if (index >= 0)
+            return keyConstants[index];
+        if (ignoreCase) {
+            index = search(foldedKeys, name, true);
+            if (index >= 0)
+                return foldedConstants[index];
+        }
+        throw new IllegalArgumentException("Error deserializing enum");
+    }
+
+    private static int search(String[] array, CharSequence cs, boolean ignoreCase) {
+        int low = 0;
+        int high = array.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(array[mid], cs, ignoreCase);
+            if (cmp < 0)
+                low = mid + 1;
+            else if (cmp > 0)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    /**
+     * Compare a {@link String} with a {@link CharSequence}, using the same ordering as
+     * {@link String#compareTo(String)} or {@link String#CASE_INSENSITIVE_ORDER}.
+     *
+     * @param   s           the {@link String}
+     * @param   cs          the {@link CharSequence}
+     * @param   ignoreCase  {@code true} for the case-insensitive ordering
+     * @return  negative, zero or positive as the {@link String} is less than, equal to or
+     *          greater than the {@link CharSequence}
+     */
+    private static int compare(String s, CharSequence cs, boolean ignoreCase) {
+        int n1 = s.length();
+        int n2 = cs.length();
+        for (int i = 0, n = Math.min(n1, n2); i < n; i++) {
+            char c1 = s.charAt(i);
+            char c2 = cs.charAt(i);
+            if (c1 != c2) {
+                if (ignoreCase) {
+                    c1 = Character.toLowerCase(Character.toUpperCase(c1));
+                    c2 = Character.toLowerCase(Character.toUpperCase(c2));
+                    if (c1 == c2)
+                        continue;
+                }
+                return c1 - c2;
+            }
+        }
+        return n1 - n2;
+    }
+
+    private static boolean overridesToString(Enum<?> constant) {
+        try {
+            return constant.getClass().getMethod("toString").getDeclaringClass() != Enum.class;
+        }
+        catch (NoSuchMethodException e) {
+            throw new JSONException("Can't locate toString() for " + constant.getClass());
+        }
+    }
+
+    /**
+     * An entry in the lookup tables.
+     */
+    private static class Entry {
+
+        private final String key;
+        private final Enum<?> constant;
+        private final int priority;
+
+        private Entry(String key, Enum<?> constant, int priority) {
+            this.key = key;
+            this.constant = constant;
+            this.priority = priority;
+        }
+
+    }
+
+}
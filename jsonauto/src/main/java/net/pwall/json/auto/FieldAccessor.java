@@ -0,0 +1,456 @@
+/*
+ * @(#) FieldAccessor.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Access to the value of a field.  Where possible, the field is accessed through
+ * {@link MethodHandle}s created once when the accessor is created, avoiding the access checks
+ * performed on every call to {@link Field#get(Object)} and {@link Field#set(Object, Object)}.
+ * The handles are adapted to the generic form {@code (Object)Object} (for get) and
+ * {@code (Object,Object)void} (for set), boxing and unboxing primitive values as required.
+ *
+ * <p>For a field of primitive type (other than {@code char}), additional handles are created
+ * to get and set the value in its primitive form, using the type given by its
+ * {@link PrimitiveKind} (widened on get and narrowed on set, for {@code short} and
+ * {@code byte}), so that the value may be output or stored without being boxed.</p>
+ *
+ * <p>If a handle can not be created (for example, the field is {@code final}, or it could not
+ * be made accessible), the accessor falls back to the reflective methods of {@link Field}, so
+ * that any error is reported in the same way as before.</p>
+ *
+ * @author Peter Wall
+ */
+class FieldAccessor {
+
+    private static final MethodType getterType =
+            MethodType.methodType(Object.class, Object.class);
+    private static final MethodType setterType =
+            MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+    private final PrimitiveKind primitiveKind;
+    private final MethodHandle primitiveGetter;
+    private final MethodHandle primitiveSetter;
+
+    /**
+     * Construct a {@code FieldAccessor} for the specified {@link Field}.  The field should
+     * already have been made accessible (if required) by {@link Field#setAccessible(boolean)}.
+     *
+     * @param   field   the {@link Field}
+     */
+    FieldAccessor(Field field) {
+        this.field = field;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle getterHandle;
+        try {
+            getterHandle = lookup.unreflectGetter(field).asType(getterType);
+        }
+        catch (Exception e) {
+            getterHandle = null; // use reflection
+        }
+        getter = getterHandle;
+        MethodHandle setterHandle;
+        try {
+            setterHandle = lookup.unreflectSetter(field).asType(setterType);
+        }
+        catch (Exception e) {
+            setterHandle = null; // use reflection (final fields always take this route)
+        }
+        setter = setterHandle;
+        primitiveKind = PrimitiveKind.of(field.getType());
+        MethodHandle primitiveGetterHandle = null;
+        if (primitiveKind != PrimitiveKind.NONE) {
+            try {
+                primitiveGetterHandle = lookup.unreflectGetter(field).asType(
+                        MethodType.methodType(primitiveKind.getType(), Object.class));
+            }
+            catch (Exception e) {
+                // use reflection
+            }
+        }
+        primitiveGetter = primitiveGetterHandle;
+        MethodHandle primitiveSetterHandle = null;
+        if (primitiveKind != PrimitiveKind.NONE) {
+            try {
+                primitiveSetterHandle = MethodHandles.explicitCastArguments(
+                        lookup.unreflectSetter(field), MethodType.methodType(void.class,
+                        Object.class, primitiveKind.getType()));
+            }
+            catch (Exception e) {
+                // use reflection (final fields always take this route)
+            }
+        }
+        primitiveSetter = primitiveSetterHandle;
+    }
+
+    /**
+     * Get the {@link Field}.
+     *
+     * @return  the {@link Field}
+     */
+    Field getField() {
+        return field;
+    }
+
+    /**
+     * Get the value of the field from an object.
+     *
+     * @param   object  the object
+     * @return  the value (boxed, if the field is of a primitive type)
+     * @throws  IllegalAccessException if the field is not accessible
+     */
+    Object get(Object object) throws IllegalAccessException {
+        if (getter == null)
+            return field.get(object);
+        try {
+            return (Object)getter.invokeExact(object);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    /**
+     * Get the {@link PrimitiveKind} of the field.
+     *
+     * @return  the {@link PrimitiveKind} ({@link PrimitiveKind#NONE} if the field is not of a
+     *          primitive type, or is a {@code char})
+     */
+    PrimitiveKind getPrimitiveKind() {
+        return primitiveKind;
+    }
+
+    /**
+     * Get the value of an {@code int}, {@code short} or {@code byte} field from an object,
+     * without boxing.
+     *
+     * @param   object  the object
+     * @return  the value
+     * @throws  IllegalAccessException if the field is not accessible
+     */
+    int getInt(Object object) throws IllegalAccessException {
+        if (primitiveGetter == null)
+            return field.getInt(object);
+        try {
+            return (int)primitiveGetter.invokeExact(object);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    /**
+     * Get the value of a {@code long} field from an object, without boxing.
+     *
+     * @param   object  the object
+     * @return  the value
+     * @throws  IllegalAccessException if the field is not accessible
+     */
+    long getLong(Object object) throws IllegalAccessException {
+        if (primitiveGetter == null)
+            return field.getLong(object);
+        try {
+            return (long)primitiveGetter.invokeExact(object);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    /**
+     * Get the value of a {@code float} field from an object, without boxing.
+     *
+     * @param   object  the object
+     * @return  the value
+     * @throws  IllegalAccessException if the field is not accessible
+     */
+    float getFloat(Object object) throws IllegalAccessException {
+        if (primitiveGetter == null)
+            return field.getFloat(object);
+        try {
+            return (float)primitiveGetter.invokeExact(object);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    /**
+     * Get the value of a {@code double} field from an object, without boxing.
+     *
+     * @param   object  the object
+     * @return  the value
+     * @throws  IllegalAccessException if the field is not accessible
+     */
+    double getDouble(Object object) throws IllegalAccessException {
+        if (primitiveGetter == null)
+            return field.getDouble(object);
+        try {
+            return (double)primitiveGetter.invokeExact(object);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    /**
+     * Get the value of a {@code boolean} field from an object, without boxing.
+     *
+     * @param   object  the object
+     * @return  the value
+     * @throws  IllegalAccessException if the field is not accessible
+     */
+    boolean getBoolean(Object object) throws IllegalAccessException {
+        if (primitiveGetter == null)
+            return field.getBoolean(object);
+        try {
+            return (boolean)primitiveGetter.invokeExact(object);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    /**
+     * Set the value of the field in an object.
+     *
+     * @param   object  the object
+     * @param   value   the value (boxed, if the field is of a primitive type)
+     * @throws  IllegalAccessException if the field is not accessible
+     */
+    void set(Object object, Object value) throws IllegalAccessException {
+        if (setter == null) {
+            field.set(object, value);
+            return;
+        }
+        try {
+            setter.invokeExact(object, value);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    /**
+     * Set the value of an {@code int}, {@code short} or {@code byte} field in an object,
+     * without boxing.  For a {@code short} or {@code byte} field, the value is narrowed as by
+     * a cast.
+     *
+     * @param   object  the object
+     * @param   value   the value
+     * @throws  IllegalAccessException if the field is not accessible
+     */
+    void setInt(Object object, int value) throws IllegalAccessException {
+        if (primitiveSetter == null) {
+            Class<?> type = field.getType();
+            if (type.equals(short.class))
+                field.setShort(object, (short)value);
+            else if (type.equals(byte.class))
+                field.setByte(object, (byte)value);
+            else
+                field.setInt(object, value);
+            return;
+        }
+        try {
+            primitiveSetter.invokeExact(object, value);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    /**
+     * Set the value of a {@code long} field in an object, without boxing.
+     *
+     * @param   object  the object
+     * @param   value   the value
+     * @throws  IllegalAccessException if the field is not accessible
+     */
+    void setLong(Object object, long value) throws IllegalAccessException {
+        if (primitiveSetter == null) {
+            field.setLong(object, value);
+            return;
+        }
+        try {
+            primitiveSetter.invokeExact(object, value);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    /**
+     * Set the value of a {@code float} field in an object, without boxing.
+     *
+     * @param   object  the object
+     * @param   value   the value
+     * @throws  IllegalAccessException if the field is not accessible
+     */
+    void setFloat(Object object, float value) throws IllegalAccessException {
+        if (primitiveSetter == null) {
+            field.setFloat(object, value);
+            return;
+        }
+        try {
+            primitiveSetter.invokeExact(object, value);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    /**
+     * Set the value of a {@code double} field in an object, without boxing.
+     *
+     * @param   object  the object
+     * @param   value   the value
+     * @throws  IllegalAccessException if the field is not accessible
+     */
+    void setDouble(Object object, double value) throws IllegalAccessException {
+        if (primitiveSetter == null) {
+            field.setDouble(object, value);
+            return;
+        }
+        try {
+            primitiveSetter.invokeExact(object, value);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    /**
+     * Set the value of a {@code boolean} field in an object, without boxing.
+     *
+     * @param   object  the object
+     * @param   value   the value
+     * @throws  IllegalAccessException if the field is not accessible
+     */
+    void setBoolean(Object object, boolean value) throws IllegalAccessException {
+        if (primitiveSetter == null) {
+            field.setBoolean(object, value);
+            return;
+        }
+        try {
+            primitiveSetter.invokeExact(object, value);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    /**
+     * The primitive types that may be accessed without boxing.  The {@code short} and
+     * {@code byte} types are accessed as {@code int}; {@code char} is not included, because a
+     * {@code char} is serialized as a string.
+     */
+    enum PrimitiveKind {
+
+        NONE(null), INT(int.class), LONG(long.class), FLOAT(float.class),
+        DOUBLE(double.class), BOOLEAN(boolean.class);
+
+        private final Class<?> type;
+
+        PrimitiveKind(Class<?> type) {
+            this.type = type;
+        }
+
+        /**
+         * Get the primitive type used to access a field of this kind.
+         *
+         * @return  the type
+         */
+        Class<?> getType() {
+            return type;
+        }
+
+        /**
+         * Get the {@code PrimitiveKind} for the declared type of a field.
+         *
+         * @param   type    the declared type of the field
+         * @return  the {@code PrimitiveKind}
+         */
+        static PrimitiveKind of(Class<?> type) {
+            if (type.equals(int.class) || type.equals(short.class) || type.equals(byte.class))
+                return INT;
+            if (type.equals(long.class))
+                return LONG;
+            if (type.equals(float.class))
+                return FLOAT;
+            if (type.equals(double.class))
+                return DOUBLE;
+            if (type.equals(boolean.class))
+                return BOOLEAN;
+            return NONE;
+        }
+
+    }
+
+}
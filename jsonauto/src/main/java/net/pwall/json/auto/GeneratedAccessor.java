@@ -0,0 +1,177 @@
+/*
+ * @(#) GeneratedAccessor.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+/**
+ * The interface implemented by the accessor classes generated at run time when the
+ * {@link AccessEngine#GENERATED} engine is selected.  Each generated class provides direct
+ * access to the serializable fields of a single target class, identified by their index in
+ * the list of such fields (including those of the superclasses, superclass first).  Fields of
+ * primitive type may also be accessed without boxing, using the typed methods corresponding to
+ * the {@link FieldAccessor.PrimitiveKind} of the field ({@code short} and {@code byte} fields
+ * are accessed as {@code int}).
+ *
+ * <p>This interface is public only because the generated classes are defined in the package
+ * of the target class; it is not intended for use by application code.</p>
+ *
+ * @author Peter Wall
+ */
+public interface GeneratedAccessor {
+
+    /**
+     * Create a new instance of the target class using its public no-argument constructor.
+     *
+     * @return  the new instance, or {@code null} if the class can not be instantiated by the
+     *          generated code
+     */
+    Object newInstance();
+
+    /**
+     * Get the value of a field.
+     *
+     * @param   object  the object (an instance of the target class)
+     * @param   index   the index of the field
+     * @return  the value (boxed, if the field is of a primitive type)
+     */
+    Object get(Object object, int index);
+
+    /**
+     * Set the value of a field.
+     *
+     * @param   object  the object (an instance of the target class)
+     * @param   index   the index of the field
+     * @param   value   the value (boxed, if the field is of a primitive type)
+     * @return  {@code true} if the value was set, or {@code false} if the field can not be set
+     *          by the generated code (for example, it is {@code final})
+     */
+    boolean set(Object object, int index, Object value);
+
+    /**
+     * Get the value of an {@code int}, {@code short} or {@code byte} field.
+     *
+     * @param   object  the object (an instance of the target class)
+     * @param   index   the index of the field
+     * @return  the value
+     * @throws  IllegalArgumentException if the index is not that of a field of this kind
+     */
+    int getInt(Object object, int index);
+
+    /**
+     * Get the value of a {@code long} field.
+     *
+     * @param   object  the object (an instance of the target class)
+     * @param   index   the index of the field
+     * @return  the value
+     * @throws  IllegalArgumentException if the index is not that of a field of this kind
+     */
+    long getLong(Object object, int index);
+
+    /**
+     * Get the value of a {@code float} field.
+     *
+     * @param   object  the object (an instance of the target class)
+     * @param   index   the index of the field
+     * @return  the value
+     * @throws  IllegalArgumentException if the index is not that of a field of this kind
+     */
+    float getFloat(Object object, int index);
+
+    /**
+     * Get the value of a {@code double} field.
+     *
+     * @param   object  the object (an instance of the target class)
+     * @param   index   the index of the field
+     * @return  the value
+     * @throws  IllegalArgumentException if the index is not that of a field of this kind
+     */
+    double getDouble(Object object, int index);
+
+    /**
+     * Get the value of a {@code boolean} field.
+     *
+     * @param   object  the object (an instance of the target class)
+     * @param   index   the index of the field
+     * @return  the value
+     * @throws  IllegalArgumentException if the index is not that of a field of this kind
+     */
+    boolean getBoolean(Object object, int index);
+
+    /**
+     * Set the value of an {@code int}, {@code short} or {@code byte} field.
+     *
+     * @param   object  the object (an instance of the target class)
+     * @param   index   the index of the field
+     * @param   value   the value
+     * @return  {@code true} if the value was set, or {@code false} if the field can not be set
+     *          by the generated code
+     */
+    boolean setInt(Object object, int index, int value);
+
+    /**
+     * Set the value of a {@code long} field.
+     *
+     * @param   object  the object (an instance of the target class)
+     * @param   index   the index of the field
+     * @param   value   the value
+     * @return  {@code true} if the value was set, or {@code false} if the field can not be set
+     *          by the generated code
+     */
+    boolean setLong(Object object, int index, long value);
+
+    /**
+     * Set the value of a {@code float} field.
+     *
+     * @param   object  the object (an instance of the target class)
+     * @param   index   the index of the field
+     * @param   value   the value
+     * @return  {@code true} if the value was set, or {@code false} if the field can not be set
+     *          by the generated code
+     */
+    boolean setFloat(Object object, int index, float value);
+
+    /**
+     * Set the value of a {@code double} field.
+     *
+     * @param   object  the object (an instance of the target class)
+     * @param   index   the index of the field
+     * @param   value   the value
+     * @return  {@code true} if the value was set, or {@code false} if the field can not be set
+     *          by the generated code
+     */
+    boolean setDouble(Object object, int index, double value);
+
+    /**
+     * Set the value of a {@code boolean} field.
+     *
+     * @param   object  the object (an instance of the target class)
+     * @param   index   the index of the field
+     * @param   value   the value
+     * @return  {@code true} if the value was set, or {@code false} if the field can not be set
+     *          by the generated code
+     */
+    boolean setBoolean(Object object, int index, boolean value);
+
+}
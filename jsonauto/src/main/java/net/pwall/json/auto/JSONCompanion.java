@@ -0,0 +1,79 @@
+/*
+ * @(#) JSONCompanion.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import net.pwall.json.JSONObject;
+import net.pwall.json.annotation.JSONSerializable;
+
+/**
+ * A serialization companion for a class.  Companions are normally generated at compile time
+ * by the {@code jsonauto-processor} annotation processor for classes annotated with
+ * {@link JSONSerializable}; the companion for a class {@code Example} is named
+ * {@code Example_JSONCompanion}, in the same package (for a nested class {@code Outer.Inner},
+ * it is named {@code Outer_Inner_JSONCompanion}).  A companion must have a public no-argument
+ * constructor, and it must be registered as a service, by listing it in a resource named
+ * {@code META-INF/services/net.pwall.json.auto.JSONCompanion} (as described in
+ * {@link java.util.ServiceLoader}).
+ *
+ * <p>When a companion is present for an annotated class, {@link JSONSerializer} and
+ * {@link JSONDeserializer} use it in place of the reflection-based serialization and
+ * deserialization of the fields of the class, when creating or reading a {@link JSONObject}.
+ * The streaming functions (output to an {@link Appendable} or input from a
+ * {@link java.io.Reader Reader} or {@link java.io.InputStream InputStream}) use the
+ * reflection-based plans, because using the companion would require the creation of the
+ * intermediate {@link JSONObject}.</p>
+ *
+ * @author Peter Wall
+ * @param   <T>     the target class
+ */
+public interface JSONCompanion<T> {
+
+    /**
+     * Get the target class (the class serialized and deserialized by this companion).
+     *
+     * @return  the target class
+     */
+    Class<T> getTargetClass();
+
+    /**
+     * Serialize an object of the target class.
+     *
+     * @param   object  the object
+     * @return  the JSON for that object (or {@code null} if the object is {@code null})
+     */
+    JSONObject toJSON(T object);
+
+    /**
+     * Deserialize an object of the target class.
+     *
+     * @param   json    the JSON representation of the object
+     * @return  the object (or {@code null} if the JSON is {@code null})
+     * @throws  net.pwall.json.JSONException if the JSON can not be deserialized to the target
+     *          class
+     */
+    T fromJSON(JSONObject json);
+
+}
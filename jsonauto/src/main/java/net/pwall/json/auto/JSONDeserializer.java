@@ -0,0 +1,2102 @@
+/*
+ * @(#) JSONDeserializer.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2016, 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+import net.pwall.json.JSON;
+import net.pwall.json.JSONArray;
+import net.pwall.json.JSONBoolean;
+import net.pwall.json.JSONException;
+import net.pwall.json.JSONObject;
+import net.pwall.json.JSONString;
+import net.pwall.json.JSONValue;
+import net.pwall.util.ISO8601Date;
+
+/**
+ * JSON auto-deserialization class.  The static methods of this class use the default settings;
+ * to customise the deserialization, create an instance using a {@link Builder}:
+ * <pre>
+ *     JSONDeserializer deserializer = JSONDeserializer.builder().ignoreUnknownFields(true).
+ *             naming(NamingStrategy.SNAKE_CASE).build();
+ *     Example example = deserializer.fromJSONString(Example.class, json);
+ * </pre>
+ * Instances are immutable and thread-safe.  Each instance holds its own cache of the
+ * deserialization plans for the classes it has deserialized, so instances should be created
+ * once and re-used.
+ *
+ * @author Peter Wall
+ */
+public class JSONDeserializer {
+
+    private static final ClassValue<Method> fromJSONMethods = new ClassValue<Method>() {
+        @Override
+        protected Method computeValue(Class<?> type) {
+            return findFromJSON(type);
+        }
+    };
+
+    private static final ClassValue<StringConverter> stringConverters =
+            new ClassValue<StringConverter>() {
+        @Override
+        protected StringConverter computeValue(Class<?> type) {
+            return findStringConverter(type);
+        }
+    };
+
+    private static final MethodType stringConverterType =
+            MethodType.methodType(Object.class, String.class);
+
+    private static final int initialArraySize = 16;
+
+    private static final JSONDeserializer defaultDeserializer =
+            new JSONDeserializer(new Builder(), false);
+
+    private final boolean ignoreUnknownFields;
+    private final DateStyle dateStyle;
+    private final NamingStrategy naming;
+    private final AccessEngine engine;
+    private final ByteArrayStyle byteArrayStyle;
+    private final boolean ignoreEnumCase;
+    private final boolean useCompanions;
+    private final ConcurrentMap<Class<?>, DeserializationPlan> plans;
+
+    /**
+     * Construct a {@code JSONDeserializer} with the settings from a {@link Builder}.
+     *
+     * @param   builder         the {@link Builder}
+     * @param   ownPlans        {@code true} if the instance is to have its own cache of plans
+     *                          (otherwise the shared cache for the default settings is used)
+     */
+    private JSONDeserializer(Builder builder, boolean ownPlans) {
+        ignoreUnknownFields = builder.ignoreUnknownFields;
+        dateStyle = builder.dateStyle;
+        naming = builder.naming;
+        engine = builder.engine;
+        byteArrayStyle = builder.byteArrayStyle;
+        ignoreEnumCase = builder.ignoreEnumCase;
+        useCompanions = !ignoreUnknownFields && dateStyle == DateStyle.ISO_8601 &&
+                naming == NamingStrategy.AS_DECLARED && byteArrayStyle == ByteArrayStyle.ARRAY &&
+                !ignoreEnumCase;
+        plans = ownPlans ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * Create a {@link Builder} for a {@code JSONDeserializer}.
+     *
+     * @return  the {@link Builder}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the default {@code JSONDeserializer}, as used by the static methods of this class.
+     *
+     * @return  the default {@code JSONDeserializer}
+     */
+    public static JSONDeserializer getDefault() {
+        return defaultDeserializer;
+    }
+
+    /**
+     * Get the {@link DeserializationPlan} for a class, using the settings of this instance.
+     *
+     * @param   resultClass     the class
+     * @return  the {@link DeserializationPlan}
+     */
+    private DeserializationPlan getPlan(Class<?> resultClass) {
+        if (plans == null)
+            return DeserializationPlan.forClass(resultClass);
+        DeserializationPlan plan = plans.get(resultClass);
+        return plan != null ? plan : plans.computeIfAbsent(resultClass,
+                k -> new DeserializationPlan(k, engine, naming));
+    }
+
+    /**
+     * Prepare for the deserialization of the specified types using the default settings, by
+     * creating and caching the deserialization plans (and other per-class information) for the
+     * types and all classes reachable from them through the declared types of their fields,
+     * including the type arguments of collections and maps.  This allows the cost of the
+     * analysis to be incurred at startup rather than on the first deserialization of each
+     * class.
+     *
+     * @param   types   the types (classes or parameterized types)
+     * @see     #preparePlans(Type...)
+     */
+    public static void prepare(Type... types) {
+        defaultDeserializer.preparePlans(types);
+    }
+
+    /**
+     * Prepare for the deserialization of the specified types using the default settings, as
+     * {@link #prepare(Type...)}, but performing the work in parallel using the specified
+     * {@link Executor}.
+     *
+     * @param   executor    the {@link Executor}
+     * @param   types       the types (classes or parameterized types)
+     * @return  a {@link CompletableFuture} that completes when all the work has been performed
+     * @see     #preparePlans(Executor, Type...)
+     */
+    public static CompletableFuture<Void> prepare(Executor executor, Type... types) {
+        return defaultDeserializer.preparePlans(executor, types);
+    }
+
+    /**
+     * Prepare for the deserialization of the specified types using the settings of this
+     * instance, by creating and caching the deserialization plans (and other per-class
+     * information) for the types and all classes reachable from them through the declared
+     * types of their fields.
+     *
+     * @param   types   the types (classes or parameterized types)
+     */
+    public void preparePlans(Type... types) {
+        new PlanPreparer(this::prepareClass).prepare(types);
+    }
+
+    /**
+     * Prepare for the deserialization of the specified types using the settings of this
+     * instance, as {@link #preparePlans(Type...)}, but performing the work in parallel using
+     * the specified {@link Executor}.  If the preparation of any class fails, the
+     * {@link CompletableFuture} completes exceptionally.
+     *
+     * @param   executor    the {@link Executor}
+     * @param   types       the types (classes or parameterized types)
+     * @return  a {@link CompletableFuture} that completes when all the work has been performed
+     */
+    public CompletableFuture<Void> preparePlans(Executor executor, Type... types) {
+        return new PlanPreparer(this::prepareClass).prepare(executor, types).
+                thenApply(classes -> null);
+    }
+
+    /**
+     * Prepare a single class for deserialization.
+     *
+     * @param   resultClass     the class
+     * @return  {@code true} if the fields of the class are to be prepared
+     */
+    private boolean prepareClass(Class<?> resultClass) {
+        if (fromJSONMethods.get(resultClass) != null)
+            return false;
+        if (Enum.class.isAssignableFrom(resultClass)) {
+            EnumInfo.forClass(resultClass);
+            return false;
+        }
+        switch (SerializerType.forClass(resultClass).getKind()) {
+        case COMPANION:
+            getCompanion(resultClass);
+            getPlan(resultClass);
+            return true;
+        case CUSTOM:
+        case OBJECT:
+            stringConverters.get(resultClass);
+            getPlan(resultClass);
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Get the {@link JSONCompanion} for a class, if this instance is able to use it.  A
+     * companion is generated for the default settings, so it is used only when the settings
+     * of this instance would give the same result.
+     *
+     * @param   resultClass     the class
+     * @return  the {@link JSONCompanion}, or {@code null}
+     */
+    private JSONCompanion<?> getCompanion(Class<?> resultClass) {
+        return useCompanions ? CompanionFinder.forClass(resultClass) : null;
+    }
+
+    /**
+     * Deserialize an object from its external JSON (string) representation.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   str             the external JSON (string) representation of the object
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the string does not contain a valid JSON value, or if the
+     *                          JSON can not be deserialized to the required type
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     */
+    public static <T> T parse(Class<T> resultClass, String str) {
+        return defaultDeserializer.fromJSONString(resultClass, null, str);
+    }
+
+    /**
+     * Deserialize an object from its external JSON (string) representation.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   str             the external JSON (string) representation of the object
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the string does not contain a valid JSON value, or if the
+     *                          JSON can not be deserialized to the required type
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     */
+    public <T> T fromJSONString(Class<T> resultClass, String str) {
+        return fromJSONString(resultClass, null, str);
+    }
+
+    /**
+     * Deserialize an object from its external JSON (string) representation.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   typeArgs        the actual types for a generic class, or {@code null}
+     * @param   str             the external JSON (string) representation of the object
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the string does not contain a valid JSON value, or if the
+     *                          JSON can not be deserialized to the required type
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     */
+    public static <T> T parse(Class<T> resultClass, Type[] typeArgs, String str) {
+        return defaultDeserializer.fromJSONString(resultClass, typeArgs, str);
+    }
+
+    /**
+     * Deserialize an object from its external JSON (string) representation.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   typeArgs        the actual types for a generic class, or {@code null}
+     * @param   str             the external JSON (string) representation of the object
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the string does not contain a valid JSON value, or if the
+     *                          JSON can not be deserialized to the required type
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     */
+    public <T> T fromJSONString(Class<T> resultClass, Type[] typeArgs, String str) {
+        return fromJSONValue(resultClass, typeArgs, JSON.parse(str));
+    }
+
+    /**
+     * Deserialize an object from JSON read from a {@link Reader}.  The JSON is bound directly
+     * to the result object as it is read, without creating an intermediate {@link JSONValue}
+     * tree (except where the tree form is required, for example for a custom
+     * {@code fromJSON()} method).
+     *
+     * @param   resultClass     the class of the result object
+     * @param   reader          the {@link Reader}
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the input does not contain a valid JSON value, if the JSON
+     *                          can not be deserialized to the required type, or if an I/O
+     *                          error occurs (the {@link java.io.IOException} will be the cause)
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     */
+    public static <T> T parse(Class<T> resultClass, Reader reader) {
+        return defaultDeserializer.readJSON(resultClass, null, reader);
+    }
+
+    /**
+     * Deserialize an object from JSON read from a {@link Reader}.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   reader          the {@link Reader}
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the input does not contain a valid JSON value, if the JSON
+     *                          can not be deserialized to the required type, or if an I/O
+     *                          error occurs (the {@link java.io.IOException} will be the cause)
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     * @see     #parse(Class, Type[], Reader)
+     */
+    public <T> T readJSON(Class<T> resultClass, Reader reader) {
+        return readJSON(resultClass, null, reader);
+    }
+
+    /**
+     * Deserialize an object from JSON read from a {@link Reader}.  The JSON is bound directly
+     * to the result object as it is read, without creating an intermediate {@link JSONValue}
+     * tree (except where the tree form is required, for example for a custom
+     * {@code fromJSON()} method).
+     *
+     * @param   resultClass     the class of the result object
+     * @param   typeArgs        the actual types for a generic class, or {@code null}
+     * @param   reader          the {@link Reader}
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the input does not contain a valid JSON value, if the JSON
+     *                          can not be deserialized to the required type, or if an I/O
+     *                          error occurs (the {@link java.io.IOException} will be the cause)
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     */
+    public static <T> T parse(Class<T> resultClass, Type[] typeArgs, Reader reader) {
+        return defaultDeserializer.readJSON(resultClass, typeArgs, reader);
+    }
+
+    /**
+     * Deserialize an object from JSON read from a {@link Reader}.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   typeArgs        the actual types for a generic class, or {@code null}
+     * @param   reader          the {@link Reader}
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the input does not contain a valid JSON value, if the JSON
+     *                          can not be deserialized to the required type, or if an I/O
+     *                          error occurs (the {@link java.io.IOException} will be the cause)
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     * @see     #parse(Class, Type[], Reader)
+     */
+    public <T> T readJSON(Class<T> resultClass, Type[] typeArgs, Reader reader) {
+        Objects.requireNonNull(resultClass);
+        JSONTokenizer tokenizer = new JSONTokenizer(reader);
+        T result = read(resultClass, typeArgs, tokenizer);
+        tokenizer.expectEnd();
+        return result;
+    }
+
+    /**
+     * Deserialize an object from JSON read from an {@link InputStream}, in UTF-8 encoding.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   in              the {@link InputStream}
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the input does not contain a valid JSON value, if the JSON
+     *                          can not be deserialized to the required type, or if an I/O
+     *                          error occurs (the {@link java.io.IOException} will be the cause)
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     * @see     #parse(Class, Type[], Reader)
+     */
+    public static <T> T parse(Class<T> resultClass, InputStream in) {
+        return defaultDeserializer.readJSON(resultClass, null, in);
+    }
+
+    /**
+     * Deserialize an object from JSON read from an {@link InputStream}, in UTF-8 encoding.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   in              the {@link InputStream}
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the input does not contain a valid JSON value, if the JSON
+     *                          can not be deserialized to the required type, or if an I/O
+     *                          error occurs (the {@link java.io.IOException} will be the cause)
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     * @see     #parse(Class, Type[], Reader)
+     */
+    public <T> T readJSON(Class<T> resultClass, InputStream in) {
+        return readJSON(resultClass, null, in);
+    }
+
+    /**
+     * Deserialize an object from JSON read from an {@link InputStream}, in UTF-8 encoding.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   typeArgs        the actual types for a generic class, or {@code null}
+     * @param   in              the {@link InputStream}
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the input does not contain a valid JSON value, if the JSON
+     *                          can not be deserialized to the required type, or if an I/O
+     *                          error occurs (the {@link java.io.IOException} will be the cause)
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     * @see     #parse(Class, Type[], Reader)
+     */
+    public static <T> T parse(Class<T> resultClass, Type[] typeArgs, InputStream in) {
+        return defaultDeserializer.readJSON(resultClass, typeArgs, in);
+    }
+
+    /**
+     * Deserialize an object from JSON read from an {@link InputStream}, in UTF-8 encoding.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   typeArgs        the actual types for a generic class, or {@code null}
+     * @param   in              the {@link InputStream}
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the input does not contain a valid JSON value, if the JSON
+     *                          can not be deserialized to the required type, or if an I/O
+     *                          error occurs (the {@link java.io.IOException} will be the cause)
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     * @see     #parse(Class, Type[], Reader)
+     */
+    public <T> T readJSON(Class<T> resultClass, Type[] typeArgs, InputStream in) {
+        return readJSON(resultClass, typeArgs, new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Deserialize an object from its JSON representation.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   json            the JSON representation of the object
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the JSON can not be deserialized to the required type
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     */
+    public static <T> T deserialize(Class<T> resultClass, JSONValue json) {
+        return defaultDeserializer.fromJSONValue(resultClass, null, json);
+    }
+
+    /**
+     * Deserialize an object from its JSON representation.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   json            the JSON representation of the object
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the JSON can not be deserialized to the required type
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     */
+    public <T> T fromJSONValue(Class<T> resultClass, JSONValue json) {
+        return fromJSONValue(resultClass, null, json);
+    }
+
+    /**
+     * Deserialize an object from its JSON representation.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   typeArgs        the actual types for a generic class, or {@code null}
+     * @param   json            the JSON representation of the object
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the JSON can not be deserialized to the required type
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     */
+    public static <T> T deserialize(Class<T> resultClass, Type[] typeArgs, JSONValue json) {
+        return defaultDeserializer.fromJSONValue(resultClass, typeArgs, json);
+    }
+
+    /**
+     * Deserialize an object from its JSON representation.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   typeArgs        the actual types for a generic class, or {@code null}
+     * @param   json            the JSON representation of the object
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the JSON can not be deserialized to the required type
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T fromJSONValue(Class<T> resultClass, Type[] typeArgs, JSONValue json) {
+
+        Objects.requireNonNull(resultClass);
+
+        // is the target an Optional (or OptionalInt etc.)?
+        // (before the null check because null results in Optional.empty())
+
+        if (resultClass.equals(Optional.class))
+            return (T)optionalFromJSON(typeArgs, json);
+        if (resultClass.equals(OptionalInt.class))
+            return (T)deserializeOptionalInt(json);
+        if (resultClass.equals(OptionalLong.class))
+            return (T)deserializeOptionalLong(json);
+        if (resultClass.equals(OptionalDouble.class))
+            return (T)deserializeOptionalDouble(json);
+
+        // check for null
+
+        if (json == null)
+            return null;
+
+        // check for JSONValue
+
+        if (JSONValue.class.isAssignableFrom(resultClass) &&
+                resultClass.isAssignableFrom(json.getClass()))
+            return (T)json;
+
+        // does the target class have a "fromJSON()" method?
+        // questions:
+        // - should we require that the method be public?
+        // - should we look for method in include superclass?
+
+        Method fromJSON = fromJSONMethods.get(resultClass);
+        if (fromJSON != null) {
+            try {
+                return (T)fromJSON.invoke(null, json);
+            }
+            catch (Exception e) {
+                throw new JSONException("Custom deserialization failed for " + resultClass, e);
+            }
+        }
+
+        // is the JSON a string?
+
+        if (json instanceof JSONString)
+            return deserializeStringValue(resultClass, json.toString());
+
+        // is the JSON a number?
+
+        if (json instanceof Number)
+            return deserializeNumberInternal(resultClass, (Number)json);
+
+        // is the JSON a boolean?
+
+        if (json instanceof JSONBoolean) {
+
+            // is the target Boolean?
+
+            if (resultClass.equals(Boolean.class) || resultClass.equals(boolean.class))
+                return (T)Boolean.valueOf(((JSONBoolean)json).booleanValue());
+
+            throw new JSONException("Can't deserialize boolean as " + resultClass);
+
+        }
+
+        // is the JSON a compact primitive array of the target type?
+
+        if (json instanceof JSONPrimitiveArray) {
+            Object primitiveArray = ((JSONPrimitiveArray)json).getArray();
+            if (primitiveArray.getClass().equals(resultClass)) {
+                int n = Array.getLength(primitiveArray);
+                return (T)resizeArray(primitiveArray, resultClass.getComponentType(), n, n);
+            }
+        }
+
+        // is the JSON an array (a JSONArray or a JSONPrimitiveArray)?
+
+        if (json instanceof List) {
+
+            List<JSONValue> array = (List<JSONValue>)json;
+
+            // is the target an array?
+
+            if (resultClass.isArray()) {
+                Class<?> itemClass = resultClass.getComponentType();
+                if (!itemClass.isPrimitive())
+                    return (T)arrayFromJSON(itemClass, array);
+                return primitiveArrayFromJSON(resultClass, array);
+            }
+
+            // is the target a Set?
+
+            if (resultClass.equals(Set.class))
+                return (T)collectionFromJSON(HashSet.class, typeArgs, array);
+
+            // is the target a List, Collection or Iterable?
+
+            if (resultClass.equals(List.class) || resultClass.equals(Collection.class) ||
+                    resultClass.equals(Iterable.class))
+                return (T)collectionFromJSON(ArrayList.class, typeArgs, array);
+
+            // is the target any derived class from Collection?
+
+            if (Collection.class.isAssignableFrom(resultClass))
+                return (T)collectionFromJSON(resultClass, typeArgs, array);
+
+            // is the target a BitSet?
+
+            if (resultClass.equals(BitSet.class)) {
+                BitSet result = new BitSet();
+                for (JSONValue item : array)
+                    result.set(fromJSONValue(int.class, null, item));
+                return (T)result;
+            }
+
+            throw new JSONException("Can't deserialize array as " + resultClass);
+
+        }
+
+        // is the JSON an object?
+
+        if (json instanceof JSONObject) {
+
+            // is the target a Map?
+
+            if (resultClass.equals(Map.class))
+                return (T)mapFromJSON(HashMap.class, typeArgs, (JSONObject)json);
+
+            // is the target any derived class from Map?
+
+            if (Map.class.isAssignableFrom(resultClass))
+                return (T)mapFromJSON(resultClass, typeArgs, (JSONObject)json);
+
+            // does the target class have a generated companion?
+
+            JSONCompanion<?> companion = getCompanion(resultClass);
+            if (companion != null)
+                return (T)companion.fromJSON((JSONObject)json);
+
+            return objectFromJSON(resultClass, (JSONObject)json);
+
+        }
+
+        throw new JSONException("Can't deserialize " + json.getClass());
+    }
+
+    /**
+     * Read a value from a {@link JSONTokenizer} and bind it to the required type.  This
+     * follows the same rules as {@link #fromJSONValue(Class, Type[], JSONValue)}.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   typeArgs        the actual types for a generic class, or {@code null}
+     * @param   tokenizer       the {@link JSONTokenizer}
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the JSON can not be deserialized to the required type
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T read(Class<T> resultClass, Type[] typeArgs, JSONTokenizer tokenizer) {
+
+        // is the target an Optional (or OptionalInt etc.)?
+
+        if (resultClass.equals(Optional.class)) {
+            if (typeArgs == null || typeArgs.length != 1)
+                throw new JSONException("Missing or incorrect type arguments for Optional");
+            Type targetType = typeArgs[0];
+            Object value = read(getGenericClass(targetType), getGenericTypeArgs(targetType),
+                    tokenizer);
+            return (T)(value != null ? Optional.of(value) : Optional.empty());
+        }
+        if (resultClass.equals(OptionalInt.class)) {
+            Integer value = read(Integer.class, null, tokenizer);
+            return (T)(value != null ? OptionalInt.of(value) : OptionalInt.empty());
+        }
+        if (resultClass.equals(OptionalLong.class)) {
+            Long value = read(Long.class, null, tokenizer);
+            return (T)(value != null ? OptionalLong.of(value) : OptionalLong.empty());
+        }
+        if (resultClass.equals(OptionalDouble.class)) {
+            Double value = read(Double.class, null, tokenizer);
+            return (T)(value != null ? OptionalDouble.of(value) : OptionalDouble.empty());
+        }
+
+        // check for null
+
+        if (tokenizer.isNull())
+            return null;
+
+        // is the target a JSONValue, or does it have a "fromJSON()" method? (both require the
+        // tree form)
+
+        if (JSONValue.class.isAssignableFrom(resultClass) ||
+                fromJSONMethods.get(resultClass) != null)
+            return fromJSONValue(resultClass, typeArgs, tokenizer.readJSON());
+
+        switch (tokenizer.peek()) {
+
+        // is the JSON a string?
+
+        case '"':
+            if (byteArrayStyle != ByteArrayStyle.ARRAY && resultClass.equals(byte[].class))
+                return (T)Base64Codec.decode(tokenizer.readCharSequence());
+            if (Enum.class.isAssignableFrom(resultClass))
+                return (T)EnumInfo.forClass(resultClass).find(tokenizer.readCharSequence(),
+                        ignoreEnumCase);
+            return deserializeStringInternal(resultClass, tokenizer.readString());
+
+        // is the JSON a number?
+
+        case '-':
+        case '0':
+        case '1':
+        case '2':
+        case '3':
+        case '4':
+        case '5':
+        case '6':
+        case '7':
+        case '8':
+        case '9':
+            return deserializeNumberInternal(resultClass, tokenizer.readNumber());
+
+        // is the JSON a boolean?
+
+        case 't':
+        case 'f':
+            boolean booleanValue = tokenizer.readBoolean();
+            if (resultClass.equals(Boolean.class) || resultClass.equals(boolean.class))
+                return (T)Boolean.valueOf(booleanValue);
+            throw new JSONException("Can't deserialize boolean as " + resultClass);
+
+        // is the JSON an array?
+
+        case '[':
+            tokenizer.expect('[');
+            return readArray(resultClass, typeArgs, tokenizer);
+
+        // is the JSON an object?
+
+        // (a companion takes a JSONObject, so the plan is used to read directly instead)
+
+        case '{':
+            tokenizer.expect('{');
+            if (resultClass.equals(Map.class))
+                return (T)readMap(HashMap.class, typeArgs, tokenizer);
+            if (Map.class.isAssignableFrom(resultClass))
+                return (T)readMap(resultClass, typeArgs, tokenizer);
+            return readObject(resultClass, tokenizer);
+
+        default:
+            throw tokenizer.syntaxError();
+
+        }
+
+    }
+
+    /**
+     * Read the items of an array from a {@link JSONTokenizer} (following the opening bracket)
+     * and bind them to the required type.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   typeArgs        the actual types for a generic class, or {@code null}
+     * @param   tokenizer       the {@link JSONTokenizer}
+     * @param   <T>             the type of the result
+     * @return  the result
+     * @throws  JSONException   if the JSON can not be deserialized to the required type
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T readArray(Class<T> resultClass, Type[] typeArgs,
+            JSONTokenizer tokenizer) {
+
+        // is the target an array?
+
+        if (resultClass.isArray()) {
+            Class<?> itemClass = resultClass.getComponentType();
+            if (itemClass.isPrimitive())
+                return (T)readPrimitiveArray(itemClass, tokenizer);
+            List<Object> list = new ArrayList<>();
+            if (!tokenizer.isArrayEnd()) {
+                do {
+                    list.add(read(itemClass, null, tokenizer));
+                } while (tokenizer.nextArrayItem());
+            }
+            return (T)list.toArray((Object[])Array.newInstance(itemClass, list.size()));
+        }
+
+        // is the target a Set?
+
+        if (resultClass.equals(Set.class))
+            return (T)readCollection(HashSet.class, typeArgs, tokenizer);
+
+        // is the target a List, Collection or Iterable?
+
+        if (resultClass.equals(List.class) || resultClass.equals(Collection.class) ||
+                resultClass.equals(Iterable.class))
+            return (T)readCollection(ArrayList.class, typeArgs, tokenizer);
+
+        // is the target any derived class from Collection?
+
+        if (Collection.class.isAssignableFrom(resultClass))
+            return (T)readCollection(resultClass, typeArgs, tokenizer);
+
+        // is the target a BitSet?
+
+        if (resultClass.equals(BitSet.class)) {
+            BitSet result = new BitSet();
+            if (!tokenizer.isArrayEnd()) {
+                do {
+                    result.set(read(int.class, null, tokenizer));
+                } while (tokenizer.nextArrayItem());
+            }
+            return (T)result;
+        }
+
+        throw new JSONException("Can't deserialize array as " + resultClass);
+
+    }
+
+    /**
+     * Read the items of an array from a {@link JSONTokenizer} (following the opening bracket)
+     * into an array of primitive type.  Numbers (or booleans, for a {@code boolean[]}) are
+     * stored in the array directly as they are read; any other value is read using the general
+     * mechanism.
+     *
+     * @param   itemClass       the class of the array item
+     * @param   tokenizer       the {@link JSONTokenizer}
+     * @return  the array
+     * @throws  JSONException   if the JSON can not be deserialized to the required type
+     */
+    private Object readPrimitiveArray(Class<?> itemClass, JSONTokenizer tokenizer) {
+        PrimitiveItemReader itemReader = primitiveItemReader(itemClass);
+        if (itemReader == null)
+            throw new JSONException("Can't deserialize array of " + itemClass);
+        Object result = Array.newInstance(itemClass, initialArraySize);
+        int capacity = initialArraySize;
+        int n = 0;
+        if (!tokenizer.isArrayEnd()) {
+            do {
+                if (n == capacity) {
+                    capacity = n * 2;
+                    result = resizeArray(result, itemClass, n, capacity);
+                }
+                itemReader.readItem(this, tokenizer, result, n++);
+            } while (tokenizer.nextArrayItem());
+        }
+        return n == capacity ? result : resizeArray(result, itemClass, n, n);
+    }
+
+    /**
+     * Get the {@link PrimitiveItemReader} for an array of primitive type.
+     *
+     * @param   itemClass       the class of the array item
+     * @return  the {@link PrimitiveItemReader}, or {@code null} if the class is not supported
+     */
+    private static PrimitiveItemReader primitiveItemReader(Class<?> itemClass) {
+        if (itemClass.equals(int.class))
+            return (d, t, array, i) -> ((int[])array)[i] = t.isNumber() ? t.readInt() :
+                    d.read(int.class, null, t);
+        if (itemClass.equals(long.class))
+            return (d, t, array, i) -> ((long[])array)[i] = t.isNumber() ? t.readLong() :
+                    d.read(long.class, null, t);
+        if (itemClass.equals(double.class))
+            return (d, t, array, i) -> ((double[])array)[i] = t.isNumber() ? t.readDouble() :
+                    d.read(double.class, null, t);
+        if (itemClass.equals(float.class))
+            return (d, t, array, i) -> ((float[])array)[i] = t.isNumber() ? t.readFloat() :
+                    d.read(float.class, null, t);
+        if (itemClass.equals(short.class))
+            return (d, t, array, i) -> ((short[])array)[i] = t.isNumber() ?
+                    (short)t.readInt() : d.read(short.class, null, t);
+        if (itemClass.equals(byte.class))
+            return (d, t, array, i) -> ((byte[])array)[i] = t.isNumber() ?
+                    (byte)t.readInt() : d.read(byte.class, null, t);
+        if (itemClass.equals(boolean.class))
+            return (d, t, array, i) -> ((boolean[])array)[i] = t.isBoolean() ?
+                    t.readBoolean() : d.read(boolean.class, null, t);
+        return null;
+    }
+
+    /**
+     * Copy the items of an array of primitive type to a new array of a different size.
+     *
+     * @param   array           the array
+     * @param   itemClass       the class of the array item
+     * @param   n               the number of items to copy
+     * @param   size            the size of the new array
+     * @return  the new array
+     */
+    private static Object resizeArray(Object array, Class<?> itemClass, int n, int size) {
+        Object result = Array.newInstance(itemClass, size);
+        System.arraycopy(array, 0, result, 0, n);
+        return result;
+    }
+
+    /**
+     * Read the items of an array from a {@link JSONTokenizer} (following the opening bracket)
+     * into a {@link Collection}.
+     *
+     * @param   collectionClass the class of the collection
+     * @param   typeArgs        the actual types for the generic class
+     * @param   tokenizer       the {@link JSONTokenizer}
+     * @param   <T>             the type of the result
+     * @return  the {@link Collection}
+     * @throws  JSONException if the type arguments are incorrect, if the collection class can't
+     *          be instantiated, or if the deserialization of the items throws an exception
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Collection<T> readCollection(Class<?> collectionClass, Type[] typeArgs,
+            JSONTokenizer tokenizer) {
+        if (typeArgs == null || typeArgs.length != 1)
+            throw new JSONException("Missing or incorrect type arguments for Collection");
+        Type itemType = typeArgs[0];
+        Class<T> itemClass = (Class<T>)getGenericClass(itemType);
+        Type[] itemTypeArgs = getGenericTypeArgs(itemType);
+        Collection<T> result;
+        try {
+            result = (Collection<T>)collectionClass.getDeclaredConstructor().newInstance();
+        }
+        catch (Exception e) {
+            throw new JSONException("Can't instantiate " + collectionClass, e);
+        }
+        if (!tokenizer.isArrayEnd()) {
+            do {
+                result.add(read(itemClass, itemTypeArgs, tokenizer));
+            } while (tokenizer.nextArrayItem());
+        }
+        return result;
+    }
+
+    /**
+     * Read the properties of an object from a {@link JSONTokenizer} (following the opening
+     * brace) into a {@link Map}.
+     *
+     * @param   mapClass        the class of the map
+     * @param   typeArgs        the actual types for the generic class
+     * @param   tokenizer       the {@link JSONTokenizer}
+     * @param   <K>             the type of the key
+     * @param   <V>             the type of the value
+     * @return  the {@link Map}
+     * @throws  JSONException if the type arguments are incorrect, if the map class can't be
+     *          instantiated, or if the deserialization of the items throws an exception
+     */
+    @SuppressWarnings("unchecked")
+    private <K, V> Map<K, V> readMap(Class<?> mapClass, Type[] typeArgs,
+            JSONTokenizer tokenizer) {
+        if (typeArgs == null || typeArgs.length != 2)
+            throw new JSONException("Missing or incorrect type arguments for Map");
+        Class<K> keyClass = (Class<K>)getGenericClass(typeArgs[0]);
+        Type valueType = typeArgs[1];
+        Class<V> valueClass = (Class<V>)getGenericClass(valueType);
+        Type[] valueTypeArgs = getGenericTypeArgs(valueType);
+        Map<K, V> result;
+        try {
+            result = (Map<K, V>)mapClass.getDeclaredConstructor().newInstance();
+        }
+        catch (Exception e) {
+            throw new JSONException("Can't instantiate " + mapClass, e);
+        }
+        for (String name = tokenizer.firstName(); name != null; name = tokenizer.nextName())
+            result.put(deserializeStringValue(keyClass, name),
+                    read(valueClass, valueTypeArgs, tokenizer));
+        return result;
+    }
+
+    /**
+     * Read the properties of an object from a {@link JSONTokenizer} (following the opening
+     * brace) into the fields of a new instance of the result class.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   tokenizer       the {@link JSONTokenizer}
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the object can not be deserialized to the required type
+     */
+    private <T> T readObject(Class<T> resultClass, JSONTokenizer tokenizer) {
+        try {
+            DeserializationPlan plan = getPlan(resultClass);
+            @SuppressWarnings("unchecked")
+            T result = (T)plan.newInstance();
+            for (String name = tokenizer.firstName(); name != null;
+                    name = tokenizer.nextName()) {
+                DeserializationPlan.Property property = plan.getProperty(name);
+                if (property == null) {
+                    if (ignoreUnknownFields) {
+                        tokenizer.readJSON(); // skip the value
+                        continue;
+                    }
+                    throw new JSONException("Can't find field for " + name);
+                }
+                if (!property.isAccessible())
+                    throw new JSONException("Can't access field " + property.getField());
+                if (!readPrimitive(property, result, tokenizer))
+                    property.setValue(result, read(property.getType(), property.getTypeArgs(),
+                            tokenizer));
+            }
+            return result;
+        }
+        catch (JSONException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            throw new JSONException("Can't deserialize object as " + resultClass, e);
+        }
+    }
+
+    /**
+     * Read a number or boolean from a {@link JSONTokenizer} and store it in a field of
+     * primitive type, without boxing.  If the field is not of primitive type, or the next
+     * token is not of the appropriate type, nothing is read, and the value must be read by the
+     * general mechanism (which will report any error).
+     *
+     * @param   property    the property
+     * @param   object      the target object
+     * @param   tokenizer   the {@link JSONTokenizer}
+     * @return  {@code true} if the value was read and stored
+     * @throws  IllegalAccessException if the field is not accessible
+     */
+    private static boolean readPrimitive(DeserializationPlan.Property property, Object object,
+            JSONTokenizer tokenizer) throws IllegalAccessException {
+        FieldAccessor.PrimitiveKind primitiveKind = property.getPrimitiveKind();
+        if (primitiveKind == FieldAccessor.PrimitiveKind.NONE)
+            return false;
+        if (primitiveKind == FieldAccessor.PrimitiveKind.BOOLEAN) {
+            if (!tokenizer.isBoolean())
+                return false;
+            property.setBoolean(object, tokenizer.readBoolean());
+            return true;
+        }
+        if (!tokenizer.isNumber())
+            return false;
+        switch (primitiveKind) {
+        case INT:
+            property.setInt(object, tokenizer.readInt());
+            break;
+        case LONG:
+            property.setLong(object, tokenizer.readLong());
+            break;
+        case FLOAT:
+            property.setFloat(object, tokenizer.readFloat());
+            break;
+        default:
+            property.setDouble(object, tokenizer.readDouble());
+            break;
+        }
+        return true;
+    }
+
+    /**
+     * Store a number or boolean from a {@link JSONValue} in a field of primitive type,
+     * without boxing.  If the field is not of primitive type, or the value is not of the
+     * appropriate type, nothing is stored, and the value must be deserialized by the general
+     * mechanism (which will report any error).
+     *
+     * @param   property    the property
+     * @param   object      the target object
+     * @param   value       the value
+     * @return  {@code true} if the value was stored
+     * @throws  IllegalAccessException if the field is not accessible
+     */
+    private static boolean setPrimitive(DeserializationPlan.Property property, Object object,
+            JSONValue value) throws IllegalAccessException {
+        FieldAccessor.PrimitiveKind primitiveKind = property.getPrimitiveKind();
+        if (primitiveKind == FieldAccessor.PrimitiveKind.NONE)
+            return false;
+        if (primitiveKind == FieldAccessor.PrimitiveKind.BOOLEAN) {
+            if (!(value instanceof JSONBoolean))
+                return false;
+            property.setBoolean(object, ((JSONBoolean)value).booleanValue());
+            return true;
+        }
+        if (!(value instanceof Number))
+            return false;
+        Number number = (Number)value;
+        switch (primitiveKind) {
+        case INT:
+            property.setInt(object, number.intValue());
+            break;
+        case LONG:
+            property.setLong(object, number.longValue());
+            break;
+        case FLOAT:
+            property.setFloat(object, number.floatValue());
+            break;
+        default:
+            property.setDouble(object, number.doubleValue());
+            break;
+        }
+        return true;
+    }
+
+    /**
+     * Get the custom deserialization method ({@code static fromJSON(JSONValue)}) for a class,
+     * from the cache.
+     *
+     * @param   resultClass     the class
+     * @return  the {@code fromJSON()} method, or {@code null} if the class does not have one
+     */
+    static Method getFromJSON(Class<?> resultClass) {
+        return fromJSONMethods.get(resultClass);
+    }
+
+    /**
+     * Find the custom deserialization method ({@code static fromJSON(JSONValue)}) for a class.
+     * The result of this method is cached (including the absence of the method), so that the
+     * lookup is performed only once for each class.
+     *
+     * @param   resultClass     the class
+     * @return  the {@code fromJSON()} method, or {@code null} if the class does not have one
+     */
+    private static Method findFromJSON(Class<?> resultClass) {
+        Method fromJSON;
+        try {
+            fromJSON = resultClass.getDeclaredMethod("fromJSON", JSONValue.class);
+        }
+        catch (NoSuchMethodException e) {
+            return null; // this just means the result class doesn't have a fromJSON method
+        }
+        if (!Modifier.isStatic(fromJSON.getModifiers()) ||
+                !resultClass.isAssignableFrom(fromJSON.getReturnType()))
+            return null;
+        try {
+            fromJSON.setAccessible(true);
+        }
+        catch (Exception e) {
+            // ignore - the error will be reported when the method is invoked
+        }
+        return fromJSON;
+    }
+
+    /**
+     * Find the means of converting a string to an object of a class not otherwise handled by
+     * {@link #deserializeString(Class, String)}: a parsing function for the boxed primitive
+     * types, or a public constructor that takes a {@link String}, or failing that a public
+     * {@code static valueOf(String)} method returning the class.  The result of this method is
+     * cached (including the absence of any such means), so that the lookup is performed only
+     * once for each class.
+     *
+     * @param   resultClass     the class
+     * @return  the {@link StringConverter}, or {@code null} if there is none
+     */
+    private static StringConverter findStringConverter(Class<?> resultClass) {
+        if (resultClass.equals(Integer.class))
+            return Integer::valueOf;
+        if (resultClass.equals(Long.class))
+            return Long::valueOf;
+        if (resultClass.equals(Double.class))
+            return Double::valueOf;
+        if (resultClass.equals(Float.class))
+            return Float::valueOf;
+        if (resultClass.equals(Short.class))
+            return Short::valueOf;
+        if (resultClass.equals(Byte.class))
+            return Byte::valueOf;
+        if (resultClass.equals(Boolean.class))
+            return Boolean::valueOf;
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodHandle handle;
+        try {
+            handle = lookup.unreflectConstructor(resultClass.getConstructor(String.class));
+        }
+        catch (Exception e) {
+            try {
+                Method valueOf = resultClass.getMethod("valueOf", String.class);
+                if (!Modifier.isStatic(valueOf.getModifiers()) ||
+                        !resultClass.isAssignableFrom(valueOf.getReturnType()))
+                    return null;
+                handle = lookup.unreflect(valueOf);
+            }
+            catch (Exception e2) {
+                return null;
+            }
+        }
+        MethodHandle converter = handle.asType(stringConverterType);
+        return str -> (Object)converter.invokeExact(str);
+    }
+
+    /**
+     * Deserialize a string.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   s               the string
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the string can not be deserialized to the required type
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     */
+    public static <T> T deserializeString(Class<T> resultClass, String s) {
+
+        Objects.requireNonNull(resultClass);
+
+        // check for null
+
+        if (s == null)
+            return null;
+
+        return deserializeStringInternal(resultClass, s);
+
+    }
+
+    /**
+     * Deserialize a string (a string value, or a {@link Map} key) using the settings of this
+     * instance.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   s               the string
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the string can not be deserialized to the required type
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T deserializeStringValue(Class<T> resultClass, String s) {
+        if (byteArrayStyle != ByteArrayStyle.ARRAY && resultClass.equals(byte[].class))
+            return (T)Base64Codec.decode(s);
+        if (Enum.class.isAssignableFrom(resultClass))
+            return (T)EnumInfo.forClass(resultClass).find(s, ignoreEnumCase);
+        return deserializeStringInternal(resultClass, s);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T deserializeStringInternal(Class<T> resultClass,
+            String s) {
+
+        // is the target class String?
+
+        if (resultClass.equals(String.class))
+            return (T)s;
+
+        // is the target class Character?
+
+        if (resultClass.equals(Character.class)) {
+            if (s.length() != 1)
+                throw new JSONException("Character must be string of length 1");
+            return (T)Character.valueOf(s.charAt(0));
+        }
+
+        // is the target class array of char?
+
+        if (resultClass.isArray() && resultClass.getComponentType().equals(char.class))
+            return (T)s.toCharArray();
+
+        // is the target class Calendar?
+
+        if (resultClass.equals(Calendar.class)) {
+            Calendar calendar = DateParser.parseCalendar(s);
+            if (calendar != null)
+                return (T)calendar;
+            try {
+                return (T)ISO8601Date.decode(s);
+            }
+            catch (Exception e) {
+                throw new JSONException("Can't deserialize Calendar", e);
+            }
+        }
+
+        // is the target class Date?
+
+        if (resultClass.equals(Date.class)) {
+            Date date = DateParser.parseDate(s);
+            if (date != null)
+                return (T)date;
+            try {
+                return (T)ISO8601Date.decode(s).getTime();
+            }
+            catch (Exception e) {
+                throw new JSONException("Can't deserialize Date", e);
+            }
+        }
+
+        // is the target class Instant?
+
+        if (resultClass.equals(Instant.class)) {
+            Instant instant = DateParser.parseInstant(s);
+            if (instant != null)
+                return (T)instant;
+            try {
+                return (T)Instant.parse(s);
+            }
+            catch (Exception e) {
+                throw new JSONException("Can't deserialize Instant", e);
+            }
+        }
+
+        // is the target class LocalDate?
+
+        if (resultClass.equals(LocalDate.class)) {
+            LocalDate localDate = DateParser.parseLocalDate(s);
+            if (localDate != null)
+                return (T)localDate;
+            try {
+                return (T)LocalDate.parse(s);
+            }
+            catch (Exception e) {
+                throw new JSONException("Can't deserialize LocalDate", e);
+            }
+        }
+
+        // is the target class LocalDateTime?
+
+        if (resultClass.equals(LocalDateTime.class)) {
+            LocalDateTime localDateTime = DateParser.parseLocalDateTime(s);
+            if (localDateTime != null)
+                return (T)localDateTime;
+            try {
+                return (T)LocalDateTime.parse(s);
+            }
+            catch (Exception e) {
+                throw new JSONException("Can't deserialize LocalDateTime", e);
+            }
+        }
+
+        // is the target class OffsetTime?
+
+        if (resultClass.equals(OffsetTime.class)) {
+            OffsetTime offsetTime = DateParser.parseOffsetTime(s);
+            if (offsetTime != null)
+                return (T)offsetTime;
+            try {
+                return (T)OffsetTime.parse(s);
+            }
+            catch (Exception e) {
+                throw new JSONException("Can't deserialize OffsetTime", e);
+            }
+        }
+
+        // is the target class OffsetDateTime?
+
+        if (resultClass.equals(OffsetDateTime.class)) {
+            OffsetDateTime offsetDateTime = DateParser.parseOffsetDateTime(s);
+            if (offsetDateTime != null)
+                return (T)offsetDateTime;
+            try {
+                return (T)OffsetDateTime.parse(s);
+            }
+            catch (Exception e) {
+                throw new JSONException("Can't deserialize OffsetDateTime", e);
+            }
+        }
+
+        // is the target class ZonedDateTime?
+
+        if (resultClass.equals(ZonedDateTime.class)) {
+            ZonedDateTime zonedDateTime = DateParser.parseZonedDateTime(s);
+            if (zonedDateTime != null)
+                return (T)zonedDateTime;
+            try {
+                return (T)ZonedDateTime.parse(s);
+            }
+            catch (Exception e) {
+                throw new JSONException("Can't deserialize ZonedDateTime", e);
+            }
+        }
+
+        // is the target class Year?
+
+        if (resultClass.equals(Year.class)) {
+            Year year = DateParser.parseYear(s);
+            if (year != null)
+                return (T)year;
+            try {
+                return (T)Year.parse(s);
+            }
+            catch (Exception e) {
+                throw new JSONException("Can't deserialize Year", e);
+            }
+        }
+
+        // is the target class YearMonth?
+
+        if (resultClass.equals(YearMonth.class)) {
+            YearMonth yearMonth = DateParser.parseYearMonth(s);
+            if (yearMonth != null)
+                return (T)yearMonth;
+            try {
+                return (T)YearMonth.parse(s);
+            }
+            catch (Exception e) {
+                throw new JSONException("Can't deserialize Year", e);
+            }
+        }
+
+        // is the target class UUID?
+
+        if (resultClass.equals(UUID.class)) {
+            try {
+                return (T)UUID.fromString(s);
+            }
+            catch (Exception e) {
+                throw new JSONException("Can't deserialize UUID", e);
+            }
+        }
+
+        // is the target class an enum?
+
+        if (Enum.class.isAssignableFrom(resultClass))
+            return (T)EnumInfo.forClass(resultClass).find(s, false);
+
+        // does the target class have a public constructor that takes String?
+        // (e.g. StringBuilder, Integer, ... )
+
+        StringConverter converter = stringConverters.get(resultClass);
+        if (converter != null) {
+            try {
+                return (T)converter.convert(s);
+            }
+            catch (Error e) {
+                throw e;
+            }
+            catch (Throwable e) {
+                throw new JSONException("Can't deserialize string as " + resultClass, e);
+            }
+        }
+        throw new JSONException("Can't deserialize string as " + resultClass);
+
+    }
+
+    /**
+     * Deserialize a number.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   number          the number
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  JSONException   if the number can not be deserialized to the required type
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     */
+    public static <T> T deserializeNumber(Class<T> resultClass, Number number) {
+
+        Objects.requireNonNull(resultClass);
+
+        // check for null
+
+        if (number == null)
+            return null;
+
+        return defaultDeserializer.deserializeNumberInternal(resultClass, number);
+
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T deserializeNumberInternal(Class<T> resultClass, Number number) {
+
+        // is the target class Integer?
+
+        if (resultClass.equals(Integer.class) || resultClass.equals(int.class))
+            return (T)Integer.valueOf(number.intValue());
+
+        // is the target class Long?
+
+        if (resultClass.equals(Long.class) || resultClass.equals(long.class))
+            return (T)Long.valueOf(number.longValue());
+
+        // is the target class Double?
+
+        if (resultClass.equals(Double.class) || resultClass.equals(double.class))
+            return (T)Double.valueOf(number.doubleValue());
+
+        // is the target class Float?
+
+        if (resultClass.equals(Float.class) || resultClass.equals(float.class))
+            return (T)Float.valueOf(number.floatValue());
+
+        // is the target class Short?
+
+        if (resultClass.equals(Short.class) || resultClass.equals(short.class))
+            return (T)Short.valueOf(number.shortValue());
+
+        // is the target class Byte?
+
+        if (resultClass.equals(Byte.class) || resultClass.equals(byte.class))
+            return (T)Byte.valueOf(number.byteValue());
+
+        // is the target class Date or Calendar, represented as milliseconds since the epoch?
+
+        if (dateStyle == DateStyle.EPOCH_MILLIS) {
+            if (resultClass.equals(Date.class))
+                return (T)new Date(number.longValue());
+            if (resultClass.equals(Calendar.class)) {
+                Calendar calendar = Calendar.getInstance();
+                calendar.setTimeInMillis(number.longValue());
+                return (T)calendar;
+            }
+        }
+
+        throw new JSONException("Can't deserialize number as " + resultClass);
+
+    }
+
+    /**
+     * Deserialize an object.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   object          the JSON representation of the object
+     * @param   <T>             the type of the result
+     * @return  the object
+     * @throws  NullPointerException if the resultClass parameter is {@code null}
+     */
+    public static <T> T deserializeObject(Class<T> resultClass, JSONObject object) {
+        return defaultDeserializer.objectFromJSON(resultClass, object);
+    }
+
+    /**
+     * Deserialize an object field-by-field, using the settings of this instance.
+     *
+     * @param   resultClass     the class of the result object
+     * @param   object          the JSON representation of the object
+     * @param   <T>             the type of the result
+     * @return  the object
+     */
+    private <T> T objectFromJSON(Class<T> resultClass, JSONObject object) {
+        try {
+            DeserializationPlan plan = getPlan(resultClass);
+            @SuppressWarnings("unchecked")
+            T result = (T)plan.newInstance();
+            for (Map.Entry<String, JSONValue> entry : object.entrySet()) {
+                String name = entry.getKey();
+                // TODO use setter method if available?
+                DeserializationPlan.Property property = plan.getProperty(name);
+                if (property == null) {
+                    if (ignoreUnknownFields)
+                        continue;
+                    throw new JSONException("Can't find field for " + name);
+                }
+                if (!property.isAccessible())
+                    throw new JSONException("Can't access field " + property.getField());
+                JSONValue value = entry.getValue();
+                if (!setPrimitive(property, result, value))
+                    property.setValue(result, fromJSONValue(property.getType(),
+                            property.getTypeArgs(), value));
+            }
+            return result;
+        }
+        catch (JSONException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            throw new JSONException("Can't deserialize object as " + resultClass, e);
+        }
+    }
+
+    /**
+     * Deserialize a {@link Map}.  This method only works for a {@code Map<?, ?>} where the key
+     * type can be constructed from {@link String} and the value type is itself deserializable.
+     *
+     * @param   mapClass        the class of the map
+     * @param   typeArgs        the actual types for the generic class
+     * @param   object          a {@link JSONObject} to be deserialized into a {@link Map}
+     * @param   <K>             the type of the key
+     * @param   <V>             the type of the value
+     * @return  the {@link Map}
+     * @throws  JSONException if the type arguments are incorrect, if the map class can't be
+     *          instantiated, or if the deserialization of the items throws an exception
+     * @throws  NullPointerException if the mapClass or object parameter is {@code null}
+     */
+    public static <K, V> Map<K, V> deserializeMap(Class<?> mapClass, Type[] typeArgs,
+            JSONObject object) {
+        return defaultDeserializer.mapFromJSON(mapClass, typeArgs, object);
+    }
+
+    /**
+     * Deserialize a {@link Map}, using the settings of this instance.
+     *
+     * @param   mapClass        the class of the map
+     * @param   typeArgs        the actual types for the generic class
+     * @param   object          a {@link JSONObject} to be deserialized into a {@link Map}
+     * @param   <K>             the type of the key
+     * @param   <V>             the type of the value
+     * @return  the {@link Map}
+     */
+    @SuppressWarnings("unchecked")
+    private <K, V> Map<K, V> mapFromJSON(Class<?> mapClass, Type[] typeArgs,
+            JSONObject object) {
+        if (typeArgs == null || typeArgs.length != 2)
+            throw new JSONException("Missing or incorrect type arguments for Map");
+        Class<K> keyClass = (Class<K>)getGenericClass(typeArgs[0]);
+        Type valueType = typeArgs[1];
+        Class<V> valueClass = (Class<V>)getGenericClass(valueType);
+        Type[] valueTypeArgs = getGenericTypeArgs(valueType);
+        try {
+            Map<K, V> result = (Map<K, V>)mapClass.getDeclaredConstructor().newInstance();
+            for (Map.Entry<String, JSONValue> entry : object.entrySet())
+                result.put(deserializeStringValue(keyClass, entry.getKey()),
+                        fromJSONValue(valueClass, valueTypeArgs, entry.getValue()));
+            return result;
+        }
+        catch (JSONException je) {
+            throw je;
+        }
+        catch (Exception e) {
+            throw new JSONException("Can't instantiate " + mapClass, e);
+        }
+    }
+
+    /**
+     * Deserialize a {@link Collection}.  This method only works for a {@code Collection<?>}
+     * where the item type is itself deserializable.
+     *
+     * @param   collectionClass the class of the collection
+     * @param   typeArgs        the actual types for the generic class
+     * @param   array           a {@link JSONArray} to be deserialized into a {@link Collection}
+     * @param   <T>             the type of the result
+     * @return  the {@link Collection}
+     * @throws  JSONException if the type arguments are incorrect, if the collection class can't
+     *          be instantiated, or if the deserialization of the items throws an exception
+     * @throws  NullPointerException if the collectionClass or array parameter is {@code null}
+     */
+    public static <T> Collection<T> deserializeCollection(Class<?> collectionClass,
+            Type[] typeArgs, JSONArray array) {
+        return defaultDeserializer.collectionFromJSON(collectionClass, typeArgs, array);
+    }
+
+    /**
+     * Deserialize a {@link Collection}, using the settings of this instance.
+     *
+     * @param   collectionClass the class of the collection
+     * @param   typeArgs        the actual types for the generic class
+     * @param   array           the items (a {@link JSONArray} or a {@link JSONPrimitiveArray})
+     *                          to be deserialized into a {@link Collection}
+     * @param   <T>             the type of the result
+     * @return  the {@link Collection}
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Collection<T> collectionFromJSON(Class<?> collectionClass, Type[] typeArgs,
+            List<JSONValue> array) {
+        if (typeArgs == null || typeArgs.length != 1)
+            throw new JSONException("Missing or incorrect type arguments for Collection");
+        Type itemType = typeArgs[0];
+        Class<T> itemClass = (Class<T>)getGenericClass(itemType);
+        Type[] itemTypeArgs = getGenericTypeArgs(itemType);
+        try {
+            Collection<T> result =
+                    (Collection<T>)collectionClass.getDeclaredConstructor().newInstance();
+            for (JSONValue value : array)
+                result.add(fromJSONValue(itemClass, itemTypeArgs, value));
+            return result;
+        }
+        catch (JSONException je) {
+            throw je;
+        }
+        catch (Exception e) {
+            throw new JSONException("Can't instantiate " + collectionClass, e);
+        }
+    }
+
+    /**
+     * Deserialize an array of primitive type.  Numbers (or booleans, for a {@code boolean[]})
+     * are stored in the array directly; any other value is deserialized using the general
+     * mechanism.
+     *
+     * @param   arrayClass      the class of the array
+     * @param   array           a {@link JSONArray} to be deserialized into an array
+     * @param   <T>             the type of the result
+     * @return  the result array
+     * @throws  NullPointerException if either parameter is {@code null}
+     */
+    public static <T> T deserializePrimitiveArray(Class<T> arrayClass, JSONArray array) {
+        return primitiveArrayFromJSON(arrayClass, array);
+    }
+
+    /**
+     * Deserialize an array of primitive type from a list of {@link JSONValue}s.
+     *
+     * @param   arrayClass      the class of the array
+     * @param   array           the items (a {@link JSONArray} or a {@link JSONPrimitiveArray})
+     * @param   <T>             the type of the result
+     * @return  the result array
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T primitiveArrayFromJSON(Class<T> arrayClass, List<JSONValue> array) {
+        int n = array.size();
+        Class<?> componentType = arrayClass.getComponentType();
+        if (componentType.equals(int.class)) {
+            int[] result = new int[n];
+            for (int i = 0; i < n; i++) {
+                JSONValue item = array.get(i);
+                result[i] = item instanceof Number ? ((Number)item).intValue() :
+                        deserialize(int.class, item);
+            }
+            return (T)result;
+        }
+        if (componentType.equals(long.class)) {
+            long[] result = new long[n];
+            for (int i = 0; i < n; i++) {
+                JSONValue item = array.get(i);
+                result[i] = item instanceof Number ? ((Number)item).longValue() :
+                        deserialize(long.class, item);
+            }
+            return (T)result;
+        }
+        if (componentType.equals(double.class)) {
+            double[] result = new double[n];
+            for (int i = 0; i < n; i++) {
+                JSONValue item = array.get(i);
+                result[i] = item instanceof Number ? ((Number)item).doubleValue() :
+                        deserialize(double.class, item);
+            }
+            return (T)result;
+        }
+        if (componentType.equals(float.class)) {
+            float[] result = new float[n];
+            for (int i = 0; i < n; i++) {
+                JSONValue item = array.get(i);
+                result[i] = item instanceof Number ? ((Number)item).floatValue() :
+                        deserialize(float.class, item);
+            }
+            return (T)result;
+        }
+        if (componentType.equals(short.class)) {
+            short[] result = new short[n];
+            for (int i = 0; i < n; i++) {
+                JSONValue item = array.get(i);
+                result[i] = item instanceof Number ? ((Number)item).shortValue() :
+                        deserialize(short.class, item);
+            }
+            return (T)result;
+        }
+        if (componentType.equals(byte.class)) {
+            byte[] result = new byte[n];
+            for (int i = 0; i < n; i++) {
+                JSONValue item = array.get(i);
+                result[i] = item instanceof Number ? ((Number)item).byteValue() :
+                        deserialize(byte.class, item);
+            }
+            return (T)result;
+        }
+        if (componentType.equals(boolean.class)) {
+            boolean[] result = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                JSONValue item = array.get(i);
+                result[i] = item instanceof JSONBoolean ? ((JSONBoolean)item).booleanValue() :
+                        deserialize(boolean.class, item);
+            }
+            return (T)result;
+        }
+        throw new JSONException("Can't deserialize array of " + componentType);
+    }
+
+    /**
+     * Deserialize an array.
+     *
+     * @param   itemClass       the class of the array item
+     * @param   array           a {@link JSONArray} to be deserialized into an array
+     * @param   <T>             the type of the result array item
+     * @return  the result array
+     * @throws  NullPointerException if either parameter is {@code null}
+     */
+    public static <T> T[] deserializeArray(Class<T> itemClass, JSONArray array) {
+        return defaultDeserializer.arrayFromJSON(itemClass, array);
+    }
+
+    /**
+     * Deserialize an array, using the settings of this instance.
+     *
+     * @param   itemClass       the class of the array item
+     * @param   array           the items (a {@link JSONArray} or a {@link JSONPrimitiveArray})
+     *                          to be deserialized into an array
+     * @param   <T>             the type of the result array item
+     * @return  the result array
+     */
+    private <T> T[] arrayFromJSON(Class<T> itemClass, List<JSONValue> array) {
+        int n = array.size();
+        @SuppressWarnings("unchecked")
+        T[] result = (T[])Array.newInstance(itemClass, n);
+        for (int i = 0; i < n; i++)
+            result[i] = fromJSONValue(itemClass, null, array.get(i));
+        return result;
+    }
+
+    /**
+     * Deserialize an {@link Optional}.
+     *
+     * @param   typeArgs    the actual types for the generic class
+     * @param   json        the JSON for the target object
+     * @return  the result {@link Optional}
+     * @throws  JSONException if the type arguments are incorrect or if the deserialization of
+     *          the target object throws an exception
+     */
+    public static Optional<?> deserializeOptional(Type[] typeArgs, JSONValue json) {
+        return defaultDeserializer.optionalFromJSON(typeArgs, json);
+    }
+
+    /**
+     * Deserialize an {@link Optional}, using the settings of this instance.
+     *
+     * @param   typeArgs    the actual types for the generic class
+     * @param   json        the JSON for the target object
+     * @return  the result {@link Optional}
+     */
+    private Optional<?> optionalFromJSON(Type[] typeArgs, JSONValue json) {
+        if (typeArgs == null || typeArgs.length != 1)
+            throw new JSONException("Missing or incorrect type arguments for Optional");
+        Type targetType = typeArgs[0];
+        Class<?> targetClass = getGenericClass(targetType);
+        Type[] targetTypeArgs = getGenericTypeArgs(targetType);
+        Object value = fromJSONValue(targetClass, targetTypeArgs, json);
+        return value != null ? Optional.of(value) : Optional.empty();
+    }
+
+    /**
+     * Deserialize an {@link OptionalInt}.
+     *
+     * @param   json        the JSON for the target value
+     * @return  the result {@link OptionalInt}
+     * @throws  JSONException if the deserialization of the target value throws an exception
+     */
+    public static OptionalInt deserializeOptionalInt(JSONValue json) {
+        Integer value = deserialize(Integer.class, null, json);
+        return value != null ? OptionalInt.of(value) : OptionalInt.empty();
+    }
+
+    /**
+     * Deserialize an {@link OptionalLong}.
+     *
+     * @param   json        the JSON for the target value
+     * @return  the result {@link OptionalLong}
+     * @throws  JSONException if the deserialization of the target value throws an exception
+     */
+    public static OptionalLong deserializeOptionalLong(JSONValue json) {
+        Long value = deserialize(Long.class, null, json);
+        return value != null ? OptionalLong.of(value) : OptionalLong.empty();
+    }
+
+    /**
+     * Deserialize an {@link OptionalDouble}.
+     *
+     * @param   json        the JSON for the target value
+     * @return  the result {@link OptionalDouble}
+     * @throws  JSONException if the deserialization of the target value throws an exception
+     */
+    public static OptionalDouble deserializeOptionalDouble(JSONValue json) {
+        Double value = deserialize(Double.class, null, json);
+        return value != null ? OptionalDouble.of(value) : OptionalDouble.empty();
+    }
+
+    /**
+     * Create a {@link ParameterizedType} for use as a type argument in a call to
+     * {@link #deserialize(Class, Type[], JSONValue)}, where the type argument is itself a
+     * parameterized type (e.g. the {@code List<String>} in {@code Map<String, List<String>>}).
+     * This method is used by the companion classes generated for classes annotated with
+     * {@link net.pwall.json.annotation.JSONSerializable JSONSerializable}.
+     *
+     * @param   rawType     the raw type
+     * @param   typeArgs    the actual type arguments
+     * @return  the {@link ParameterizedType}
+     * @throws  NullPointerException if either parameter is {@code null}
+     */
+    public static ParameterizedType parameterizedType(Class<?> rawType, Type... typeArgs) {
+        return new SimpleParameterizedType(Objects.requireNonNull(rawType), typeArgs.clone());
+    }
+
+    private static Class<?> getGenericClass(Type type) {
+        if (type instanceof Class)
+            return (Class<?>)type;
+        if (type instanceof ParameterizedType) {
+            ParameterizedType pt = (ParameterizedType)type;
+            return (Class<?>)pt.getRawType();
+        }
+        throw new JSONException("Can't determine target class for parameterized type");
+    }
+
+    private static Type[] getGenericTypeArgs(Type type) {
+        if (type instanceof Class)
+            return null;
+        if (type instanceof ParameterizedType) {
+            ParameterizedType pt = (ParameterizedType)type;
+            return pt.getActualTypeArguments();
+        }
+        throw new JSONException("Can't determine target type args for parameterized type");
+    }
+
+    /**
+     * A simple implementation of {@link ParameterizedType}, for use by
+     * {@link #parameterizedType(Class, Type...)}.
+     */
+    private static class SimpleParameterizedType implements ParameterizedType {
+
+        private final Class<?> rawType;
+        private final Type[] typeArgs;
+
+        SimpleParameterizedType(Class<?> rawType, Type[] typeArgs) {
+            this.rawType = rawType;
+            this.typeArgs = typeArgs;
+        }
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return typeArgs.clone();
+        }
+
+        @Override
+        public Type getRawType() {
+            return rawType;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return rawType.getDeclaringClass();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other)
+                return true;
+            if (!(other instanceof ParameterizedType))
+                return false;
+            ParameterizedType pt = (ParameterizedType)other;
+            return rawType.equals(pt.getRawType()) &&
+                    Objects.equals(getOwnerType(), pt.getOwnerType()) &&
+                    Arrays.equals(typeArgs, pt.getActualTypeArguments());
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(typeArgs) ^ Objects.hashCode(getOwnerType()) ^
+                    rawType.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(rawType.getTypeName()).append('<');
+            for (int i = 0; i < typeArgs.length; i++) {
+                if (i > 0)
+                    sb.append(", ");
+                sb.append(typeArgs[i].getTypeName());
+            }
+            return sb.append('>').toString();
+        }
+
+    }
+
+    /**
+     * A function to read an item of an array of primitive type from a {@link JSONTokenizer},
+     * and store it in the array.
+     */
+    @FunctionalInterface
+    private interface PrimitiveItemReader {
+
+        void readItem(JSONDeserializer deserializer, JSONTokenizer tokenizer, Object array,
+                int index);
+
+    }
+
+    /**
+     * A function to convert a string to an object of a particular class.
+     */
+    @FunctionalInterface
+    private interface StringConverter {
+
+        Object convert(String s) throws Throwable;
+
+    }
+
+    /**
+     * A builder for {@link JSONDeserializer} instances.  The initial settings of a new
+     * {@code Builder} are the same as those used by the static methods of
+     * {@link JSONDeserializer}.
+     */
+    public static class Builder {
+
+        private boolean ignoreUnknownFields;
+        private DateStyle dateStyle;
+        private NamingStrategy naming;
+        private AccessEngine engine;
+        private ByteArrayStyle byteArrayStyle;
+        private boolean ignoreEnumCase;
+
+        private Builder() {
+            ignoreUnknownFields = false;
+            dateStyle = DateStyle.ISO_8601;
+            naming = NamingStrategy.AS_DECLARED;
+            engine = AccessEngine.getDefault();
+            byteArrayStyle = ByteArrayStyle.ARRAY;
+            ignoreEnumCase = false;
+        }
+
+        /**
+         * Specify whether properties in the JSON that do not match any field of the target
+         * class are to be ignored.  By default, they cause a {@link JSONException}.
+         *
+         * @param   ignoreUnknownFields     {@code true} to ignore unknown properties
+         * @return  this {@code Builder}
+         */
+        public Builder ignoreUnknownFields(boolean ignoreUnknownFields) {
+            this.ignoreUnknownFields = ignoreUnknownFields;
+            return this;
+        }
+
+        /**
+         * Specify the representation of {@link Date} and {@link Calendar} values.  The ISO
+         * 8601 string form is accepted in either case.
+         *
+         * @param   dateStyle   the {@link DateStyle}
+         * @return  this {@code Builder}
+         * @throws  NullPointerException if the {@link DateStyle} is {@code null}
+         */
+        public Builder dateStyle(DateStyle dateStyle) {
+            this.dateStyle = Objects.requireNonNull(dateStyle);
+            return this;
+        }
+
+        /**
+         * Specify the {@link NamingStrategy} for deriving property names from field names.
+         * Names specified by the {@link net.pwall.json.annotation.JSONName JSONName}
+         * annotation are not affected.
+         *
+         * @param   naming  the {@link NamingStrategy}
+         * @return  this {@code Builder}
+         * @throws  NullPointerException if the {@link NamingStrategy} is {@code null}
+         */
+        public Builder naming(NamingStrategy naming) {
+            this.naming = Objects.requireNonNull(naming);
+            return this;
+        }
+
+        /**
+         * Specify the {@link AccessEngine} to be used to create objects and set their fields.
+         *
+         * @param   engine  the {@link AccessEngine}
+         * @return  this {@code Builder}
+         * @throws  NullPointerException if the {@link AccessEngine} is {@code null}
+         */
+        public Builder engine(AccessEngine engine) {
+            this.engine = Objects.requireNonNull(engine);
+            return this;
+        }
+
+        /**
+         * Specify the representation of {@code byte[]} values.  With either of the Base64
+         * forms, a string using either alphabet, with or without padding, is accepted; an
+         * array of numbers is accepted in all cases.
+         *
+         * @param   byteArrayStyle  the {@link ByteArrayStyle}
+         * @return  this {@code Builder}
+         * @throws  NullPointerException if the {@link ByteArrayStyle} is {@code null}
+         */
+        public Builder byteArrayStyle(ByteArrayStyle byteArrayStyle) {
+            this.byteArrayStyle = Objects.requireNonNull(byteArrayStyle);
+            return this;
+        }
+
+        /**
+         * Specify whether the names of {@code enum} constants are to be matched without regard
+         * to case.  An exact match takes precedence.  By default, the name must match exactly.
+         *
+         * @param   ignoreEnumCase  {@code true} to match {@code enum} names ignoring case
+         * @return  this {@code Builder}
+         */
+        public Builder ignoreEnumCase(boolean ignoreEnumCase) {
+            this.ignoreEnumCase = ignoreEnumCase;
+            return this;
+        }
+
+        /**
+         * Create a {@link JSONDeserializer} with the settings of this {@code Builder}.
+         *
+         * @return  the {@link JSONDeserializer}
+         */
+        public JSONDeserializer build() {
+            return new JSONDeserializer(this, true);
+        }
+
+    }
+
+}
@@ -0,0 +1,315 @@
+/*
+ * @(#) JSONPrimitiveArray.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import net.pwall.json.JSONArray;
+import net.pwall.json.JSONBoolean;
+import net.pwall.json.JSONDouble;
+import net.pwall.json.JSONException;
+import net.pwall.json.JSONFloat;
+import net.pwall.json.JSONInteger;
+import net.pwall.json.JSONLong;
+import net.pwall.json.JSONValue;
+
+/**
+ * A compact JSON array backed by an array of primitive type (other than {@code char[]}, which
+ * serializes as a string).  Unlike a {@link JSONArray}, which holds a separate
+ * {@link JSONValue} object for each item, this class holds only the primitive array; the JSON
+ * is rendered directly from the array, and an item is converted to a {@link JSONValue} only
+ * when it is retrieved using {@link #get(int)}.
+ *
+ * <p>An instance may hold either a copy of the original array ({@link #of(Object)}), or the
+ * original array itself ({@link #view(Object)}), in which case any changes to the original
+ * array will be reflected in the JSON.  The list itself is unmodifiable.  As a {@link List}, an
+ * instance is equal to any other list (including a {@link JSONArray}) containing the same
+ * values.</p>
+ *
+ * @author Peter Wall
+ */
+public abstract class JSONPrimitiveArray extends AbstractList<JSONValue>
+        implements JSONValue, RandomAccess {
+
+    private final Object array;
+
+    private JSONPrimitiveArray(Object array) {
+        this.array = array;
+    }
+
+    /**
+     * Create a {@code JSONPrimitiveArray} holding a copy of an array of primitive type.
+     *
+     * @param   array   the array
+     * @return  the {@code JSONPrimitiveArray}
+     * @throws  JSONException if the object is not an array of a supported type
+     * @throws  NullPointerException if the array is {@code null}
+     */
+    public static JSONPrimitiveArray of(Object array) {
+        if (array instanceof int[])
+            return new IntArray(((int[])array).clone());
+        if (array instanceof long[])
+            return new LongArray(((long[])array).clone());
+        if (array instanceof boolean[])
+            return new BooleanArray(((boolean[])array).clone());
+        if (array instanceof double[])
+            return new DoubleArray(((double[])array).clone());
+        if (array instanceof float[])
+            return new FloatArray(((float[])array).clone());
+        if (array instanceof short[])
+            return new ShortArray(((short[])array).clone());
+        if (array instanceof byte[])
+            return new ByteArray(((byte[])array).clone());
+        throw unsupported(array);
+    }
+
+    /**
+     * Create a {@code JSONPrimitiveArray} as a view of an array of primitive type, without
+     * copying it.  Changes to the array will be reflected in the JSON.
+     *
+     * @param   array   the array
+     * @return  the {@code JSONPrimitiveArray}
+     * @throws  JSONException if the object is not an array of a supported type
+     * @throws  NullPointerException if the array is {@code null}
+     */
+    public static JSONPrimitiveArray view(Object array) {
+        if (array instanceof int[])
+            return new IntArray((int[])array);
+        if (array instanceof long[])
+            return new LongArray((long[])array);
+        if (array instanceof boolean[])
+            return new BooleanArray((boolean[])array);
+        if (array instanceof double[])
+            return new DoubleArray((double[])array);
+        if (array instanceof float[])
+            return new FloatArray((float[])array);
+        if (array instanceof short[])
+            return new ShortArray((short[])array);
+        if (array instanceof byte[])
+            return new ByteArray((byte[])array);
+        throw unsupported(array);
+    }
+
+    /**
+     * Get the underlying array (the copy or the original array, depending on how this object
+     * was created).
+     *
+     * @return  the array
+     */
+    Object getArray() {
+        return array;
+    }
+
+    private static JSONException unsupported(Object array) {
+        Class<?> arrayClass = array.getClass();
+        return new JSONException(!arrayClass.isArray() ? "Not an array" :
+                "Can't serialize array of " + arrayClass.getComponentType());
+    }
+
+    /**
+     * Append the JSON for this array to an {@link Appendable}.
+     *
+     * @param   a       the {@link Appendable}
+     * @throws  IOException if thrown by the {@link Appendable}
+     */
+    @Override
+    public void appendJSON(Appendable a) throws IOException {
+        JSONSerializer.appendArray(a, array);
+    }
+
+    /**
+     * Get the JSON for this array.
+     *
+     * @return  the JSON
+     */
+    @Override
+    public String toJSON() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            appendJSON(sb);
+        }
+        catch (IOException ioe) {
+            // can't happen - StringBuilder does not throw IOException
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJSON();
+    }
+
+    private static class IntArray extends JSONPrimitiveArray {
+
+        private final int[] array;
+
+        IntArray(int[] array) {
+            super(array);
+            this.array = array;
+        }
+
+        @Override
+        public JSONValue get(int index) {
+            return JSONInteger.valueOf(array[index]);
+        }
+
+        @Override
+        public int size() {
+            return array.length;
+        }
+
+    }
+
+    private static class LongArray extends JSONPrimitiveArray {
+
+        private final long[] array;
+
+        LongArray(long[] array) {
+            super(array);
+            this.array = array;
+        }
+
+        @Override
+        public JSONValue get(int index) {
+            return JSONLong.valueOf(array[index]);
+        }
+
+        @Override
+        public int size() {
+            return array.length;
+        }
+
+    }
+
+    private static class BooleanArray extends JSONPrimitiveArray {
+
+        private final boolean[] array;
+
+        BooleanArray(boolean[] array) {
+            super(array);
+            this.array = array;
+        }
+
+        @Override
+        public JSONValue get(int index) {
+            return JSONBoolean.valueOf(array[index]);
+        }
+
+        @Override
+        public int size() {
+            return array.length;
+        }
+
+    }
+
+    private static class DoubleArray extends JSONPrimitiveArray {
+
+        private final double[] array;
+
+        DoubleArray(double[] array) {
+            super(array);
+            this.array = array;
+        }
+
+        @Override
+        public JSONValue get(int index) {
+            return JSONDouble.valueOf(array[index]);
+        }
+
+        @Override
+        public int size() {
+            return array.length;
+        }
+
+    }
+
+    private static class FloatArray extends JSONPrimitiveArray {
+
+        private final float[] array;
+
+        FloatArray(float[] array) {
+            super(array);
+            this.array = array;
+        }
+
+        @Override
+        public JSONValue get(int index) {
+            return JSONFloat.valueOf(array[index]);
+        }
+
+        @Override
+        public int size() {
+            return array.length;
+        }
+
+    }
+
+    private static class ShortArray extends JSONPrimitiveArray {
+
+        private final short[] array;
+
+        ShortArray(short[] array) {
+            super(array);
+            this.array = array;
+        }
+
+        @Override
+        public JSONValue get(int index) {
+            return JSONInteger.valueOf(array[index]);
+        }
+
+        @Override
+        public int size() {
+            return array.length;
+        }
+
+    }
+
+    private static class ByteArray extends JSONPrimitiveArray {
+
+        private final byte[] array;
+
+        ByteArray(byte[] array) {
+            super(array);
+            this.array = array;
+        }
+
+        @Override
+        public JSONValue get(int index) {
+            return JSONInteger.valueOf(array[index]);
+        }
+
+        @Override
+        public int size() {
+            return array.length;
+        }
+
+    }
+
+}
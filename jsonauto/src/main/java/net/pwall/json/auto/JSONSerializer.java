@@ -0,0 +1,1754 @@
+/*
+ * @(#) JSONSerializer.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016, 2017, 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.CharBuffer;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+import net.pwall.json.JSONArray;
+import net.pwall.json.JSONBoolean;
+import net.pwall.json.JSONDouble;
+import net.pwall.json.JSONException;
+import net.pwall.json.JSONFloat;
+import net.pwall.json.JSONInteger;
+import net.pwall.json.JSONLong;
+import net.pwall.json.JSONNumberValue;
+import net.pwall.json.JSONObject;
+import net.pwall.json.JSONString;
+import net.pwall.json.JSONValue;
+import net.pwall.json.JSONZero;
+import net.pwall.util.Strings;
+
+/**
+ * JSON auto-serialization class.  The static methods of this class use the default settings;
+ * to customise the serialization, create an instance using a {@link Builder}:
+ * <pre>
+ *     JSONSerializer serializer = JSONSerializer.builder().includeNulls(true).
+ *             naming(NamingStrategy.SNAKE_CASE).build();
+ *     String json = serializer.toJSONString(object);
+ * </pre>
+ * Instances are immutable and thread-safe.  Each instance holds its own cache of the
+ * serialization plans for the classes it has serialized, so instances should be created once
+ * and re-used.
+ *
+ * @author Peter Wall
+ */
+public class JSONSerializer {
+
+    private static final JSONSerializer defaultSerializer = new JSONSerializer(new Builder(),
+            false);
+
+    private final boolean includeNulls;
+    private final DateStyle dateStyle;
+    private final NamingStrategy naming;
+    private final AccessEngine engine;
+    private final PrimitiveArrayStyle primitiveArrayStyle;
+    private final ByteArrayStyle byteArrayStyle;
+    private final boolean useCompanions;
+    private final ConcurrentMap<Class<?>, SerializationPlan> plans;
+
+    /**
+     * Construct a {@code JSONSerializer} with the settings from a {@link Builder}.
+     *
+     * @param   builder         the {@link Builder}
+     * @param   ownPlans        {@code true} if the instance is to have its own cache of plans
+     *                          (otherwise the shared cache for the default settings is used)
+     */
+    private JSONSerializer(Builder builder, boolean ownPlans) {
+        includeNulls = builder.includeNulls;
+        dateStyle = builder.dateStyle;
+        naming = builder.naming;
+        engine = builder.engine;
+        primitiveArrayStyle = builder.primitiveArrayStyle;
+        byteArrayStyle = builder.byteArrayStyle;
+        useCompanions = !includeNulls && dateStyle == DateStyle.ISO_8601 &&
+                naming == NamingStrategy.AS_DECLARED &&
+                primitiveArrayStyle == PrimitiveArrayStyle.EXPANDED &&
+                byteArrayStyle == ByteArrayStyle.ARRAY;
+        plans = ownPlans ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * Create a {@link Builder} for a {@code JSONSerializer}.
+     *
+     * @return  the {@link Builder}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the default {@code JSONSerializer}, as used by the static methods of this class.
+     *
+     * @return  the default {@code JSONSerializer}
+     */
+    public static JSONSerializer getDefault() {
+        return defaultSerializer;
+    }
+
+    /**
+     * Get the {@link SerializationPlan} for a class, using the settings of this instance.
+     *
+     * @param   objectClass     the class
+     * @return  the {@link SerializationPlan}
+     */
+    private SerializationPlan getPlan(Class<?> objectClass) {
+        if (plans == null)
+            return SerializationPlan.forClass(objectClass);
+        SerializationPlan plan = plans.get(objectClass);
+        return plan != null ? plan : plans.computeIfAbsent(objectClass,
+                k -> new SerializationPlan(k, engine, naming));
+    }
+
+    /**
+     * Prepare for the serialization of the specified types using the default settings, by
+     * creating and caching the serialization plans (and other per-class information) for the
+     * types and all classes reachable from them through the declared types of their fields,
+     * including the type arguments of collections and maps.  This allows the cost of the
+     * analysis to be incurred at startup rather than on the first serialization of each class.
+     *
+     * @param   types   the types (usually classes)
+     * @see     #preparePlans(Type...)
+     */
+    public static void prepare(Type... types) {
+        defaultSerializer.preparePlans(types);
+    }
+
+    /**
+     * Prepare for the serialization of the specified types using the default settings, as
+     * {@link #prepare(Type...)}, but performing the work in parallel using the specified
+     * {@link Executor}.
+     *
+     * @param   executor    the {@link Executor}
+     * @param   types       the types (usually classes)
+     * @return  a {@link CompletableFuture} that completes when all the work has been performed
+     * @see     #preparePlans(Executor, Type...)
+     */
+    public static CompletableFuture<Void> prepare(Executor executor, Type... types) {
+        return defaultSerializer.preparePlans(executor, types);
+    }
+
+    /**
+     * Prepare for the serialization of the specified types using the settings of this
+     * instance, by creating and caching the serialization plans (and other per-class
+     * information) for the types and all classes reachable from them through the declared
+     * types of their fields.
+     *
+     * @param   types   the types (usually classes)
+     */
+    public void preparePlans(Type... types) {
+        new PlanPreparer(this::prepareClass).prepare(types);
+    }
+
+    /**
+     * Prepare for the serialization of the specified types using the settings of this
+     * instance, as {@link #preparePlans(Type...)}, but performing the work in parallel using
+     * the specified {@link Executor}.  If the preparation of any class fails, the
+     * {@link CompletableFuture} completes exceptionally.
+     *
+     * @param   executor    the {@link Executor}
+     * @param   types       the types (usually classes)
+     * @return  a {@link CompletableFuture} that completes when all the work has been performed
+     */
+    public CompletableFuture<Void> preparePlans(Executor executor, Type... types) {
+        return new PlanPreparer(this::prepareClass).prepare(executor, types).
+                thenApply(classes -> null);
+    }
+
+    /**
+     * Prepare a single class for serialization.
+     *
+     * @param   objectClass     the class
+     * @return  {@code true} if the fields of the class are to be prepared
+     */
+    private boolean prepareClass(Class<?> objectClass) {
+        switch (SerializerType.forClass(objectClass).getKind()) {
+        case ENUM:
+            EnumInfo.forClass(objectClass);
+            return false;
+        case COMPANION:
+        case OBJECT:
+            getPlan(objectClass);
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Create a JSON representation of any given object, using the default settings.
+     *
+     * @param   object  the object
+     * @return  the JSON for that object
+     */
+    public static JSONValue serialize(Object object) {
+        return defaultSerializer.toJSONValue(object);
+    }
+
+    /**
+     * Create a JSON representation of any given object.
+     *
+     * @param   object  the object
+     * @return  the JSON for that object
+     */
+    public JSONValue toJSONValue(Object object) {
+
+        // is it null?
+
+        if (object == null)
+            return null;
+        Class<?> objectClass = object.getClass();
+        SerializerType serializerType = SerializerType.forClass(objectClass);
+
+        // the checks on the class are performed once only for each class (see SerializerType)
+
+        switch (serializerType.getKind()) {
+
+        // is it already a JSONValue?
+
+        case JSON_VALUE:
+            return (JSONValue)object;
+
+        // is it a CharSequence (e.g. String)?
+
+        case CHAR_SEQUENCE:
+            return new JSONString((CharSequence)object);
+
+        // is is a Number?
+
+        case NUMBER:
+            return serializeNumberInternal(objectClass, (Number)object);
+
+        // is it a Boolean?
+
+        case BOOLEAN:
+            return JSONBoolean.valueOf((Boolean)object);
+
+        // is it a Character?
+
+        case CHARACTER:
+            return new JSONString(object.toString());
+
+        // is it an array of char?
+
+        case CHAR_ARRAY:
+            return new JSONString(new String((char[])object));
+
+        // is it an Object array?
+
+        case OBJECT_ARRAY:
+            JSONArray jsonArray = new JSONArray();
+            for (Object item : (Object[])object)
+                jsonArray.add(toJSONValue(item));
+            return jsonArray;
+
+        // is it an array of primitive type? (other than char)
+
+        case PRIMITIVE_ARRAY:
+            if (byteArrayStyle != ByteArrayStyle.ARRAY && object instanceof byte[])
+                return new JSONString(Base64Codec.encode((byte[])object,
+                        byteArrayStyle == ByteArrayStyle.BASE64URL));
+            switch (primitiveArrayStyle) {
+            case COPY:
+                return JSONPrimitiveArray.of(object);
+            case VIEW:
+                return JSONPrimitiveArray.view(object);
+            default:
+                return serializeArray(object);
+            }
+
+        // does it have a "toJSON()" method?
+
+        case CUSTOM:
+            try {
+                return (JSONValue)serializerType.getMethod().invoke(object);
+            }
+            catch (Exception e) {
+                throw new JSONException("Custom serialization failed for " +
+                        objectClass.getName(), e);
+            }
+
+        // does it have a generated companion?
+
+        case COMPANION:
+            if (useCompanions)
+                return serializeWithCompanion(serializerType.getCompanion(), object);
+            return objectToJSON(object);
+
+        // is it an enum?
+
+        case ENUM:
+            Enum<?> constant = (Enum<?>)object;
+            return EnumInfo.forConstant(constant).getJSONString(constant);
+
+        // is it an Iterable?
+
+        case ITERABLE:
+            return iterableToJSON((Iterable<?>)object);
+
+        // is it a Kotlin Sequence?
+
+        case SEQUENCE:
+            try {
+                return iteratorToJSON((Iterator<?>)serializerType.getMethod().invoke(object));
+            }
+            catch (Exception e) {
+                throw new JSONException(
+                        "Sequence serialization failed for " + objectClass.getName(), e);
+            }
+
+        // is it a Map?
+
+        case MAP:
+            return mapToJSON((Map<?, ?>)object);
+
+        // is it an Enumeration?
+
+        case ENUMERATION:
+            return enumerationToJSON((Enumeration<?>)object);
+
+        // is it an Iterator?
+
+        case ITERATOR:
+            return iteratorToJSON((Iterator<?>)object);
+
+        // is it a Calendar?
+
+        case CALENDAR:
+            if (dateStyle == DateStyle.EPOCH_MILLIS)
+                return JSONLong.valueOf(((Calendar)object).getTimeInMillis());
+            return serializeCalendar((Calendar)object);
+
+        // is it a Date?
+
+        case DATE:
+            if (dateStyle == DateStyle.EPOCH_MILLIS)
+                return JSONLong.valueOf(((Date)object).getTime());
+            return serializeDate((Date)object);
+
+        // is it an Instant, LocalDate, LocalDateTime etc.?
+
+        case STRING:
+            return new JSONString(object.toString());
+
+        // is it a BitSet?
+
+        case BIT_SET:
+            return serializeBitSet((BitSet)object);
+
+        // is it an Optional?
+
+        case OPTIONAL:
+            return optionalToJSON((Optional<?>)object);
+
+        // is it an OptionalInt?
+
+        case OPTIONAL_INT:
+            return serializeOptionalInt((OptionalInt)object);
+
+        // is it an OptionalLong?
+
+        case OPTIONAL_LONG:
+            return serializeOptionalLong((OptionalLong)object);
+
+        // is it an OptionalDouble?
+
+        case OPTIONAL_DOUBLE:
+            return serializeOptionalDouble((OptionalDouble)object);
+
+        // serialize it as an Object (this may not be a satisfactory default behaviour)
+
+        default:
+            return objectToJSON(object);
+
+        }
+
+    }
+
+    /**
+     * Serialize an object to its external JSON representation, using the default settings.
+     * This is a convenience method to allow serialization to a string form in a single call.
+     *
+     * @param   object  the object
+     * @return  the JSON for that object
+     */
+    public static String toJSON(Object object) {
+        return defaultSerializer.toJSONString(object);
+    }
+
+    /**
+     * Serialize an object to its external JSON representation.
+     *
+     * @param   object  the object
+     * @return  the JSON for that object
+     */
+    public String toJSONString(Object object) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeJSON(object, sb);
+        }
+        catch (IOException ioe) {
+            // can't happen - StringBuilder does not throw IOException
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Serialize an object to its external JSON representation, encoded in UTF-8, using the
+     * default settings.  This is a convenience method to allow serialization to a byte array in
+     * a single call.
+     *
+     * @param   object  the object
+     * @return  the JSON for that object, as UTF-8 bytes
+     */
+    public static byte[] toUTF8(Object object) {
+        return defaultSerializer.toUTF8Bytes(object);
+    }
+
+    /**
+     * Serialize an object to its external JSON representation, encoded in UTF-8.
+     *
+     * @param   object  the object
+     * @return  the JSON for that object, as UTF-8 bytes
+     */
+    public byte[] toUTF8Bytes(Object object) {
+        UTF8Output output = new UTF8Output(256);
+        try {
+            writeJSON(object, output);
+        }
+        catch (IOException ioe) {
+            // can't happen - UTF8Output does not throw IOException when there is no stream
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Serialize an object to its external JSON representation, encoded in UTF-8 and output
+     * to an {@link OutputStream}, using the default settings.
+     *
+     * @param   object  the object
+     * @param   out     the {@link OutputStream}
+     * @throws  IOException if thrown by the {@link OutputStream}
+     * @throws  JSONException if the object can't be serialized
+     * @see     #writeUTF8(Object, OutputStream)
+     */
+    public static void serializeUTF8(Object object, OutputStream out) throws IOException {
+        defaultSerializer.writeUTF8(object, out);
+    }
+
+    /**
+     * Serialize an object to its external JSON representation, encoded in UTF-8 and output
+     * to an {@link OutputStream}.  The bytes are written in blocks as they are created,
+     * without creating either the intermediate {@link JSONValue} objects or a string form of
+     * the complete output.  The {@link OutputStream} is flushed, but not closed.
+     *
+     * @param   object  the object
+     * @param   out     the {@link OutputStream}
+     * @throws  IOException if thrown by the {@link OutputStream}
+     * @throws  JSONException if the object can't be serialized
+     * @see     UTF8Output
+     */
+    public void writeUTF8(Object object, OutputStream out) throws IOException {
+        UTF8Output output = new UTF8Output(out);
+        writeJSON(object, output);
+        output.flush();
+    }
+
+    /**
+     * Serialize an object to its external JSON representation, outputting directly to an
+     * {@link Appendable}, using the default settings.
+     *
+     * @param   object  the object
+     * @param   a       the {@link Appendable}
+     * @throws  IOException if thrown by the {@link Appendable}
+     * @throws  JSONException if the object can't be serialized
+     * @see     #writeJSON(Object, Appendable)
+     */
+    public static void serialize(Object object, Appendable a) throws IOException {
+        defaultSerializer.writeJSON(object, a);
+    }
+
+    /**
+     * Serialize an object to its external JSON representation, outputting directly to an
+     * {@link Appendable} (e.g. a {@link java.io.Writer Writer}, a {@link StringBuilder} or a
+     * {@link UTF8Output}).  The output is the same as that produced by
+     * {@link JSONValue#appendJSON(Appendable)} on the result of {@link #toJSONValue(Object)},
+     * but without creating the intermediate {@link JSONValue} objects.
+     *
+     * @param   object  the object
+     * @param   a       the {@link Appendable}
+     * @throws  IOException if thrown by the {@link Appendable}
+     * @throws  JSONException if the object can't be serialized
+     */
+    public void writeJSON(Object object, Appendable a) throws IOException {
+
+        // is it null?
+
+        if (object == null) {
+            a.append("null");
+            return;
+        }
+        Class<?> objectClass = object.getClass();
+        SerializerType serializerType = SerializerType.forClass(objectClass);
+
+        // the checks follow the same sequence as toJSONValue(Object) above
+
+        switch (serializerType.getKind()) {
+
+        case JSON_VALUE:
+            ((JSONValue)object).appendJSON(a);
+            break;
+
+        case CHAR_SEQUENCE:
+            appendString(a, (CharSequence)object);
+            break;
+
+        case NUMBER:
+            appendNumber(a, objectClass, (Number)object);
+            break;
+
+        case BOOLEAN:
+            a.append((Boolean)object ? "true" : "false");
+            break;
+
+        case CHARACTER:
+            appendString(a, object.toString());
+            break;
+
+        case CHAR_ARRAY:
+            appendString(a, CharBuffer.wrap((char[])object));
+            break;
+
+        case OBJECT_ARRAY:
+            a.append('[');
+            Object[] array = (Object[])object;
+            for (int i = 0, n = array.length; i < n; i++) {
+                if (i > 0)
+                    a.append(',');
+                writeJSON(array[i], a);
+            }
+            a.append(']');
+            break;
+
+        case PRIMITIVE_ARRAY:
+            if (byteArrayStyle != ByteArrayStyle.ARRAY && object instanceof byte[]) {
+                a.append('"');
+                Base64Codec.encode(a, (byte[])object, byteArrayStyle == ByteArrayStyle.BASE64URL);
+                a.append('"');
+            }
+            else
+                appendArray(a, object);
+            break;
+
+        case CUSTOM:
+            JSONValue json;
+            try {
+                json = (JSONValue)serializerType.getMethod().invoke(object);
+            }
+            catch (Exception e) {
+                throw new JSONException("Custom serialization failed for " +
+                        objectClass.getName(), e);
+            }
+            appendJSON(a, json);
+            break;
+
+        case COMPANION:
+            // a companion creates a JSONValue, so the plan is used to write directly instead
+            appendFields(a, objectClass, object);
+            break;
+
+        case ENUM:
+            Enum<?> constant = (Enum<?>)object;
+            EnumInfo.forConstant(constant).appendJSON(a, constant);
+            break;
+
+        case ITERABLE:
+            appendIterator(a, ((Iterable<?>)object).iterator());
+            break;
+
+        case SEQUENCE:
+            Iterator<?> iterator;
+            try {
+                iterator = (Iterator<?>)serializerType.getMethod().invoke(object);
+            }
+            catch (Exception e) {
+                throw new JSONException(
+                        "Sequence serialization failed for " + objectClass.getName(), e);
+            }
+            appendIterator(a, iterator);
+            break;
+
+        case MAP:
+            appendMap(a, (Map<?, ?>)object);
+            break;
+
+        case ENUMERATION:
+            a.append('[');
+            Enumeration<?> e = (Enumeration<?>)object;
+            if (e.hasMoreElements()) {
+                writeJSON(e.nextElement(), a);
+                while (e.hasMoreElements()) {
+                    a.append(',');
+                    writeJSON(e.nextElement(), a);
+                }
+            }
+            a.append(']');
+            break;
+
+        case ITERATOR:
+            appendIterator(a, (Iterator<?>)object);
+            break;
+
+        case CALENDAR:
+            if (dateStyle == DateStyle.EPOCH_MILLIS)
+                Strings.appendLong(a, ((Calendar)object).getTimeInMillis());
+            else {
+                a.append('"');
+                DateFormatter.appendCalendar(a, (Calendar)object);
+                a.append('"');
+            }
+            break;
+
+        case DATE:
+            if (dateStyle == DateStyle.EPOCH_MILLIS)
+                Strings.appendLong(a, ((Date)object).getTime());
+            else {
+                a.append('"');
+                DateFormatter.appendDate(a, ((Date)object).getTime());
+                a.append('"');
+            }
+            break;
+
+        case STRING:
+            appendString(a, object.toString());
+            break;
+
+        case BIT_SET:
+            a.append('[');
+            BitSet bitSet = (BitSet)object;
+            boolean continuation = false;
+            for (int i = 0, n = bitSet.length(); i < n; i++) {
+                if (bitSet.get(i)) {
+                    if (continuation)
+                        a.append(',');
+                    Strings.appendInt(a, i);
+                    continuation = true;
+                }
+            }
+            a.append(']');
+            break;
+
+        case OPTIONAL:
+            Optional<?> optional = (Optional<?>)object;
+            writeJSON(optional.isPresent() ? optional.get() : null, a);
+            break;
+
+        case OPTIONAL_INT:
+            OptionalInt optionalInt = (OptionalInt)object;
+            if (optionalInt.isPresent())
+                Strings.appendInt(a, optionalInt.getAsInt());
+            else
+                a.append("null");
+            break;
+
+        case OPTIONAL_LONG:
+            OptionalLong optionalLong = (OptionalLong)object;
+            if (optionalLong.isPresent())
+                Strings.appendLong(a, optionalLong.getAsLong());
+            else
+                a.append("null");
+            break;
+
+        case OPTIONAL_DOUBLE:
+            OptionalDouble optionalDouble = (OptionalDouble)object;
+            if (optionalDouble.isPresent())
+                JSONDouble.valueOf(optionalDouble.getAsDouble()).appendJSON(a);
+            else
+                a.append("null");
+            break;
+
+        default:
+            appendFields(a, objectClass, object);
+            break;
+
+        }
+
+    }
+
+    /**
+     * Serialize the various {@link Number} classes.
+     *
+     * @param   number  the {@link Number} object
+     * @return  the JSON for that object
+     */
+    public static JSONNumberValue serializeNumber(Number number) {
+
+        // is it null?
+
+        if (number == null)
+            return null;
+
+        return serializeNumberInternal(number.getClass(), number);
+    }
+
+    /**
+     * Serialize the various {@link Number} classes (skip null check).
+     *
+     * @param   numberClass     the class of the number
+     * @param   number          the {@link Number}
+     * @return  the JSON for that object
+     */
+    private static JSONNumberValue serializeNumberInternal(Class<?> numberClass,
+            Number number) {
+
+        // is it an Integer?
+
+        if (numberClass.equals(Integer.class) || numberClass.equals(Short.class) ||
+                numberClass.equals(Byte.class))
+            return JSONInteger.valueOf(number.intValue());
+
+        // is it a Long?
+
+        if (numberClass.equals(Long.class))
+            return JSONLong.valueOf(number.longValue());
+
+        // is it a Double?
+
+        if (numberClass.equals(Double.class))
+            return JSONDouble.valueOf(number.doubleValue());
+
+        // is it a Float?
+
+        if (numberClass.equals(Float.class))
+            return JSONFloat.valueOf(number.floatValue());
+
+        // find the best representation
+
+        long longValue = number.longValue();
+        double doubleValue = number.doubleValue();
+        if (doubleValue != longValue)
+            return JSONDouble.valueOf(number.doubleValue());
+
+        int intValue = number.intValue();
+        if (longValue != intValue)
+            return JSONLong.valueOf(longValue);
+
+        return intValue == 0 ? new JSONZero() : JSONInteger.valueOf(intValue);
+    }
+
+    /**
+     * Serialize an array of primitive type (except for {@code char[]} which serializes as a
+     * string).
+     *
+     * @param   array   the array
+     * @return  the JSON for that array
+     * @throws  JSONException if the array can't be serialized
+     */
+    public static JSONArray serializeArray(Object array) {
+
+        JSONArray jsonArray = new JSONArray();
+
+        if (array instanceof int[]) {
+            for (int item : (int[])array)
+                jsonArray.addValue(item);
+            return jsonArray;
+        }
+
+        if (array instanceof long[]) {
+            for (long item : (long[])array)
+                jsonArray.addValue(item);
+            return jsonArray;
+        }
+
+        if (array instanceof boolean[]) {
+            for (boolean item : (boolean[])array)
+                jsonArray.addValue(item);
+            return jsonArray;
+        }
+
+        if (array instanceof double[]) {
+            for (double item : (double[])array)
+                jsonArray.addValue(item);
+            return jsonArray;
+        }
+
+        if (array instanceof float[]) {
+            for (float item : (float[])array)
+                jsonArray.addValue(item);
+            return jsonArray;
+        }
+
+        if (array instanceof short[]) {
+            for (short item : (short[])array)
+                jsonArray.addValue(item);
+            return jsonArray;
+        }
+
+        if (array instanceof byte[]) {
+            for (byte item : (byte[])array)
+                jsonArray.addValue(item);
+            return jsonArray;
+        }
+
+        Class<?> arrayClass = array.getClass();
+        throw new JSONException(!arrayClass.isArray() ? "Not an array" :
+                "Can't serialize array of " + arrayClass.getComponentType());
+    }
+
+    /**
+     * Serialize a {@link Collection}.
+     *
+     * @param   collection    the {@link Collection}
+     * @return  the JSON for that {@link Collection}
+     */
+    public static JSONArray serializeCollection(Collection<?> collection) {
+        return defaultSerializer.iterableToJSON(collection);
+    }
+
+    /**
+     * Serialize a {@link List}.  Synonym for {@link #serializeCollection(Collection)}.
+     *
+     * @param   list    the {@link List}
+     * @return  the JSON for that {@link List}
+     */
+    public static JSONArray serializeList(List<?> list) {
+        return serializeCollection(list);
+    }
+
+    /**
+     * Serialize a {@link Set}.  Synonym for {@link #serializeCollection(Collection)}.
+     *
+     * @param   set     the {@link Set}
+     * @return  the JSON for that {@link Set}
+     */
+    public static JSONArray serializeSet(Set<?> set) {
+        return serializeCollection(set);
+    }
+
+    /**
+     * Serialize a {@link Map} to a {@link JSONObject}.  The key is converted to a string (by
+     * means of the {@link Object#toString() toString()} method), and the value is serialized
+     * using this class.
+     *
+     * @param   map     the {@link Map}
+     * @return  the JSON for that {@link Map}
+     */
+    public static JSONObject serializeMap(Map<?, ?> map) {
+        return defaultSerializer.mapToJSON(map);
+    }
+
+    /**
+     * Serialize a {@link Map} to a {@link JSONObject}, using the settings of this instance.
+     *
+     * @param   map     the {@link Map}
+     * @return  the JSON for that {@link Map}
+     */
+    private JSONObject mapToJSON(Map<?, ?> map) {
+        JSONObject jsonObject = new JSONObject();
+        for (Map.Entry<?, ?> entry : map.entrySet())
+            jsonObject.put(entry.getKey().toString(), toJSONValue(entry.getValue()));
+        return jsonObject;
+    }
+
+    /**
+     * Serialize an {@link Enumeration}.  Note that this serialization is not symmetrical - it
+     * is not possible to deserialize an {@link Enumeration}.
+     *
+     * @param   e       the {@link Enumeration}
+     * @return  the JSON for that {@link Enumeration}
+     */
+    public static JSONArray serializeEnumeration(Enumeration<?> e) {
+        return defaultSerializer.enumerationToJSON(e);
+    }
+
+    /**
+     * Serialize an {@link Enumeration}, using the settings of this instance.
+     *
+     * @param   e       the {@link Enumeration}
+     * @return  the JSON for that {@link Enumeration}
+     */
+    private JSONArray enumerationToJSON(Enumeration<?> e) {
+        JSONArray jsonArray = new JSONArray();
+        while (e.hasMoreElements())
+            jsonArray.add(toJSONValue(e.nextElement()));
+        return jsonArray;
+    }
+
+    /**
+     * Serialize an {@link Iterator}.  Note that this serialization is not symmetrical - it is
+     * not possible to deserialize an {@link Iterator}.
+     *
+     * @param   i       the {@link Iterator}
+     * @return  the JSON for that {@link Iterator}
+     */
+    public static JSONArray serializeIterator(Iterator<?> i) {
+        return defaultSerializer.iteratorToJSON(i);
+    }
+
+    /**
+     * Serialize an {@link Iterator}, using the settings of this instance.
+     *
+     * @param   i       the {@link Iterator}
+     * @return  the JSON for that {@link Iterator}
+     */
+    private JSONArray iteratorToJSON(Iterator<?> i) {
+        JSONArray jsonArray = new JSONArray();
+        while (i.hasNext())
+            jsonArray.add(toJSONValue(i.next()));
+        return jsonArray;
+    }
+
+    /**
+     * Serialize an {@link Iterable}.
+     *
+     * @param   iterable    the {@link Iterable}
+     * @return  the JSON for that {@link Iterable}
+     */
+    public static JSONArray serializeIterable(Iterable<?> iterable) {
+        return defaultSerializer.iterableToJSON(iterable);
+    }
+
+    /**
+     * Serialize an {@link Iterable} (including a {@link Collection}), using the settings of
+     * this instance.
+     *
+     * @param   iterable    the {@link Iterable}
+     * @return  the JSON for that {@link Iterable}
+     */
+    private JSONArray iterableToJSON(Iterable<?> iterable) {
+        JSONArray jsonArray = new JSONArray();
+        for (Object item : iterable)
+            jsonArray.add(toJSONValue(item));
+        return jsonArray;
+    }
+
+    /**
+     * Serialize a {@link Date}.
+     *
+     * @param   date    the {@link Date}
+     * @return  the JSON for that {@link Date}
+     */
+    public static JSONString serializeDate(Date date) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            DateFormatter.appendDate(sb, date.getTime());
+        }
+        catch (IOException ioe) {
+            // can't happen - StringBuilder does not throw IOException
+        }
+        return new JSONString(sb);
+    }
+
+    /**
+     * Serialize a {@link Calendar}.
+     *
+     * @param   calendar    the {@link Calendar}
+     * @return  the JSON for that {@link Calendar}
+     */
+    public static JSONString serializeCalendar(Calendar calendar) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            DateFormatter.appendCalendar(sb, calendar);
+        }
+        catch (IOException ioe) {
+            // can't happen - StringBuilder does not throw IOException
+        }
+        return new JSONString(sb);
+    }
+
+    /**
+     * Serialize a {@link BitSet}.
+     *
+     * @param   bitSet  the {@link BitSet}
+     * @return  the JSON for that {@link BitSet}
+     */
+    public static JSONArray serializeBitSet(BitSet bitSet) {
+        JSONArray array = new JSONArray();
+        for (int i = 0, n = bitSet.length(); i < n; i++)
+            if (bitSet.get(i))
+                array.addValue(i);
+        return array;
+    }
+
+    /**
+     * Serialize an {@link Optional}.
+     *
+     * @param   optional    the {@link Optional}
+     * @return  the JSON for that {@link Optional}
+     */
+    public static JSONValue serializeOptional(Optional<?> optional) {
+        return defaultSerializer.optionalToJSON(optional);
+    }
+
+    /**
+     * Serialize an {@link Optional}, using the settings of this instance.
+     *
+     * @param   optional    the {@link Optional}
+     * @return  the JSON for that {@link Optional}
+     */
+    private JSONValue optionalToJSON(Optional<?> optional) {
+        return optional.isPresent() ? toJSONValue(optional.get()) : null;
+    }
+
+    /**
+     * Serialize an {@link OptionalInt}.
+     *
+     * @param   optional    the {@link OptionalInt}
+     * @return  the JSON for that {@link OptionalInt}
+     */
+    public static JSONValue serializeOptionalInt(OptionalInt optional) {
+        return optional.isPresent() ? serialize(optional.getAsInt()) : null;
+    }
+
+    /**
+     * Serialize an {@link OptionalLong}.
+     *
+     * @param   optional    the {@link OptionalLong}
+     * @return  the JSON for that {@link OptionalLong}
+     */
+    public static JSONValue serializeOptionalLong(OptionalLong optional) {
+        return optional.isPresent() ? serialize(optional.getAsLong()) : null;
+    }
+
+    /**
+     * Serialize an {@link OptionalDouble}.
+     *
+     * @param   optional    the {@link OptionalDouble}
+     * @return  the JSON for that {@link OptionalDouble}
+     */
+    public static JSONValue serializeOptionalDouble(OptionalDouble optional) {
+        return optional.isPresent() ? serialize(optional.getAsDouble()) : null;
+    }
+
+    /**
+     * Serialize an object.  This is a convenience method that bypasses some of the built-in
+     * type checks, for cases where the object is known to require field-by-field serialization.
+     *
+     * @param   object  the object
+     * @return  the JSON for that object
+     */
+    public static JSONObject serializeObject(Object object) {
+        return object == null ? null : defaultSerializer.objectToJSON(object);
+    }
+
+    /**
+     * Serialize an object field-by-field, using the settings of this instance.
+     *
+     * @param   object  the object (not {@code null})
+     * @return  the JSON for that object
+     */
+    private JSONObject objectToJSON(Object object) {
+        JSONObject jsonObject = new JSONObject();
+        addFieldsToJSONObject(jsonObject, object.getClass(), object);
+        return jsonObject;
+    }
+
+    /**
+     * Add the individual serializations of the fields of an {@link Object} to a
+     * {@link JSONObject}.  The fields (including those of the superclasses) are taken from the
+     * {@link SerializationPlan} for the class.
+     *
+     * @param   jsonObject      the destination {@link JSONObject}
+     * @param   objectClass     the {@link Class} object for the source
+     * @param   object          the source object
+     * @throws  JSONException on any errors accessing the fields
+     */
+    private void addFieldsToJSONObject(JSONObject jsonObject, Class<?> objectClass,
+            Object object) {
+
+        for (SerializationPlan.Property property : getPlan(objectClass).getProperties()) {
+
+            String fieldName = property.getName();
+
+            // add the field to the object if not null, or if annotated with @JSONAlways (or
+            // if this instance is set to include nulls)
+
+            try {
+                if (property.getPrimitiveKind() != FieldAccessor.PrimitiveKind.NONE)
+                    jsonObject.put(fieldName, primitiveToJSON(property, object));
+                else {
+                    Object value = property.getValue(object);
+                    putProperty(jsonObject, fieldName, value,
+                            value != null ? property.getOptionalKind(value) : null,
+                            property.isAlways());
+                }
+            }
+            catch (JSONException e) {
+                throw e;
+            }
+            catch (Exception e) {
+                throw new JSONException("Error serializing " +
+                        property.getField().getDeclaringClass().getName() + '.' + fieldName);
+            }
+
+        }
+
+    }
+
+    /**
+     * Serialize the value of a field of primitive type, reading the value without boxing.
+     *
+     * @param   property    the property
+     * @param   object      the source object
+     * @return  the JSON for the value
+     * @throws  IllegalAccessException if the field is not accessible
+     */
+    private static JSONValue primitiveToJSON(SerializationPlan.Property property,
+            Object object) throws IllegalAccessException {
+        switch (property.getPrimitiveKind()) {
+        case INT:
+            return JSONInteger.valueOf(property.getInt(object));
+        case LONG:
+            return JSONLong.valueOf(property.getLong(object));
+        case FLOAT:
+            return JSONFloat.valueOf(property.getFloat(object));
+        case DOUBLE:
+            return JSONDouble.valueOf(property.getDouble(object));
+        default:
+            return JSONBoolean.valueOf(property.getBoolean(object));
+        }
+    }
+
+    /**
+     * Add a single property to a {@link JSONObject}, following the rules used for the fields
+     * of an object: a {@code null} value (or an empty {@link Optional}) is omitted unless the
+     * {@code always} flag is set, in which case it is output as {@code null}, and the content
+     * of an {@link Optional} is output in place of the {@link Optional} itself.  This method
+     * is used by the companion classes generated for classes annotated with
+     * {@link net.pwall.json.annotation.JSONSerializable JSONSerializable}.
+     *
+     * @param   jsonObject  the destination {@link JSONObject}
+     * @param   name        the property name
+     * @param   value       the property value
+     * @param   always      {@code true} if the property is to be output even when {@code null}
+     */
+    public static void serializeProperty(JSONObject jsonObject, String name, Object value,
+            boolean always) {
+        defaultSerializer.putProperty(jsonObject, name, value,
+                value != null ? SerializationPlan.OptionalKind.of(value.getClass()) : null,
+                always);
+    }
+
+    /**
+     * Add a single property to a {@link JSONObject}, with the {@link Optional} handling for the
+     * value already determined.
+     *
+     * @param   jsonObject      the destination {@link JSONObject}
+     * @param   name            the property name
+     * @param   value           the property value
+     * @param   optionalKind    the {@link SerializationPlan.OptionalKind} of the value (ignored
+     *                          if the value is {@code null})
+     * @param   always          {@code true} if the property is to be output even when
+     *                          {@code null}
+     */
+    private void putProperty(JSONObject jsonObject, String name, Object value,
+            SerializationPlan.OptionalKind optionalKind, boolean always) {
+        always |= includeNulls;
+        if (value != null) {
+            switch (optionalKind) {
+            case OPTIONAL:
+                Optional<?> optional = (Optional<?>)value;
+                if (optional.isPresent())
+                    jsonObject.put(name, toJSONValue(optional.get()));
+                else if (always)
+                    jsonObject.putNull(name);
+                break;
+            case OPTIONAL_INT:
+                OptionalInt optionalInt = (OptionalInt)value;
+                if (optionalInt.isPresent())
+                    jsonObject.putValue(name, optionalInt.getAsInt());
+                else if (always)
+                    jsonObject.putNull(name);
+                break;
+            case OPTIONAL_LONG:
+                OptionalLong optionalLong = (OptionalLong)value;
+                if (optionalLong.isPresent())
+                    jsonObject.putValue(name, optionalLong.getAsLong());
+                else if (always)
+                    jsonObject.putNull(name);
+                break;
+            case OPTIONAL_DOUBLE:
+                OptionalDouble optionalDouble = (OptionalDouble)value;
+                if (optionalDouble.isPresent())
+                    jsonObject.putValue(name, optionalDouble.getAsDouble());
+                else if (always)
+                    jsonObject.putNull(name);
+                break;
+            default:
+                jsonObject.put(name, toJSONValue(value));
+                break;
+            }
+        }
+        else if (always)
+            jsonObject.putNull(name);
+    }
+
+    /**
+     * Serialize an object using its {@link JSONCompanion}.
+     *
+     * @param   companion   the {@link JSONCompanion}
+     * @param   object      the object
+     * @return  the JSON for that object
+     */
+    @SuppressWarnings("unchecked")
+    private static JSONValue serializeWithCompanion(JSONCompanion<?> companion, Object object) {
+        return ((JSONCompanion<Object>)companion).toJSON(object);
+    }
+
+    /**
+     * Append the fields of an {@link Object} to an {@link Appendable} as a JSON object.  This
+     * is the streaming equivalent of {@link #addFieldsToJSONObject(JSONObject, Class, Object)}.
+     *
+     * @param   a               the {@link Appendable}
+     * @param   objectClass     the {@link Class} object for the source
+     * @param   object          the source object
+     * @throws  IOException if thrown by the {@link Appendable}
+     * @throws  JSONException on any errors accessing the fields
+     */
+    private void appendFields(Appendable a, Class<?> objectClass, Object object)
+            throws IOException {
+        SerializationPlan plan = getPlan(objectClass);
+
+        // if a field name is used more than once (e.g. a field hidden by a field in a
+        // subclass), use the JSONObject to get the same result as the non-streaming form
+
+        if (plan.hasDuplicateNames()) {
+            JSONObject jsonObject = new JSONObject();
+            addFieldsToJSONObject(jsonObject, objectClass, object);
+            jsonObject.appendJSON(a);
+            return;
+        }
+
+        a.append('{');
+        boolean continuation = false;
+        for (SerializationPlan.Property property : plan.getProperties()) {
+            if (property.getPrimitiveKind() != FieldAccessor.PrimitiveKind.NONE) {
+                continuation = appendName(a, property, continuation);
+                appendPrimitive(a, property, object);
+                continue;
+            }
+            Object value;
+            try {
+                value = property.getValue(object);
+            }
+            catch (Exception e) {
+                throw new JSONException("Error serializing " +
+                        property.getField().getDeclaringClass().getName() + '.' +
+                        property.getName());
+            }
+            if (value != null) {
+                switch (property.getOptionalKind(value)) {
+                case OPTIONAL:
+                    Optional<?> optional = (Optional<?>)value;
+                    if (optional.isPresent()) {
+                        continuation = appendName(a, property, continuation);
+                        writeJSON(optional.get(), a);
+                    }
+                    else if (includeNulls || property.isAlways())
+                        continuation = appendNull(a, property, continuation);
+                    break;
+                case OPTIONAL_INT:
+                    OptionalInt optionalInt = (OptionalInt)value;
+                    if (optionalInt.isPresent()) {
+                        continuation = appendName(a, property, continuation);
+                        Strings.appendInt(a, optionalInt.getAsInt());
+                    }
+                    else if (includeNulls || property.isAlways())
+                        continuation = appendNull(a, property, continuation);
+                    break;
+                case OPTIONAL_LONG:
+                    OptionalLong optionalLong = (OptionalLong)value;
+                    if (optionalLong.isPresent()) {
+                        continuation = appendName(a, property, continuation);
+                        Strings.appendLong(a, optionalLong.getAsLong());
+                    }
+                    else if (includeNulls || property.isAlways())
+                        continuation = appendNull(a, property, continuation);
+                    break;
+                case OPTIONAL_DOUBLE:
+                    OptionalDouble optionalDouble = (OptionalDouble)value;
+                    if (optionalDouble.isPresent()) {
+                        continuation = appendName(a, property, continuation);
+                        JSONDouble.valueOf(optionalDouble.getAsDouble()).appendJSON(a);
+                    }
+                    else if (includeNulls || property.isAlways())
+                        continuation = appendNull(a, property, continuation);
+                    break;
+                default:
+                    continuation = appendName(a, property, continuation);
+                    writeJSON(value, a);
+                    break;
+                }
+            }
+            else if (includeNulls || property.isAlways())
+                continuation = appendNull(a, property, continuation);
+        }
+        a.append('}');
+    }
+
+    /**
+     * Append the value of a field of primitive type to an {@link Appendable}, reading the
+     * value without boxing.
+     *
+     * @param   a           the {@link Appendable}
+     * @param   property    the property
+     * @param   object      the source object
+     * @throws  IOException if thrown by the {@link Appendable}
+     * @throws  JSONException if the field can not be accessed
+     */
+    private static void appendPrimitive(Appendable a, SerializationPlan.Property property,
+            Object object) throws IOException {
+        try {
+            switch (property.getPrimitiveKind()) {
+            case INT:
+                Strings.appendInt(a, property.getInt(object));
+                break;
+            case LONG:
+                Strings.appendLong(a, property.getLong(object));
+                break;
+            case FLOAT:
+                JSONFloat.valueOf(property.getFloat(object)).appendJSON(a);
+                break;
+            case DOUBLE:
+                JSONDouble.valueOf(property.getDouble(object)).appendJSON(a);
+                break;
+            default:
+                a.append(property.getBoolean(object) ? "true" : "false");
+                break;
+            }
+        }
+        catch (IllegalAccessException e) {
+            throw new JSONException("Error serializing " +
+                    property.getField().getDeclaringClass().getName() + '.' +
+                    property.getName());
+        }
+    }
+
+    /**
+     * Append the name of a property to an {@link Appendable}, preceded by a comma if it is
+     * not the first property in the object.
+     *
+     * @param   a               the {@link Appendable}
+     * @param   property        the property
+     * @param   continuation    {@code true} if this is not the first property
+     * @return  {@code true} (the value for {@code continuation} for the next property)
+     * @throws  IOException if thrown by the {@link Appendable}
+     */
+    private static boolean appendName(Appendable a, SerializationPlan.Property property,
+            boolean continuation) throws IOException {
+        if (continuation)
+            a.append(',');
+        if (a instanceof UTF8Output)
+            ((UTF8Output)a).appendBytes(property.getJSONNameBytes());
+        else
+            a.append(property.getJSONName());
+        return true;
+    }
+
+    /**
+     * Append the name of a property followed by a {@code null} value to an
+     * {@link Appendable}.
+     *
+     * @param   a               the {@link Appendable}
+     * @param   property        the property
+     * @param   continuation    {@code true} if this is not the first property
+     * @return  {@code true} (the value for {@code continuation} for the next property)
+     * @throws  IOException if thrown by the {@link Appendable}
+     */
+    private static boolean appendNull(Appendable a, SerializationPlan.Property property,
+            boolean continuation) throws IOException {
+        appendName(a, property, continuation);
+        a.append("null");
+        return true;
+    }
+
+    /**
+     * Append the contents of a {@link Map} to an {@link Appendable} as a JSON object.
+     *
+     * @param   a       the {@link Appendable}
+     * @param   map     the {@link Map}
+     * @throws  IOException if thrown by the {@link Appendable}
+     */
+    private void appendMap(Appendable a, Map<?, ?> map) throws IOException {
+
+        // if two keys have the same string form, use the JSONObject to get the same result as
+        // the non-streaming form
+
+        if (!keyStringsUnique(map)) {
+            mapToJSON(map).appendJSON(a);
+            return;
+        }
+
+        a.append('{');
+        boolean continuation = false;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (continuation)
+                a.append(',');
+            appendString(a, entry.getKey().toString());
+            a.append(':');
+            writeJSON(entry.getValue(), a);
+            continuation = true;
+        }
+        a.append('}');
+    }
+
+    /**
+     * Test whether the string forms of the keys of a {@link Map} are unique.  This will always
+     * be true if the keys are themselves strings, so the more expensive check is performed
+     * only if the map contains non-string keys.
+     *
+     * @param   map     the {@link Map}
+     * @return  {@code true} if the string forms of the keys are unique
+     */
+    private static boolean keyStringsUnique(Map<?, ?> map) {
+        boolean allStrings = true;
+        for (Object key : map.keySet()) {
+            if (!(key instanceof String)) {
+                allStrings = false;
+                break;
+            }
+        }
+        if (allStrings)
+            return true;
+        Set<String> keyStrings = new HashSet<>();
+        for (Object key : map.keySet())
+            if (!keyStrings.add(key.toString()))
+                return false;
+        return true;
+    }
+
+    /**
+     * Append the items returned by an {@link Iterator} to an {@link Appendable} as a JSON
+     * array.
+     *
+     * @param   a       the {@link Appendable}
+     * @param   i       the {@link Iterator}
+     * @throws  IOException if thrown by the {@link Appendable}
+     */
+    private void appendIterator(Appendable a, Iterator<?> i) throws IOException {
+        a.append('[');
+        if (i.hasNext()) {
+            writeJSON(i.next(), a);
+            while (i.hasNext()) {
+                a.append(',');
+                writeJSON(i.next(), a);
+            }
+        }
+        a.append(']');
+    }
+
+    /**
+     * Append an array of primitive type (except for {@code char[]} which serializes as a
+     * string) to an {@link Appendable}.
+     *
+     * @param   a       the {@link Appendable}
+     * @param   array   the array
+     * @throws  IOException if thrown by the {@link Appendable}
+     * @throws  JSONException if the array can't be serialized
+     */
+    static void appendArray(Appendable a, Object array) throws IOException {
+
+        if (array instanceof int[]) {
+            a.append('[');
+            int[] intArray = (int[])array;
+            for (int i = 0, n = intArray.length; i < n; i++) {
+                if (i > 0)
+                    a.append(',');
+                Strings.appendInt(a, intArray[i]);
+            }
+            a.append(']');
+            return;
+        }
+
+        if (array instanceof long[]) {
+            a.append('[');
+            long[] longArray = (long[])array;
+            for (int i = 0, n = longArray.length; i < n; i++) {
+                if (i > 0)
+                    a.append(',');
+                Strings.appendLong(a, longArray[i]);
+            }
+            a.append(']');
+            return;
+        }
+
+        if (array instanceof boolean[]) {
+            a.append('[');
+            boolean[] booleanArray = (boolean[])array;
+            for (int i = 0, n = booleanArray.length; i < n; i++) {
+                if (i > 0)
+                    a.append(',');
+                a.append(booleanArray[i] ? "true" : "false");
+            }
+            a.append(']');
+            return;
+        }
+
+        if (array instanceof double[]) {
+            a.append('[');
+            double[] doubleArray = (double[])array;
+            for (int i = 0, n = doubleArray.length; i < n; i++) {
+                if (i > 0)
+                    a.append(',');
+                JSONDouble.valueOf(doubleArray[i]).appendJSON(a);
+            }
+            a.append(']');
+            return;
+        }
+
+        if (array instanceof float[]) {
+            a.append('[');
+            float[] floatArray = (float[])array;
+            for (int i = 0, n = floatArray.length; i < n; i++) {
+                if (i > 0)
+                    a.append(',');
+                JSONFloat.valueOf(floatArray[i]).appendJSON(a);
+            }
+            a.append(']');
+            return;
+        }
+
+        if (array instanceof short[]) {
+            a.append('[');
+            short[] shortArray = (short[])array;
+            for (int i = 0, n = shortArray.length; i < n; i++) {
+                if (i > 0)
+                    a.append(',');
+                Strings.appendInt(a, shortArray[i]);
+            }
+            a.append(']');
+            return;
+        }
+
+        if (array instanceof byte[]) {
+            a.append('[');
+            byte[] byteArray = (byte[])array;
+            for (int i = 0, n = byteArray.length; i < n; i++) {
+                if (i > 0)
+                    a.append(',');
+                Strings.appendInt(a, byteArray[i]);
+            }
+            a.append(']');
+            return;
+        }
+
+        serializeArray(array).appendJSON(a); // will throw exception
+    }
+
+    /**
+     * Append a {@link Number} to an {@link Appendable}.  The output is the same as that of
+     * the {@link JSONNumberValue} created by {@link #serializeNumber(Number)}.
+     *
+     * @param   a               the {@link Appendable}
+     * @param   numberClass     the class of the number
+     * @param   number          the {@link Number}
+     * @throws  IOException if thrown by the {@link Appendable}
+     */
+    private static void appendNumber(Appendable a, Class<?> numberClass, Number number)
+            throws IOException {
+        if (numberClass.equals(Integer.class) || numberClass.equals(Short.class) ||
+                numberClass.equals(Byte.class))
+            Strings.appendInt(a, number.intValue());
+        else if (numberClass.equals(Long.class))
+            Strings.appendLong(a, number.longValue());
+        else
+            serializeNumberInternal(numberClass, number).appendJSON(a);
+    }
+
+    /**
+     * Append a {@link JSONValue} to an {@link Appendable}, outputting {@code null} if the value
+     * is {@code null}.
+     *
+     * @param   a       the {@link Appendable}
+     * @param   json    the {@link JSONValue} (may be {@code null})
+     * @throws  IOException if thrown by the {@link Appendable}
+     */
+    private static void appendJSON(Appendable a, JSONValue json) throws IOException {
+        if (json == null)
+            a.append("null");
+        else
+            json.appendJSON(a);
+    }
+
+    /**
+     * Append a string to an {@link Appendable} as a JSON string.  Strings that consist only
+     * of printable ASCII characters, and do not contain a quote or a backslash, are output
+     * directly; any others are output using {@link JSONString} to ensure that the escaping is
+     * the same as that used by the non-streaming form.
+     *
+     * @param   a       the {@link Appendable}
+     * @param   cs      the string
+     * @throws  IOException if thrown by the {@link Appendable}
+     */
+    static void appendString(Appendable a, CharSequence cs) throws IOException {
+        for (int i = 0, n = cs.length(); i < n; i++) {
+            char ch = cs.charAt(i);
+            if (ch < 0x20 || ch >= 0x7F || ch == '"' || ch == '\\') {
+                new JSONString(cs).appendJSON(a);
+                return;
+            }
+        }
+        a.append('"');
+        a.append(cs);
+        a.append('"');
+    }
+
+    /**
+     * A builder for {@link JSONSerializer} instances.  The initial settings of a new
+     * {@code Builder} are the same as those used by the static methods of
+     * {@link JSONSerializer}.
+     */
+    public static class Builder {
+
+        private boolean includeNulls;
+        private DateStyle dateStyle;
+        private NamingStrategy naming;
+        private AccessEngine engine;
+        private PrimitiveArrayStyle primitiveArrayStyle;
+        private ByteArrayStyle byteArrayStyle;
+
+        private Builder() {
+            includeNulls = false;
+            dateStyle = DateStyle.ISO_8601;
+            naming = NamingStrategy.AS_DECLARED;
+            engine = AccessEngine.getDefault();
+            primitiveArrayStyle = PrimitiveArrayStyle.EXPANDED;
+            byteArrayStyle = ByteArrayStyle.ARRAY;
+        }
+
+        /**
+         * Specify whether {@code null} fields (and empty {@link Optional} fields) are to be
+         * output as {@code null}.  By default, they are omitted unless the field is annotated
+         * with {@link net.pwall.json.annotation.JSONAlways JSONAlways}.
+         *
+         * @param   includeNulls    {@code true} to output {@code null} fields
+         * @return  this {@code Builder}
+         */
+        public Builder includeNulls(boolean includeNulls) {
+            this.includeNulls = includeNulls;
+            return this;
+        }
+
+        /**
+         * Specify the representation of {@link Date} and {@link Calendar} values.
+         *
+         * @param   dateStyle   the {@link DateStyle}
+         * @return  this {@code Builder}
+         * @throws  NullPointerException if the {@link DateStyle} is {@code null}
+         */
+        public Builder dateStyle(DateStyle dateStyle) {
+            this.dateStyle = Objects.requireNonNull(dateStyle);
+            return this;
+        }
+
+        /**
+         * Specify the {@link NamingStrategy} for deriving property names from field names.
+         * Names specified by the {@link net.pwall.json.annotation.JSONName JSONName}
+         * annotation are not affected.
+         *
+         * @param   naming  the {@link NamingStrategy}
+         * @return  this {@code Builder}
+         * @throws  NullPointerException if the {@link NamingStrategy} is {@code null}
+         */
+        public Builder naming(NamingStrategy naming) {
+            this.naming = Objects.requireNonNull(naming);
+            return this;
+        }
+
+        /**
+         * Specify the {@link AccessEngine} to be used to read the fields of objects.
+         *
+         * @param   engine  the {@link AccessEngine}
+         * @return  this {@code Builder}
+         * @throws  NullPointerException if the {@link AccessEngine} is {@code null}
+         */
+        public Builder engine(AccessEngine engine) {
+            this.engine = Objects.requireNonNull(engine);
+            return this;
+        }
+
+        /**
+         * Specify the form of the {@link JSONValue} to be created for an array of primitive
+         * type.  The compact forms ({@link PrimitiveArrayStyle#COPY COPY} and
+         * {@link PrimitiveArrayStyle#VIEW VIEW}) create a single {@link JSONPrimitiveArray}
+         * instead of a {@link JSONArray} with a separate value for each item.
+         *
+         * @param   primitiveArrayStyle     the {@link PrimitiveArrayStyle}
+         * @return  this {@code Builder}
+         * @throws  NullPointerException if the {@link PrimitiveArrayStyle} is {@code null}
+         */
+        public Builder primitiveArrayStyle(PrimitiveArrayStyle primitiveArrayStyle) {
+            this.primitiveArrayStyle = Objects.requireNonNull(primitiveArrayStyle);
+            return this;
+        }
+
+        /**
+         * Specify the representation of {@code byte[]} values.  The Base64 forms take
+         * precedence over the {@link PrimitiveArrayStyle}, and in the streaming forms of
+         * serialization the encoded string is written in chunks.
+         *
+         * @param   byteArrayStyle  the {@link ByteArrayStyle}
+         * @return  this {@code Builder}
+         * @throws  NullPointerException if the {@link ByteArrayStyle} is {@code null}
+         */
+        public Builder byteArrayStyle(ByteArrayStyle byteArrayStyle) {
+            this.byteArrayStyle = Objects.requireNonNull(byteArrayStyle);
+            return this;
+        }
+
+        /**
+         * Create a {@link JSONSerializer} with the settings of this {@code Builder}.
+         *
+         * @return  the {@link JSONSerializer}
+         */
+        public JSONSerializer build() {
+            return new JSONSerializer(this, true);
+        }
+
+    }
+
+}
@@ -0,0 +1,658 @@
+/*
+ * @(#) JSONTokenizer.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+import net.pwall.json.JSONArray;
+import net.pwall.json.JSONBoolean;
+import net.pwall.json.JSONDouble;
+import net.pwall.json.JSONException;
+import net.pwall.json.JSONInteger;
+import net.pwall.json.JSONLong;
+import net.pwall.json.JSONObject;
+import net.pwall.json.JSONString;
+import net.pwall.json.JSONValue;
+
+/**
+ * A pull-based JSON tokenizer, reading from a {@link Reader}.  This is used by the streaming
+ * form of {@link JSONDeserializer}, which binds the tokens directly to the target objects
+ * without creating an intermediate {@link JSONValue} tree.
+ *
+ * <p>The tokenizer reads the input in blocks, so the {@link Reader} does not need to be
+ * buffered.  An {@link IOException} from the {@link Reader} is reported as a
+ * {@link JSONException} with the {@link IOException} as its cause.</p>
+ *
+ * @author Peter Wall
+ */
+class JSONTokenizer {
+
+    static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int index;
+    private int limit;
+    private final StringBuilder sb;
+    private long longValue;
+    private double doubleValue;
+
+    /**
+     * Construct a {@code JSONTokenizer} reading from the specified {@link Reader}.
+     *
+     * @param   reader  the {@link Reader}
+     */
+    JSONTokenizer(Reader reader) {
+        this.reader = reader;
+        buffer = new char[BUFFER_SIZE];
+        index = 0;
+        limit = 0;
+        sb = new StringBuilder();
+    }
+
+    /**
+     * Skip any whitespace and return the next character, without consuming it.
+     *
+     * @return  the next character, or -1 at end of input
+     * @throws  JSONException   if an I/O error occurs
+     */
+    int peek() {
+        while (true) {
+            if (index >= limit && !fill())
+                return -1;
+            char ch = buffer[index];
+            if (ch != ' ' && ch != '\n' && ch != '\r' && ch != '\t')
+                return ch;
+            index++;
+        }
+    }
+
+    /**
+     * Skip any whitespace and consume the next character, which must be the character
+     * specified.
+     *
+     * @param   expected    the expected character
+     * @throws  JSONException   if the next character is not the character specified, or if an
+     *                          I/O error occurs
+     */
+    void expect(char expected) {
+        if (peek() != expected)
+            throw syntaxError();
+        index++;
+    }
+
+    /**
+     * Check that there is no further content (other than whitespace) in the input.
+     *
+     * @throws  JSONException   if there are excess characters after the JSON value, or if an
+     *                          I/O error occurs
+     */
+    void expectEnd() {
+        if (peek() >= 0)
+            throw new JSONException("Excess characters after JSON value");
+    }
+
+    /**
+     * Test for the end of an array immediately following the opening bracket, consuming the
+     * closing bracket if found.
+     *
+     * @return  {@code true} if the array is empty
+     * @throws  JSONException   if an I/O error occurs
+     */
+    boolean isArrayEnd() {
+        if (peek() == ']') {
+            index++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consume the separator following an array item, and test whether there are further
+     * items in the array.
+     *
+     * @return  {@code true} if another item follows, {@code false} at the end of the array
+     * @throws  JSONException   if the JSON is not valid, or if an I/O error occurs
+     */
+    boolean nextArrayItem() {
+        int ch = peek();
+        if (ch == ',') {
+            index++;
+            return true;
+        }
+        if (ch == ']') {
+            index++;
+            return false;
+        }
+        throw syntaxError();
+    }
+
+    /**
+     * Read the name of the first property of an object (following the opening brace),
+     * including the colon separating the name from the value.
+     *
+     * @return  the name, or {@code null} if the object is empty
+     * @throws  JSONException   if the JSON is not valid, or if an I/O error occurs
+     */
+    String firstName() {
+        if (peek() == '}') {
+            index++;
+            return null;
+        }
+        return readName();
+    }
+
+    /**
+     * Consume the separator following an object property value, and read the name of the
+     * next property (including the colon separating the name from the value).
+     *
+     * @return  the name, or {@code null} at the end of the object
+     * @throws  JSONException   if the JSON is not valid, or if an I/O error occurs
+     */
+    String nextName() {
+        int ch = peek();
+        if (ch == ',') {
+            index++;
+            return readName();
+        }
+        if (ch == '}') {
+            index++;
+            return null;
+        }
+        throw syntaxError();
+    }
+
+    /**
+     * Read a property name, and the following colon.
+     *
+     * @return  the name
+     * @throws  JSONException   if the JSON is not valid, or if an I/O error occurs
+     */
+    private String readName() {
+        if (peek() != '"')
+            throw syntaxError();
+        String name = readString();
+        expect(':');
+        return name;
+    }
+
+    /**
+     * Read a string.  The next character must be the opening quote.
+     *
+     * @return  the string
+     * @throws  JSONException   if the string is not valid, or if an I/O error occurs
+     */
+    String readString() {
+        index++; // skip opening quote
+
+        // fast path - string contained within the buffer, with no escape sequences
+
+        for (int i = index; i < limit; i++) {
+            char ch = buffer[i];
+            if (ch == '"') {
+                String result = new String(buffer, index, i - index);
+                index = i + 1;
+                return result;
+            }
+            if (ch == '\\' || ch < 0x20)
+                break;
+        }
+
+        readStringRemainder();
+        return sb.toString();
+    }
+
+    /**
+     * Read a string, returning the content as a {@link CharSequence} that is valid only until
+     * the next call to a method of this tokenizer.  This avoids the creation of a
+     * {@link String} where the content is to be converted to another form immediately.
+     *
+     * @return  the content of the string
+     * @throws  JSONException   if the string is not valid, or if an I/O error occurs
+     */
+    CharSequence readCharSequence() {
+        index++; // skip opening quote
+
+        // fast path - string contained within the buffer, with no escape sequences
+
+        for (int i = index; i < limit; i++) {
+            char ch = buffer[i];
+            if (ch == '"') {
+                CharSequence result = CharBuffer.wrap(buffer, index, i - index);
+                index = i + 1;
+                return result;
+            }
+            if (ch == '\\' || ch < 0x20)
+                break;
+        }
+
+        readStringRemainder();
+        return sb;
+    }
+
+    /**
+     * Read the remainder of a string (following the opening quote) into the internal
+     * {@link StringBuilder}, processing any escape sequences.
+     *
+     * @throws  JSONException   if the string is not valid, or if an I/O error occurs
+     */
+    private void readStringRemainder() {
+        sb.setLength(0);
+        while (true) {
+            char ch = nextChar();
+            if (ch == '"')
+                return;
+            if (ch == '\\') {
+                ch = nextChar();
+                switch (ch) {
+                case '"':
+                case '\\':
+                case '/':
+                    sb.append(ch);
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    int value = 0;
+                    for (int i = 0; i < 4; i++)
+                        value = (value << 4) | hexValue(nextChar());
+                    sb.append((char)value);
+                    break;
+                default:
+                    throw new JSONException("Illegal escape sequence in string");
+                }
+            }
+            else if (ch < 0x20)
+                throw new JSONException("Illegal character in string");
+            else
+                sb.append(ch);
+        }
+    }
+
+    /**
+     * Test whether the next token is a number, without consuming it.
+     *
+     * @return  {@code true} if the next token starts with a minus sign or a digit
+     * @throws  JSONException   if an I/O error occurs
+     */
+    boolean isNumber() {
+        int ch = peek();
+        return ch == '-' || ch >= '0' && ch <= '9';
+    }
+
+    /**
+     * Test whether the next token is a boolean ({@code true} or {@code false}), without
+     * consuming it.
+     *
+     * @return  {@code true} if the next token starts with {@code t} or {@code f}
+     * @throws  JSONException   if an I/O error occurs
+     */
+    boolean isBoolean() {
+        int ch = peek();
+        return ch == 't' || ch == 'f';
+    }
+
+    /**
+     * Read a number.  The result will be a {@link JSONInteger} if the number is an integer
+     * within the range of {@code int}, a {@link JSONLong} if it is an integer within the range
+     * of {@code long}, and a {@link JSONDouble} otherwise.
+     *
+     * @return  the number
+     * @throws  JSONException   if the number is not valid, or if an I/O error occurs
+     */
+    Number readNumber() {
+        if (!scanNumber())
+            return new JSONDouble(doubleValue);
+        if (longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE)
+            return new JSONInteger((int)longValue);
+        return new JSONLong(longValue);
+    }
+
+    /**
+     * Read a number as an {@code int}, without creating a {@link Number} object.  The
+     * conversion is the same as {@link Number#intValue()} on the result of
+     * {@link #readNumber()}.
+     *
+     * @return  the value
+     * @throws  JSONException   if the number is not valid, or if an I/O error occurs
+     */
+    int readInt() {
+        return scanNumber() ? (int)longValue : (int)doubleValue;
+    }
+
+    /**
+     * Read a number as a {@code long}, without creating a {@link Number} object.
+     *
+     * @return  the value
+     * @throws  JSONException   if the number is not valid, or if an I/O error occurs
+     * @see     #readInt()
+     */
+    long readLong() {
+        return scanNumber() ? longValue : (long)doubleValue;
+    }
+
+    /**
+     * Read a number as a {@code float}, without creating a {@link Number} object.
+     *
+     * @return  the value
+     * @throws  JSONException   if the number is not valid, or if an I/O error occurs
+     * @see     #readInt()
+     */
+    float readFloat() {
+        return scanNumber() ? (float)longValue : (float)doubleValue;
+    }
+
+    /**
+     * Read a number as a {@code double}, without creating a {@link Number} object.
+     *
+     * @return  the value
+     * @throws  JSONException   if the number is not valid, or if an I/O error occurs
+     * @see     #readInt()
+     */
+    double readDouble() {
+        return scanNumber() ? (double)longValue : doubleValue;
+    }
+
+    /**
+     * Scan a number, leaving the value in {@code longValue} if it is an integer within the
+     * range of {@code long}, or in {@code doubleValue} otherwise.
+     *
+     * @return  {@code true} if the value is in {@code longValue}
+     * @throws  JSONException   if the number is not valid, or if an I/O error occurs
+     */
+    private boolean scanNumber() {
+        sb.setLength(0);
+        boolean negative = false;
+        if (peek() == '-') {
+            negative = true;
+            sb.append('-');
+            index++;
+        }
+        long value = 0;
+        boolean overflow = false;
+        int digits = 0;
+        int ch;
+        while ((ch = nextCharOrEnd()) >= '0' && ch <= '9') {
+            if (digits > 0 && value == 0) { // leading zero
+                index--;
+                throw syntaxError();
+            }
+            sb.append((char)ch);
+            digits++;
+            if (!overflow) {
+                int digit = ch - '0';
+                if (value > (Long.MAX_VALUE - digit) / 10)
+                    overflow = true;
+                else
+                    value = value * 10 + digit;
+            }
+        }
+        if (digits == 0)
+            throw syntaxError();
+        boolean floating = false;
+        if (ch == '.') {
+            floating = true;
+            sb.append('.');
+            if (!appendDigits())
+                throw syntaxError();
+            ch = nextCharOrEnd();
+        }
+        if (ch == 'e' || ch == 'E') {
+            floating = true;
+            sb.append('e');
+            ch = nextCharOrEnd();
+            if (ch == '+' || ch == '-')
+                sb.append((char)ch);
+            else if (ch >= 0)
+                index--;
+            if (!appendDigits())
+                throw syntaxError();
+        }
+        else if (ch >= 0)
+            index--;
+        if (!floating && !overflow) {
+            longValue = negative ? -value : value;
+            return true;
+        }
+        doubleValue = Double.parseDouble(sb.toString());
+        return false;
+    }
+
+    /**
+     * Append a sequence of one or more digits to the internal {@link StringBuilder}.
+     *
+     * @return  {@code true} if at least one digit was found
+     * @throws  JSONException   if an I/O error occurs
+     */
+    private boolean appendDigits() {
+        int count = 0;
+        int ch;
+        while ((ch = nextCharOrEnd()) >= '0' && ch <= '9') {
+            sb.append((char)ch);
+            count++;
+        }
+        if (ch >= 0)
+            index--;
+        return count > 0;
+    }
+
+    /**
+     * Read one of the keywords {@code true} or {@code false}.
+     *
+     * @return  the boolean value
+     * @throws  JSONException   if the next token is not {@code true} or {@code false}, or if
+     *                          an I/O error occurs
+     */
+    boolean readBoolean() {
+        if (peek() == 't') {
+            readKeyword("true");
+            return true;
+        }
+        readKeyword("false");
+        return false;
+    }
+
+    /**
+     * Test for the keyword {@code null}, consuming it if found.
+     *
+     * @return  {@code true} if the next token is {@code null}
+     * @throws  JSONException   if the JSON is not valid, or if an I/O error occurs
+     */
+    boolean isNull() {
+        if (peek() == 'n') {
+            readKeyword("null");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Read a keyword.
+     *
+     * @param   keyword     the keyword
+     * @throws  JSONException   if the input does not match the keyword, or if an I/O error
+     *                          occurs
+     */
+    private void readKeyword(String keyword) {
+        for (int i = 0, n = keyword.length(); i < n; i++)
+            if (nextCharOrEnd() != keyword.charAt(i))
+                throw syntaxError();
+        int ch = nextCharOrEnd();
+        if (ch >= 0) {
+            index--;
+            if (Character.isLetterOrDigit(ch))
+                throw syntaxError();
+        }
+    }
+
+    /**
+     * Read a complete JSON value, returning it as a {@link JSONValue}.  This is used where
+     * the tree form is required, for example for a custom {@code fromJSON()} method.
+     *
+     * @return  the {@link JSONValue} ({@code null} for the keyword {@code null})
+     * @throws  JSONException   if the JSON is not valid, or if an I/O error occurs
+     */
+    JSONValue readJSON() {
+        switch (peek()) {
+        case '{':
+            index++;
+            JSONObject object = new JSONObject();
+            for (String name = firstName(); name != null; name = nextName())
+                object.put(name, readJSON());
+            return object;
+        case '[':
+            index++;
+            JSONArray array = new JSONArray();
+            if (!isArrayEnd()) {
+                do {
+                    array.add(readJSON());
+                } while (nextArrayItem());
+            }
+            return array;
+        case '"':
+            return new JSONString(readString());
+        case 't':
+        case 'f':
+            return readBoolean() ? JSONBoolean.TRUE : JSONBoolean.FALSE;
+        case 'n':
+            readKeyword("null");
+            return null;
+        case '-':
+        case '0':
+        case '1':
+        case '2':
+        case '3':
+        case '4':
+        case '5':
+        case '6':
+        case '7':
+        case '8':
+        case '9':
+            return (JSONValue)readNumber();
+        default:
+            throw syntaxError();
+        }
+    }
+
+    /**
+     * Create the exception for a syntax error, distinguishing the case of premature end of
+     * input.
+     *
+     * @return  the exception
+     */
+    JSONException syntaxError() {
+        return new JSONException(peek() < 0 ? "Unexpected end of JSON" : "Illegal JSON syntax");
+    }
+
+    /**
+     * Get the next character, without skipping whitespace.
+     *
+     * @return  the character
+     * @throws  JSONException   at end of input, or if an I/O error occurs
+     */
+    private char nextChar() {
+        if (index >= limit && !fill())
+            throw new JSONException("Unexpected end of JSON");
+        return buffer[index++];
+    }
+
+    /**
+     * Get the next character, without skipping whitespace.  At end of input, the index is not
+     * incremented, so a subsequent decrement will be incorrect; callers check for -1 before
+     * stepping back.
+     *
+     * @return  the character, or -1 at end of input
+     * @throws  JSONException   if an I/O error occurs
+     */
+    private int nextCharOrEnd() {
+        if (index >= limit && !fill())
+            return -1;
+        return buffer[index++];
+    }
+
+    /**
+     * Get the value of a hexadecimal digit.
+     *
+     * @param   ch      the character
+     * @return  the value
+     * @throws  JSONException   if the character is not a hexadecimal digit
+     */
+    private static int hexValue(char ch) {
+        if (ch >= '0' && ch <= '9')
+            return ch - '0';
+        if (ch >= 'A' && ch <= 'F')
+            return ch - 'A' + 10;
+        if (ch >= 'a' && ch <= 'f')
+            return ch - 'a' + 10;
+        throw new JSONException("Illegal Unicode sequence in string");
+    }
+
+    /**
+     * Fill the buffer from the {@link Reader}.  The last character of the previous buffer is
+     * retained at the start of the new buffer, so that a single character may always be
+     * "un-read" by decrementing the index.
+     *
+     * @return  {@code false} at end of input
+     * @throws  JSONException   if an I/O error occurs
+     */
+    private boolean fill() {
+        int keep = limit > 0 ? 1 : 0;
+        if (keep > 0)
+            buffer[0] = buffer[limit - 1];
+        try {
+            int n;
+            do {
+                n = reader.read(buffer, keep, buffer.length - keep);
+            } while (n == 0);
+            if (n < 0) {
+                index = limit = keep;
+                return false;
+            }
+            index = keep;
+            limit = keep + n;
+            return true;
+        }
+        catch (IOException e) {
+            throw new JSONException("Error reading JSON", e);
+        }
+    }
+
+}
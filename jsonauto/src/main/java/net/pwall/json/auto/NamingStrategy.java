@@ -0,0 +1,109 @@
+/*
+ * @(#) NamingStrategy.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import net.pwall.json.annotation.JSONName;
+
+/**
+ * The strategy used to derive JSON property names from field names.  A name specified by a
+ * {@link JSONName} annotation is always used as-is.
+ *
+ * @author Peter Wall
+ */
+public enum NamingStrategy {
+
+    /**
+     * Use the field name unchanged.  This is the default.
+     */
+    AS_DECLARED {
+        @Override
+        public String apply(String fieldName) {
+            return fieldName;
+        }
+    },
+
+    /**
+     * Convert a camel-case field name to lower case words separated by underscores (e.g.
+     * {@code "httpResponseCode"} becomes {@code "http_response_code"}).
+     */
+    SNAKE_CASE {
+        @Override
+        public String apply(String fieldName) {
+            return separateWords(fieldName, '_');
+        }
+    },
+
+    /**
+     * Convert a camel-case field name to lower case words separated by hyphens (e.g.
+     * {@code "httpResponseCode"} becomes {@code "http-response-code"}).
+     */
+    KEBAB_CASE {
+        @Override
+        public String apply(String fieldName) {
+            return separateWords(fieldName, '-');
+        }
+    };
+
+    /**
+     * Get the JSON property name for a field name.
+     *
+     * @param   fieldName   the field name
+     * @return  the JSON property name
+     */
+    public abstract String apply(String fieldName);
+
+    /**
+     * Convert a camel-case name to lower case words separated by the nominated character.  A
+     * word starts at an upper case letter that follows a lower case letter or a digit, or at
+     * the last upper case letter of a sequence that is followed by a lower case letter (so
+     * that {@code "URLValue"} becomes {@code "url_value"}).
+     *
+     * @param   name        the name
+     * @param   separator   the separator character
+     * @return  the converted name
+     */
+    static String separateWords(String name, char separator) {
+        int n = name.length();
+        StringBuilder sb = new StringBuilder(n + 4);
+        for (int i = 0; i < n; i++) {
+            char ch = name.charAt(i);
+            if (Character.isUpperCase(ch)) {
+                if (i > 0) {
+                    char prev = name.charAt(i - 1);
+                    if (Character.isLowerCase(prev) || Character.isDigit(prev) ||
+                            Character.isUpperCase(prev) && i + 1 < n &&
+                                    Character.isLowerCase(name.charAt(i + 1)))
+                        sb.append(separator);
+                }
+                sb.append(Character.toLowerCase(ch));
+            }
+            else
+                sb.append(ch);
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * @(#) PlanPreparer.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+/**
+ * Prepares the cached information (plans etc.) for a set of root types and all the classes
+ * reachable from them through the declared types of their fields, including the type arguments
+ * of parameterized types (e.g. the item type of a {@code List}) and the component types of
+ * arrays.  The work for each class is performed by an action supplied by the serializer or
+ * deserializer; the action returns {@code true} if the fields of the class are to be followed.
+ * Each class is processed only once.
+ *
+ * @author Peter Wall
+ */
+class PlanPreparer {
+
+    private final Predicate<Class<?>> action;
+    private final Set<Class<?>> visited;
+
+    /**
+     * Construct a {@code PlanPreparer} with the specified action.
+     *
+     * @param   action  the action to prepare a class, returning {@code true} if the fields of
+     *                  the class are to be followed
+     */
+    PlanPreparer(Predicate<Class<?>> action) {
+        this.action = action;
+        visited = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Prepare the root types and all classes reachable from them, in the current thread.
+     *
+     * @param   types   the root types
+     * @return  the set of classes processed
+     */
+    Set<Class<?>> prepare(Type... types) {
+        Deque<Class<?>> queue = new ArrayDeque<>(addClasses(new ArrayList<>(), types));
+        while (!queue.isEmpty())
+            queue.addAll(prepareClass(queue.remove()));
+        return visited;
+    }
+
+    /**
+     * Prepare the root types and all classes reachable from them, using the specified
+     * {@link Executor}.  Each class is prepared in a separate task, and the tasks for the
+     * classes reachable from a class are submitted when that class has been prepared.
+     *
+     * @param   executor    the {@link Executor}
+     * @param   types       the root types
+     * @return  a {@link CompletableFuture} that completes with the set of classes processed
+     *          when all the tasks have completed
+     */
+    CompletableFuture<Set<Class<?>>> prepare(Executor executor, Type... types) {
+        return prepareAll(addClasses(new ArrayList<>(), types), executor).
+                thenApply(v -> visited);
+    }
+
+    private CompletableFuture<Void> prepareAll(List<Class<?>> classes, Executor executor) {
+        int n = classes.size();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[n];
+        for (int i = 0; i < n; i++) {
+            Class<?> cls = classes.get(i);
+            futures[i] = CompletableFuture.supplyAsync(() -> prepareClass(cls), executor).
+                    thenCompose(next -> prepareAll(next, executor));
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    /**
+     * Prepare a single class.
+     *
+     * @param   cls     the class
+     * @return  the classes reachable from the class that have not already been processed
+     */
+    private List<Class<?>> prepareClass(Class<?> cls) {
+        List<Class<?>> next = new ArrayList<>();
+        if (action.test(cls))
+            for (Field field : SerializationPlan.serializableFields(cls))
+                addClasses(next, field.getGenericType());
+        return next;
+    }
+
+    /**
+     * Add the classes named by a set of types to a list, excluding primitive types and classes
+     * already processed.
+     *
+     * @param   list    the list
+     * @param   types   the types
+     * @return          the list
+     */
+    private List<Class<?>> addClasses(List<Class<?>> list, Type... types) {
+        for (Type type : types) {
+            if (type instanceof Class<?>) {
+                Class<?> cls = (Class<?>)type;
+                while (cls.isArray())
+                    cls = cls.getComponentType();
+                if (!cls.isPrimitive() && visited.add(cls))
+                    list.add(cls);
+            }
+            else if (type instanceof ParameterizedType) {
+                ParameterizedType parameterizedType = (ParameterizedType)type;
+                addClasses(list, parameterizedType.getRawType());
+                addClasses(list, parameterizedType.getActualTypeArguments());
+            }
+            else if (type instanceof GenericArrayType)
+                addClasses(list, ((GenericArrayType)type).getGenericComponentType());
+            else if (type instanceof WildcardType)
+                addClasses(list, ((WildcardType)type).getUpperBounds());
+            else if (type instanceof TypeVariable<?>) {
+                // only the raw types of the bounds, to avoid recursion on bounds such as
+                // <T extends Comparable<T>>
+                for (Type bound : ((TypeVariable<?>)type).getBounds())
+                    addClasses(list, bound instanceof ParameterizedType ?
+                            ((ParameterizedType)bound).getRawType() : bound);
+            }
+        }
+        return list;
+    }
+
+}
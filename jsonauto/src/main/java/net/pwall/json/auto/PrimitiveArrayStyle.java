@@ -0,0 +1,56 @@
+/*
+ * @(#) PrimitiveArrayStyle.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import net.pwall.json.JSONArray;
+
+/**
+ * The form of the {@link net.pwall.json.JSONValue JSONValue} created for an array of
+ * primitive type (other than {@code char[]}, which serializes as a string) by
+ * {@link JSONSerializer#toJSONValue(Object)}.  This does not affect the streaming forms of
+ * serialization, which output the array directly in all cases.
+ *
+ * @author Peter Wall
+ */
+public enum PrimitiveArrayStyle {
+
+    /**
+     * A {@link JSONArray} containing a separate value for each item.  This is the default.
+     */
+    EXPANDED,
+
+    /**
+     * A {@link JSONPrimitiveArray} holding a copy of the array.
+     */
+    COPY,
+
+    /**
+     * A {@link JSONPrimitiveArray} holding the original array (changes to the array will be
+     * reflected in the JSON).
+     */
+    VIEW
+
+}
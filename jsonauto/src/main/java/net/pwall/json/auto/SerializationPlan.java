@@ -0,0 +1,445 @@
+/*
+ * @(#) SerializationPlan.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+
+import net.pwall.json.annotation.JSONAlways;
+import net.pwall.json.annotation.JSONIgnore;
+import net.pwall.json.annotation.JSONName;
+
+/**
+ * The serialization plan for a class.  This holds the list of fields to be serialized
+ * (including those of the superclasses), with the name, the {@link JSONAlways} setting and the
+ * {@link Optional} handling for each field resolved in advance.  Fields of primitive type are
+ * identified so that they may be read and output without boxing.  Plans are created on first
+ * use and cached for the life of the class.
+ *
+ * @author Peter Wall
+ */
+class SerializationPlan {
+
+    private static final ClassValue<SerializationPlan> plans =
+            new ClassValue<SerializationPlan>() {
+        @Override
+        protected SerializationPlan computeValue(Class<?> type) {
+            return new SerializationPlan(type, AccessEngine.getDefault(),
+                    NamingStrategy.AS_DECLARED);
+        }
+    };
+
+    private final Property[] properties;
+    private final boolean duplicateNames;
+
+    /**
+     * Construct a {@code SerializationPlan} for the specified class.
+     *
+     * @param   objectClass     the class
+     * @param   engine          the {@link AccessEngine} to be used to access the fields
+     * @param   naming          the {@link NamingStrategy} for fields without a {@link JSONName}
+     */
+    SerializationPlan(Class<?> objectClass, AccessEngine engine, NamingStrategy naming) {
+        List<Field> fields = serializableFields(objectClass);
+        GeneratedAccessor generatedAccessor = engine == AccessEngine.GENERATED ?
+                AccessorGenerator.forClass(objectClass) : null;
+        int n = fields.size();
+        properties = new Property[n];
+        for (int i = 0; i < n; i++)
+            properties[i] = new Property(fields.get(i), generatedAccessor, i, naming);
+        Set<String> names = new HashSet<>();
+        boolean duplicates = false;
+        for (Property property : properties)
+            if (!names.add(property.getName()))
+                duplicates = true;
+        duplicateNames = duplicates;
+    }
+
+    /**
+     * Get the {@code SerializationPlan} for the specified class with the default settings,
+     * creating it if necessary.
+     *
+     * @param   objectClass     the class
+     * @return  the {@code SerializationPlan}
+     */
+    static SerializationPlan forClass(Class<?> objectClass) {
+        return plans.get(objectClass);
+    }
+
+    /**
+     * Get the properties to be serialized, in the order in which they are to be output.
+     *
+     * @return  the properties
+     */
+    Property[] getProperties() {
+        return properties;
+    }
+
+    /**
+     * Test whether any name is used by more than one property (for example, where a field in
+     * a subclass has the same name as a field in a superclass).
+     *
+     * @return  {@code true} if any name is used more than once
+     */
+    boolean hasDuplicateNames() {
+        return duplicateNames;
+    }
+
+    /**
+     * Get the serializable fields of a class, including those of its superclasses (superclass
+     * first), excluding fields marked as {@code static} or {@code transient} or annotated with
+     * {@link JSONIgnore}.  The position of a field in this list is its index for the purposes
+     * of {@link GeneratedAccessor}.
+     *
+     * @param   objectClass     the class
+     * @return  the fields
+     */
+    static List<Field> serializableFields(Class<?> objectClass) {
+        List<Field> list = new ArrayList<>();
+        addFields(list, objectClass);
+        return list;
+    }
+
+    /**
+     * Add the serializable fields of a class to a list.  This method first calls itself
+     * recursively to get the fields of the superclass (if any), then iterates through the
+     * declared fields of the class.
+     *
+     * @param   list            the list of fields
+     * @param   objectClass     the class
+     */
+    private static void addFields(List<Field> list, Class<?> objectClass) {
+
+        // TODO check class-based annotations, including option to apply @JSONAlways on all
+
+        // first deal with fields of superclass
+
+        Class<?> superClass = objectClass.getSuperclass();
+        if (superClass != null && !superClass.equals(Object.class))
+            addFields(list, superClass);
+
+        // now, for each field in this class
+
+        for (Field field : objectClass.getDeclaredFields()) {
+
+            // ignore fields marked as static or transient, or annotated with @JSONIgnore
+
+            if (!fieldStaticOrTransient(field) && !fieldAnnotated(field, JSONIgnore.class))
+                list.add(field);
+
+        }
+
+    }
+
+    /**
+     * Test whether a field a marked with the {@code static} or {@code transient} modifiers.
+     *
+     * @param   field   the {@link Field}
+     * @return  {@code true} if the field has the {@code static} or {@code transient} modifiers
+     */
+    static boolean fieldStaticOrTransient(Field field) {
+        int modifiers = field.getModifiers();
+        return Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers);
+    }
+
+    /**
+     * Test whether a field is annotated with a nominated annotation class.
+     *
+     * @param   field           the {@link Field}
+     * @param   annotationClass the annotation class
+     * @return  {@code true} if the field has the nominated annotation
+     */
+    static boolean fieldAnnotated(Field field, Class<? extends Annotation> annotationClass) {
+        return field.getAnnotation(annotationClass) != null;
+    }
+
+    /**
+     * The kinds of {@link Optional} that may require special handling when serializing a
+     * field.
+     */
+    enum OptionalKind {
+
+        NONE, OPTIONAL, OPTIONAL_INT, OPTIONAL_LONG, OPTIONAL_DOUBLE, UNKNOWN;
+
+        /**
+         * Get the {@code OptionalKind} for a class.
+         *
+         * @param   type    the class
+         * @return  the {@code OptionalKind}
+         */
+        static OptionalKind of(Class<?> type) {
+            if (type.equals(Optional.class))
+                return OPTIONAL;
+            if (type.equals(OptionalInt.class))
+                return OPTIONAL_INT;
+            if (type.equals(OptionalLong.class))
+                return OPTIONAL_LONG;
+            if (type.equals(OptionalDouble.class))
+                return OPTIONAL_DOUBLE;
+            return NONE;
+        }
+
+        /**
+         * Get the {@code OptionalKind} for the declared type of a field.  If the field may
+         * hold an {@link Optional} but is not declared as one (e.g. a field of type
+         * {@link Object}), the result is {@link #UNKNOWN}, and the decision must be made at
+         * run time from the class of the value.
+         *
+         * @param   type    the declared type of the field
+         * @return  the {@code OptionalKind}
+         */
+        static OptionalKind ofField(Class<?> type) {
+            OptionalKind kind = of(type);
+            if (kind != NONE)
+                return kind;
+            if (type.isAssignableFrom(Optional.class) || type.isAssignableFrom(OptionalInt.class) ||
+                    type.isAssignableFrom(OptionalLong.class) ||
+                    type.isAssignableFrom(OptionalDouble.class))
+                return UNKNOWN;
+            return NONE;
+        }
+
+    }
+
+    /**
+     * A single property (field) in the serialization plan.
+     */
+    static class Property {
+
+        private final Field field;
+        private final FieldAccessor accessor;
+        private final GeneratedAccessor generatedAccessor;
+        private final int index;
+        private final String name;
+        private final String jsonName;
+        private final byte[] jsonNameBytes;
+        private final boolean always;
+        private final OptionalKind optionalKind;
+
+        /**
+         * Construct a {@code Property} from a {@link Field}.
+         *
+         * @param   field               the {@link Field}
+         * @param   generatedAccessor   the {@link GeneratedAccessor} for the class, or
+         *                              {@code null}
+         * @param   index               the index of the field in the {@link GeneratedAccessor}
+         * @param   naming              the {@link NamingStrategy} (used if the field does not
+         *                              have a {@link JSONName} annotation)
+         */
+        Property(Field field, GeneratedAccessor generatedAccessor, int index,
+                NamingStrategy naming) {
+            this.field = field;
+            this.generatedAccessor = generatedAccessor;
+            this.index = index;
+
+            // check for explicit name annotation
+
+            String fieldName = naming.apply(field.getName());
+            JSONName nameAnnotation = field.getAnnotation(JSONName.class);
+            if (nameAnnotation != null) {
+                String nameValue = nameAnnotation.value();
+                if (nameValue != null)
+                    fieldName = nameValue;
+            }
+            name = fieldName;
+            StringBuilder sb = new StringBuilder();
+            try {
+                JSONSerializer.appendString(sb, fieldName);
+            }
+            catch (IOException ioe) {
+                // can't happen - StringBuilder does not throw IOException
+            }
+            jsonName = sb.append(':').toString();
+            jsonNameBytes = jsonName.getBytes(StandardCharsets.UTF_8);
+
+            always = fieldAnnotated(field, JSONAlways.class);
+            optionalKind = OptionalKind.ofField(field.getType());
+
+            try {
+                field.setAccessible(true);
+            }
+            catch (Exception e) {
+                // ignore - the error will be reported when the field is accessed
+            }
+            accessor = new FieldAccessor(field);
+        }
+
+        /**
+         * Get the {@link Field}.
+         *
+         * @return  the {@link Field}
+         */
+        Field getField() {
+            return field;
+        }
+
+        /**
+         * Get the value of the field from an object.
+         *
+         * @param   object  the object
+         * @return  the value (boxed, if the field is of a primitive type)
+         * @throws  IllegalAccessException if the field is not accessible
+         */
+        Object getValue(Object object) throws IllegalAccessException {
+            return generatedAccessor != null ? generatedAccessor.get(object, index) :
+                    accessor.get(object);
+        }
+
+        /**
+         * Get the {@link FieldAccessor.PrimitiveKind} of the field.  If this is not
+         * {@link FieldAccessor.PrimitiveKind#NONE NONE}, the value may be read without boxing
+         * using the corresponding typed method ({@link #getInt(Object)} etc.), through the
+         * {@link GeneratedAccessor} if there is one, or the {@link FieldAccessor} otherwise.
+         *
+         * @return  the {@link FieldAccessor.PrimitiveKind}
+         */
+        FieldAccessor.PrimitiveKind getPrimitiveKind() {
+            return accessor.getPrimitiveKind();
+        }
+
+        /**
+         * Get the value of an {@code int}, {@code short} or {@code byte} field.
+         *
+         * @param   object  the object
+         * @return  the value
+         * @throws  IllegalAccessException if the field is not accessible
+         */
+        int getInt(Object object) throws IllegalAccessException {
+            return generatedAccessor != null ? generatedAccessor.getInt(object, index) :
+                    accessor.getInt(object);
+        }
+
+        /**
+         * Get the value of a {@code long} field.
+         *
+         * @param   object  the object
+         * @return  the value
+         * @throws  IllegalAccessException if the field is not accessible
+         */
+        long getLong(Object object) throws IllegalAccessException {
+            return generatedAccessor != null ? generatedAccessor.getLong(object, index) :
+                    accessor.getLong(object);
+        }
+
+        /**
+         * Get the value of a {@code float} field.
+         *
+         * @param   object  the object
+         * @return  the value
+         * @throws  IllegalAccessException if the field is not accessible
+         */
+        float getFloat(Object object) throws IllegalAccessException {
+            return generatedAccessor != null ? generatedAccessor.getFloat(object, index) :
+                    accessor.getFloat(object);
+        }
+
+        /**
+         * Get the value of a {@code double} field.
+         *
+         * @param   object  the object
+         * @return  the value
+         * @throws  IllegalAccessException if the field is not accessible
+         */
+        double getDouble(Object object) throws IllegalAccessException {
+            return generatedAccessor != null ? generatedAccessor.getDouble(object, index) :
+                    accessor.getDouble(object);
+        }
+
+        /**
+         * Get the value of a {@code boolean} field.
+         *
+         * @param   object  the object
+         * @return  the value
+         * @throws  IllegalAccessException if the field is not accessible
+         */
+        boolean getBoolean(Object object) throws IllegalAccessException {
+            return generatedAccessor != null ? generatedAccessor.getBoolean(object, index) :
+                    accessor.getBoolean(object);
+        }
+
+        /**
+         * Get the name to be used in the JSON output.
+         *
+         * @return  the name
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * Get the name in its JSON form (quoted, and followed by a colon), for use in
+         * streaming output.
+         *
+         * @return  the name in JSON form
+         */
+        String getJSONName() {
+            return jsonName;
+        }
+
+        /**
+         * Get the name in its JSON form (as for {@link #getJSONName()}), encoded in UTF-8.
+         *
+         * @return  the name in JSON form, as UTF-8 bytes
+         */
+        byte[] getJSONNameBytes() {
+            return jsonNameBytes;
+        }
+
+        /**
+         * Test whether the field is to be output even when it is null (or an empty
+         * {@link Optional}).
+         *
+         * @return  {@code true} if the field is annotated with {@link JSONAlways}
+         */
+        boolean isAlways() {
+            return always;
+        }
+
+        /**
+         * Get the {@link OptionalKind} for a value of this property.
+         *
+         * @param   value   the (non-null) value
+         * @return  the {@link OptionalKind}
+         */
+        OptionalKind getOptionalKind(Object value) {
+            return optionalKind == OptionalKind.UNKNOWN ? OptionalKind.of(value.getClass()) :
+                    optionalKind;
+        }
+
+    }
+
+}
@@ -0,0 +1,335 @@
+/*
+ * @(#) SerializerType.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZonedDateTime;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import net.pwall.json.JSONValue;
+
+/**
+ * The serialization type of a class.  The checks to determine how an object is to be
+ * serialized depend only on the class of the object, so they are performed once for each
+ * class and the result is cached.  The order of the checks determines the precedence where a
+ * class matches more than one of them (e.g. a class that implements both {@link Iterable} and
+ * {@link Map}).
+ *
+ * @author Peter Wall
+ */
+class SerializerType {
+
+    private static Class<?> kotlinSequenceInterface = null;
+
+    static {
+        try {
+            kotlinSequenceInterface = Class.forName("kotlin.sequences.Sequence");
+        }
+        catch (Exception e) {
+            // ignore - kotlin libraries not present
+        }
+    }
+
+    private static final ClassValue<SerializerType> types = new ClassValue<SerializerType>() {
+        @Override
+        protected SerializerType computeValue(Class<?> type) {
+            return new SerializerType(type);
+        }
+    };
+
+    /**
+     * The kinds of serialization.
+     */
+    enum Kind {
+        JSON_VALUE, CHAR_SEQUENCE, NUMBER, BOOLEAN, CHARACTER, CHAR_ARRAY, OBJECT_ARRAY,
+        PRIMITIVE_ARRAY, CUSTOM, COMPANION, ENUM, ITERABLE, SEQUENCE, MAP, ENUMERATION, ITERATOR,
+        CALENDAR, DATE, STRING, BIT_SET, OPTIONAL, OPTIONAL_INT, OPTIONAL_LONG, OPTIONAL_DOUBLE,
+        OBJECT
+    }
+
+    private final Kind kind;
+    private final Method method;
+    private final JSONCompanion<?> companion;
+
+    /**
+     * Construct a {@code SerializerType} for the specified class.
+     *
+     * @param   objectClass     the class
+     */
+    private SerializerType(Class<?> objectClass) {
+        kind = determineKind(objectClass);
+        method = kind == Kind.CUSTOM ? findToJSON(objectClass) :
+                kind == Kind.SEQUENCE ? findSequenceIterator(objectClass) : null;
+        companion = kind == Kind.COMPANION ? CompanionFinder.forClass(objectClass) : null;
+    }
+
+    /**
+     * Get the {@code SerializerType} for the specified class, creating it if necessary.
+     *
+     * @param   objectClass     the class
+     * @return  the {@code SerializerType}
+     */
+    static SerializerType forClass(Class<?> objectClass) {
+        return types.get(objectClass);
+    }
+
+    /**
+     * Get the kind of serialization to be used for the class.
+     *
+     * @return  the {@link Kind}
+     */
+    Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Get the method to be used for serialization: the {@code toJSON()} method for
+     * {@link Kind#CUSTOM}, or the {@code iterator()} method for {@link Kind#SEQUENCE}.
+     *
+     * @return  the method, or {@code null} if not applicable
+     */
+    Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Get the {@link JSONCompanion} to be used for serialization, for {@link Kind#COMPANION}.
+     *
+     * @return  the {@link JSONCompanion}, or {@code null} if not applicable
+     */
+    JSONCompanion<?> getCompanion() {
+        return companion;
+    }
+
+    /**
+     * Determine the kind of serialization to be used for a class.
+     *
+     * @param   objectClass     the class
+     * @return  the {@link Kind}
+     */
+    private static Kind determineKind(Class<?> objectClass) {
+
+        // is it already a JSONValue?
+
+        if (JSONValue.class.isAssignableFrom(objectClass))
+            return Kind.JSON_VALUE;
+
+        // is it a CharSequence (e.g. String)?
+
+        if (CharSequence.class.isAssignableFrom(objectClass))
+            return Kind.CHAR_SEQUENCE;
+
+        // is is a Number?
+
+        if (Number.class.isAssignableFrom(objectClass))
+            return Kind.NUMBER;
+
+        // is it a Boolean?
+
+        if (objectClass.equals(Boolean.class))
+            return Kind.BOOLEAN;
+
+        // is it a Character?
+
+        if (objectClass.equals(Character.class))
+            return Kind.CHARACTER;
+
+        // is it an array of char?
+
+        if (objectClass.equals(char[].class))
+            return Kind.CHAR_ARRAY;
+
+        // is it an Object array?
+
+        if (Object[].class.isAssignableFrom(objectClass))
+            return Kind.OBJECT_ARRAY;
+
+        // is it an array of primitive type? (other than char)
+
+        if (objectClass.isArray())
+            return Kind.PRIMITIVE_ARRAY;
+
+        // does it have a "toJSON()" method?
+        // questions:
+        // - should we require that the method be public?
+        // - should we look for method in include superclass?
+
+        if (findToJSON(objectClass) != null)
+            return Kind.CUSTOM;
+
+        // does it have a generated companion?
+
+        if (CompanionFinder.forClass(objectClass) != null)
+            return Kind.COMPANION;
+
+        // is it an enum?
+
+        if (Enum.class.isAssignableFrom(objectClass))
+            return Kind.ENUM;
+
+        // is it an Iterable?
+
+        if (Iterable.class.isAssignableFrom(objectClass))
+            return Kind.ITERABLE;
+
+        // is it a Kotlin Sequence?
+
+        if (findSequenceIterator(objectClass) != null)
+            return Kind.SEQUENCE;
+
+        // is it a Map?
+
+        if (Map.class.isAssignableFrom(objectClass))
+            return Kind.MAP;
+
+        // is it an Enumeration?
+
+        if (Enumeration.class.isAssignableFrom(objectClass))
+            return Kind.ENUMERATION;
+
+        // is it an Iterator?
+
+        if (Iterator.class.isAssignableFrom(objectClass))
+            return Kind.ITERATOR;
+
+        // is it a Calendar?
+
+        if (Calendar.class.isAssignableFrom(objectClass))
+            return Kind.CALENDAR;
+
+        // is it a Date?
+
+        if (Date.class.isAssignableFrom(objectClass))
+            return Kind.DATE;
+
+        // is it an Instant, LocalDate, LocalDateTime etc.?
+
+        if (objectClass.equals(Instant.class) ||
+                objectClass.equals(LocalDate.class) ||
+                objectClass.equals(LocalDateTime.class) ||
+                objectClass.equals(OffsetTime.class) ||
+                objectClass.equals(OffsetDateTime.class) ||
+                objectClass.equals(ZonedDateTime.class) ||
+                objectClass.equals(Year.class) ||
+                objectClass.equals(YearMonth.class) ||
+                objectClass.equals(UUID.class))
+            return Kind.STRING;
+
+        // is it a BitSet?
+
+        if (BitSet.class.isAssignableFrom(objectClass))
+            return Kind.BIT_SET;
+
+        // is it an Optional?
+
+        if (objectClass.equals(Optional.class))
+            return Kind.OPTIONAL;
+
+        // is it an OptionalInt?
+
+        if (objectClass.equals(OptionalInt.class))
+            return Kind.OPTIONAL_INT;
+
+        // is it an OptionalLong?
+
+        if (objectClass.equals(OptionalLong.class))
+            return Kind.OPTIONAL_LONG;
+
+        // is it an OptionalDouble?
+
+        if (objectClass.equals(OptionalDouble.class))
+            return Kind.OPTIONAL_DOUBLE;
+
+        // serialize it as an Object (this may not be a satisfactory default behaviour)
+
+        return Kind.OBJECT;
+
+    }
+
+    /**
+     * Find the custom serialization method ({@code toJSON()}) for a class.
+     *
+     * @param   objectClass     the class
+     * @return  the {@code toJSON()} method, or {@code null} if the class does not have one
+     */
+    private static Method findToJSON(Class<?> objectClass) {
+        Method toJSON;
+        try {
+            toJSON = objectClass.getDeclaredMethod("toJSON");
+        }
+        catch (NoSuchMethodException e) {
+            return null; // normal case
+        }
+        if (!JSONValue.class.isAssignableFrom(toJSON.getReturnType()))
+            return null;
+        try {
+            toJSON.setAccessible(true);
+        }
+        catch (Exception e) {
+            // ignore - the error will be reported when the method is invoked
+        }
+        return toJSON;
+    }
+
+    /**
+     * Find the {@code iterator()} method of a Kotlin {@code Sequence}.
+     *
+     * @param   objectClass     the class
+     * @return  the {@code iterator()} method, or {@code null} if the class is not a
+     *          {@code Sequence} or the method can not be located
+     */
+    private static Method findSequenceIterator(Class<?> objectClass) {
+        if (kotlinSequenceInterface == null ||
+                !kotlinSequenceInterface.isAssignableFrom(objectClass))
+            return null;
+        try {
+            Method iterator = objectClass.getDeclaredMethod("iterator");
+            if (Iterator.class.isAssignableFrom(iterator.getReturnType()))
+                return iterator;
+        }
+        catch (NoSuchMethodException ignore) {
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,350 @@
+/*
+ * @(#) UTF8Output.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An {@link Appendable} that encodes its output directly to UTF-8 bytes.  The bytes are
+ * accumulated in a buffer, which may be retrieved as a byte array or {@link ByteBuffer} and
+ * then {@link #reset() reset} for re-use; alternatively, if an {@link OutputStream} is
+ * supplied, the buffer is written to the stream whenever it fills.
+ *
+ * <p>When used as the destination for {@link JSONSerializer#serialize(Object, Appendable)},
+ * property names are output as pre-encoded bytes, avoiding the need to encode them for each
+ * object.</p>
+ *
+ * <p>Instances of this class are not thread-safe.</p>
+ *
+ * @author Peter Wall
+ */
+public class UTF8Output implements Appendable, Flushable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private byte[] buffer;
+    private int count;
+    private char highSurrogate;
+
+    /**
+     * Construct a {@code UTF8Output} with the specified initial buffer size, optionally
+     * writing to an {@link OutputStream}.
+     *
+     * @param   out         the {@link OutputStream}, or {@code null} if the output is to be
+     *                      accumulated in the buffer
+     * @param   bufferSize  the buffer size (the initial size if there is no
+     *                      {@link OutputStream})
+     * @throws  IllegalArgumentException if the buffer size is less than 8
+     */
+    public UTF8Output(OutputStream out, int bufferSize) {
+        if (bufferSize < 8)
+            throw new IllegalArgumentException("Buffer size too small");
+        this.out = out;
+        buffer = new byte[bufferSize];
+        count = 0;
+        highSurrogate = 0;
+    }
+
+    /**
+     * Construct a {@code UTF8Output} writing to an {@link OutputStream}, with the default
+     * buffer size.
+     *
+     * @param   out         the {@link OutputStream}
+     */
+    public UTF8Output(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Construct a {@code UTF8Output} that accumulates the output in a buffer of the specified
+     * initial size.
+     *
+     * @param   bufferSize  the initial buffer size
+     */
+    public UTF8Output(int bufferSize) {
+        this(null, bufferSize);
+    }
+
+    /**
+     * Construct a {@code UTF8Output} that accumulates the output in a buffer of the default
+     * initial size.
+     */
+    public UTF8Output() {
+        this(null, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Append a character, encoded as UTF-8.  A high surrogate is held until the following
+     * low surrogate is received; unpaired surrogates are output as {@code '?'} (the same
+     * substitution as that made by {@link String#getBytes(java.nio.charset.Charset)}).
+     *
+     * @param   ch      the character
+     * @return  {@code this} (for chaining)
+     * @throws  IOException if thrown by the {@link OutputStream}
+     */
+    @Override
+    public UTF8Output append(char ch) throws IOException {
+        if (ch < 0x80 && highSurrogate == 0) {
+            ensureCapacity(1);
+            buffer[count++] = (byte)ch;
+        }
+        else
+            appendNonASCII(ch);
+        return this;
+    }
+
+    /**
+     * Append a {@link CharSequence}, encoded as UTF-8.
+     *
+     * @param   cs      the {@link CharSequence} ({@code "null"} will be output if this is
+     *                  {@code null})
+     * @return  {@code this} (for chaining)
+     * @throws  IOException if thrown by the {@link OutputStream}
+     */
+    @Override
+    public UTF8Output append(CharSequence cs) throws IOException {
+        if (cs == null)
+            cs = "null";
+        return append(cs, 0, cs.length());
+    }
+
+    /**
+     * Append a subsequence of a {@link CharSequence}, encoded as UTF-8.
+     *
+     * @param   cs      the {@link CharSequence} ({@code "null"} will be output if this is
+     *                  {@code null})
+     * @param   start   the start index
+     * @param   end     the end index
+     * @return  {@code this} (for chaining)
+     * @throws  IOException if thrown by the {@link OutputStream}
+     */
+    @Override
+    public UTF8Output append(CharSequence cs, int start, int end) throws IOException {
+        if (cs == null)
+            cs = "null";
+        int i = start;
+        while (i < end) {
+
+            // fast path for ASCII - copy as many characters as will fit in the buffer
+
+            if (highSurrogate == 0) {
+                int limit = Math.min(end, i + buffer.length - count);
+                while (i < limit) {
+                    char ch = cs.charAt(i);
+                    if (ch >= 0x80)
+                        break;
+                    buffer[count++] = (byte)ch;
+                    i++;
+                }
+                if (i >= end)
+                    break;
+            }
+
+            append(cs.charAt(i++));
+        }
+        return this;
+    }
+
+    /**
+     * Append a pre-encoded sequence of bytes.
+     *
+     * @param   bytes   the bytes
+     * @throws  IOException if thrown by the {@link OutputStream}
+     */
+    void appendBytes(byte[] bytes) throws IOException {
+        completeSurrogate();
+        int n = bytes.length;
+        if (n > buffer.length - count) {
+            flushBuffer();
+            if (n > buffer.length - count) {
+                if (out != null) {
+                    out.write(bytes);
+                    return;
+                }
+                grow(n);
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, count, n);
+        count += n;
+    }
+
+    /**
+     * Get the number of bytes currently held in the buffer.
+     *
+     * @return  the number of bytes
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Reset the buffer, discarding any accumulated output.
+     */
+    public void reset() {
+        count = 0;
+        highSurrogate = 0;
+    }
+
+    /**
+     * Get the accumulated output as a new byte array.
+     *
+     * @return  the bytes
+     */
+    public byte[] toByteArray() {
+        completeSurrogate();
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * Get the accumulated output as a {@link ByteBuffer}.  The {@link ByteBuffer} shares the
+     * internal buffer, so it is only valid until the next call to {@link #reset()} or to any
+     * of the {@code append} methods.
+     *
+     * @return  the {@link ByteBuffer}
+     */
+    public ByteBuffer toByteBuffer() {
+        completeSurrogate();
+        return ByteBuffer.wrap(buffer, 0, count);
+    }
+
+    /**
+     * Write the accumulated output to an {@link OutputStream}.
+     *
+     * @param   outputStream    the {@link OutputStream}
+     * @throws  IOException if thrown by the {@link OutputStream}
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        completeSurrogate();
+        outputStream.write(buffer, 0, count);
+    }
+
+    /**
+     * Flush the output.  If an {@link OutputStream} was supplied, the contents of the buffer
+     * are written to it and the stream is flushed; otherwise this method has no effect.
+     *
+     * @throws  IOException if thrown by the {@link OutputStream}
+     */
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            completeSurrogate();
+            flushBuffer();
+            out.flush();
+        }
+    }
+
+    /**
+     * Append a character that requires more than one byte (or a surrogate).
+     *
+     * @param   ch      the character
+     * @throws  IOException if thrown by the {@link OutputStream}
+     */
+    private void appendNonASCII(char ch) throws IOException {
+        ensureCapacity(4);
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(ch)) {
+                int codePoint = Character.toCodePoint(high, ch);
+                buffer[count++] = (byte)(0xF0 | (codePoint >> 18));
+                buffer[count++] = (byte)(0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[count++] = (byte)(0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[count++] = (byte)(0x80 | (codePoint & 0x3F));
+                return;
+            }
+            buffer[count++] = '?';
+            append(ch);
+        }
+        else if (Character.isHighSurrogate(ch))
+            highSurrogate = ch;
+        else if (Character.isLowSurrogate(ch))
+            buffer[count++] = '?';
+        else if (ch < 0x800) {
+            buffer[count++] = (byte)(0xC0 | (ch >> 6));
+            buffer[count++] = (byte)(0x80 | (ch & 0x3F));
+        }
+        else {
+            buffer[count++] = (byte)(0xE0 | (ch >> 12));
+            buffer[count++] = (byte)(0x80 | ((ch >> 6) & 0x3F));
+            buffer[count++] = (byte)(0x80 | (ch & 0x3F));
+        }
+    }
+
+    /**
+     * Output an unpaired high surrogate left at the end of the output.
+     */
+    private void completeSurrogate() {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            if (count >= buffer.length)
+                grow(1);
+            buffer[count++] = '?';
+        }
+    }
+
+    /**
+     * Ensure that there is room in the buffer for the specified number of bytes, writing the
+     * buffer to the {@link OutputStream} or expanding it as required.
+     *
+     * @param   n       the number of bytes
+     * @throws  IOException if thrown by the {@link OutputStream}
+     */
+    private void ensureCapacity(int n) throws IOException {
+        if (n > buffer.length - count) {
+            if (out != null)
+                flushBuffer();
+            else
+                grow(n);
+        }
+    }
+
+    /**
+     * Write the contents of the buffer to the {@link OutputStream} (if any).
+     *
+     * @throws  IOException if thrown by the {@link OutputStream}
+     */
+    private void flushBuffer() throws IOException {
+        if (out != null && count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    /**
+     * Expand the buffer to allow for the specified number of additional bytes.
+     *
+     * @param   n       the number of bytes
+     */
+    private void grow(int n) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + n));
+    }
+
+}
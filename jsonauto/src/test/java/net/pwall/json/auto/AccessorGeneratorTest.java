@@ -0,0 +1,201 @@
+/*
+ * @(#) AccessorGeneratorTest.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for {@link AccessorGenerator} and the {@link AccessEngine#GENERATED} engine.
+ *
+ * @author Peter Wall
+ */
+public class AccessorGeneratorTest {
+
+    @Test
+    public void testGet() {
+        GeneratedAccessor accessor = AccessorGenerator.forClass(TestObject.class);
+        assertNotNull(accessor);
+        TestObject object = new TestObject();
+        assertEquals("abc", accessor.get(object, 0));
+        assertEquals(Integer.valueOf(27), accessor.get(object, 1));
+        assertEquals(Long.valueOf(123456789012345L), accessor.get(object, 2));
+        assertEquals(Double.valueOf(1.5), accessor.get(object, 3));
+        assertEquals(Boolean.TRUE, accessor.get(object, 4));
+        assertEquals(Character.valueOf('x'), accessor.get(object, 5));
+        assertArrayEquals(new int[] { 1, 2 }, (int[])accessor.get(object, 6));
+        assertEquals("final", accessor.get(object, 7));
+        assertEquals(Byte.valueOf((byte)5), accessor.get(object, 8));
+        assertNull(accessor.get(object, 9));
+    }
+
+    @Test
+    public void testSet() {
+        GeneratedAccessor accessor = AccessorGenerator.forClass(TestObject.class);
+        TestObject object = new TestObject();
+        assertTrue(accessor.set(object, 0, "xyz"));
+        assertEquals("xyz", object.string1);
+        assertTrue(accessor.set(object, 0, null));
+        assertNull(object.string1);
+        assertTrue(accessor.set(object, 1, 99));
+        assertEquals(99, object.int1);
+        assertTrue(accessor.set(object, 2, 5L));
+        assertEquals(5L, object.long1);
+        assertTrue(accessor.set(object, 3, 2.5));
+        assertEquals(2.5, object.double1, 0);
+        assertTrue(accessor.set(object, 4, false));
+        assertFalse(object.boolean1);
+        assertTrue(accessor.set(object, 6, new int[] { 3 }));
+        assertArrayEquals(new int[] { 3 }, object.array1);
+        assertFalse(accessor.set(object, 7, "changed")); // final field
+        List<String> list = new ArrayList<>();
+        assertTrue(accessor.set(object, 9, list));
+        assertSame(list, object.list1);
+    }
+
+    @Test
+    public void testGetUnboxed() {
+        GeneratedAccessor accessor = AccessorGenerator.forClass(TestObject.class);
+        TestObject object = new TestObject();
+        assertEquals(27, accessor.getInt(object, 1));
+        assertEquals(123456789012345L, accessor.getLong(object, 2));
+        assertEquals(1.5, accessor.getDouble(object, 3), 0);
+        assertTrue(accessor.getBoolean(object, 4));
+        assertEquals(5, accessor.getInt(object, 8));
+        assertEquals(0.5F, accessor.getFloat(object, 10), 0);
+        assertEquals(7, accessor.getInt(object, 11));
+    }
+
+    @Test
+    public void testSetUnboxed() {
+        GeneratedAccessor accessor = AccessorGenerator.forClass(TestObject.class);
+        TestObject object = new TestObject();
+        assertTrue(accessor.setInt(object, 1, 99));
+        assertEquals(99, object.int1);
+        assertTrue(accessor.setLong(object, 2, 5L));
+        assertEquals(5L, object.long1);
+        assertTrue(accessor.setDouble(object, 3, 2.5));
+        assertEquals(2.5, object.double1, 0);
+        assertTrue(accessor.setBoolean(object, 4, false));
+        assertFalse(object.boolean1);
+        assertTrue(accessor.setInt(object, 8, 300));
+        assertEquals((byte)300, object.byte1);
+        assertTrue(accessor.setFloat(object, 10, 2.25F));
+        assertEquals(2.25F, object.float1, 0);
+        assertTrue(accessor.setInt(object, 11, 70000));
+        assertEquals((short)70000, object.short1);
+        assertFalse(accessor.setInt(object, 2, 1)); // long field
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetUnboxedWrongKind() {
+        AccessorGenerator.forClass(TestObject.class).getInt(new TestObject(), 2);
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void testSetWrongType() {
+        AccessorGenerator.forClass(TestObject.class).set(new TestObject(), 1, "abc");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetBadIndex() {
+        AccessorGenerator.forClass(TestObject.class).get(new TestObject(), 99);
+    }
+
+    @Test
+    public void testNewInstance() {
+        assertTrue(AccessorGenerator.forClass(DummyObject3.class).newInstance()
+                instanceof DummyObject3);
+        assertNull(AccessorGenerator.forClass(TestObject.class).newInstance()); // not public
+    }
+
+    @Test
+    public void testFallback() {
+        // private fields in superclass
+        assertNull(AccessorGenerator.forClass(DummyObject4.class));
+        // JDK class
+        assertNull(AccessorGenerator.forClass(String.class));
+    }
+
+    @Test
+    public void testPlans() throws Exception {
+        DummyObject3 object3 = new DummyObject3();
+        object3.setString1("value1");
+        object3.setInteger1(27);
+        SerializationPlan serializationPlan =
+                new SerializationPlan(DummyObject3.class, AccessEngine.GENERATED,
+                        NamingStrategy.AS_DECLARED);
+        assertEquals("value1", serializationPlan.getProperties()[0].getValue(object3));
+        assertEquals(27, serializationPlan.getProperties()[1].getValue(object3));
+        SerializationPlan plan1 = new SerializationPlan(TestObject.class,
+                AccessEngine.GENERATED, NamingStrategy.AS_DECLARED);
+        assertEquals(FieldAccessor.PrimitiveKind.INT, plan1.getProperties()[1].getPrimitiveKind());
+        assertEquals(27, plan1.getProperties()[1].getInt(new TestObject()));
+        DeserializationPlan deserializationPlan =
+                new DeserializationPlan(DummyObject3.class, AccessEngine.GENERATED,
+                        NamingStrategy.AS_DECLARED);
+        DummyObject3 result = (DummyObject3)deserializationPlan.newInstance();
+        deserializationPlan.getProperty("string1").setValue(result, "value1");
+        deserializationPlan.getProperty("integer1").setValue(result, 27);
+        assertEquals(object3, result);
+        // fallback to reflection for final field
+        DeserializationPlan plan2 = new DeserializationPlan(TestObject.class,
+                AccessEngine.GENERATED, NamingStrategy.AS_DECLARED);
+        TestObject object = new TestObject();
+        plan2.getProperty("long1").setLong(object, 42L);
+        assertEquals(42L, object.long1);
+        plan2.getProperty("final1").setValue(object, "changed");
+        assertEquals("changed", new SerializationPlan(TestObject.class,
+                AccessEngine.GENERATED, NamingStrategy.AS_DECLARED).getProperties()[7].
+                getValue(object));
+    }
+
+    private static class TestObject {
+
+        private String string1 = "abc";
+        private int int1 = 27;
+        private long long1 = 123456789012345L;
+        private double double1 = 1.5;
+        private boolean boolean1 = true;
+        private char char1 = 'x';
+        private int[] array1 = { 1, 2 };
+        private final String final1 = new String("final");
+        private byte byte1 = 5;
+        private List<String> list1;
+        private float float1 = 0.5F;
+        private short short1 = 7;
+        @SuppressWarnings("unused")
+        private static String static1 = "static";
+        @SuppressWarnings("unused")
+        private transient String transient1 = "transient";
+
+    }
+
+}
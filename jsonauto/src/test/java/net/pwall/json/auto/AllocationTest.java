@@ -0,0 +1,177 @@
+/*
+ * @(#) AllocationTest.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+
+import net.pwall.json.JSONValue;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Allocation regression tests.  Each test performs an operation repeatedly until it has been
+ * compiled, and then checks that the number of bytes allocated by the current thread per
+ * operation (as reported by {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)
+ * ThreadMXBean}) is within a budget.  The budgets for operations that necessarily create
+ * objects allow some margin over the measured figures, to accommodate differences in object
+ * layout between JVMs.
+ *
+ * <p>The tests are skipped unless the system property {@code net.pwall.json.auto.allocationTests}
+ * is set to {@code true}; they are run by the {@code allocation-tests} Maven profile:</p>
+ * <pre>
+ * mvn test -P allocation-tests
+ * </pre>
+ *
+ * @author Peter Wall
+ */
+public class AllocationTest {
+
+    private static final int warmUpIterations = 50000;
+    private static final int measuredIterations = 1000;
+    private static final int measuredRounds = 10;
+
+    @Test
+    public void shouldSerializeObjectToReusedAppendableWithoutAllocation() throws Exception {
+        DummyObject3 object = createDummyObject3();
+        StringBuilder sb = new StringBuilder(1024);
+        assertAllocation(0, () -> {
+            sb.setLength(0);
+            JSONSerializer.serialize(object, sb);
+        });
+    }
+
+    @Test
+    public void shouldSerializeEnumToReusedAppendableWithoutAllocation() throws Exception {
+        StringBuilder sb = new StringBuilder(64);
+        assertAllocation(0, () -> {
+            sb.setLength(0);
+            JSONSerializer.serialize(DummyEnum.BETA, sb);
+        });
+    }
+
+    @Test
+    public void shouldSerializeObjectToReusedUTF8OutputWithoutAllocation() throws Exception {
+        DummyObject3 object = createDummyObject3();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        UTF8Output output = new UTF8Output(out);
+        assertAllocation(0, () -> {
+            out.reset();
+            JSONSerializer.serialize(object, output);
+            output.flush();
+        });
+    }
+
+    @Test
+    public void shouldSerializePrimitiveFieldsToReusedAppendableWithinBudget() throws Exception {
+        // the floating point conversions allocate
+        DummyObject20 object = new DummyObject20();
+        object.setInt1(123456);
+        object.setLong1(1234567890123L);
+        object.setDouble1(1.5);
+        object.setFloat1(0.25F);
+        object.setBoolean1(true);
+        object.setChar1('x');
+        StringBuilder sb = new StringBuilder(1024);
+        assertAllocation(320, () -> {
+            sb.setLength(0);
+            JSONSerializer.serialize(object, sb);
+        });
+    }
+
+    @Test
+    public void shouldSerializeUTF8WithinBudget() throws Exception {
+        // the buffer of the UTF8Output created for each call
+        DummyObject3 object = createDummyObject3();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        assertAllocation(UTF8Output.DEFAULT_BUFFER_SIZE + 256, () -> {
+            out.reset();
+            JSONSerializer.serializeUTF8(object, out);
+        });
+    }
+
+    @Test
+    public void shouldSerializeToJSONValueWithinBudget() throws Exception {
+        DummyObject3 object = createDummyObject3();
+        assertAllocation(1536, () -> JSONSerializer.serialize(object));
+    }
+
+    @Test
+    public void shouldDeserializeFromJSONValueWithinBudget() throws Exception {
+        JSONValue json = JSONSerializer.serialize(createDummyObject3());
+        assertAllocation(512, () -> JSONDeserializer.deserialize(DummyObject3.class, json));
+    }
+
+    @Test
+    public void shouldParseFromStringWithinBudget() throws Exception {
+        String json = JSONSerializer.toJSON(createDummyObject3());
+        assertAllocation(4096, () -> JSONDeserializer.parse(DummyObject3.class, json));
+    }
+
+    private static DummyObject3 createDummyObject3() {
+        DummyObject3 object = new DummyObject3();
+        object.setString1("value1");
+        object.setInteger1(27);
+        DummyObject dummy = new DummyObject();
+        dummy.setString1("nested");
+        object.setDummy1(dummy);
+        object.setArray1(new int[] { 1, 2, 3 });
+        return object;
+    }
+
+    private static void assertAllocation(long budget, Operation operation) throws Exception {
+        Assume.assumeTrue(Boolean.getBoolean("net.pwall.json.auto.allocationTests"));
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)threadMXBean;
+        Assume.assumeTrue(bean.isThreadAllocatedMemorySupported());
+        bean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < warmUpIterations; i++)
+            operation.run();
+        // take the lowest of several measurements, to exclude allocations by other activity
+        // (e.g. the completion of compilation) in the same thread
+        long lowest = Long.MAX_VALUE;
+        for (int i = 0; i < measuredRounds; i++) {
+            long start = bean.getThreadAllocatedBytes(threadId);
+            for (int j = 0; j < measuredIterations; j++)
+                operation.run();
+            long allocated = bean.getThreadAllocatedBytes(threadId) - start;
+            lowest = Math.min(lowest, allocated / measuredIterations);
+        }
+        assertTrue("Allocated " + lowest + " bytes per operation; budget " + budget,
+                lowest <= budget);
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run() throws Exception;
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * @(#) ByteArrayStyleTest.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import net.pwall.json.JSONException;
+import net.pwall.json.JSONString;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the Base64 representations of {@code byte[]}.
+ *
+ * @author Peter Wall
+ */
+public class ByteArrayStyleTest {
+
+    private static final String[][] rfc4648Vectors = {
+            { "", "" },
+            { "f", "Zg==" },
+            { "fo", "Zm8=" },
+            { "foo", "Zm9v" },
+            { "foob", "Zm9vYg==" },
+            { "fooba", "Zm9vYmE=" },
+            { "foobar", "Zm9vYmFy" }
+    };
+
+    @Test
+    public void testEncode() {
+        for (String[] vector : rfc4648Vectors) {
+            byte[] bytes = vector[0].getBytes(StandardCharsets.US_ASCII);
+            assertEquals(vector[1], Base64Codec.encode(bytes, false));
+            assertEquals(vector[1].replace("=", ""), Base64Codec.encode(bytes, true));
+        }
+        byte[] bytes = { (byte)0xFB, (byte)0xFF, (byte)0xBF };
+        assertEquals("+/+/", Base64Codec.encode(bytes, false));
+        assertEquals("-_-_", Base64Codec.encode(bytes, true));
+    }
+
+    @Test
+    public void testDecode() {
+        for (String[] vector : rfc4648Vectors) {
+            byte[] bytes = vector[0].getBytes(StandardCharsets.US_ASCII);
+            assertArrayEquals(bytes, Base64Codec.decode(vector[1]));
+            assertArrayEquals(bytes, Base64Codec.decode(vector[1].replace("=", "")));
+        }
+        byte[] bytes = { (byte)0xFB, (byte)0xFF, (byte)0xBF };
+        assertArrayEquals(bytes, Base64Codec.decode("+/+/"));
+        assertArrayEquals(bytes, Base64Codec.decode("-_-_"));
+    }
+
+    @Test
+    public void testDecodeErrors() {
+        String[] invalid = { "Z", "Zm9vY", "Zg=", "Zm8==", "Z===", "Zm 9", "Zm9é", "=" };
+        for (String s : invalid) {
+            try {
+                Base64Codec.decode(s);
+                fail("Should have thrown exception for " + s);
+            }
+            catch (JSONException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testLargeArray() {
+        byte[] bytes = createBytes(20000);
+        String encoded = Base64Codec.encode(bytes, false);
+        assertEquals(26668, encoded.length());
+        assertArrayEquals(bytes, Base64Codec.decode(encoded));
+        JSONDeserializer deserializer =
+                JSONDeserializer.builder().byteArrayStyle(ByteArrayStyle.BASE64).build();
+        assertArrayEquals(bytes, deserializer.readJSON(byte[].class,
+                new StringReader('"' + encoded + '"')));
+        JSONSerializer serializer =
+                JSONSerializer.builder().byteArrayStyle(ByteArrayStyle.BASE64URL).build();
+        String json = serializer.toJSONString(bytes);
+        assertEquals(26669, json.length()); // 26667 unpadded plus quotes
+        assertArrayEquals(bytes, deserializer.readJSON(byte[].class, new StringReader(json)));
+    }
+
+    @Test
+    public void testSerializer() {
+        byte[] bytes = "foob".getBytes(StandardCharsets.US_ASCII);
+        Map<String, byte[]> map = Collections.singletonMap("data", bytes);
+        assertEquals("{\"data\":[102,111,111,98]}", JSONSerializer.toJSON(map));
+        JSONSerializer serializer =
+                JSONSerializer.builder().byteArrayStyle(ByteArrayStyle.BASE64).build();
+        assertEquals("{\"data\":\"Zm9vYg==\"}", serializer.toJSONString(map));
+        assertEquals(new JSONString("Zm9vYg=="), serializer.toJSONValue(bytes));
+        serializer = JSONSerializer.builder().byteArrayStyle(ByteArrayStyle.BASE64URL)
+                .primitiveArrayStyle(PrimitiveArrayStyle.COPY).build();
+        assertEquals("{\"data\":\"Zm9vYg\"}", serializer.toJSONString(map));
+        assertEquals(new JSONString("Zm9vYg"), serializer.toJSONValue(bytes));
+        assertEquals("[1,2]", serializer.toJSONString(new short[] { 1, 2 }));
+    }
+
+    @Test
+    public void testDeserializer() {
+        byte[] bytes = "foob".getBytes(StandardCharsets.US_ASCII);
+        JSONDeserializer deserializer =
+                JSONDeserializer.builder().byteArrayStyle(ByteArrayStyle.BASE64URL).build();
+        assertArrayEquals(bytes, deserializer.fromJSONString(byte[].class, "\"Zm9vYg==\""));
+        assertArrayEquals(bytes, deserializer.fromJSONString(byte[].class, "\"Zm9vYg\""));
+        assertArrayEquals(bytes, deserializer.fromJSONString(byte[].class,
+                "[102,111,111,98]"));
+        assertArrayEquals(bytes, deserializer.readJSON(byte[].class,
+                new StringReader("\"Zm9vYg==\"")));
+        assertArrayEquals(bytes, deserializer.readJSON(byte[].class,
+                new StringReader("\"Zm9v\\u0059g\"")));
+        assertArrayEquals(bytes, deserializer.readJSON(byte[].class,
+                new StringReader("[102,111,111,98]")));
+        try {
+            JSONDeserializer.getDefault().fromJSONString(byte[].class, "\"Zm9vYg==\"");
+            fail("Should have thrown exception");
+        }
+        catch (JSONException e) {
+            // expected
+        }
+    }
+
+    private static byte[] createBytes(int n) {
+        byte[] bytes = new byte[n];
+        for (int i = 0; i < n; i++)
+            bytes[i] = (byte)(i * 31 + (i >> 8));
+        return bytes;
+    }
+
+}
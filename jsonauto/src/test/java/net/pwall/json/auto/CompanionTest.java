@@ -0,0 +1,131 @@
+/*
+ * @(#) CompanionTest.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import net.pwall.json.JSONArray;
+import net.pwall.json.JSONObject;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the use of {@link JSONCompanion} classes by {@link JSONSerializer} and
+ * {@link JSONDeserializer}.
+ *
+ * @author Peter Wall
+ */
+public class CompanionTest {
+
+    @Test
+    public void testFindCompanion() {
+        assertTrue(CompanionFinder.forClass(DummyObject18.class) instanceof
+                DummyObject18_JSONCompanion);
+        assertNull(CompanionFinder.forClass(DummyObject.class));
+        // annotated, but no companion registered
+        assertNull(CompanionFinder.forClass(DummyObject24.class));
+    }
+
+    @Test
+    public void testNoCompanion() {
+        DummyObject24 object = new DummyObject24();
+        object.setString1("abc");
+        JSONObject json = new JSONObject();
+        json.putValue("string1", "abc");
+        assertEquals(json, JSONSerializer.serialize(object));
+        assertEquals(object, JSONDeserializer.deserialize(DummyObject24.class, json));
+    }
+
+    @Test
+    public void testSerialize() {
+        DummyObject18 object = new DummyObject18();
+        object.setString1("abc");
+        JSONObject expected = new JSONObject();
+        expected.putValue("str", "abc");
+        assertEquals(expected, JSONSerializer.serialize(object));
+        JSONArray array = (JSONArray)JSONSerializer.serialize(Arrays.asList(object));
+        assertEquals(expected, array.get(0));
+    }
+
+    @Test
+    public void testSerializeStreamingBypassesCompanion() throws IOException {
+        DummyObject18 object = new DummyObject18();
+        object.setString1("abc");
+        assertEquals("{\"string1\":\"abc\"}", JSONSerializer.toJSON(object));
+        assertArrayEquals("{\"string1\":\"abc\"}".getBytes(StandardCharsets.UTF_8),
+                JSONSerializer.toUTF8(object));
+        StringBuilder sb = new StringBuilder();
+        JSONSerializer.serialize(Arrays.asList(object, null), sb);
+        assertEquals("[{\"string1\":\"abc\"},null]", sb.toString());
+    }
+
+    @Test
+    public void testDeserialize() {
+        DummyObject18 expected = new DummyObject18();
+        expected.setString1("abc");
+        JSONObject json = new JSONObject();
+        json.putValue("str", "abc");
+        assertEquals(expected, JSONDeserializer.deserialize(DummyObject18.class, json));
+        assertEquals(expected, JSONDeserializer.parse(DummyObject18.class, "{\"str\":\"abc\"}"));
+    }
+
+    @Test
+    public void testDeserializeStreamingBypassesCompanion() {
+        DummyObject18 expected = new DummyObject18();
+        expected.setString1("abc");
+        assertEquals(expected, JSONDeserializer.parse(DummyObject18.class,
+                new StringReader("{\"string1\":\"abc\"}")));
+        List<DummyObject18> list = new ArrayList<>();
+        list.add(expected);
+        Type[] typeArgs = { DummyObject18.class };
+        assertEquals(list, JSONDeserializer.parse(List.class, typeArgs,
+                new StringReader("[{\"string1\":\"abc\"}]")));
+    }
+
+    @Test
+    public void testParameterizedType() {
+        ParameterizedType type = JSONDeserializer.parameterizedType(List.class, String.class);
+        assertEquals(List.class, type.getRawType());
+        assertArrayEquals(new Type[] { String.class }, type.getActualTypeArguments());
+        assertNull(type.getOwnerType());
+        assertEquals("java.util.List<java.lang.String>", type.toString());
+        assertEquals(type, JSONDeserializer.parameterizedType(List.class, String.class));
+        Type[] typeArgs = { String.class, type };
+        Map<?, ?> map = JSONDeserializer.parse(Map.class, typeArgs, "{\"a\":[\"x\",\"y\"]}");
+        assertEquals(Arrays.asList("x", "y"), map.get("a"));
+    }
+
+}
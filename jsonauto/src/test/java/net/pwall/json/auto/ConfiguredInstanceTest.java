@@ -0,0 +1,227 @@
+/*
+ * @(#) ConfiguredInstanceTest.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import net.pwall.json.JSONException;
+import net.pwall.json.JSONObject;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link JSONSerializer} and {@link JSONDeserializer} instances created with non-default
+ * settings.
+ *
+ * @author Peter Wall
+ */
+public class ConfiguredInstanceTest {
+
+    @Test
+    public void testDefaults() {
+        DummyObject19 object = createObject();
+        String expected = "{\"firstName\":\"Fred\",\"httpCode\":200," +
+                "\"lastUpdated\":\"" + isoDate() + "\",\"nick\":\"Freddo\"}";
+        assertEquals(expected, JSONSerializer.toJSON(object));
+        assertEquals(expected, JSONSerializer.getDefault().toJSONString(object));
+        assertEquals(expected, JSONSerializer.builder().build().toJSONString(object));
+        assertEquals(object, JSONDeserializer.getDefault().fromJSONString(DummyObject19.class,
+                expected));
+        assertEquals(object, JSONDeserializer.builder().build().fromJSONString(
+                DummyObject19.class, expected));
+    }
+
+    @Test
+    public void testIncludeNulls() throws IOException {
+        JSONSerializer serializer = JSONSerializer.builder().includeNulls(true).build();
+        DummyObject object = new DummyObject();
+        assertEquals("{\"string1\":null}", serializer.toJSONString(object));
+        assertEquals("{}", JSONSerializer.toJSON(object));
+        JSONObject expected = new JSONObject();
+        expected.putNull("string1");
+        assertEquals(expected, serializer.toJSONValue(object));
+        List<DummyObject> list = Collections.singletonList(object);
+        assertEquals("[{\"string1\":null}]", serializer.toJSONString(list));
+        assertEquals("{\"a\":[{\"string1\":null}]}",
+                serializer.toJSONValue(Collections.singletonMap("a", list)).toJSON());
+        StringBuilder sb = new StringBuilder();
+        serializer.writeJSON(Collections.singletonMap("a", list), sb);
+        assertEquals("{\"a\":[{\"string1\":null}]}", sb.toString());
+        assertArrayEquals("{\"string1\":null}".getBytes(StandardCharsets.UTF_8),
+                serializer.toUTF8Bytes(object));
+    }
+
+    @Test
+    public void testIncludeNullsBypassesCompanion() {
+        JSONSerializer serializer = JSONSerializer.builder().includeNulls(true).build();
+        DummyObject18 object = new DummyObject18();
+        object.setString1("abc");
+        assertEquals("{\"str\":\"abc\"}", JSONSerializer.serialize(object).toJSON());
+        assertEquals("{\"string1\":\"abc\"}", serializer.toJSONValue(object).toJSON());
+    }
+
+    @Test
+    public void testDateStyle() {
+        JSONSerializer serializer = JSONSerializer.builder().dateStyle(DateStyle.EPOCH_MILLIS).
+                build();
+        Date date = createDate();
+        assertEquals(String.valueOf(date.getTime()), serializer.toJSONString(date));
+        assertEquals(String.valueOf(date.getTime()), serializer.toJSONValue(date).toJSON());
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        assertEquals(String.valueOf(date.getTime()), serializer.toJSONString(calendar));
+        DummyObject19 object = createObject();
+        String json = "{\"firstName\":\"Fred\",\"httpCode\":200,\"lastUpdated\":" +
+                date.getTime() + ",\"nick\":\"Freddo\"}";
+        assertEquals(json, serializer.toJSONString(object));
+        assertEquals(json, serializer.toJSONValue(object).toJSON());
+        JSONDeserializer deserializer = JSONDeserializer.builder().
+                dateStyle(DateStyle.EPOCH_MILLIS).build();
+        assertEquals(object, deserializer.fromJSONString(DummyObject19.class, json));
+        assertEquals(object, deserializer.readJSON(DummyObject19.class, new StringReader(json)));
+        assertEquals(object, deserializer.fromJSONString(DummyObject19.class,
+                JSONSerializer.toJSON(object)));
+        assertEquals(date, deserializer.fromJSONString(Date.class,
+                String.valueOf(date.getTime())));
+        assertEquals(date.getTime(), deserializer.fromJSONString(Calendar.class,
+                String.valueOf(date.getTime())).getTimeInMillis());
+        try {
+            JSONDeserializer.parse(Date.class, String.valueOf(date.getTime()));
+            fail("Should throw exception");
+        }
+        catch (JSONException e) {
+            assertEquals("Can't deserialize number as class java.util.Date", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testNamingStrategy() throws IOException {
+        JSONSerializer serializer = JSONSerializer.builder().naming(NamingStrategy.SNAKE_CASE).
+                build();
+        DummyObject19 object = createObject();
+        String json = "{\"first_name\":\"Fred\",\"http_code\":200," +
+                "\"last_updated\":\"" + isoDate() + "\",\"nick\":\"Freddo\"}";
+        assertEquals(json, serializer.toJSONString(object));
+        assertEquals(json, serializer.toJSONValue(object).toJSON());
+        StringBuilder sb = new StringBuilder();
+        serializer.writeJSON(Arrays.asList(object, object), sb);
+        assertEquals('[' + json + ',' + json + ']', sb.toString());
+        JSONDeserializer deserializer = JSONDeserializer.builder().
+                naming(NamingStrategy.SNAKE_CASE).build();
+        assertEquals(object, deserializer.fromJSONString(DummyObject19.class, json));
+        assertEquals(object, deserializer.readJSON(DummyObject19.class,
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+        Type[] typeArgs = { DummyObject19.class };
+        assertEquals(Arrays.asList(object, object), deserializer.fromJSONString(List.class,
+                typeArgs, sb.toString()));
+        assertEquals("{\"first-name\":\"Fred\",\"http-code\":0}", JSONSerializer.builder().
+                naming(NamingStrategy.KEBAB_CASE).build().toJSONString(createPartialObject()));
+    }
+
+    @Test
+    public void testSeparateWords() {
+        assertEquals("abc", NamingStrategy.separateWords("abc", '_'));
+        assertEquals("first_name", NamingStrategy.separateWords("firstName", '_'));
+        assertEquals("url_value", NamingStrategy.separateWords("URLValue", '_'));
+        assertEquals("value_url", NamingStrategy.separateWords("valueURL", '_'));
+        assertEquals("field1_name", NamingStrategy.separateWords("field1Name", '_'));
+        assertEquals("x", NamingStrategy.separateWords("X", '_'));
+        assertEquals("http-response-code",
+                NamingStrategy.separateWords("httpResponseCode", '-'));
+    }
+
+    @Test
+    public void testIgnoreUnknownFields() {
+        String json = "{\"string1\":\"abc\",\"extra\":{\"a\":[1,2,{\"b\":null}]},\"more\":1}";
+        try {
+            JSONDeserializer.parse(DummyObject.class, json);
+            fail("Should throw exception");
+        }
+        catch (JSONException e) {
+            assertEquals("Can't find field for extra", e.getMessage());
+        }
+        JSONDeserializer deserializer = JSONDeserializer.builder().ignoreUnknownFields(true).
+                build();
+        DummyObject expected = new DummyObject();
+        expected.setString1("abc");
+        assertEquals(expected, deserializer.fromJSONString(DummyObject.class, json));
+        assertEquals(expected, deserializer.readJSON(DummyObject.class, new StringReader(json)));
+        Type[] typeArgs = { DummyObject.class };
+        assertEquals(Collections.singletonList(expected), deserializer.readJSON(List.class,
+                typeArgs, new StringReader('[' + json + ']')));
+    }
+
+    @Test
+    public void testEngine() {
+        DummyObject19 object = createObject();
+        JSONSerializer serializer = JSONSerializer.builder().engine(AccessEngine.GENERATED).
+                naming(NamingStrategy.SNAKE_CASE).build();
+        JSONDeserializer deserializer = JSONDeserializer.builder().
+                engine(AccessEngine.GENERATED).naming(NamingStrategy.SNAKE_CASE).build();
+        String json = serializer.toJSONString(object);
+        assertEquals(object, deserializer.fromJSONString(DummyObject19.class, json));
+        assertEquals(object, deserializer.readJSON(DummyObject19.class, new StringReader(json)));
+    }
+
+    private static DummyObject19 createObject() {
+        DummyObject19 object = new DummyObject19();
+        object.setFirstName("Fred");
+        object.setHttpCode(200);
+        object.setLastUpdated(createDate());
+        object.setNickName("Freddo");
+        return object;
+    }
+
+    private static DummyObject19 createPartialObject() {
+        DummyObject19 object = new DummyObject19();
+        object.setFirstName("Fred");
+        return object;
+    }
+
+    private static String isoDate() {
+        return JSONSerializer.serializeDate(createDate()).toString();
+    }
+
+    private static Date createDate() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2019, Calendar.APRIL, 25, 18, 52, 47);
+        calendar.set(Calendar.MILLISECOND, 123);
+        return calendar.getTime();
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * @(#) DateFormatterTest.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test that the fast path of {@link DateFormatter} gives the same result as formatting
+ * from the {@link Calendar} fields.
+ *
+ * @author Peter Wall
+ */
+public class DateFormatterTest {
+
+    private static final String[] zoneIds = { "UTC", "GMT", "Europe/London", "Europe/Dublin",
+            "America/New_York", "America/St_Johns", "America/Sao_Paulo", "Asia/Kolkata",
+            "Asia/Kathmandu", "Australia/Lord_Howe", "Pacific/Chatham", "Pacific/Apia",
+            "Africa/Casablanca", "GMT+05:30", "GMT-10:00", "EST", "PST" };
+
+    @Test
+    public void testRandomDates() throws IOException {
+        Random random = new Random(12345);
+        for (String zoneId : zoneIds) {
+            TimeZone zone = TimeZone.getTimeZone(zoneId);
+            for (int i = 0; i < 2000; i++)
+                check(zone, randomMillis(random));
+        }
+    }
+
+    @Test
+    public void testTransitions() throws IOException {
+        for (String zoneId : zoneIds) {
+            TimeZone zone = TimeZone.getTimeZone(zoneId);
+            ZoneRules rules = ZoneId.of(zoneId, ZoneId.SHORT_IDS).getRules();
+            Instant instant = Instant.parse("1900-01-01T00:00:00Z");
+            for (int i = 0; i < 300; i++) {
+                ZoneOffsetTransition transition = rules.nextTransition(instant);
+                if (transition == null)
+                    break;
+                instant = transition.getInstant();
+                long millis = instant.toEpochMilli();
+                check(zone, millis - 1);
+                check(zone, millis);
+                check(zone, millis + 1);
+                check(zone, millis - 3600000);
+                check(zone, millis + 3600000);
+            }
+        }
+    }
+
+    @Test
+    public void testLimits() throws IOException {
+        TimeZone zone = TimeZone.getTimeZone("Europe/Paris");
+        long[] values = { Long.MIN_VALUE / 2, -62135596800000L, -12219292800001L,
+                -12219292800000L, -11676096000001L, -11676096000000L, -1L, 0L, 1L,
+                253402300799999L, 253402300800000L, Long.MAX_VALUE / 2 };
+        for (long millis : values) {
+            check(zone, millis);
+            check(TimeZone.getTimeZone("UTC"), millis);
+        }
+    }
+
+    @Test
+    public void testCustomTimeZone() throws IOException {
+        TimeZone zone = new SimpleTimeZone(3600000, "Europe/London", Calendar.MARCH, 1, 0,
+                0, Calendar.OCTOBER, 1, 0, 0);
+        check(zone, 1546300800000L);
+        StringBuilder sb = new StringBuilder();
+        assertFalse(DateFormatter.appendFast(sb, 1546300800000L, zone));
+        assertEquals(0, sb.length());
+    }
+
+    @Test
+    public void testFastPathUsed() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        assertTrue(DateFormatter.appendFast(sb, 1546300800000L,
+                TimeZone.getTimeZone("Asia/Kolkata")));
+        assertEquals("2019-01-01T05:30:00.000+05:30", sb.toString());
+        sb.setLength(0);
+        assertFalse(DateFormatter.appendFast(sb, -2208988800001L, TimeZone.getTimeZone("UTC")));
+        assertEquals(0, sb.length());
+    }
+
+    @Test
+    public void testDefaultTimeZone() throws IOException {
+        TimeZone saved = TimeZone.getDefault();
+        try {
+            Random random = new Random(67890);
+            for (String zoneId : zoneIds) {
+                TimeZone.setDefault(TimeZone.getTimeZone(zoneId));
+                for (int i = 0; i < 200; i++) {
+                    long millis = randomMillis(random);
+                    Calendar calendar = Calendar.getInstance();
+                    calendar.setTimeInMillis(millis);
+                    StringBuilder expected = new StringBuilder();
+                    DateFormatter.appendCalendar(expected, calendar);
+                    StringBuilder actual = new StringBuilder();
+                    DateFormatter.appendDate(actual, millis);
+                    assertEquals(expected.toString(), actual.toString());
+                    assertEquals(expected.toString(),
+                            JSONSerializer.serializeDate(new Date(millis)).toString());
+                }
+            }
+        }
+        finally {
+            TimeZone.setDefault(saved);
+        }
+    }
+
+    private static void check(TimeZone zone, long millis) throws IOException {
+        Calendar calendar = new GregorianCalendar(zone);
+        calendar.setTimeInMillis(millis);
+        StringBuilder expected = new StringBuilder();
+        DateFormatter.appendCalendar(expected, calendar);
+        StringBuilder actual = new StringBuilder();
+        if (DateFormatter.appendFast(actual, millis, zone))
+            assertEquals(expected.toString(), actual.toString());
+        else
+            assertEquals(0, actual.length());
+    }
+
+    private static long randomMillis(Random random) {
+        // years 1500 to 2500 approximately
+        return -14831769600000L + (long)(random.nextDouble() * 31556952000000L);
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * @(#) DateParserTest.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.Random;
+
+import net.pwall.json.JSONException;
+import net.pwall.json.JSONString;
+import net.pwall.util.ISO8601Date;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test that the fast paths of {@link DateParser} give the same results as the general
+ * parsers.
+ *
+ * @author Peter Wall
+ */
+public class DateParserTest {
+
+    @Test
+    public void testJavaTime() {
+        Random random = new Random(24680);
+        for (int i = 0; i < 5000; i++) {
+            String date = randomDate(random);
+            String time = randomTime(random);
+            String offset = randomOffset(random);
+            assertEquals(LocalDate.parse(date), DateParser.parseLocalDate(date));
+            assertEquals(LocalDateTime.parse(date + 'T' + time),
+                    DateParser.parseLocalDateTime(date + 'T' + time));
+            assertEquals(OffsetDateTime.parse(date + 'T' + time + offset),
+                    DateParser.parseOffsetDateTime(date + 'T' + time + offset));
+            assertEquals(ZonedDateTime.parse(date + 'T' + time + offset),
+                    DateParser.parseZonedDateTime(date + 'T' + time + offset));
+            assertEquals(OffsetTime.parse(time + offset),
+                    DateParser.parseOffsetTime(time + offset));
+            if (time.length() > 5)
+                assertEquals(Instant.parse(date + 'T' + time + 'Z'),
+                        DateParser.parseInstant(date + 'T' + time + 'Z'));
+            else
+                assertNull(DateParser.parseInstant(date + 'T' + time + 'Z'));
+            assertEquals(Year.parse(date.substring(0, 4)),
+                    DateParser.parseYear(date.substring(0, 4)));
+            assertEquals(YearMonth.parse(date.substring(0, 7)),
+                    DateParser.parseYearMonth(date.substring(0, 7)));
+        }
+    }
+
+    @Test
+    public void testDateAndCalendar() {
+        Random random = new Random(13579);
+        for (int i = 0; i < 5000; i++) {
+            String time = randomTime(random);
+            if (time.length() == 5)
+                time += ":00";
+            else if (time.length() > 8)
+                time = time.substring(0, 8) + ".123";
+            String offset = randomOffset(random);
+            String s = randomDate(random) + 'T' + time + offset;
+            Calendar expected = ISO8601Date.decode(s);
+            Calendar calendar = DateParser.parseCalendar(s);
+            int offsetMinutes = offset.equals("Z") ? 0 : Integer.parseInt(offset.substring(1, 3))
+                    * 60 + Integer.parseInt(offset.substring(4));
+            if (offset.startsWith("-"))
+                offsetMinutes = -offsetMinutes;
+            if (offsetMinutes < -13 * 60 || offsetMinutes > 14 * 60) {
+                // outside the range of ZONE_OFFSET - left to the general parser to reject
+                assertNull(calendar);
+                assertNull(DateParser.parseDate(s));
+            }
+            else if (expected.get(Calendar.YEAR) < 1600) {
+                assertNull(calendar);
+                assertNull(DateParser.parseDate(s));
+            }
+            else {
+                assertEquals(expected, calendar);
+                assertEquals(JSONSerializer.serializeCalendar(expected),
+                        JSONSerializer.serializeCalendar(calendar));
+                assertEquals(expected.getTime(), DateParser.parseDate(s));
+            }
+        }
+    }
+
+    @Test
+    public void testUnusualForms() {
+        assertNull(DateParser.parseLocalDate("+12019-01-01"));
+        assertNull(DateParser.parseLocalDate("2019-02-29"));
+        assertNull(DateParser.parseLocalDateTime("2019-01-01T24:00"));
+        assertNull(DateParser.parseLocalDateTime("2019-01-01T10:00:00.1234567890"));
+        assertNull(DateParser.parseLocalDateTime("2019-01-01t10:00"));
+        assertNull(DateParser.parseOffsetDateTime("2019-01-01T10:00+05:30:15"));
+        assertNull(DateParser.parseOffsetDateTime("2019-01-01T10:00+18:00"));
+        assertNull(DateParser.parseOffsetDateTime("2019-01-01T10:00z"));
+        assertNull(DateParser.parseZonedDateTime("2019-01-01T10:00+11:00[Australia/Sydney]"));
+        assertNull(DateParser.parseInstant("2019-01-01T10:00:60Z"));
+        assertNull(DateParser.parseInstant("2019-01-01T10:00+01:00"));
+        assertNull(DateParser.parseDate("2019-01-01T10:00Z"));
+        assertNull(DateParser.parseDate("2019-01-01T10:00:00.1Z"));
+        assertNull(DateParser.parseDate("2019-01-01T10:00:00"));
+        assertNull(DateParser.parseCalendar("2019-W01-1T10:00:00Z"));
+        assertNull(DateParser.parseYear("-2019"));
+        assertNull(DateParser.parseYearMonth("2019-13"));
+    }
+
+    @Test
+    public void testFallback() {
+        assertEquals(ZonedDateTime.parse("2019-01-01T10:00+11:00[Australia/Sydney]"),
+                JSONDeserializer.deserialize(ZonedDateTime.class,
+                new JSONString("2019-01-01T10:00+11:00[Australia/Sydney]")));
+        assertEquals(LocalDate.parse("+12019-01-01"), JSONDeserializer.deserialize(
+                LocalDate.class, new JSONString("+12019-01-01")));
+        assertEquals(ISO8601Date.decode("2019-01-01T10:00Z").getTime(),
+                JSONDeserializer.deserialize(java.util.Date.class,
+                new JSONString("2019-01-01T10:00Z")));
+        try {
+            JSONDeserializer.deserialize(LocalDate.class, new JSONString("2019-02-29"));
+            fail("Should have thrown exception");
+        }
+        catch (JSONException e) {
+            assertEquals("Can't deserialize LocalDate", e.getMessage());
+        }
+    }
+
+    private static String randomDate(Random random) {
+        int year = 1500 + random.nextInt(1000);
+        int month = 1 + random.nextInt(12);
+        int day = 1 + random.nextInt(YearMonth.of(year, month).lengthOfMonth());
+        return String.format("%04d-%02d-%02d", year, month, day);
+    }
+
+    private static String randomTime(Random random) {
+        String time = String.format("%02d:%02d", random.nextInt(24), random.nextInt(60));
+        if (random.nextBoolean()) {
+            time += String.format(":%02d", random.nextInt(60));
+            int digits = random.nextInt(10);
+            if (digits > 0) {
+                StringBuilder sb = new StringBuilder(time).append('.');
+                for (int i = 0; i < digits; i++)
+                    sb.append((char)('0' + random.nextInt(10)));
+                time = sb.toString();
+            }
+        }
+        return time;
+    }
+
+    private static String randomOffset(Random random) {
+        if (random.nextInt(4) == 0)
+            return "Z";
+        return String.format("%c%02d:%02d", random.nextBoolean() ? '+' : '-', random.nextInt(16),
+                random.nextInt(4) * 15);
+    }
+
+}
@@ -0,0 +1,334 @@
+/*
+ * @(#) DeserializeReaderTest.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import net.pwall.json.JSONArray;
+import net.pwall.json.JSONException;
+import net.pwall.json.JSONObject;
+import net.pwall.json.JSONValue;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the {@link JSONDeserializer#parse(Class, Type[], Reader)} function.  Each test checks
+ * that the result of the streaming form is the same as the result from the {@link JSONValue}
+ * form.
+ *
+ * @author Peter Wall
+ */
+public class DeserializeReaderTest {
+
+    @Test
+    public void testSimpleValues() {
+        checkSame(String.class, "\"abc\"");
+        checkSame(String.class, "\"quote \\\" backslash \\\\ newline \\n \\u00E9 \\/\"");
+        checkSame(String.class, "null");
+        checkSame(StringBuilder.class, "\"sb\"", StringBuilder::toString);
+        checkSame(Character.class, "\"x\"");
+        checkSame(Integer.class, "123");
+        checkSame(Integer.class, "-5");
+        checkSame(Integer.class, "0");
+        checkSame(int.class, "  42  ");
+        checkSame(Long.class, "123456789012345");
+        checkSame(Long.class, "-9223372036854775807");
+        checkSame(Double.class, "1.5");
+        checkSame(Double.class, "-1.5e-3");
+        checkSame(Double.class, "2E10");
+        checkSame(Float.class, "0.25");
+        checkSame(Short.class, "87");
+        checkSame(Byte.class, "123");
+        checkSame(Boolean.class, "true");
+        checkSame(boolean.class, "false");
+        checkSame(DummyEnum.class, "\"ALPHA\"");
+        checkSame(LocalDate.class, "\"2017-04-26\"");
+        checkSame(UUID.class, "\"12ce3730-2d97-11e7-aeed-67b0e6bf0ed7\"");
+    }
+
+    @Test
+    public void testArrays() {
+        assertArrayEquals(new int[] { 1, 2, 3 },
+                JSONDeserializer.parse(int[].class, new StringReader("[1,2,3]")));
+        assertArrayEquals(new long[] { 1, 123456789012345L },
+                JSONDeserializer.parse(long[].class, new StringReader("[1, 123456789012345]")));
+        assertArrayEquals(new double[] { 0.5, 2 },
+                JSONDeserializer.parse(double[].class, new StringReader("[0.5,2]")), 0);
+        assertTrue(Arrays.equals(new boolean[] { true, false },
+                JSONDeserializer.parse(boolean[].class, new StringReader("[true,false]"))));
+        assertArrayEquals(new int[0], JSONDeserializer.parse(int[].class, new StringReader("[]")));
+        assertArrayEquals(new String[] { "a", null, "c" },
+                JSONDeserializer.parse(String[].class, new StringReader("[\"a\",null,\"c\"]")));
+        BitSet bitSet = new BitSet();
+        bitSet.set(1);
+        bitSet.set(3);
+        assertEquals(bitSet, JSONDeserializer.parse(BitSet.class, new StringReader("[1,3]")));
+    }
+
+    @Test
+    public void testPrimitiveArrays() {
+        StringBuilder sb = new StringBuilder("[");
+        int[] expected = new int[1000];
+        for (int i = 0; i < expected.length; i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(i * 7 - 3000);
+            expected[i] = i * 7 - 3000;
+        }
+        String json = sb.append(']').toString();
+        assertArrayEquals(expected, JSONDeserializer.parse(int[].class, new StringReader(json)));
+        assertArrayEquals(expected, JSONDeserializer.parse(int[].class, json));
+        String mixed = "[1,-2.75,300,123456789012]";
+        assertArrayEquals(JSONDeserializer.parse(int[].class, mixed),
+                JSONDeserializer.parse(int[].class, new StringReader(mixed)));
+        assertArrayEquals(JSONDeserializer.parse(long[].class, mixed),
+                JSONDeserializer.parse(long[].class, new StringReader(mixed)));
+        assertArrayEquals(JSONDeserializer.parse(short[].class, mixed),
+                JSONDeserializer.parse(short[].class, new StringReader(mixed)));
+        assertArrayEquals(JSONDeserializer.parse(byte[].class, mixed),
+                JSONDeserializer.parse(byte[].class, new StringReader(mixed)));
+        assertArrayEquals(JSONDeserializer.parse(float[].class, mixed),
+                JSONDeserializer.parse(float[].class, new StringReader(mixed)), 0);
+        assertArrayEquals(JSONDeserializer.parse(double[].class, mixed),
+                JSONDeserializer.parse(double[].class, new StringReader(mixed)), 0);
+        assertArrayEquals(new int[] { 1, -2, 300, -1097262572 },
+                JSONDeserializer.parse(int[].class, mixed));
+        assertArrayEquals(new float[] { 0.5F, 2 },
+                JSONDeserializer.parse(float[].class, new StringReader("[0.5,2]")), 0);
+        assertArrayEquals(new short[] { 1, -1 },
+                JSONDeserializer.parse(short[].class, new StringReader("[1,65535]")));
+    }
+
+    @Test
+    public void testCollections() {
+        Type[] stringArg = { String.class };
+        checkSame(List.class, stringArg, "[\"a\",\"b\",\"c\"]");
+        checkSame(Set.class, stringArg, "[\"a\",\"b\"]");
+        checkSame(LinkedList.class, stringArg, "[]");
+        Type[] mapArgs = { String.class, Integer.class };
+        checkSame(Map.class, mapArgs, "{\"first\":1,\"second\":2}");
+        checkSame(Map.class, mapArgs, "{}");
+        Type[] optionalArg = { String.class };
+        checkSame(Optional.class, optionalArg, "\"abc\"");
+        checkSame(Optional.class, optionalArg, "null");
+        checkSame(OptionalInt.class, "27");
+    }
+
+    @Test
+    public void testCollectionWithoutDefaultConstructor() {
+        Type[] stringArg = { String.class };
+        try {
+            JSONDeserializer.parse(SizedList.class, stringArg, new StringReader("[\"a\"]"));
+            fail("Should throw exception");
+        }
+        catch (JSONException e) {
+            assertEquals("Can't instantiate " + SizedList.class, e.getMessage());
+            assertTrue(e.getCause() instanceof NoSuchMethodException);
+        }
+        Type[] mapArgs = { String.class, Integer.class };
+        try {
+            JSONDeserializer.parse(SizedMap.class, mapArgs, new StringReader("{\"a\":1}"));
+            fail("Should throw exception");
+        }
+        catch (JSONException e) {
+            assertEquals("Can't instantiate " + SizedMap.class, e.getMessage());
+            assertTrue(e.getCause() instanceof NoSuchMethodException);
+        }
+    }
+
+    @Test
+    public void testObjects() {
+        checkSame(DummyObject.class, "{\"string1\":\"value1\"}");
+        checkSame(DummyObject3.class, "{\"string1\":\"value1\",\"integer1\":27," +
+                "\"dummy1\":{\"string1\":\"nested\"},\"array1\":[1,2,3]}");
+        checkSame(DummyObject3.class, "{}");
+        checkSame(DummyObject4.class, "{\"string1\":\"value1\",\"int1\":27}");
+        checkSame(DummyObject5.class, "{\"dec\":\"27\",\"hex\":\"1B\"}");
+        checkSame(DummyObject6.class, "{\"fred\":2796}");
+        checkSame(DummyObject10.class, "{\"value1\":\"abc\"}");
+        checkSame(JSONObject.class, "{\"a\":[1,2.5,true,null,\"x\"],\"b\":{}}");
+        checkSame(JSONArray.class, "[{\"a\":1},[],-0.5]");
+    }
+
+    @Test
+    public void testLargeInput() {
+        StringBuilder sb = new StringBuilder("[");
+        List<DummyObject3> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append("{\"string1\":\"value \\\"").append(i).append("\\\"\",\"integer1\":").
+                    append(i).append('}');
+            DummyObject3 object3 = new DummyObject3();
+            object3.setString1("value \"" + i + '"');
+            object3.setInteger1(i);
+            expected.add(object3);
+        }
+        sb.append(']');
+        Type[] typeArgs = { DummyObject3.class };
+        assertEquals(expected, JSONDeserializer.parse(List.class, typeArgs,
+                new OneCharReader(sb.toString())));
+        assertEquals(expected, JSONDeserializer.parse(List.class, typeArgs,
+                new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void testInputStream() {
+        byte[] bytes = "\"caf\u00E9 \uD83D\uDE00\"".getBytes(StandardCharsets.UTF_8);
+        assertEquals("caf\u00E9 \uD83D\uDE00",
+                JSONDeserializer.parse(String.class, new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    public void testErrors() {
+        checkError(DummyObject.class, "{\"unknown\":1}", "Can't find field for unknown");
+        checkError(DummyObject.class, "{\"string1\":\"a\"", "Unexpected end of JSON");
+        checkError(Integer.class, "1 2", "Excess characters after JSON value");
+        checkError(Integer.class, "01", "Illegal JSON syntax");
+        checkError(Integer.class, "1.x", "Illegal JSON syntax");
+        checkError(Boolean.class, "tru", "Unexpected end of JSON");
+        checkError(Boolean.class, "truex", "Illegal JSON syntax");
+        checkError(String.class, "\"\\x\"", "Illegal escape sequence in string");
+        checkError(String.class, "true", "Can't deserialize boolean as class java.lang.String");
+        checkError(String.class, "[]", "Can't deserialize array as class java.lang.String");
+        checkError(String.class, "", "Unexpected end of JSON");
+        checkError(int[].class, "[1,]", "Illegal JSON syntax");
+        checkError(int[].class, "[1,\"a\"]", "Can't deserialize string as int");
+        checkError(boolean[].class, "[true,1]", "Can't deserialize number as boolean");
+        checkError(char[].class, "[]", "Can't deserialize array of char");
+        try {
+            JSONDeserializer.parse(String.class, new FailingReader());
+            fail("Should throw exception");
+        }
+        catch (JSONException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    private static <T> void checkSame(Class<T> resultClass, String json) {
+        checkSame(resultClass, null, json);
+    }
+
+    private static <T> void checkSame(Class<T> resultClass, Type[] typeArgs, String json) {
+        assertEquals(JSONDeserializer.parse(resultClass, typeArgs, json),
+                JSONDeserializer.parse(resultClass, typeArgs, new StringReader(json)));
+    }
+
+    private static <T> void checkSame(Class<T> resultClass, String json,
+            Function<T, String> toString) {
+        assertEquals(toString.apply(JSONDeserializer.parse(resultClass, json)),
+                toString.apply(JSONDeserializer.parse(resultClass, new StringReader(json))));
+    }
+
+    private static void checkError(Class<?> resultClass, String json, String message) {
+        try {
+            JSONDeserializer.parse(resultClass, new StringReader(json));
+            fail("Should throw exception");
+        }
+        catch (JSONException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    /**
+     * A {@link Reader} that returns one character at a time, to test handling of buffer
+     * boundaries.
+     */
+    private static class OneCharReader extends Reader {
+
+        private final String str;
+        private int index = 0;
+
+        OneCharReader(String str) {
+            this.str = str;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (index >= str.length())
+                return -1;
+            if (len == 0)
+                return 0;
+            cbuf[off] = str.charAt(index++);
+            return 1;
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+    private static class FailingReader extends Reader {
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            throw new IOException("Read failed");
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+    public static class SizedList extends ArrayList<String> {
+
+        public SizedList(int size) {
+            super(size);
+        }
+
+    }
+
+    public static class SizedMap extends HashMap<String, Integer> {
+
+        public SizedMap(int size) {
+            super(size);
+        }
+
+    }
+
+}
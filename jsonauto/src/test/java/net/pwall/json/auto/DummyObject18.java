@@ -1,8 +1,8 @@
 /*
- * @(#) DeserializeStringTest.java
+ * @(#) DummyObject18.java
  *
  * jsonauto JSON Auto-serialization Library
- * Copyright (c) 2016 Peter Wall
+ * Copyright (c) 2019 Peter Wall
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -25,31 +25,40 @@
 
 package net.pwall.json.auto;
 
-import static org.junit.Assert.*;
-
-import org.junit.Test;
+import net.pwall.json.annotation.JSONSerializable;
 
 /**
- * Test the {@link JSONDeserializer#deserializeString(Class, String)} function.
+ * Dummy object for testing JSON auto-serialization and deserialization using a companion
+ * class ({@link DummyObject18_JSONCompanion}).
+ *
+ * @author Peter Wall
  */
-public class DeserializeStringTest {
-
-    @Test
-    public void testString() {
-        String result = "abcdef";
-        assertEquals(result, JSONDeserializer.deserializeString(String.class, "abcdef"));
-        result = "";
-        assertEquals(result, JSONDeserializer.deserializeString(String.class, ""));
+@JSONSerializable
+public class DummyObject18 {
+
+    private String string1;
+
+    public String getString1() {
+        return string1;
+    }
+
+    public void setString1(String string1) {
+        this.string1 = string1;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof DummyObject18))
+            return false;
+        if (this == obj)
+            return true;
+        DummyObject18 other = (DummyObject18)obj;
+        return string1 == null ? other.string1 == null : string1.equals(other.string1);
     }
 
-    @Test
-    public void testInteger() {
-        Integer result = Integer.valueOf(27);
-        assertEquals(result, JSONDeserializer.deserializeString(Integer.class, "27"));
-        result = Integer.valueOf(0);
-        assertEquals(result, JSONDeserializer.deserializeString(Integer.class, "0"));
-        result = Integer.valueOf(-1);
-        assertEquals(result, JSONDeserializer.deserializeString(Integer.class, "-1"));
+    @Override
+    public int hashCode() {
+        return string1 == null ? 0 : string1.hashCode();
     }
 
 }
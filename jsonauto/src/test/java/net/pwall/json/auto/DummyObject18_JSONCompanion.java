@@ -0,0 +1,61 @@
+/*
+ * @(#) DummyObject18_JSONCompanion.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import net.pwall.json.JSONObject;
+
+/**
+ * Hand-written companion for {@link DummyObject18}, as would be generated by the annotation
+ * processor, but using a different property name so that its use may be detected.
+ *
+ * @author Peter Wall
+ */
+public class DummyObject18_JSONCompanion implements JSONCompanion<DummyObject18> {
+
+    @Override
+    public Class<DummyObject18> getTargetClass() {
+        return DummyObject18.class;
+    }
+
+    @Override
+    public JSONObject toJSON(DummyObject18 object) {
+        if (object == null)
+            return null;
+        JSONObject json = new JSONObject();
+        JSONSerializer.serializeProperty(json, "str", object.getString1(), false);
+        return json;
+    }
+
+    @Override
+    public DummyObject18 fromJSON(JSONObject json) {
+        if (json == null)
+            return null;
+        DummyObject18 result = new DummyObject18();
+        result.setString1(JSONDeserializer.deserialize(String.class, json.get("str")));
+        return result;
+    }
+
+}
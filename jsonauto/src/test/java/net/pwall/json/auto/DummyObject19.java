@@ -0,0 +1,96 @@
+/*
+ * @(#) DummyObject19.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.util.Date;
+import java.util.Objects;
+
+import net.pwall.json.annotation.JSONName;
+
+/**
+ * Dummy object for testing naming strategies and date styles.
+ *
+ * @author Peter Wall
+ */
+public class DummyObject19 {
+
+    private String firstName;
+    private int httpCode;
+    private Date lastUpdated;
+    @JSONName("nick")
+    private String nickName;
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public int getHttpCode() {
+        return httpCode;
+    }
+
+    public void setHttpCode(int httpCode) {
+        this.httpCode = httpCode;
+    }
+
+    public Date getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(Date lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+
+    public String getNickName() {
+        return nickName;
+    }
+
+    public void setNickName(String nickName) {
+        this.nickName = nickName;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof DummyObject19))
+            return false;
+        DummyObject19 obj19 = (DummyObject19)obj;
+        return Objects.equals(firstName, obj19.firstName) && httpCode == obj19.httpCode &&
+                Objects.equals(lastUpdated, obj19.lastUpdated) &&
+                Objects.equals(nickName, obj19.nickName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(firstName) ^ httpCode ^ Objects.hashCode(lastUpdated) ^
+                Objects.hashCode(nickName);
+    }
+
+}
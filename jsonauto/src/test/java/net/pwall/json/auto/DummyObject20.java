@@ -0,0 +1,128 @@
+/*
+ * @(#) DummyObject20.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+/**
+ * Dummy object with fields of each primitive type, for testing JSON auto-serialization and
+ * deserialization.
+ *
+ * @author Peter Wall
+ */
+public class DummyObject20 {
+
+    private int int1;
+    private long long1;
+    private double double1;
+    private float float1;
+    private short short1;
+    private byte byte1;
+    private boolean boolean1;
+    private char char1;
+
+    public int getInt1() {
+        return int1;
+    }
+
+    public void setInt1(int int1) {
+        this.int1 = int1;
+    }
+
+    public long getLong1() {
+        return long1;
+    }
+
+    public void setLong1(long long1) {
+        this.long1 = long1;
+    }
+
+    public double getDouble1() {
+        return double1;
+    }
+
+    public void setDouble1(double double1) {
+        this.double1 = double1;
+    }
+
+    public float getFloat1() {
+        return float1;
+    }
+
+    public void setFloat1(float float1) {
+        this.float1 = float1;
+    }
+
+    public short getShort1() {
+        return short1;
+    }
+
+    public void setShort1(short short1) {
+        this.short1 = short1;
+    }
+
+    public byte getByte1() {
+        return byte1;
+    }
+
+    public void setByte1(byte byte1) {
+        this.byte1 = byte1;
+    }
+
+    public boolean isBoolean1() {
+        return boolean1;
+    }
+
+    public void setBoolean1(boolean boolean1) {
+        this.boolean1 = boolean1;
+    }
+
+    public char getChar1() {
+        return char1;
+    }
+
+    public void setChar1(char char1) {
+        this.char1 = char1;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof DummyObject20))
+            return false;
+        DummyObject20 obj20 = (DummyObject20)obj;
+        return int1 == obj20.int1 && long1 == obj20.long1 &&
+                Double.compare(double1, obj20.double1) == 0 &&
+                Float.compare(float1, obj20.float1) == 0 && short1 == obj20.short1 &&
+                byte1 == obj20.byte1 && boolean1 == obj20.boolean1 && char1 == obj20.char1;
+    }
+
+    @Override
+    public int hashCode() {
+        return int1 ^ Long.hashCode(long1) ^ Double.hashCode(double1) ^ Float.hashCode(float1) ^
+                short1 ^ byte1 ^ (boolean1 ? 1 : 0) ^ char1;
+    }
+
+}
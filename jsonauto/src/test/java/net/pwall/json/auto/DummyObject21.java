@@ -0,0 +1,85 @@
+/*
+ * @(#) DummyObject21.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Dummy object for testing JSON auto-serialization and deserialization (collection, map and
+ * array fields).
+ *
+ * @author Peter Wall
+ */
+public class DummyObject21 {
+
+    private List<DummyObject2> list1;
+    private Map<String, DummyEnum> map1;
+    private DummyObject3[] array1;
+
+    public List<DummyObject2> getList1() {
+        return list1;
+    }
+
+    public void setList1(List<DummyObject2> list1) {
+        this.list1 = list1;
+    }
+
+    public Map<String, DummyEnum> getMap1() {
+        return map1;
+    }
+
+    public void setMap1(Map<String, DummyEnum> map1) {
+        this.map1 = map1;
+    }
+
+    public DummyObject3[] getArray1() {
+        return array1;
+    }
+
+    public void setArray1(DummyObject3[] array1) {
+        this.array1 = array1;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof DummyObject21))
+            return false;
+        if (this == obj)
+            return true;
+        DummyObject21 obj21 = (DummyObject21)obj;
+        return Objects.equals(list1, obj21.list1) && Objects.equals(map1, obj21.map1) &&
+                Arrays.equals(array1, obj21.array1);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(list1) ^ Objects.hashCode(map1) ^ Arrays.hashCode(array1);
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * @(#) DummyObject22.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import net.pwall.json.JSONValue;
+
+/**
+ * Dummy object for testing JSON auto-serialization and deserialization (methods named
+ * {@code toJSON()} and {@code fromJSON()} that do not qualify as custom serialization methods:
+ * {@code toJSON()} does not return a {@link JSONValue}, and {@code fromJSON()} is not static).
+ *
+ * @author Peter Wall
+ */
+public class DummyObject22 {
+
+    private int int1;
+
+    public int getInt1() {
+        return int1;
+    }
+
+    public void setInt1(int int1) {
+        this.int1 = int1;
+    }
+
+    public String toJSON() {
+        throw new IllegalStateException("toJSON() should not be called");
+    }
+
+    public DummyObject22 fromJSON(JSONValue json) {
+        throw new IllegalStateException("fromJSON() should not be called");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof DummyObject22 && int1 == ((DummyObject22)o).int1;
+    }
+
+    @Override
+    public int hashCode() {
+        return int1;
+    }
+
+}
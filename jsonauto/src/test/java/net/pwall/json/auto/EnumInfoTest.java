@@ -0,0 +1,151 @@
+/*
+ * @(#) EnumInfoTest.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import net.pwall.json.JSONString;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the cached serialization and deserialization of enums.
+ *
+ * @author Peter Wall
+ */
+public class EnumInfoTest {
+
+    @Test
+    public void testSerialize() throws IOException {
+        assertSame(JSONSerializer.serialize(DummyEnum.ALPHA),
+                JSONSerializer.serialize(DummyEnum.ALPHA));
+        assertEquals(new JSONString("ALPHA"), JSONSerializer.serialize(DummyEnum.ALPHA));
+        assertEquals(new JSONString("first"), JSONSerializer.serialize(DummyEnum2.FIRST));
+        assertEquals(new JSONString("SECOND"), JSONSerializer.serialize(DummyEnum2.SECOND));
+        assertEquals("[\"first\",\"SECOND\",\"fourth\",\"caf\\u00E9\"]",
+                JSONSerializer.toJSON(DummyEnum2.values()));
+        UTF8Output output = new UTF8Output();
+        JSONSerializer.getDefault().writeJSON(DummyEnum2.FOURTH, output);
+        assertArrayEquals("\"caf\\u00E9\"".getBytes(StandardCharsets.UTF_8),
+                output.toByteArray());
+    }
+
+    @Test
+    public void testToStringOverride() {
+        assertEquals(new JSONString("Red"), JSONSerializer.serialize(Colour.RED));
+        assertEquals("\"Green\"", JSONSerializer.toJSON(Colour.GREEN));
+        assertEquals(Colour.RED, JSONDeserializer.deserialize(Colour.class,
+                new JSONString("RED")));
+    }
+
+    @Test
+    public void testDeserialize() {
+        assertEquals(DummyEnum2.FIRST, JSONDeserializer.deserialize(DummyEnum2.class,
+                new JSONString("first")));
+        assertEquals(DummyEnum2.FIRST, JSONDeserializer.deserialize(DummyEnum2.class,
+                new JSONString("FIRST")));
+        assertEquals(DummyEnum2.SECOND, JSONDeserializer.deserialize(DummyEnum2.class,
+                new JSONString("SECOND")));
+        assertEquals(DummyEnum2.THIRD, JSONDeserializer.deserialize(DummyEnum2.class,
+                new JSONString("fourth")));
+        // name() takes precedence over JSONName
+        assertEquals(DummyEnum2.FOURTH, JSONDeserializer.deserialize(DummyEnum2.class,
+                new JSONString("FOURTH")));
+        assertEquals(DummyEnum2.FOURTH, JSONDeserializer.deserialize(DummyEnum2.class,
+                new JSONString("café")));
+        for (DummyEnum2 value : DummyEnum2.values())
+            assertEquals(value, JSONDeserializer.deserialize(DummyEnum2.class,
+                    JSONSerializer.serialize(value)));
+        try {
+            JSONDeserializer.deserialize(DummyEnum2.class, new JSONString("second"));
+            fail("Should have thrown exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("Error deserializing enum", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testDeserializeReader() {
+        JSONDeserializer deserializer = JSONDeserializer.getDefault();
+        assertEquals(DummyEnum2.THIRD, deserializer.readJSON(DummyEnum2.class,
+                new StringReader("\"fourth\"")));
+        assertEquals(DummyEnum2.FOURTH, deserializer.readJSON(DummyEnum2.class,
+                new StringReader("\"caf\\u00e9\"")));
+        List<DummyEnum> expected = Collections.singletonList(DummyEnum.GAMMA);
+        assertEquals(expected, deserializer.readJSON(List.class, new Type[] { DummyEnum.class },
+                new StringReader("[\"GAMMA\"]")));
+    }
+
+    @Test
+    public void testIgnoreEnumCase() {
+        JSONDeserializer deserializer = JSONDeserializer.builder().ignoreEnumCase(true).build();
+        assertEquals(DummyEnum.BETA, deserializer.fromJSONString(DummyEnum.class, "\"beta\""));
+        assertEquals(DummyEnum.BETA, deserializer.readJSON(DummyEnum.class,
+                new StringReader("\"Beta\"")));
+        assertEquals(DummyEnum2.FIRST, deserializer.fromJSONString(DummyEnum2.class,
+                "\"First\""));
+        // name() takes precedence over JSONName when matching without regard to case
+        assertEquals(DummyEnum2.FOURTH, deserializer.fromJSONString(DummyEnum2.class,
+                "\"Fourth\""));
+        assertEquals(DummyEnum2.FOURTH, deserializer.fromJSONString(DummyEnum2.class,
+                "\"CAFÉ\""));
+        assertEquals(Colour.BLUE, deserializer.fromJSONString(Colour.class, "\"Blue\""));
+        Type[] typeArgs = { DummyEnum.class, Integer.class };
+        Map<DummyEnum, Integer> expected = Collections.singletonMap(DummyEnum.BETA, 1);
+        assertEquals(expected, deserializer.fromJSONString(Map.class, typeArgs,
+                "{\"beta\":1}"));
+        assertEquals(expected, deserializer.readJSON(Map.class, typeArgs,
+                new StringReader("{\"Beta\":1}")));
+        try {
+            deserializer.fromJSONString(DummyEnum.class, "\"DELTA\"");
+            fail("Should have thrown exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("Error deserializing enum", e.getMessage());
+        }
+    }
+
+    private enum Colour {
+
+        RED, GREEN, BLUE;
+
+        @Override
+        public String toString() {
+            return name().charAt(0) + name().substring(1).toLowerCase();
+        }
+
+    }
+
+}
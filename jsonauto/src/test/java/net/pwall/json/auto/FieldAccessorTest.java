@@ -0,0 +1,141 @@
+/*
+ * @(#) FieldAccessorTest.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.lang.reflect.Field;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for {@link FieldAccessor}.
+ *
+ * @author Peter Wall
+ */
+public class FieldAccessorTest {
+
+    @Test
+    public void testObjectField() throws Exception {
+        FieldAccessor accessor = accessor("string1");
+        TestObject object = new TestObject();
+        assertEquals("abc", accessor.get(object));
+        accessor.set(object, "xyz");
+        assertEquals("xyz", object.string1);
+        accessor.set(object, null);
+        assertNull(accessor.get(object));
+    }
+
+    @Test
+    public void testPrimitiveField() throws Exception {
+        FieldAccessor accessor = accessor("int1");
+        TestObject object = new TestObject();
+        assertEquals(Integer.valueOf(27), accessor.get(object));
+        accessor.set(object, 99);
+        assertEquals(99, object.int1);
+    }
+
+    @Test
+    public void testPrimitiveGetters() throws Exception {
+        TestObject object = new TestObject();
+        assertEquals(FieldAccessor.PrimitiveKind.INT, accessor("int1").getPrimitiveKind());
+        assertEquals(27, accessor("int1").getInt(object));
+        assertEquals(FieldAccessor.PrimitiveKind.INT, accessor("short1").getPrimitiveKind());
+        assertEquals(-5, accessor("short1").getInt(object));
+        assertEquals(FieldAccessor.PrimitiveKind.INT, accessor("byte1").getPrimitiveKind());
+        assertEquals(100, accessor("byte1").getInt(object));
+        assertEquals(FieldAccessor.PrimitiveKind.LONG, accessor("long1").getPrimitiveKind());
+        assertEquals(123456789012345L, accessor("long1").getLong(object));
+        assertEquals(FieldAccessor.PrimitiveKind.FLOAT, accessor("float1").getPrimitiveKind());
+        assertEquals(0.25F, accessor("float1").getFloat(object), 0);
+        assertEquals(FieldAccessor.PrimitiveKind.DOUBLE, accessor("double1").getPrimitiveKind());
+        assertEquals(1.5, accessor("double1").getDouble(object), 0);
+        assertEquals(FieldAccessor.PrimitiveKind.BOOLEAN,
+                accessor("boolean1").getPrimitiveKind());
+        assertTrue(accessor("boolean1").getBoolean(object));
+        assertEquals(FieldAccessor.PrimitiveKind.NONE, accessor("char1").getPrimitiveKind());
+        assertEquals(FieldAccessor.PrimitiveKind.NONE, accessor("string1").getPrimitiveKind());
+    }
+
+    @Test
+    public void testPrimitiveSetters() throws Exception {
+        TestObject object = new TestObject();
+        accessor("int1").setInt(object, 99);
+        assertEquals(99, object.int1);
+        accessor("short1").setInt(object, 70000);
+        assertEquals((short)70000, object.short1);
+        accessor("byte1").setInt(object, -129);
+        assertEquals((byte)-129, object.byte1);
+        accessor("long1").setLong(object, -1L);
+        assertEquals(-1L, object.long1);
+        accessor("float1").setFloat(object, 2.5F);
+        assertEquals(2.5F, object.float1, 0);
+        accessor("double1").setDouble(object, -0.125);
+        assertEquals(-0.125, object.double1, 0);
+        accessor("boolean1").setBoolean(object, false);
+        assertFalse(object.boolean1);
+        FieldAccessor finalAccessor = accessor("finalInt");
+        finalAccessor.setInt(object, 5);
+        assertEquals(5, finalAccessor.getInt(object));
+    }
+
+    @Test
+    public void testFinalField() throws Exception {
+        FieldAccessor accessor = accessor("final1");
+        TestObject object = new TestObject();
+        assertEquals("final", accessor.get(object));
+        accessor.set(object, "changed");
+        assertEquals("changed", accessor.get(object));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testWrongType() throws Exception {
+        accessor("int1").set(new TestObject(), "abc");
+    }
+
+    private static FieldAccessor accessor(String name) throws NoSuchFieldException {
+        Field field = TestObject.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return new FieldAccessor(field);
+    }
+
+    private static class TestObject {
+
+        private String string1 = "abc";
+        private int int1 = 27;
+        private short short1 = -5;
+        private byte byte1 = 100;
+        private long long1 = 123456789012345L;
+        private float float1 = 0.25F;
+        private double double1 = 1.5;
+        private boolean boolean1 = true;
+        private char char1 = 'x';
+        private final String final1 = new String("final");
+        private final int finalInt = Integer.parseInt("1");
+
+    }
+
+}
@@ -27,7 +27,9 @@ package net.pwall.json.auto;
 
 import static org.junit.Assert.*;
 
+import java.io.StringReader;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.time.Instant;
@@ -55,6 +57,7 @@ import java.util.UUID;
 import net.pwall.json.JSONArray;
 import net.pwall.json.JSONBoolean;
 import net.pwall.json.JSONDouble;
+import net.pwall.json.JSONException;
 import net.pwall.json.JSONFloat;
 import net.pwall.json.JSONInteger;
 import net.pwall.json.JSONLong;
@@ -406,6 +409,26 @@ public class JSONDeserializerTest {
         assertEquals(expected, JSONDeserializer.deserialize(DummyObject6.class, json));
     }
 
+    @Test
+    public void testObject6FieldName() {
+        JSONObject json = JSONObject.create().putValue("int1", 2796);
+        DummyObject6 expected = new DummyObject6();
+        expected.setInt1(2796);
+        assertEquals(expected, JSONDeserializer.deserialize(DummyObject6.class, json));
+    }
+
+    @Test
+    public void testObjectUnknownField() {
+        JSONObject json = JSONObject.create().putValue("string1", "abc").putValue("xyz", 27);
+        try {
+            JSONDeserializer.deserialize(DummyObject4.class, json);
+            fail("Expected JSONException");
+        }
+        catch (JSONException e) {
+            assertEquals("Can't find field for xyz", e.getMessage());
+        }
+    }
+
     @Test
     public void testBitset() {
         JSONArray json = JSONArray.create().addValue(3).addValue(7).addValue(13).addValue(14);
@@ -573,4 +596,156 @@ public class JSONDeserializerTest {
                 JSONDeserializer.parse(DummyObject.class, "{\"string1\":\"value1\"}"));
     }
 
+    @Test
+    public void testPrimitiveFields() {
+        DummyObject20 expected = new DummyObject20();
+        expected.setInt1(-27);
+        expected.setLong1(123456789012345L);
+        expected.setDouble1(0.5);
+        expected.setFloat1(1.25F);
+        expected.setShort1((short)300);
+        expected.setByte1((byte)-8);
+        expected.setBoolean1(true);
+        JSONObject json = new JSONObject();
+        json.putValue("int1", -27);
+        json.putValue("long1", 123456789012345L);
+        json.putValue("double1", 0.5);
+        json.put("float1", JSONFloat.valueOf(1.25F));
+        json.putValue("short1", 300);
+        json.putValue("byte1", -8);
+        json.putValue("boolean1", true);
+        assertEquals(expected, JSONDeserializer.deserialize(DummyObject20.class, json));
+        assertEquals(expected, JSONDeserializer.parse(DummyObject20.class, json.toJSON()));
+    }
+
+    @Test
+    public void testPrimitiveFieldConversions() {
+        DummyObject20 expected = new DummyObject20();
+        expected.setInt1(1);
+        expected.setLong1(-2);
+        expected.setDouble1(12345678901L);
+        expected.setFloat1(3);
+        expected.setShort1((short)70000);
+        expected.setByte1((byte)257);
+        String json = "{\"int1\":1.75,\"long1\":-2.5,\"double1\":12345678901,\"float1\":3," +
+                "\"short1\":70000,\"byte1\":257}";
+        assertEquals(expected, JSONDeserializer.parse(DummyObject20.class, json));
+        assertEquals(expected, JSONDeserializer.parse(DummyObject20.class,
+                new StringReader(json)));
+        try {
+            JSONDeserializer.parse(DummyObject20.class, "{\"int1\":\"abc\"}");
+            fail("Should throw exception");
+        }
+        catch (JSONException e) {
+            assertEquals("Can't deserialize string as int", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testFromJSONMethodCache() {
+        Method fromJSON = JSONDeserializer.getFromJSON(DummyObject5.class);
+        assertNotNull(fromJSON);
+        assertEquals("fromJSON", fromJSON.getName());
+        assertSame(fromJSON, JSONDeserializer.getFromJSON(DummyObject5.class));
+        JSONObject json = JSONObject.create().putValue("dec", "255").putValue("hex", "FF");
+        DummyObject5 expected = new DummyObject5();
+        expected.setInt1(255);
+        assertEquals(expected, JSONDeserializer.deserialize(DummyObject5.class, json));
+        assertEquals(expected, JSONDeserializer.deserialize(DummyObject5.class, json));
+        json.putValue("hex", "FE");
+        try {
+            JSONDeserializer.deserialize(DummyObject5.class, json);
+            fail("Should throw exception");
+        }
+        catch (JSONException e) {
+            // the custom method detects the inconsistency
+        }
+    }
+
+    @Test
+    public void testFromJSONMethodAbsent() {
+        assertNull(JSONDeserializer.getFromJSON(DummyObject.class));
+        assertNull(JSONDeserializer.getFromJSON(DummyObject.class));
+        DummyObject expected = new DummyObject();
+        expected.setString1("abc");
+        JSONObject json = JSONObject.create().putValue("string1", "abc");
+        assertEquals(expected, JSONDeserializer.deserialize(DummyObject.class, json));
+        assertEquals(expected, JSONDeserializer.deserialize(DummyObject.class, json));
+    }
+
+    @Test
+    public void testFromJSONMethodNotStatic() {
+        assertNull(JSONDeserializer.getFromJSON(DummyObject22.class));
+        DummyObject22 expected = new DummyObject22();
+        expected.setInt1(42);
+        JSONObject json = JSONObject.create().putValue("int1", 42);
+        assertEquals(expected, JSONDeserializer.deserialize(DummyObject22.class, json));
+        assertEquals(expected, JSONDeserializer.parse(DummyObject22.class, json.toJSON()));
+    }
+
+    @Test
+    public void testFromJSONMethodWrongReturnType() {
+        assertNull(JSONDeserializer.getFromJSON(DummyObject23.class));
+        DummyObject23 expected = new DummyObject23();
+        expected.setInt1(42);
+        JSONObject json = JSONObject.create().putValue("int1", 42);
+        assertEquals(expected, JSONDeserializer.deserialize(DummyObject23.class, json));
+        assertEquals(expected, JSONDeserializer.parse(DummyObject23.class, json.toJSON()));
+    }
+
+    @Test
+    public void testNoDefaultConstructor() {
+        JSONException first = null;
+        for (int i = 0; i < 2; i++) {
+            try {
+                JSONDeserializer.parse(NoDefaultConstructor.class, "{}");
+                fail("Should throw exception");
+            }
+            catch (JSONException e) {
+                assertEquals("Can't deserialize object as " + NoDefaultConstructor.class,
+                        e.getMessage());
+                assertTrue(e.getCause() instanceof NoSuchMethodException);
+                if (first != null)
+                    assertNotSame(first.getCause(), e.getCause());
+                first = e;
+            }
+        }
+    }
+
+    @Test
+    public void testStringConverterException() {
+        try {
+            JSONDeserializer.deserializeString(FailingConverter.class, "bad");
+            fail("Should throw exception");
+        }
+        catch (JSONException e) {
+            assertEquals("Can't deserialize string as " + FailingConverter.class,
+                    e.getMessage());
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+            assertEquals("Not valid: bad", e.getCause().getMessage());
+        }
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testStringConverterError() {
+        JSONDeserializer.deserializeString(FailingConverter.class, "error");
+    }
+
+    public static class NoDefaultConstructor {
+
+        public NoDefaultConstructor(int value) {
+        }
+
+    }
+
+    public static class FailingConverter {
+
+        public FailingConverter(String value) {
+            if (value.equals("error"))
+                throw new AssertionError(value);
+            throw new IllegalArgumentException("Not valid: " + value);
+        }
+
+    }
+
 }
@@ -0,0 +1,180 @@
+/*
+ * @(#) JSONPrimitiveArrayTest.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+
+import net.pwall.json.JSONArray;
+import net.pwall.json.JSONException;
+import net.pwall.json.JSONInteger;
+import net.pwall.json.JSONObject;
+import net.pwall.json.JSONValue;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for {@link JSONPrimitiveArray}.
+ *
+ * @author Peter Wall
+ */
+public class JSONPrimitiveArrayTest {
+
+    @Test
+    public void testSameAsJSONArray() throws IOException {
+        checkSame(new int[] { 1, -2, 0, Integer.MAX_VALUE });
+        checkSame(new long[] { 1, 123456789012345L, Long.MIN_VALUE });
+        checkSame(new boolean[] { true, false });
+        checkSame(new double[] { 0.5, -1.0e20, 0 });
+        checkSame(new float[] { 0.25F, 3 });
+        checkSame(new short[] { 1, -300 });
+        checkSame(new byte[] { 127, -128, 0 });
+        checkSame(new int[0]);
+    }
+
+    @Test
+    public void testCopyAndView() {
+        int[] array = { 1, 2, 3 };
+        JSONPrimitiveArray copy = JSONPrimitiveArray.of(array);
+        JSONPrimitiveArray view = JSONPrimitiveArray.view(array);
+        array[1] = 99;
+        assertEquals("[1,2,3]", copy.toJSON());
+        assertEquals("[1,99,3]", view.toJSON());
+        assertEquals(JSONInteger.valueOf(99), view.get(1));
+        assertEquals(3, view.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testUnmodifiable() {
+        JSONPrimitiveArray.of(new int[] { 1 }).set(0, JSONInteger.valueOf(2));
+    }
+
+    @Test
+    public void testErrors() {
+        try {
+            JSONPrimitiveArray.of(new char[] { 'a' });
+            fail("Should throw exception");
+        }
+        catch (JSONException e) {
+            assertEquals("Can't serialize array of char", e.getMessage());
+        }
+        try {
+            JSONPrimitiveArray.view("abc");
+            fail("Should throw exception");
+        }
+        catch (JSONException e) {
+            assertEquals("Not an array", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testSerializerStyle() throws IOException {
+        double[] array = { 1.5, 2.5 };
+        JSONSerializer copySerializer = JSONSerializer.builder().
+                primitiveArrayStyle(PrimitiveArrayStyle.COPY).build();
+        JSONSerializer viewSerializer = JSONSerializer.builder().
+                primitiveArrayStyle(PrimitiveArrayStyle.VIEW).build();
+        JSONValue copy = copySerializer.toJSONValue(array);
+        JSONValue view = viewSerializer.toJSONValue(array);
+        assertTrue(copy instanceof JSONPrimitiveArray);
+        assertTrue(view instanceof JSONPrimitiveArray);
+        assertTrue(JSONSerializer.serialize(array) instanceof JSONArray);
+        array[0] = -0.5;
+        assertEquals("[1.5,2.5]", copy.toJSON());
+        assertEquals("[-0.5,2.5]", view.toJSON());
+        DummyObject3 object = new DummyObject3();
+        object.setArray1(new int[] { 5, 6 });
+        JSONObject json = (JSONObject)copySerializer.toJSONValue(object);
+        assertTrue(json.get("array1") instanceof JSONPrimitiveArray);
+        assertEquals(JSONSerializer.serialize(object), json);
+        StringBuilder sb = new StringBuilder();
+        copySerializer.writeJSON(object, sb);
+        assertEquals(JSONSerializer.toJSON(object), sb.toString());
+    }
+
+    @Test
+    public void testRoundTrip() {
+        JSONSerializer copySerializer = JSONSerializer.builder().
+                primitiveArrayStyle(PrimitiveArrayStyle.COPY).build();
+        JSONSerializer viewSerializer = JSONSerializer.builder().
+                primitiveArrayStyle(PrimitiveArrayStyle.VIEW).build();
+        for (JSONSerializer serializer : Arrays.asList(copySerializer, viewSerializer)) {
+            int[] ints = { 1, 2 };
+            int[] intsResult = JSONDeserializer.deserialize(int[].class,
+                    serializer.toJSONValue(ints));
+            assertArrayEquals(ints, intsResult);
+            assertNotSame(ints, intsResult);
+            long[] longs = { 1, 123456789012345L };
+            assertArrayEquals(longs, JSONDeserializer.deserialize(long[].class,
+                    serializer.toJSONValue(longs)));
+            boolean[] booleans = { true, false };
+            assertTrue(Arrays.equals(booleans, JSONDeserializer.deserialize(boolean[].class,
+                    serializer.toJSONValue(booleans))));
+            double[] doubles = { 0.5, -1.0e20 };
+            assertArrayEquals(doubles, JSONDeserializer.deserialize(double[].class,
+                    serializer.toJSONValue(doubles)), 0);
+            float[] floats = { 0.25F, 3 };
+            assertArrayEquals(floats, JSONDeserializer.deserialize(float[].class,
+                    serializer.toJSONValue(floats)), 0);
+            short[] shorts = { 1, -300 };
+            assertArrayEquals(shorts, JSONDeserializer.deserialize(short[].class,
+                    serializer.toJSONValue(shorts)));
+            byte[] bytes = { 127, -128 };
+            assertArrayEquals(bytes, JSONDeserializer.deserialize(byte[].class,
+                    serializer.toJSONValue(bytes)));
+            // different target types go through the general array path
+            assertArrayEquals(new long[] { 1, 2 }, JSONDeserializer.deserialize(long[].class,
+                    serializer.toJSONValue(ints)));
+            assertArrayEquals(new Integer[] { 1, 2 }, JSONDeserializer.deserialize(
+                    Integer[].class, serializer.toJSONValue(ints)));
+            List<Integer> expectedList = Arrays.asList(1, 2);
+            assertEquals(expectedList, JSONDeserializer.deserialize(List.class,
+                    new Type[] { Integer.class }, serializer.toJSONValue(ints)));
+            DummyObject3 object = new DummyObject3();
+            object.setString1("abc");
+            object.setArray1(new int[] { 5, 6 });
+            assertEquals(object, JSONDeserializer.deserialize(DummyObject3.class,
+                    serializer.toJSONValue(object)));
+        }
+    }
+
+    private static void checkSame(Object array) throws IOException {
+        JSONArray expected = JSONSerializer.serializeArray(array);
+        JSONPrimitiveArray compact = JSONPrimitiveArray.of(array);
+        assertEquals(expected, compact);
+        assertEquals(compact, expected);
+        assertEquals(expected.hashCode(), compact.hashCode());
+        assertEquals(expected.toJSON(), compact.toJSON());
+        StringBuilder sb = new StringBuilder();
+        JSONSerializer.serialize(compact, sb);
+        assertEquals(expected.toJSON(), sb.toString());
+    }
+
+}
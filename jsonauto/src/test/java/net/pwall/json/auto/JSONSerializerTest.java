@@ -25,6 +25,7 @@
 
 package net.pwall.json.auto;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -733,6 +734,37 @@ public class JSONSerializerTest {
         assertEquals(jsonObject, JSONSerializer.serialize(object4));
     }
 
+    @Test
+    public void testObject4Repeated() {
+        DummyObject4 object4 = new DummyObject4();
+        object4.setString1("value1");
+        object4.setInt1(27);
+        DummyObject4 object4b = new DummyObject4();
+        object4b.setString1("value2");
+        JSONObject jsonObject = JSONObject.create().putValue("string1", "value1").
+                putValue("int1", 27);
+        JSONObject jsonObject2 = JSONObject.create().putValue("string1", "value2").
+                putValue("int1", 0);
+        assertEquals(jsonObject, JSONSerializer.serialize(object4));
+        assertEquals(jsonObject2, JSONSerializer.serialize(object4b));
+        assertEquals(jsonObject, JSONSerializer.serialize(object4));
+        assertTrue(SerializationPlan.forClass(DummyObject4.class) ==
+                SerializationPlan.forClass(DummyObject4.class));
+    }
+
+    @Test
+    public void testOptionalInObjectField() {
+        TestObjectField object = new TestObjectField();
+        object.value = Optional.of("abc");
+        JSONObject jsonObject = JSONObject.create().putValue("value", "abc");
+        assertEquals(jsonObject, JSONSerializer.serialize(object));
+        object.value = Optional.empty();
+        assertEquals(JSONObject.create(), JSONSerializer.serialize(object));
+        object.value = "xyz";
+        jsonObject = JSONObject.create().putValue("value", "xyz");
+        assertEquals(jsonObject, JSONSerializer.serialize(object));
+    }
+
     @Test
     public void testObject5() {
         DummyObject5 object5 = new DummyObject5();
@@ -876,6 +908,81 @@ public class JSONSerializerTest {
         assertEquals("{\"string1\":\"value1\"}", JSONSerializer.toJSON(object1));
     }
 
+    @Test
+    public void testPrimitiveFields() throws IOException {
+        DummyObject20 object = new DummyObject20();
+        object.setInt1(-27);
+        object.setLong1(123456789012345L);
+        object.setDouble1(0.5);
+        object.setFloat1(1.25F);
+        object.setShort1((short)300);
+        object.setByte1((byte)-8);
+        object.setBoolean1(true);
+        object.setChar1('x');
+        JSONObject expected = new JSONObject();
+        expected.put("int1", JSONInteger.valueOf(-27));
+        expected.put("long1", JSONLong.valueOf(123456789012345L));
+        expected.put("double1", JSONDouble.valueOf(0.5));
+        expected.put("float1", JSONFloat.valueOf(1.25F));
+        expected.put("short1", JSONInteger.valueOf(300));
+        expected.put("byte1", JSONInteger.valueOf(-8));
+        expected.put("boolean1", JSONBoolean.TRUE);
+        expected.put("char1", new JSONString("x"));
+        assertEquals(expected, JSONSerializer.serialize(object));
+        StringBuilder sb = new StringBuilder();
+        JSONSerializer.serialize(object, sb);
+        assertEquals(expected.toJSON(), sb.toString());
+        assertEquals(JSONSerializer.serialize(new DummyObject20()).toJSON(),
+                JSONSerializer.toJSON(new DummyObject20()));
+    }
+
+    @Test
+    public void testSerializerType() {
+        assertEquals(SerializerType.Kind.CHAR_SEQUENCE,
+                SerializerType.forClass(String.class).getKind());
+        assertEquals(SerializerType.Kind.OBJECT_ARRAY,
+                SerializerType.forClass(String[].class).getKind());
+        assertEquals(SerializerType.Kind.PRIMITIVE_ARRAY,
+                SerializerType.forClass(int[].class).getKind());
+        assertEquals(SerializerType.Kind.CUSTOM,
+                SerializerType.forClass(DummyObject5.class).getKind());
+        assertEquals(SerializerType.Kind.ENUM, SerializerType.forClass(DummyEnum.class).getKind());
+        assertEquals(SerializerType.Kind.OBJECT,
+                SerializerType.forClass(DummyObject.class).getKind());
+        assertTrue(SerializerType.forClass(DummyObject.class) ==
+                SerializerType.forClass(DummyObject.class));
+    }
+
+    @Test
+    public void testToJSONMethodCache() {
+        SerializerType type = SerializerType.forClass(DummyObject5.class);
+        assertNotNull(type.getMethod());
+        assertEquals("toJSON", type.getMethod().getName());
+        assertSame(type, SerializerType.forClass(DummyObject5.class));
+        assertSame(type.getMethod(), SerializerType.forClass(DummyObject5.class).getMethod());
+        DummyObject5 object5 = new DummyObject5();
+        object5.setInt1(255);
+        JSONObject expected = JSONObject.create().putValue("dec", "255").putValue("hex", "FF");
+        assertEquals(expected, JSONSerializer.serialize(object5));
+        assertEquals(expected, JSONSerializer.serialize(object5));
+    }
+
+    @Test
+    public void testToJSONMethodAbsent() {
+        assertNull(SerializerType.forClass(DummyObject.class).getMethod());
+        assertNull(SerializerType.forClass(DummyObject.class).getMethod());
+    }
+
+    @Test
+    public void testToJSONMethodWrongReturnType() {
+        assertEquals(SerializerType.Kind.OBJECT,
+                SerializerType.forClass(DummyObject22.class).getKind());
+        assertNull(SerializerType.forClass(DummyObject22.class).getMethod());
+        DummyObject22 object = new DummyObject22();
+        object.setInt1(42);
+        assertEquals(JSONObject.create().putValue("int1", 42), JSONSerializer.serialize(object));
+    }
+
     /**
      * Test that two {@link List}s have the same contents, regardless of order (used for
      * checking serialization of {@link Set}).
@@ -936,6 +1043,13 @@ public class JSONSerializerTest {
 
     }
 
+    private static class TestObjectField {
+
+        @SuppressWarnings("unused")
+        private Object value;
+
+    }
+
     private static class TestIterable implements Iterable<String> {
 
         private Iterator<String> iterator = new TestIterator();
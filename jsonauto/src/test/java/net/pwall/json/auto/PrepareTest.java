@@ -0,0 +1,171 @@
+/*
+ * @(#) PrepareTest.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2015, 2016 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the preparation of serialization and deserialization plans in advance.
+ *
+ * @author Peter Wall
+ */
+public class PrepareTest {
+
+    private static final Set<Class<?>> reachableClasses = new HashSet<>();
+
+    static {
+        Collections.addAll(reachableClasses, DummyObject21.class, List.class,
+                DummyObject2.class, String.class, Map.class, DummyEnum.class, DummyObject3.class,
+                Integer.class, DummyObject.class);
+    }
+
+    @Test
+    public void testReachableClasses() {
+        PlanPreparer preparer = new PlanPreparer(PrepareTest::isTestClass);
+        assertEquals(reachableClasses, preparer.prepare(DummyObject21.class));
+    }
+
+    @Test
+    public void testReachableClassesFromParameterizedType() throws Exception {
+        Type type = DummyObject21.class.getDeclaredField("list1").getGenericType();
+        Set<Class<?>> expected = new HashSet<>();
+        Collections.addAll(expected, List.class, DummyObject2.class, String.class);
+        assertEquals(expected, new PlanPreparer(PrepareTest::isTestClass).prepare(type));
+    }
+
+    @Test
+    public void testRecursiveTypeVariable() {
+        Set<Class<?>> expected = new HashSet<>();
+        Collections.addAll(expected, Recursive.class, Comparable.class);
+        assertEquals(expected, new PlanPreparer(PrepareTest::isTestClass).prepare(Recursive.class));
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            PlanPreparer preparer = new PlanPreparer(PrepareTest::isTestClass);
+            assertEquals(reachableClasses,
+                    preparer.prepare(executor, DummyObject21.class).get(10, TimeUnit.SECONDS));
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelFailure() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            PlanPreparer preparer = new PlanPreparer(cls -> {
+                if (cls == DummyObject.class)
+                    throw new IllegalStateException("Failed");
+                return isTestClass(cls);
+            });
+            assertTrue(preparer.prepare(executor, DummyObject21.class).handle((r, e) -> e != null).
+                    get(10, TimeUnit.SECONDS));
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testPrepareDefault() {
+        JSONSerializer.prepare(DummyObject21.class);
+        JSONDeserializer.prepare(DummyObject21.class);
+        DummyObject21 object = createDummyObject21();
+        assertEquals(object, JSONDeserializer.parse(DummyObject21.class,
+                JSONSerializer.toJSON(object)));
+    }
+
+    @Test
+    public void testPrepareConfiguredInParallel() throws Exception {
+        JSONSerializer serializer = JSONSerializer.builder().naming(NamingStrategy.SNAKE_CASE).
+                build();
+        JSONDeserializer deserializer = JSONDeserializer.builder().
+                naming(NamingStrategy.SNAKE_CASE).build();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            serializer.preparePlans(executor, DummyObject21.class).get(10, TimeUnit.SECONDS);
+            deserializer.preparePlans(executor, DummyObject21.class).get(10, TimeUnit.SECONDS);
+        }
+        finally {
+            executor.shutdown();
+        }
+        DummyObject21 object = createDummyObject21();
+        assertEquals(object, deserializer.fromJSONString(DummyObject21.class,
+                serializer.toJSONString(object)));
+    }
+
+    private static DummyObject21 createDummyObject21() {
+        DummyObject21 object = new DummyObject21();
+        List<DummyObject2> list = new ArrayList<>();
+        DummyObject2 item = new DummyObject2();
+        item.setString1("abc");
+        item.setInt1(123);
+        list.add(item);
+        object.setList1(list);
+        Map<String, DummyEnum> map = new LinkedHashMap<>();
+        map.put("first", DummyEnum.ALPHA);
+        map.put("second", DummyEnum.GAMMA);
+        object.setMap1(map);
+        DummyObject3 dummy3 = new DummyObject3();
+        dummy3.setString1("xyz");
+        dummy3.setInteger1(99);
+        DummyObject dummy = new DummyObject();
+        dummy.setString1("nested");
+        dummy3.setDummy1(dummy);
+        dummy3.setArray1(new int[] { 1, 2 });
+        object.setArray1(new DummyObject3[] { dummy3 });
+        return object;
+    }
+
+    private static boolean isTestClass(Class<?> cls) {
+        return cls.getName().startsWith("net.pwall.json.auto.");
+    }
+
+    public static class Recursive<T extends Comparable<T>> {
+
+        public T value;
+
+    }
+
+}
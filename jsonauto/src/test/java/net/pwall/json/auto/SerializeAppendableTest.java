@@ -0,0 +1,244 @@
+/*
+ * @(#) SerializeAppendableTest.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import net.pwall.json.JSONDouble;
+import net.pwall.json.JSONValue;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the {@link JSONSerializer#serialize(Object, Appendable)} function.  Each test checks
+ * that the streaming output is the same as the output from the {@link JSONValue} form.
+ *
+ * @author Peter Wall
+ */
+public class SerializeAppendableTest {
+
+    @Test
+    public void testNull() throws IOException {
+        assertEquals("null", stream(null));
+    }
+
+    @Test
+    public void testStrings() throws IOException {
+        checkSame("abc");
+        checkSame("");
+        checkSame("quote \" backslash \\ newline \n tab \t");
+        checkSame("caf\u00E9 \u2014 \u20AC");
+        checkSame(new StringBuilder("sb"));
+        checkSame('x');
+        checkSame('"');
+        checkSame(new char[] { 'a', 'b', '\n' });
+    }
+
+    @Test
+    public void testNumbers() throws IOException {
+        checkSame(0);
+        checkSame(123);
+        checkSame(Integer.MIN_VALUE);
+        checkSame(Long.MAX_VALUE);
+        checkSame(Long.MIN_VALUE);
+        checkSame((short)-5);
+        checkSame((byte)99);
+        checkSame(1.5);
+        checkSame(-0.001);
+        checkSame(1.5F);
+        checkSame(new BigDecimal("12.5"));
+        checkSame(new BigDecimal("12"));
+        checkSame(Boolean.TRUE);
+        checkSame(Boolean.FALSE);
+    }
+
+    @Test
+    public void testArrays() throws IOException {
+        checkSame(new int[] { 1, 2, -3 });
+        checkSame(new long[] { 1L, 123456789012345L });
+        checkSame(new boolean[] { true, false });
+        checkSame(new double[] { 0.5, 1e20 });
+        checkSame(new float[] { 0.25F });
+        checkSame(new short[] { 1, -1 });
+        checkSame(new byte[] { 1, -128, 127 });
+        checkSame(new int[0]);
+        checkSame(new String[] { "a", null, "c" });
+        checkSame(new Object[0]);
+    }
+
+    @Test
+    public void testCollections() throws IOException {
+        List<Object> list = new ArrayList<>();
+        list.add("abc");
+        list.add(27);
+        list.add(null);
+        list.add(new int[] { 1, 2 });
+        checkSame(list);
+        checkSame(new ArrayList<>());
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("first", 1);
+        map.put("second", "two");
+        map.put("third", null);
+        map.put("fourth \"quoted\"", list);
+        checkSame(map);
+        Map<Integer, String> map2 = new HashMap<>();
+        map2.put(1, "one");
+        map2.put(2, "two");
+        checkSame(map2);
+        Map<Object, String> map3 = new LinkedHashMap<>();
+        map3.put(1, "number");
+        map3.put("1", "string");
+        checkSame(map3);
+    }
+
+    @Test
+    public void testDates() throws IOException {
+        Calendar cal1 = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+        cal1.set(2015, Calendar.DECEMBER, 2, 21, 59, 34);
+        cal1.set(Calendar.MILLISECOND, 123);
+        cal1.set(Calendar.ZONE_OFFSET, 11 * 60 * 60 * 1000);
+        checkSame(cal1);
+        checkSame(new Date(1449053974123L));
+        checkSame(Instant.parse("2017-04-26T21:59:34.123Z"));
+        checkSame(LocalDate.of(2017, 4, 26));
+        checkSame(ZonedDateTime.parse("2017-04-26T21:59:34.123+10:00[Australia/Sydney]"));
+        checkSame(UUID.fromString("12ce3730-2d97-11e7-aeed-67b0e6bf0ed7"));
+    }
+
+    @Test
+    public void testMiscellaneous() throws IOException {
+        BitSet bitSet = new BitSet();
+        bitSet.set(1);
+        bitSet.set(3);
+        bitSet.set(64);
+        checkSame(bitSet);
+        checkSame(new BitSet());
+        checkSame(DummyEnum.ALPHA);
+        checkSame(Optional.of("abc"));
+        checkSame(OptionalInt.of(5));
+        checkSame(OptionalLong.of(5L));
+        checkSame(OptionalDouble.of(5.5));
+        checkSame(new JSONDouble(0.1));
+        assertEquals("null", stream(Optional.empty()));
+        assertEquals("null", stream(OptionalInt.empty()));
+    }
+
+    @Test
+    public void testObjects() throws IOException {
+        DummyObject3 object3 = new DummyObject3();
+        object3.setString1("value1");
+        object3.setInteger1(27);
+        DummyObject dummy = new DummyObject();
+        dummy.setString1("nested");
+        object3.setDummy1(dummy);
+        object3.setArray1(new int[] { 1, 2, 3 });
+        checkSame(object3);
+        checkSame(new DummyObject3());
+        DummyObject4 object4 = new DummyObject4();
+        object4.setString1("value1");
+        object4.setInt1(27);
+        checkSame(object4);
+        DummyObject5 object5 = new DummyObject5();
+        object5.setInt1(27);
+        checkSame(object5);
+        List<DummyObject5> list = new ArrayList<>();
+        list.add(object5);
+        list.add(object5);
+        checkSame(list);
+        DummyObject6 object6 = new DummyObject6();
+        object6.setInt1(2796);
+        checkSame(object6);
+        DummyObject8 object8 = new DummyObject8();
+        object8.setValue2("xyz");
+        checkSame(object8);
+    }
+
+    @Test
+    public void testOptionalFields() throws IOException {
+        DummyObject10 object10 = new DummyObject10();
+        checkSame(object10);
+        DummyObject11 object11 = new DummyObject11();
+        checkSame(object11);
+        DummyObject12 object12 = new DummyObject12();
+        checkSame(object12);
+        DummyObject13 object13 = new DummyObject13();
+        checkSame(object13);
+    }
+
+    @Test
+    public void testHiddenField() throws IOException {
+        TestSubclass object = new TestSubclass();
+        checkSame(object);
+    }
+
+    private static void checkSame(Object object) throws IOException {
+        assertEquals(JSONSerializer.serialize(object).toJSON(), stream(object));
+    }
+
+    private static String stream(Object object) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        JSONSerializer.serialize(object, sb);
+        return sb.toString();
+    }
+
+    private static class TestSuperclass {
+
+        @SuppressWarnings("unused")
+        private String value = "super";
+
+        @SuppressWarnings("unused")
+        private String other = "other";
+
+    }
+
+    private static class TestSubclass extends TestSuperclass {
+
+        @SuppressWarnings("unused")
+        private String value = "sub";
+
+    }
+
+}
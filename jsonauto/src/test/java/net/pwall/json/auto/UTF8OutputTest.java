@@ -0,0 +1,133 @@
+/*
+ * @(#) UTF8OutputTest.java
+ *
+ * jsonauto JSON Auto-serialization Library
+ * Copyright (c) 2019 Peter Wall
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.pwall.json.auto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for {@link UTF8Output}.
+ *
+ * @author Peter Wall
+ */
+public class UTF8OutputTest {
+
+    @Test
+    public void testASCII() throws IOException {
+        UTF8Output output = new UTF8Output(8);
+        output.append("abc").append('d').append("xxefghxx", 2, 6);
+        assertArrayEquals("abcdefgh".getBytes(StandardCharsets.UTF_8), output.toByteArray());
+        assertEquals(8, output.size());
+        output.reset();
+        assertEquals(0, output.size());
+        output.append("0123456789012345678901234567890123456789");
+        assertEquals("0123456789012345678901234567890123456789",
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testNonASCII() throws IOException {
+        checkEncoding("caf\u00E9");
+        checkEncoding("\u20AC100");
+        checkEncoding("emoji \uD83D\uDE00 end");
+        checkEncoding("\uD83D\uDE00");
+        checkEncoding("lone \uD83D surrogate");
+        checkEncoding("lone \uDE00 low surrogate");
+        checkEncoding("trailing \uD83D");
+    }
+
+    @Test
+    public void testSurrogateAcrossCalls() throws IOException {
+        UTF8Output output = new UTF8Output();
+        output.append('\uD83D');
+        output.append("\uDE00!");
+        assertArrayEquals("\uD83D\uDE00!".getBytes(StandardCharsets.UTF_8),
+                output.toByteArray());
+    }
+
+    @Test
+    public void testByteBuffer() throws IOException {
+        UTF8Output output = new UTF8Output();
+        output.append("xyz");
+        ByteBuffer byteBuffer = output.toByteBuffer();
+        assertEquals(3, byteBuffer.remaining());
+        assertEquals('x', byteBuffer.get());
+    }
+
+    @Test
+    public void testOutputStream() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        UTF8Output output = new UTF8Output(baos, 8);
+        String str = "The quick brown fox \u2014 caf\u00E9 \uD83D\uDE00 jumps over the lazy dog";
+        output.append(str);
+        output.flush();
+        assertArrayEquals(str.getBytes(StandardCharsets.UTF_8), baos.toByteArray());
+    }
+
+    @Test
+    public void testSerialize() throws IOException {
+        DummyObject3 object3 = new DummyObject3();
+        object3.setString1("caf\u00E9 \"quoted\"");
+        object3.setInteger1(27);
+        DummyObject dummy = new DummyObject();
+        dummy.setString1("nested");
+        object3.setDummy1(dummy);
+        object3.setArray1(new int[] { 1, 2, 3 });
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            list.add(object3);
+        byte[] expected = JSONSerializer.serialize(list).toJSON().getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected, JSONSerializer.toUTF8(list));
+        UTF8Output output = new UTF8Output(16);
+        JSONSerializer.serialize(list, output);
+        assertArrayEquals(expected, output.toByteArray());
+        output.reset();
+        JSONSerializer.serialize(list, output);
+        assertArrayEquals(expected, output.toByteArray());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        JSONSerializer.serializeUTF8(list, baos);
+        assertArrayEquals(expected, baos.toByteArray());
+    }
+
+    private static void checkEncoding(String str) throws IOException {
+        UTF8Output output = new UTF8Output(8);
+        output.append(str);
+        assertArrayEquals(str.getBytes(StandardCharsets.UTF_8), output.toByteArray());
+        output = new UTF8Output(8);
+        for (int i = 0, n = str.length(); i < n; i++)
+            output.append(str.charAt(i));
+        assertArrayEquals(str.getBytes(StandardCharsets.UTF_8), output.toByteArray());
+    }
+
+}